@@ -0,0 +1,35 @@
+package com.beautyShop.Opata.Website.Config.CatalogCacheConfigs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "catalog.http-cache")
+public class CatalogCacheProperties {
+    // ETag / Last-Modified validation and 304 responses on the public catalog
+    private boolean enabled = true;
+    // endpoints the validators apply to
+    private String[] paths = {"/api/products/**"};
+    // ...except these, which do more than read the catalog: trending moves with page views,
+    // a product page counts a view and a keyword search counts an impression per hit on every
+    // request, so they must always reach the server — never a 304 or a cached copy.
+    // The faceted search only counts when ?q= is given, but it is excluded as a whole.
+    private String[] excludedPaths = {
+            "/api/products/trending",
+            "/api/products/clothing/{id:\\d+}",
+            "/api/products/general/{id:\\d+}",
+            "/api/products/clothing/search/keyword",
+            "/api/products/general/search/keyword",
+            "/api/products/search"
+    };
+    // how long browsers may reuse a response without asking again
+    private Duration maxAge = Duration.ofSeconds(60);
+    // how long the CDN may reuse it — null falls back to maxAge
+    private Duration sharedMaxAge;
+    // how long a stale copy may be served while it is revalidated in the background
+    private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+}
@@ -0,0 +1,214 @@
+package com.beautyShop.Opata.Website.Config.CatalogCacheConfigs;
+
+import com.beautyShop.Opata.Website.service.catalog.CatalogService;
+import com.beautyShop.Opata.Website.service.ranking.ProductRankings;
+import com.beautyShop.Opata.Website.service.recommend.CoPurchaseRecommender;
+import com.beautyShop.Opata.Website.service.recommend.SimilarProductIndex;
+import com.beautyShop.Opata.Website.service.search.ProductSearchIndex;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conditional GETs for the public catalog.
+ * ─────────────────────────────────────────────────
+ * Every /api/products/** response (bar excludedPaths) is a pure function of the
+ * in-memory catalog and the read models derived from it, so one validator pair
+ * covers them all:
+ *   ETag          — "<boot id>-<catalog version>-<derived version>"; the catalog
+ *                   version grows on every product write, the derived one on
+ *                   every full rebuild of the search index, similar products,
+ *                   co-purchase recommendations and rankings
+ *   Last-Modified — latest product updatedAt across the catalog
+ *
+ * A matching If-None-Match / If-Modified-Since is answered with 304 here,
+ * before the controller, the catalog query or any mapping runs. Validators and
+ * Cache-Control go on 2xx responses only — a 400 or 404 is never cached.
+ * While the catalog is still loading (database fallback) no validators are sent.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class CatalogConditionalRequestFilter extends OncePerRequestFilter {
+
+    private final CatalogService         catalog;
+    private final ProductSearchIndex     searchIndex;
+    private final SimilarProductIndex    similarProducts;
+    private final CoPurchaseRecommender  coPurchases;
+    private final ProductRankings        rankings;
+    private final CatalogCacheProperties properties;
+    private final AntPathMatcher         pathMatcher = new AntPathMatcher();
+
+    // Versions restart at 1 on every boot — the boot id keeps old ETags from matching new content
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    public CatalogConditionalRequestFilter(CatalogService catalog,
+                                           ProductSearchIndex searchIndex,
+                                           SimilarProductIndex similarProducts,
+                                           CoPurchaseRecommender coPurchases,
+                                           ProductRankings rankings,
+                                           CatalogCacheProperties properties) {
+        this.catalog         = catalog;
+        this.searchIndex     = searchIndex;
+        this.similarProducts = similarProducts;
+        this.coPurchases     = coPurchases;
+        this.rankings        = rankings;
+        this.properties      = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NotNull HttpServletRequest request) {
+        String method = request.getMethod();
+        return !properties.isEnabled()
+                || !("GET".equals(method) || "HEAD".equals(method))
+                || Arrays.stream(properties.getPaths())
+                        .noneMatch(p -> pathMatcher.match(p, request.getRequestURI()))
+                || Arrays.stream(properties.getExcludedPaths())
+                        .anyMatch(p -> pathMatcher.match(p, request.getRequestURI()));
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request,
+                                    @NotNull HttpServletResponse response,
+                                    @NotNull FilterChain filterChain) throws ServletException, IOException {
+        if (!catalog.isReady()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Taken before the response is computed — a write meanwhile only makes the ETag conservative
+        String  etag         = etag();
+        Instant lastModified = catalog.lastModified();
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            writeValidators(response, etag, lastModified);
+            log.debug("304 Not Modified: {}", request.getRequestURI());
+            return;
+        }
+
+        ValidatorsOnSuccess wrapped = new ValidatorsOnSuccess(response, etag, lastModified);
+        filterChain.doFilter(request, wrapped);
+        wrapped.apply();
+    }
+
+    private String etag() {
+        long derived = searchIndex.version() + similarProducts.version() + coPurchases.version() + rankings.version();
+        return "\"" + bootId + "-" + catalog.version() + "-" + derived + "\"";
+    }
+
+    // If-None-Match wins over If-Modified-Since when both are sent (RFC 9110 §13.2.2)
+    private static boolean notModified(HttpServletRequest request, String etag, Instant lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals("*") || tag.equals(etag)) return true;
+            }
+            return false;
+        }
+        if (lastModified == null) return false;
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            // HTTP dates have whole seconds
+            return since >= 0 && lastModified.getEpochSecond() <= since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;   // unparseable date — answer in full
+        }
+    }
+
+    private void writeValidators(HttpServletResponse response, String etag, Instant lastModified) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (lastModified != null) response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified.toEpochMilli());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl().getHeaderValue());
+    }
+
+    private CacheControl cacheControl() {
+        CacheControl cc = CacheControl.maxAge(properties.getMaxAge().toSeconds(), TimeUnit.SECONDS).cachePublic();
+        if (properties.getSharedMaxAge() != null) {
+            cc = cc.sMaxAge(properties.getSharedMaxAge().toSeconds(), TimeUnit.SECONDS);
+        }
+        if (properties.getStaleWhileRevalidate() != null && !properties.getStaleWhileRevalidate().isZero()) {
+            cc = cc.staleWhileRevalidate(properties.getStaleWhileRevalidate().toSeconds(), TimeUnit.SECONDS);
+        }
+        return cc;
+    }
+
+    // Adds the validators once the status is known — as the body starts, or when the chain
+    // returns without one — and only if that status is 2xx. Errors are never touched.
+    private final class ValidatorsOnSuccess extends HttpServletResponseWrapper {
+
+        private final String  etag;
+        private final Instant lastModified;
+        private boolean       decided;
+
+        ValidatorsOnSuccess(HttpServletResponse response, String etag, Instant lastModified) {
+            super(response);
+            this.etag         = etag;
+            this.lastModified = lastModified;
+        }
+
+        void apply() {
+            if (decided) return;
+            decided = true;
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            int status = response.getStatus();
+            if (!response.isCommitted() && status >= 200 && status < 300) {
+                writeValidators(response, etag, lastModified);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            apply();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            apply();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            apply();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            decided = true;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            decided = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            decided = true;
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -41,7 +41,9 @@ public class CorsConfig {
                 "Content-Type",
                 "Accept",
                 "Origin",
-                "X-Requested-With"
+                "X-Requested-With",
+                "If-None-Match",
+                "If-Modified-Since"
         ));
 
         // false because we use token-based auth (Bearer), not cookies
@@ -51,7 +53,9 @@ public class CorsConfig {
 
         config.setExposedHeaders(List.of(
                 "Authorization",
-                "Content-Type"
+                "Content-Type",
+                "ETag",
+                "Last-Modified"
         ));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
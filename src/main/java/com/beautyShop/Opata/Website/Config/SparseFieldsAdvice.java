@@ -0,0 +1,87 @@
+package com.beautyShop.Opata.Website.Config;
+
+import com.beautyShop.Opata.Website.dto.CursorPage;
+import com.beautyShop.Opata.Website.dto.FacetedPage;
+import com.beautyShop.Opata.Website.dto.ProductBatch;
+import com.beautyShop.Opata.Website.dto.ProductPageRequest;
+import com.beautyShop.Opata.Website.dto.ProductView;
+import com.beautyShop.Opata.Website.entity.ApiResult;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies ?fields= to product responses: each product in a listing page,
+ * faceted search page, batch lookup or single-product response is written
+ * with only the requested properties. ?fields=card asks for ProductPageRequest.CARD_FIELDS.
+ *
+ * Card-only pages served from the database are already loaded by a projection
+ * (see ProductCardQuery); this is what keeps the unused fields out of the JSON.
+ * An unknown field name is a 400.
+ */
+@RestControllerAdvice
+public class SparseFieldsAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(body instanceof ApiResult<?> result) || !(request instanceof ServletServerHttpRequest servlet)) {
+            return body;
+        }
+        Set<String> fields = ProductPageRequest.parseFields(servlet.getServletRequest().getParameter("fields"));
+        if (fields == null) return body;
+
+        Object data = result.getData();
+        if (data instanceof FacetedPage<?> faceted) data = faceted.getResults();
+
+        if (data instanceof CursorPage<?> page && page.getItems() != null) {
+            ((CursorPage<Object>) page).setItems(projectAll(page.getItems(), fields));
+        } else if (data instanceof ProductBatch<?> batch && batch.getItems() != null) {
+            ((ProductBatch<Object>) batch).setItems(projectAll(batch.getItems(), fields));
+        } else if (data instanceof ProductView item) {
+            return ApiResult.success(result.getMessage(), project(item, fields));
+        }
+        return body;
+    }
+
+    private static List<Object> projectAll(List<?> items, Set<String> fields) {
+        List<Object> projected = new ArrayList<>(items.size());
+        for (Object item : items) {
+            projected.add(item instanceof ProductView ? project(item, fields) : item);
+        }
+        return projected;
+    }
+
+    private static Map<String, Object> project(Object item, Set<String> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (String field : fields) {
+            PropertyDescriptor property = BeanUtils.getPropertyDescriptor(item.getClass(), field);
+            if (property == null || property.getReadMethod() == null || "class".equals(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            projected.put(field, ReflectionUtils.invokeMethod(property.getReadMethod(), item));
+        }
+        return projected;
+    }
+}
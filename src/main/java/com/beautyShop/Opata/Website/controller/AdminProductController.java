@@ -3,6 +3,7 @@ package com.beautyShop.Opata.Website.controller;
 import com.beautyShop.Opata.Website.Config.Security.AdminPrincipal;
 import com.beautyShop.Opata.Website.dto.GeneralProductRequest;
 import com.beautyShop.Opata.Website.dto.GeneralProductResponse;
+import com.beautyShop.Opata.Website.dto.ProductChangePage;
 import com.beautyShop.Opata.Website.dto.ProductRequest;
 import com.beautyShop.Opata.Website.dto.ProductResponse;
 import com.beautyShop.Opata.Website.entity.ApiResult;
@@ -10,20 +11,31 @@ import com.beautyShop.Opata.Website.entity.ClothingColor;
 import com.beautyShop.Opata.Website.entity.ClothingSize;
 import com.beautyShop.Opata.Website.entity.SubCategory;
 import com.beautyShop.Opata.Website.service.AdminProductService;
+import com.beautyShop.Opata.Website.service.ProductExportService;
+import com.beautyShop.Opata.Website.service.catalog.ProductChangeFeed;
+import com.beautyShop.Opata.Website.service.ranking.ProductRankings;
+import com.beautyShop.Opata.Website.service.recommend.CoPurchaseRecommender;
+import com.beautyShop.Opata.Website.service.recommend.SimilarProductIndex;
+import com.beautyShop.Opata.Website.service.search.ProductSearchIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -38,7 +50,13 @@ import java.util.UUID;
 @Tag(name = "Admin Products", description = "Admin endpoints for managing clothing and general products")
 public class AdminProductController {
 
-    private final AdminProductService adminProductService;
+    private final AdminProductService   adminProductService;
+    private final ProductSearchIndex    productSearchIndex;
+    private final ProductExportService  productExportService;
+    private final ProductChangeFeed     productChangeFeed;
+    private final CoPurchaseRecommender coPurchaseRecommender;
+    private final SimilarProductIndex   similarProductIndex;
+    private final ProductRankings       productRankings;
 
     private AdminPrincipal adminPrincipal() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -48,6 +66,21 @@ public class AdminProductController {
         return (AdminPrincipal) principal;
     }
 
+    // Streams on an MVC async thread with the export's own timeout; other async requests keep the default
+    private static WebAsyncTask<Void> exportTask(ProductExportService.Format format,
+                                                 String fileName,
+                                                 StreamingResponseBody body,
+                                                 HttpServletResponse response) {
+        response.setContentType(format.mediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(format.fileName(fileName)).build().toString());
+        return new WebAsyncTask<>(ProductExportService.TIMEOUT.toMillis(), () -> {
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
 
     // ═══════════════════════════════════════════════════════════
     // CLOTHING PRODUCTS — WRITE
@@ -137,6 +170,18 @@ public class AdminProductController {
         return ResponseEntity.ok(ApiResult.success(adminProductService.getAllProducts()));
     }
 
+    @GetMapping("/clothing/export")
+    @Operation(
+        summary = "Export all clothing products for feeds and integrations",
+        description = "Streams every product as it is read: format=NDJSON (one product JSON per line, "
+                + "default) or CSV. Memory use does not grow with the catalog"
+    )
+    public WebAsyncTask<Void> exportProducts(
+            @RequestParam(defaultValue = "NDJSON") ProductExportService.Format format,
+            HttpServletResponse response) {
+        return exportTask(format, "clothing-products", productExportService.exportClothing(format), response);
+    }
+
     @GetMapping("/clothing/mine")
     @Operation(summary = "Get clothing products added by a specific admin")
     public ResponseEntity<ApiResult<List<ProductResponse>>> getMyProducts() {
@@ -302,6 +347,18 @@ public class AdminProductController {
         return ResponseEntity.ok(ApiResult.success(adminProductService.getAllGeneralProducts()));
     }
 
+    @GetMapping("/general/export")
+    @Operation(
+        summary = "Export all general products for feeds and integrations",
+        description = "Streams every product as it is read: format=NDJSON (one product JSON per line, "
+                + "default) or CSV. Memory use does not grow with the catalog"
+    )
+    public WebAsyncTask<Void> exportGeneralProducts(
+            @RequestParam(defaultValue = "NDJSON") ProductExportService.Format format,
+            HttpServletResponse response) {
+        return exportTask(format, "general-products", productExportService.exportGeneral(format), response);
+    }
+
     @GetMapping("/general/mine")
     @Operation(summary = "Get general products added by a specific admin")
     public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getMyGeneralProducts(@RequestParam UUID adminId) {
@@ -381,4 +438,82 @@ public class AdminProductController {
     public ResponseEntity<ApiResult<List<String>>> getAllGeneralTags() {
         return ResponseEntity.ok(ApiResult.success(adminProductService.getAllGeneralTags()));
     }
-}
\ No newline at end of file
+
+
+    // ═══════════════════════════════════════════════════════════
+    // CHANGE FEED
+    // ═══════════════════════════════════════════════════════════
+
+    @GetMapping("/changes")
+    @Operation(
+        summary = "Product changes since a cursor, for downstream sync",
+        description = "Upserts (with the current product) and deletes of both product types, oldest first. "
+                    + "Start without since to walk the whole catalog, then poll with nextCursor. "
+                    + "limit up to " + ProductChangeFeed.MAX_LIMIT + "; changes show up a few seconds after they commit"
+    )
+    public ResponseEntity<ApiResult<ProductChangePage>> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "" + ProductChangeFeed.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(ApiResult.success(productChangeFeed.changesSince(since, limit)));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // SEARCH INDEX
+    // ═══════════════════════════════════════════════════════════
+
+    @PostMapping("/search/reindex")
+    @Operation(
+        summary = "Rebuild the keyword search index",
+        description = "Re-reads every clothing and general product from the database into the search index. "
+                    + "Normally only needed if the startup build failed."
+    )
+    public ResponseEntity<ApiResult<Integer>> rebuildSearchIndex() {
+        log.info("🔎 [ADMIN] Rebuilding product search index");
+        int indexed = productSearchIndex.rebuild();
+        return ResponseEntity.ok(ApiResult.success("Search index rebuilt", indexed));
+    }
+
+
+    // ═══════════════════════════════════════════════════════════
+    // RECOMMENDATIONS
+    // ═══════════════════════════════════════════════════════════
+
+    @PostMapping("/recommendations/rebuild")
+    @Operation(
+        summary = "Rebuild \"frequently bought together\" from all orders",
+        description = "Recounts co-purchases over every non-cancelled order. Normally not needed — "
+                    + "recommendations are rebuilt at startup and updated as orders are placed. "
+                    + "Returns how many products have recommendations."
+    )
+    public ResponseEntity<ApiResult<Integer>> rebuildRecommendations() {
+        log.info("🛍️ [ADMIN] Rebuilding co-purchase recommendations");
+        int products = coPurchaseRecommender.rebuild();
+        return ResponseEntity.ok(ApiResult.success("Recommendations rebuilt", products));
+    }
+
+    @PostMapping("/similar/rebuild")
+    @Operation(
+        summary = "Rebuild the similar-products index",
+        description = "Recomputes content-based neighbours for every product. Normally not needed — "
+                    + "the index is built at startup and updated as products change. "
+                    + "Returns how many products were indexed."
+    )
+    public ResponseEntity<ApiResult<Integer>> rebuildSimilarProducts() {
+        log.info("🛍️ [ADMIN] Rebuilding similar-products index");
+        int products = similarProductIndex.rebuild();
+        return ResponseEntity.ok(ApiResult.success("Similar products rebuilt", products));
+    }
+
+    @PostMapping("/rankings/rebuild")
+    @Operation(
+        summary = "Rebuild trending and bestseller rankings from recent orders",
+        description = "Normally not needed — rankings are built at startup and updated as orders are placed "
+                    + "and products viewed. Views are not stored with a time, so trending restarts from "
+                    + "sales alone. Returns how many products have sold in the last three months."
+    )
+    public ResponseEntity<ApiResult<Integer>> rebuildRankings() {
+        log.info("🛍️ [ADMIN] Rebuilding product rankings");
+        int products = productRankings.rebuild();
+        return ResponseEntity.ok(ApiResult.success("Rankings rebuilt", products));
+    }
+}
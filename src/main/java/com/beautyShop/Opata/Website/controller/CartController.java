@@ -3,8 +3,10 @@ package com.beautyShop.Opata.Website.controller;
 import com.beautyShop.Opata.Website.Config.Security.UserPrincipal;
 import com.beautyShop.Opata.Website.dto.AddToCartRequest;
 import com.beautyShop.Opata.Website.dto.CartResponse;
+import com.beautyShop.Opata.Website.dto.StockHoldResponse;
 import com.beautyShop.Opata.Website.entity.ApiResult;
 import com.beautyShop.Opata.Website.service.CartService;
+import com.beautyShop.Opata.Website.service.stock.StockReservationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -32,6 +34,7 @@ import java.util.UUID;
 public class CartController {
 
     private final CartService cartService;
+    private final StockReservationService stockReservationService;
 
 
     private UserPrincipal userPrincipal() {
@@ -173,4 +176,37 @@ public class CartController {
         cartService.clearCart(userId);
         return ResponseEntity.ok(ApiResult.success("Cart cleared successfully"));
     }
-}
\ No newline at end of file
+
+    // ═══════════════════════════════════════════════════════════
+    // CHECKOUT HOLD
+    // ═══════════════════════════════════════════════════════════
+
+    @PostMapping("/checkout")
+    @Operation(
+        summary = "Start checkout",
+        description = "Holds every cart line for " + StockReservationService.HOLD_MINUTES + " minutes so other "
+                + "customers cannot buy those units meanwhile. Starting again replaces the previous hold; "
+                + "placing the order uses it up."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Cart held until expiresAt"),
+        @ApiResponse(responseCode = "400", description = "Cart empty or not enough stock left to hold")
+    })
+    public ResponseEntity<ApiResult<StockHoldResponse>> startCheckout() {
+        UserPrincipal principal = userPrincipal();
+        UUID userId = principal.getUserId();
+        log.info("⏳ User [{}] starting checkout", userId);
+        StockHoldResponse response = stockReservationService.startCheckout(userId);
+        return ResponseEntity.ok(ApiResult.success("Cart held for checkout", response));
+    }
+
+    @DeleteMapping("/checkout")
+    @Operation(summary = "Abandon checkout", description = "Releases the user's checkout hold, if any")
+    public ResponseEntity<ApiResult<String>> cancelCheckout() {
+        UserPrincipal principal = userPrincipal();
+        UUID userId = principal.getUserId();
+        log.info("↩️ User [{}] abandoning checkout", userId);
+        stockReservationService.cancelCheckout(userId);
+        return ResponseEntity.ok(ApiResult.success("Checkout hold released"));
+    }
+}
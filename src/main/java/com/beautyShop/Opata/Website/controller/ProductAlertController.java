@@ -0,0 +1,108 @@
+package com.beautyShop.Opata.Website.controller;
+
+import com.beautyShop.Opata.Website.Config.Security.UserPrincipal;
+import com.beautyShop.Opata.Website.dto.ProductAlertRequest;
+import com.beautyShop.Opata.Website.dto.ProductAlertResponse;
+import com.beautyShop.Opata.Website.entity.ApiResult;
+import com.beautyShop.Opata.Website.service.alerts.ProductAlertService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/user/product-alerts")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('USER')")
+@Tag(name = "User Product Alerts", description = "Get emailed when a product is back in stock or its price drops")
+public class ProductAlertController {
+
+    private final ProductAlertService productAlertService;
+
+
+    private UserPrincipal userPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null) {
+            log.error("No authentication found in SecurityContext");
+            throw new RuntimeException("User not authenticated");
+        }
+
+        Object principal = authentication.getPrincipal();
+
+        if (!(principal instanceof UserPrincipal)) {
+            log.error("Invalid principal type: {}", principal != null ? principal.getClass().getName() : "null");
+            throw new RuntimeException("Invalid authentication principal");
+        }
+
+        return (UserPrincipal) principal;
+    }
+
+
+    // ═══════════════════════════════════════════════════════════
+    // VIEW ALERTS
+    // ═══════════════════════════════════════════════════════════
+
+    @GetMapping
+    @Operation(summary = "List my product alerts", description = "Newest first")
+    public ResponseEntity<ApiResult<List<ProductAlertResponse>>> getMyAlerts() {
+
+        UUID userId = userPrincipal().getUserId();
+        return ResponseEntity.ok(ApiResult.success(productAlertService.getMyAlerts(userId)));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // SUBSCRIBE
+    // ═══════════════════════════════════════════════════════════
+
+    @PostMapping
+    @Operation(
+        summary = "Subscribe to a product alert",
+        description = "BACK_IN_STOCK fires when the product's stock goes from 0 to above 0; PRICE_DROP when its "
+                + "final price goes down. Each alert is sent once, then the subscription is removed. "
+                + "Subscribing twice to the same alert returns the existing subscription."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Subscribed"),
+        @ApiResponse(responseCode = "400", description = "Invalid request or limit reached"),
+        @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    public ResponseEntity<ApiResult<ProductAlertResponse>> subscribe(
+            @Valid @RequestBody ProductAlertRequest request) {
+
+        UUID userId = userPrincipal().getUserId();
+        log.info("🔔 User [{}] subscribing to {} for {} [{}]",
+                userId, request.getKind(), request.getProductType(), request.getProductId());
+        ProductAlertResponse response = productAlertService.subscribe(userId, request);
+        return ResponseEntity.ok(ApiResult.success("Alert saved", response));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // UNSUBSCRIBE
+    // ═══════════════════════════════════════════════════════════
+
+    @DeleteMapping("/{alertId}")
+    @Operation(summary = "Remove a product alert")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Alert removed"),
+        @ApiResponse(responseCode = "404", description = "Product alert not found")
+    })
+    public ResponseEntity<ApiResult<String>> unsubscribe(@PathVariable Long alertId) {
+
+        UUID userId = userPrincipal().getUserId();
+        productAlertService.unsubscribe(userId, alertId);
+        return ResponseEntity.ok(ApiResult.success("Alert removed"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.beautyShop.Opata.Website.controller;
+
+import com.beautyShop.Opata.Website.Config.Security.UserPrincipal;
+import com.beautyShop.Opata.Website.dto.SavedSearchRequest;
+import com.beautyShop.Opata.Website.dto.SavedSearchResponse;
+import com.beautyShop.Opata.Website.entity.ApiResult;
+import com.beautyShop.Opata.Website.service.alerts.SavedSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/user/saved-searches")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('USER')")
+@Tag(name = "User Saved Searches", description = "Get emailed when new or restocked products match your criteria")
+public class SavedSearchController {
+
+    private final SavedSearchService savedSearchService;
+
+
+    private UserPrincipal userPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null) {
+            log.error("No authentication found in SecurityContext");
+            throw new RuntimeException("User not authenticated");
+        }
+
+        Object principal = authentication.getPrincipal();
+
+        if (!(principal instanceof UserPrincipal)) {
+            log.error("Invalid principal type: {}", principal != null ? principal.getClass().getName() : "null");
+            throw new RuntimeException("Invalid authentication principal");
+        }
+
+        return (UserPrincipal) principal;
+    }
+
+
+    // ═══════════════════════════════════════════════════════════
+    // VIEW SAVED SEARCHES
+    // ═══════════════════════════════════════════════════════════
+
+    @GetMapping
+    @Operation(summary = "List my saved searches", description = "Newest first")
+    public ResponseEntity<ApiResult<List<SavedSearchResponse>>> getMySearches() {
+
+        UUID userId = userPrincipal().getUserId();
+        return ResponseEntity.ok(ApiResult.success(savedSearchService.getMySearches(userId)));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // SAVE A SEARCH
+    // ═══════════════════════════════════════════════════════════
+
+    @PostMapping
+    @Operation(
+        summary = "Save a search",
+        description = "Every criterion given must match: category, brand, tag (general products), size and color "
+                + "(clothing) and max price. You are emailed when a new or restocked product matches. "
+                + "At most " + SavedSearchService.MAX_PER_USER + " saved searches per user."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Search saved"),
+        @ApiResponse(responseCode = "400", description = "No criteria, criteria not valid for the product type, or limit reached")
+    })
+    public ResponseEntity<ApiResult<SavedSearchResponse>> saveSearch(
+            @Valid @RequestBody SavedSearchRequest request) {
+
+        UUID userId = userPrincipal().getUserId();
+        log.info("🔔 User [{}] saving a {} search", userId, request.getProductType());
+        SavedSearchResponse response = savedSearchService.saveSearch(userId, request);
+        return ResponseEntity.ok(ApiResult.success("Search saved", response));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // DELETE A SEARCH
+    // ═══════════════════════════════════════════════════════════
+
+    @DeleteMapping("/{searchId}")
+    @Operation(summary = "Delete a saved search")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Search deleted"),
+        @ApiResponse(responseCode = "404", description = "Saved search not found")
+    })
+    public ResponseEntity<ApiResult<String>> deleteSearch(@PathVariable Long searchId) {
+
+        UUID userId = userPrincipal().getUserId();
+        savedSearchService.deleteSearch(userId, searchId);
+        return ResponseEntity.ok(ApiResult.success("Search deleted"));
+    }
+}
@@ -3,7 +3,9 @@ package com.beautyShop.Opata.Website.controller;
 import com.beautyShop.Opata.Website.Config.Security.UserPrincipal;
 import com.beautyShop.Opata.Website.dto.*;
 import com.beautyShop.Opata.Website.entity.ApiResult;
+import com.beautyShop.Opata.Website.entity.IdempotencyScope;
 import com.beautyShop.Opata.Website.service.DeliveryService;
+import com.beautyShop.Opata.Website.service.idempotency.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -33,7 +35,8 @@ import java.util.UUID;
 @Tag(name = "User Deliveries", description = "Delivery endpoints for customers — request and track deliveries")
 class UserDeliveryController {
 
-    private final DeliveryService deliveryService;
+    private final DeliveryService    deliveryService;
+    private final IdempotencyService idempotencyService;
 
 
     private UserPrincipal userPrincipal() {
@@ -62,22 +65,25 @@ class UserDeliveryController {
     @PostMapping("/request")
     @Operation(
         summary = "Request a delivery",
-        description = "User submits a delivery request for one of their orders. Only one delivery per order is allowed."
+        description = "User submits a delivery request for one of their orders. Only one delivery per order is allowed. "
+                    + "Send an Idempotency-Key header to make retries safe: a repeated key returns the first response."
     )
     @ApiResponses({
         @ApiResponse(responseCode = "201", description = "Delivery request submitted"),
-        @ApiResponse(responseCode = "400", description = "Duplicate delivery request or cancelled order"),
+        @ApiResponse(responseCode = "400", description = "Duplicate delivery request, cancelled order, or Idempotency-Key reused for a different request"),
         @ApiResponse(responseCode = "403", description = "Order does not belong to this user"),
         @ApiResponse(responseCode = "404", description = "Order or user not found")
     })
     public ResponseEntity<ApiResult<DeliveryResponse>> requestDelivery(
-            @Valid @RequestBody DeliveryRequest request) {
+            @Valid @RequestBody DeliveryRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
 
         UserPrincipal principal = userPrincipal();
         UUID userId = principal.getUserId();
 
         log.info("🚚 User [{}] requesting delivery for order #{}", userId, request.getOrderId());
-        DeliveryResponse response = deliveryService.requestDelivery(userId, request);
+        DeliveryResponse response = idempotencyService.execute(userId, IdempotencyScope.REQUEST_DELIVERY, idempotencyKey,
+                request, DeliveryResponse.class, () -> deliveryService.requestDelivery(userId, request));
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResult.success("Delivery request submitted successfully!", response));
     }
@@ -4,7 +4,9 @@ import com.beautyShop.Opata.Website.Config.Security.UserPrincipal;
 import com.beautyShop.Opata.Website.dto.OrderResponse;
 import com.beautyShop.Opata.Website.dto.PlaceOrderRequest;
 import com.beautyShop.Opata.Website.entity.ApiResult;
+import com.beautyShop.Opata.Website.entity.IdempotencyScope;
 import com.beautyShop.Opata.Website.service.OrderService;
+import com.beautyShop.Opata.Website.service.idempotency.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -30,7 +32,8 @@ import java.util.UUID;
 @Tag(name = "User Orders", description = "Order endpoints for customers — place and view their own orders")
 public class UserOrderController {
 
-    private final OrderService orderService;
+    private final OrderService       orderService;
+    private final IdempotencyService idempotencyService;
 
 
     private UserPrincipal userPrincipal() {
@@ -63,21 +66,24 @@ public class UserOrderController {
     @PostMapping("/place")
     @Operation(
         summary = "Place an order from cart",
-        description = "Converts the user's cart into an order. Cart is cleared automatically after placing."
+        description = "Converts the user's cart into an order. Cart is cleared automatically after placing. "
+                    + "Send an Idempotency-Key header to make retries safe: a repeated key returns the first order instead of placing another."
     )
     @ApiResponses({
         @ApiResponse(responseCode = "201", description = "Order placed successfully"),
-        @ApiResponse(responseCode = "400", description = "Cart is empty or insufficient stock"),
+        @ApiResponse(responseCode = "400", description = "Cart is empty, insufficient stock, or Idempotency-Key reused for a different request"),
         @ApiResponse(responseCode = "404", description = "User not found")
     })
     public ResponseEntity<ApiResult<OrderResponse>> placeOrder(
-            @Valid @RequestBody PlaceOrderRequest request) {
+            @Valid @RequestBody PlaceOrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
 
         UserPrincipal principal = userPrincipal();
         UUID userId = principal.getUserId();
 
         log.info("🛒 User [{}] placing order", userId);
-        OrderResponse response = orderService.placeOrder(userId, request);
+        OrderResponse response = idempotencyService.execute(userId, IdempotencyScope.PLACE_ORDER, idempotencyKey,
+                request, OrderResponse.class, () -> orderService.placeOrder(userId, request));
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResult.success("Order placed successfully! Order #" + response.getOrderId(), response));
     }
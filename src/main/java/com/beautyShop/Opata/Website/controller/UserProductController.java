@@ -1,13 +1,26 @@
 package com.beautyShop.Opata.Website.controller;
 
 import com.beautyShop.Opata.Website.Config.Security.UserPrincipal;
+import com.beautyShop.Opata.Website.dto.CursorPage;
+import com.beautyShop.Opata.Website.dto.FacetedPage;
+import com.beautyShop.Opata.Website.dto.ProductBatch;
 import com.beautyShop.Opata.Website.dto.GeneralProductResponse;
+import com.beautyShop.Opata.Website.dto.ProductPageRequest;
 import com.beautyShop.Opata.Website.dto.ProductResponse;
+import com.beautyShop.Opata.Website.dto.ProductSearchRequest;
+import com.beautyShop.Opata.Website.dto.ProductView;
+import com.beautyShop.Opata.Website.dto.Suggestion;
 import com.beautyShop.Opata.Website.entity.ApiResult;
 import com.beautyShop.Opata.Website.entity.ClothingColor;
 import com.beautyShop.Opata.Website.entity.ClothingSize;
+import com.beautyShop.Opata.Website.entity.ProductType;
 import com.beautyShop.Opata.Website.entity.SubCategory;
 import com.beautyShop.Opata.Website.service.UserProductService;
+import com.beautyShop.Opata.Website.service.ranking.ProductRankings;
+import com.beautyShop.Opata.Website.service.ranking.RankingWindow;
+import com.beautyShop.Opata.Website.service.recommend.CoPurchaseRecommender;
+import com.beautyShop.Opata.Website.service.recommend.SimilarProductIndex;
+import com.beautyShop.Opata.Website.service.search.ProductSuggester;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +41,7 @@ import java.util.List;
 public class UserProductController {
 
     private final UserProductService userProductService;
+    private final ProductSuggester   productSuggester;
 
     // ═══════════════════════════════════════════════════════════
     // CLOTHING PRODUCTS — BROWSE
@@ -59,26 +73,30 @@ public class UserProductController {
 
     @GetMapping("/clothing")
     @Operation(summary = "Get all clothing products")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getAllProducts() {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getAllProducts()));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getAllProducts(
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getAllProducts(page)));
     }
 
     @GetMapping("/clothing/available")
     @Operation(summary = "Get all available clothing products (in stock, not hidden)")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getAvailableProducts() {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getAvailableProducts()));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getAvailableProducts(
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getAvailableProducts(page)));
     }
 
     @GetMapping("/clothing/in-stock")
     @Operation(summary = "Get clothing products with stock greater than 0")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getInStockProducts() {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getInStockProducts()));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getInStockProducts(
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getInStockProducts(page)));
     }
 
     @GetMapping("/clothing/discounted")
     @Operation(summary = "Get discounted clothing products")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getDiscountedProducts() {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getDiscountedProducts()));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getDiscountedProducts(
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getDiscountedProducts(page)));
     }
 
     @GetMapping("/clothing/{id}")
@@ -87,52 +105,88 @@ public class UserProductController {
         return ResponseEntity.ok(ApiResult.success(userProductService.getProductById(id)));
     }
 
+    @GetMapping("/clothing/{id}/frequently-bought-together")
+    @Operation(
+        summary = "Products most often ordered together with this one",
+        description = "Best first, up to " + CoPurchaseRecommender.TOP_K + "; empty until the product has order history"
+    )
+    public ResponseEntity<ApiResult<List<ProductResponse>>> getFrequentlyBoughtTogether(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") int limit) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getFrequentlyBoughtTogether(id, limit)));
+    }
+
+    @GetMapping("/clothing/{id}/similar")
+    @Operation(
+        summary = "Clothing products similar to this one",
+        description = "By name, description, brand, category, material and style. Best first, up to "
+                    + SimilarProductIndex.TOP_K
+    )
+    public ResponseEntity<ApiResult<List<ProductResponse>>> getSimilarProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") int limit) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getSimilarProducts(id, limit)));
+    }
+
     // ═══════════════════════════════════════════════════════════
     // CLOTHING PRODUCTS — FILTER
     // ═══════════════════════════════════════════════════════════
 
     @GetMapping("/clothing/category/{category}")
     @Operation(summary = "Filter clothing by category")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getByCategory(category)));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getByCategory(
+            @PathVariable String category,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getByCategory(category, page)));
     }
 
     @GetMapping("/clothing/subcategory/{subCategory}")
     @Operation(summary = "Filter clothing by sub-category")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getBySubCategory(@PathVariable SubCategory subCategory) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getBySubCategory(subCategory)));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getBySubCategory(
+            @PathVariable SubCategory subCategory,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getBySubCategory(subCategory, page)));
     }
 
     @GetMapping("/clothing/brand/{brand}")
     @Operation(summary = "Filter clothing by brand")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getByBrand(@PathVariable String brand) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getByBrand(brand)));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getByBrand(
+            @PathVariable String brand,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getByBrand(brand, page)));
     }
 
     @GetMapping("/clothing/size/{size}")
     @Operation(summary = "Filter clothing by size (e.g. S, M, L, XL)")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getBySize(@PathVariable ClothingSize size) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getBySize(size)));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getBySize(
+            @PathVariable ClothingSize size,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getBySize(size, page)));
     }
 
     @GetMapping("/clothing/color/{color}")
     @Operation(summary = "Filter clothing by color")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getByColor(@PathVariable ClothingColor color) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getByColor(color)));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getByColor(
+            @PathVariable ClothingColor color,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getByColor(color, page)));
     }
 
     @GetMapping("/clothing/material/{material}")
     @Operation(summary = "Filter clothing by material")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getByMaterial(@PathVariable String material) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getByMaterial(material)));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getByMaterial(
+            @PathVariable String material,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getByMaterial(material, page)));
     }
 
     @GetMapping("/clothing/price-range")
     @Operation(summary = "Filter clothing by price range", description = "Returns clothing products priced between min and max")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getByPriceRange(
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getByPriceRange(
             @RequestParam BigDecimal min,
-            @RequestParam BigDecimal max) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getByPriceRange(min, max)));
+            @RequestParam BigDecimal max,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getByPriceRange(min, max, page)));
     }
 
     @GetMapping("/clothing/filter")
@@ -140,12 +194,13 @@ public class UserProductController {
         summary = "Filter clothing by category + price range",
         description = "Combined filter: category and price range together"
     )
-    public ResponseEntity<ApiResult<List<ProductResponse>>> getByCategoryAndPriceRange(
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> getByCategoryAndPriceRange(
             @RequestParam String category,
             @RequestParam BigDecimal min,
-            @RequestParam BigDecimal max) {
+            @RequestParam BigDecimal max,
+            @ModelAttribute ProductPageRequest page) {
         return ResponseEntity.ok(ApiResult.success(
-                userProductService.getByCategoryAndPriceRange(category, min, max)));
+                userProductService.getByCategoryAndPriceRange(category, min, max, page)));
     }
 
     // ═══════════════════════════════════════════════════════════
@@ -154,32 +209,38 @@ public class UserProductController {
 
     @GetMapping("/clothing/search")
     @Operation(summary = "Search clothing by name")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> searchByName(@RequestParam String name) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.searchByName(name)));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> searchByName(
+            @RequestParam String name,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.searchByName(name, page)));
     }
 
     @GetMapping("/clothing/search/keyword")
     @Operation(summary = "Search clothing by keyword (name, description, brand, category)")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> searchByKeyword(@RequestParam String keyword) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.searchByKeyword(keyword)));
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> searchByKeyword(
+            @RequestParam String keyword,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.searchByKeyword(keyword, page)));
     }
 
     @GetMapping("/clothing/search/name-category")
     @Operation(summary = "Search clothing by name and category together")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> searchByNameAndCategory(
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> searchByNameAndCategory(
             @RequestParam String name,
-            @RequestParam String category) {
+            @RequestParam String category,
+            @ModelAttribute ProductPageRequest page) {
         return ResponseEntity.ok(ApiResult.success(
-                userProductService.searchByNameAndCategory(name, category)));
+                userProductService.searchByNameAndCategory(name, category, page)));
     }
 
     @GetMapping("/clothing/search/name-brand")
     @Operation(summary = "Search clothing by name and brand together")
-    public ResponseEntity<ApiResult<List<ProductResponse>>> searchByNameAndBrand(
+    public ResponseEntity<ApiResult<CursorPage<ProductResponse>>> searchByNameAndBrand(
             @RequestParam String name,
-            @RequestParam String brand) {
+            @RequestParam String brand,
+            @ModelAttribute ProductPageRequest page) {
         return ResponseEntity.ok(ApiResult.success(
-                userProductService.searchByNameAndBrand(name, brand)));
+                userProductService.searchByNameAndBrand(name, brand, page)));
     }
 
     // ═══════════════════════════════════════════════════════════
@@ -210,26 +271,30 @@ public class UserProductController {
 
     @GetMapping("/general")
     @Operation(summary = "Get all general products")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getAllGeneralProducts() {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getAllGeneralProducts()));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getAllGeneralProducts(
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getAllGeneralProducts(page)));
     }
 
     @GetMapping("/general/available")
     @Operation(summary = "Get available general products")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getAvailableGeneralProducts() {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getAvailableGeneralProducts()));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getAvailableGeneralProducts(
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getAvailableGeneralProducts(page)));
     }
 
     @GetMapping("/general/in-stock")
     @Operation(summary = "Get general products with stock greater than 0")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getGeneralInStockProducts() {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralInStockProducts()));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getGeneralInStockProducts(
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralInStockProducts(page)));
     }
 
     @GetMapping("/general/discounted")
     @Operation(summary = "Get discounted general products")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getDiscountedGeneralProducts() {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getDiscountedGeneralProducts()));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getDiscountedGeneralProducts(
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getDiscountedGeneralProducts(page)));
     }
 
     @GetMapping("/general/{id}")
@@ -238,52 +303,72 @@ public class UserProductController {
         return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralProductById(id)));
     }
 
+    @GetMapping("/general/{id}/similar")
+    @Operation(
+        summary = "General products similar to this one",
+        description = "By name, description, brand, category, tags and attributes. Best first, up to "
+                    + SimilarProductIndex.TOP_K
+    )
+    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getSimilarGeneralProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") int limit) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getSimilarGeneralProducts(id, limit)));
+    }
+
     // ═══════════════════════════════════════════════════════════
     // GENERAL PRODUCTS — FILTER
     // ═══════════════════════════════════════════════════════════
 
     @GetMapping("/general/category/{category}")
     @Operation(summary = "Filter general products by category")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getGeneralByCategory(
-            @PathVariable String category) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByCategory(category)));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getGeneralByCategory(
+            @PathVariable String category,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByCategory(category, page)));
     }
 
     @GetMapping("/general/subcategory/{subCategory}")
     @Operation(summary = "Filter general products by sub-category")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getGeneralBySubCategory(
-            @PathVariable String subCategory) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralBySubCategory(subCategory)));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getGeneralBySubCategory(
+            @PathVariable String subCategory,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralBySubCategory(subCategory, page)));
     }
 
     @GetMapping("/general/brand/{brand}")
     @Operation(summary = "Filter general products by brand")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getGeneralByBrand(@PathVariable String brand) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByBrand(brand)));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getGeneralByBrand(
+            @PathVariable String brand,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByBrand(brand, page)));
     }
 
     @GetMapping("/general/tag/{tag}")
     @Operation(summary = "Filter general products by tag")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getGeneralByTag(@PathVariable String tag) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByTag(tag)));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getGeneralByTag(
+            @PathVariable String tag,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByTag(tag, page)));
     }
 
     @GetMapping("/general/price-range")
     @Operation(summary = "Filter general products by price range")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getGeneralByPriceRange(
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getGeneralByPriceRange(
             @RequestParam BigDecimal min,
-            @RequestParam BigDecimal max) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByPriceRange(min, max)));
+            @RequestParam BigDecimal max,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByPriceRange(min, max, page)));
     }
 
     @GetMapping("/general/filter")
     @Operation(summary = "Filter general products by category + price range")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getGeneralByCategoryAndPriceRange(
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getGeneralByCategoryAndPriceRange(
             @RequestParam String category,
             @RequestParam BigDecimal min,
-            @RequestParam BigDecimal max) {
+            @RequestParam BigDecimal max,
+            @ModelAttribute ProductPageRequest page) {
         return ResponseEntity.ok(ApiResult.success(
-                userProductService.getGeneralByCategoryAndPriceRange(category, min, max)));
+                userProductService.getGeneralByCategoryAndPriceRange(category, min, max, page)));
     }
 
     @GetMapping("/general/attribute")
@@ -291,10 +376,11 @@ public class UserProductController {
         summary = "Filter general products by custom attribute",
         description = "e.g. key=SkinType&value=Oily or key=Warranty&value=2 years"
     )
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> getGeneralByAttribute(
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> getGeneralByAttribute(
             @RequestParam String key,
-            @RequestParam String value) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByAttribute(key, value)));
+            @RequestParam String value,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.getGeneralByAttribute(key, value, page)));
     }
 
     // ═══════════════════════════════════════════════════════════
@@ -303,16 +389,18 @@ public class UserProductController {
 
     @GetMapping("/general/search")
     @Operation(summary = "Search general products by name")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> searchGeneralByName(
-            @RequestParam String name) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.searchGeneralByName(name)));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> searchGeneralByName(
+            @RequestParam String name,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.searchGeneralByName(name, page)));
     }
 
     @GetMapping("/general/search/keyword")
     @Operation(summary = "Search general products by keyword")
-    public ResponseEntity<ApiResult<List<GeneralProductResponse>>> searchGeneralByKeyword(
-            @RequestParam String keyword) {
-        return ResponseEntity.ok(ApiResult.success(userProductService.searchGeneralByKeyword(keyword)));
+    public ResponseEntity<ApiResult<CursorPage<GeneralProductResponse>>> searchGeneralByKeyword(
+            @RequestParam String keyword,
+            @ModelAttribute ProductPageRequest page) {
+        return ResponseEntity.ok(ApiResult.success(userProductService.searchGeneralByKeyword(keyword, page)));
     }
 
     // ═══════════════════════════════════════════════════════════
@@ -342,4 +430,88 @@ public class UserProductController {
     public ResponseEntity<ApiResult<List<String>>> getAllGeneralTags() {
         return ResponseEntity.ok(ApiResult.success(userProductService.getAllGeneralTags()));
     }
-}
\ No newline at end of file
+
+    // ═══════════════════════════════════════════════════════════
+    // FACETED SEARCH — BOTH PRODUCT TYPES
+    // ═══════════════════════════════════════════════════════════
+
+    @GetMapping("/search")
+    @Operation(
+        summary = "Faceted product search",
+        description = "Any combination of q, categories, subCategories, brands, sizes, colors, materials, "
+                + "tags, attributes (key=value), minPrice, maxPrice, available, inStock and discounted. "
+                + "Returns one page of results plus per-facet and price-band counts for the filter sidebar. "
+                + "type=CLOTHING (default) or GENERAL"
+    )
+    public ResponseEntity<ApiResult<FacetedPage<? extends ProductView>>> search(
+            @ModelAttribute ProductSearchRequest request,
+            @ModelAttribute ProductPageRequest page) {
+        FacetedPage<? extends ProductView> result = request.resolvedType() == ProductType.GENERAL
+                ? userProductService.searchGeneral(request, page)
+                : userProductService.searchClothing(request, page);
+        return ResponseEntity.ok(ApiResult.success(result));
+    }
+
+    @GetMapping("/batch")
+    @Operation(
+        summary = "Get several products by ID in one call",
+        description = "For cart, wishlist and recently-viewed lists: ids=1,2,3 (up to "
+                + UserProductService.MAX_BATCH_IDS + "), type=CLOTHING|GENERAL (default CLOTHING). "
+                + "Products come back in request order; ids with no product are listed under missing"
+    )
+    public ResponseEntity<ApiResult<ProductBatch<? extends ProductView>>> getBatch(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) ProductType type) {
+        ProductBatch<? extends ProductView> result = type == ProductType.GENERAL
+                ? userProductService.getGeneralProductBatch(ids)
+                : userProductService.getProductBatch(ids);
+        return ResponseEntity.ok(ApiResult.success(result));
+    }
+
+    @GetMapping("/trending")
+    @Operation(
+        summary = "Trending products",
+        description = "Most bought and viewed recently, best first. window=DAY|WEEK (default)|MONTH — "
+                + "older activity fades out rather than being cut off. type=CLOTHING|GENERAL (default CLOTHING); "
+                + "limit up to " + ProductRankings.MAX_LIMIT
+    )
+    public ResponseEntity<ApiResult<List<? extends ProductView>>> getTrending(
+            @RequestParam(required = false) ProductType type,
+            @RequestParam(defaultValue = "WEEK") RankingWindow window,
+            @RequestParam(defaultValue = "12") int limit) {
+        List<? extends ProductView> result = type == ProductType.GENERAL
+                ? userProductService.getTrendingGeneralProducts(window, limit)
+                : userProductService.getTrendingProducts(window, limit);
+        return ResponseEntity.ok(ApiResult.success(result));
+    }
+
+    @GetMapping("/bestsellers")
+    @Operation(
+        summary = "Best-selling products",
+        description = "Most units sold recently, best first. window=DAY|WEEK (default)|MONTH. "
+                + "type=CLOTHING|GENERAL (default CLOTHING) — general products are not sold through orders, "
+                + "so theirs is empty. Limit up to " + ProductRankings.MAX_LIMIT
+    )
+    public ResponseEntity<ApiResult<List<? extends ProductView>>> getBestsellers(
+            @RequestParam(required = false) ProductType type,
+            @RequestParam(defaultValue = "WEEK") RankingWindow window,
+            @RequestParam(defaultValue = "12") int limit) {
+        List<? extends ProductView> result = type == ProductType.GENERAL
+                ? userProductService.getGeneralBestsellers(window, limit)
+                : userProductService.getBestsellers(window, limit);
+        return ResponseEntity.ok(ApiResult.success(result));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(
+        summary = "Autocomplete for the search box",
+        description = "Product names, brands, categories and tags starting with q (any word of them), "
+                + "in-stock and best-selling first. Optional type=CLOTHING|GENERAL; limit up to 10"
+    )
+    public ResponseEntity<ApiResult<List<Suggestion>>> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false) ProductType type,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(ApiResult.success(productSuggester.suggest(q, type, limit)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.beautyShop.Opata.Website.dto;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * One filter model for every catalog listing.
+ * Facets are AND-ed together; several values of the same facet are OR-ed
+ * (size=M&size=L means "M or L"). Attributes are one dimension per key:
+ * "Skin Type=Oily" AND "Scent=Lavender", but "Scent=Lavender" OR "Scent=Rose". Served from the in-memory catalog, or
+ * translated to a Specification when it is not loaded yet.
+ */
+@Getter
+public class CatalogQuery {
+
+    private final Map<Facet, Set<String>> facets = new EnumMap<>(Facet.class);
+
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    private boolean availableOnly;
+    private boolean inStockOnly;
+    private boolean discountedOnly;
+
+    // Case-insensitive substring match on name
+    private String nameContains;
+
+    // Case-insensitive substring match on name, description, brand (+ category, sub-category for general)
+    private String keyword;
+
+    // Restricts results to these product ids, e.g. the matches of a search-index query
+    private Set<Long> ids;
+
+    public static CatalogQuery all() {
+        return new CatalogQuery();
+    }
+
+    public CatalogQuery with(Facet facet, String value) {
+        if (value != null && !value.isBlank()) {
+            facets.computeIfAbsent(facet, f -> new LinkedHashSet<>()).add(value);
+        }
+        return this;
+    }
+
+    public CatalogQuery withAny(Facet facet, Collection<?> values) {
+        if (values != null) {
+            values.forEach(v -> with(facet, v == null ? null : v.toString()));
+        }
+        return this;
+    }
+
+    public CatalogQuery priceBetween(BigDecimal min, BigDecimal max) {
+        this.minPrice = min;
+        this.maxPrice = max;
+        return this;
+    }
+
+    public CatalogQuery availableOnly()  { this.availableOnly  = true; return this; }
+    public CatalogQuery inStockOnly()    { this.inStockOnly    = true; return this; }
+    public CatalogQuery discountedOnly() { this.discountedOnly = true; return this; }
+
+    public CatalogQuery nameContains(String name) {
+        this.nameContains = name;
+        return this;
+    }
+
+    public CatalogQuery keyword(String keyword) {
+        this.keyword = keyword;
+        return this;
+    }
+
+    public CatalogQuery onlyIds(Collection<Long> ids) {
+        this.ids = new HashSet<>(ids);
+        return this;
+    }
+
+    /** Same filters minus one facet — facet counts for a dimension ignore its own selection. */
+    public CatalogQuery without(Facet facet) {
+        CatalogQuery copy = copy();
+        copy.facets.remove(facet);
+        return copy;
+    }
+
+    public CatalogQuery withoutPrice() {
+        return copy().priceBetween(null, null);
+    }
+
+    public CatalogQuery copy() {
+        CatalogQuery copy = new CatalogQuery();
+        facets.forEach((facet, values) -> copy.facets.put(facet, new LinkedHashSet<>(values)));
+        copy.minPrice       = minPrice;
+        copy.maxPrice       = maxPrice;
+        copy.availableOnly  = availableOnly;
+        copy.inStockOnly    = inStockOnly;
+        copy.discountedOnly = discountedOnly;
+        copy.nameContains   = nameContains;
+        copy.keyword        = keyword;
+        copy.ids            = ids;
+        return copy;
+    }
+
+    public Set<String> values(Facet facet) {
+        return facets.getOrDefault(facet, Set.of());
+    }
+
+    /** ATTRIBUTE values grouped by lower-cased key — groups are AND-ed, values within one OR-ed. */
+    public Collection<Set<String>> attributeGroups() {
+        Map<String, Set<String>> groups = new LinkedHashMap<>();
+        for (String value : values(Facet.ATTRIBUTE)) {
+            int eq = value.indexOf('=');
+            String key = (eq < 0 ? value : value.substring(0, eq)).trim().toLowerCase(Locale.ROOT);
+            groups.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(value);
+        }
+        return groups.values();
+    }
+}
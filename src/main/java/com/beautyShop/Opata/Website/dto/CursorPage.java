@@ -0,0 +1,44 @@
+package com.beautyShop.Opata.Website.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// ── Slice-style page: no total count, just "is there more" + where to resume ──
+@Data
+@Builder
+public class CursorPage<T> {
+
+    private List<T> items;
+    private int size;
+    private boolean hasNext;
+
+    // Pass back as ?cursor= to fetch the next page — null on the last page
+    private String nextCursor;
+
+    private ProductSort sort;
+
+    /**
+     * Builds a page from a query that fetched one row more than requested.
+     * The extra row only signals hasNext — it is dropped before mapping.
+     */
+    public static <E, T extends ProductView> CursorPage<T> of(List<E> rows,
+                                                             int size,
+                                                             ProductSort sort,
+                                                             Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<T> items = (hasNext ? rows.subList(0, size) : rows).stream()
+                .map(mapper).collect(Collectors.toList());
+
+        return CursorPage.<T>builder()
+                .items(items)
+                .size(items.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? ProductCursor.after(sort, items.getLast()).encode() : null)
+                .sort(sort)
+                .build();
+    }
+}
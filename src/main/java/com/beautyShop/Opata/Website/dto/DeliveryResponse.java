@@ -1,8 +1,10 @@
 package com.beautyShop.Opata.Website.dto;
 
 import com.beautyShop.Opata.Website.entity.*;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,6 +12,8 @@ import java.time.LocalDateTime;
 // ── Returned when viewing a delivery ────────────────────────
 @Data
 @Builder
+@AllArgsConstructor
+@NoArgsConstructor
 public class DeliveryResponse {
 
     private Long id;
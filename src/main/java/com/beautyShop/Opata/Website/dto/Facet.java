@@ -0,0 +1,13 @@
+package com.beautyShop.Opata.Website.dto;
+
+// Filterable catalog dimensions — values are matched case-insensitively
+public enum Facet {
+    CATEGORY,
+    SUB_CATEGORY,
+    BRAND,
+    MATERIAL,    // clothing only
+    SIZE,        // clothing only — ClothingSize name
+    COLOR,       // clothing only — ClothingColor name
+    TAG,         // general only
+    ATTRIBUTE    // general only — "key=value", e.g. "Skin Type=Oily"
+}
@@ -0,0 +1,4 @@
+package com.beautyShop.Opata.Website.dto;
+
+// ── One entry of a filter sidebar: "M (12)" ──
+public record FacetCount(String value, int count) {}
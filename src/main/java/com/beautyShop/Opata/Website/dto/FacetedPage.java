@@ -0,0 +1,25 @@
+package com.beautyShop.Opata.Website.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of search results plus everything the filter sidebar needs.
+ * Counts for a dimension ignore that dimension's own selection, so picking
+ * size M still shows how many products come in L.
+ */
+@Data
+@Builder
+public class FacetedPage<T> {
+
+    private CursorPage<T> results;
+
+    // Products matching every filter, across all pages
+    private int total;
+
+    private Map<Facet, List<FacetCount>> facets;
+    private List<PriceRangeCount> priceRanges;
+}
@@ -1,5 +1,6 @@
 package com.beautyShop.Opata.Website.dto;
 
+import com.beautyShop.Opata.Website.entity.ImageDeliveryUrls;
 import lombok.Builder;
 import lombok.Data;
 
@@ -11,7 +12,7 @@ import java.util.Map;
 // ── Returned when viewing a general product ──────────────────
 @Data
 @Builder
-public class GeneralProductResponse {
+public class GeneralProductResponse implements ProductView {
 
     private Long id;
     private String name;
@@ -55,9 +56,15 @@ public class GeneralProductResponse {
     // Primary (cover) image URL
     private String imageUrl;
 
+    // Cover image at listing-card size (640px)
+    private String cardImageUrl;
+
     // All images in display order
     private List<String> imageUrls;
 
+    // Per image: optimized, thumbnail (320px), card (640px), detail (1280px)
+    private List<ImageDeliveryUrls> imageVariants;
+
     // Name of the shop owner who added this product
     private String addedByAdmin;
 
@@ -1,12 +1,16 @@
 package com.beautyShop.Opata.Website.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
 @Data
 @Builder
+@AllArgsConstructor
+@NoArgsConstructor
 public class OrderItemResponse {
     private Long productId;
     private String productName;
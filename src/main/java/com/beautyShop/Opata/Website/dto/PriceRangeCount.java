@@ -0,0 +1,6 @@
+package com.beautyShop.Opata.Website.dto;
+
+import java.math.BigDecimal;
+
+// ── Price band with its product count — max is null for the open-ended top band ──
+public record PriceRangeCount(BigDecimal min, BigDecimal max, int count) {}
@@ -0,0 +1,19 @@
+package com.beautyShop.Opata.Website.dto;
+
+import com.beautyShop.Opata.Website.entity.AlertKind;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ProductAlertRequest {
+
+    // Defaults to CLOTHING
+    private ProductType productType;
+
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    @NotNull(message = "Alert kind is required")
+    private AlertKind kind;
+}
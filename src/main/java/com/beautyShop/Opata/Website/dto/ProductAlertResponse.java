@@ -0,0 +1,18 @@
+package com.beautyShop.Opata.Website.dto;
+
+import com.beautyShop.Opata.Website.entity.AlertKind;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ProductAlertResponse {
+    private Long id;
+    private ProductType productType;
+    private Long productId;
+    private AlertKind kind;
+    private LocalDateTime createdAt;
+}
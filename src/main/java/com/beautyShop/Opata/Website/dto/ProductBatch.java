@@ -0,0 +1,18 @@
+package com.beautyShop.Opata.Website.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// ── Several products by id in one call (cart, wishlist, recently viewed) ──
+@Data
+@Builder
+public class ProductBatch<T> {
+
+    // In the order the ids were requested; repeated ids appear once
+    private List<T> items;
+
+    // Requested ids with no such product — deleted, or never existed
+    private List<Long> missing;
+}
@@ -0,0 +1,25 @@
+package com.beautyShop.Opata.Website.dto;
+
+import com.beautyShop.Opata.Website.entity.ProductType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// ── One entry of the admin change feed ───────────────────────
+@Data
+@Builder
+public class ProductChange {
+
+    public enum Operation { UPSERT, DELETE }
+
+    private Operation operation;
+    private ProductType productType;
+    private Long productId;
+
+    // updatedAt of the product, or when it was deleted
+    private LocalDateTime changedAt;
+
+    // The product as it is now — null for DELETE
+    private ProductView product;
+}
@@ -0,0 +1,20 @@
+package com.beautyShop.Opata.Website.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// ── A page of the admin change feed, oldest change first ──────
+@Data
+@Builder
+public class ProductChangePage {
+
+    private List<ProductChange> changes;
+
+    // Pass back as ?since= — on the last page too, that is where the next poll resumes
+    private String nextCursor;
+
+    // More changes are waiting; fetch again right away instead of on the next poll
+    private boolean hasMore;
+}
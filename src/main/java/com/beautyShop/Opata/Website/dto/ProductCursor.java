@@ -0,0 +1,66 @@
+package com.beautyShop.Opata.Website.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor — "the last row I saw was (key, id) under this sort".
+ * Encoded as URL-safe base64 of "SORT|id|key" so clients treat it as a token.
+ */
+@Getter
+public class ProductCursor {
+
+    private final ProductSort    sort;
+    private final Comparable<?>  key;
+    private final long           id;
+
+    private ProductCursor(ProductSort sort, Comparable<?> key, long id) {
+        this.sort = sort;
+        this.key  = key;
+        this.id   = id;
+    }
+
+    // ── Cursor pointing just after the given product ──────────
+    public static ProductCursor after(ProductSort sort, ProductView last) {
+        return new ProductCursor(sort, sort.keyOf(last), last.getId());
+    }
+
+    // ── Cursor for keys not carried by the product itself (e.g. relevance score) ──
+    public static ProductCursor of(ProductSort sort, Comparable<?> key, long id) {
+        return new ProductCursor(sort, key, id);
+    }
+
+    public String encode() {
+        String raw = sort.name() + "|" + id + "|" + sort.formatKey(key);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ── Returns null for the first page ───────────────────────
+    public static ProductCursor decode(String token, ProductSort expectedSort) {
+        if (token == null || token.isBlank()) return null;
+
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split("\\|", 3);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[0].equals(expectedSort.name())) {
+            throw new IllegalArgumentException("Cursor was issued for sort " + parts[0]
+                    + " and cannot be used with sort " + expectedSort.name());
+        }
+
+        try {
+            return new ProductCursor(expectedSort, expectedSort.parseKey(parts[2]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
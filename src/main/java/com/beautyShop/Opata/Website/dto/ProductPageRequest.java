@@ -0,0 +1,76 @@
+package com.beautyShop.Opata.Website.dto;
+
+import lombok.Data;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// ── Bound from ?sort=&cursor=&size=&fields= on every catalog listing ──
+@Data
+public class ProductPageRequest {
+
+    public static final int DEFAULT_SIZE = 24;
+    public static final int MAX_SIZE     = 100;
+
+    // What a grid tile shows — requested as ?fields=card
+    public static final List<String> CARD_FIELDS = List.of(
+            "id", "name", "price", "finalPrice", "discountPercentage",
+            "category", "brand", "stock", "isAvailable", "cardImageUrl");
+
+    // NEWEST, PRICE_ASC, PRICE_DESC, FINAL_PRICE_ASC, FINAL_PRICE_DESC, NAME_ASC, NAME_DESC,
+    // RELEVANCE (keyword search only) — empty means the endpoint's default
+    private ProductSort sort;
+
+    // nextCursor from the previous page — empty for the first page
+    private String cursor;
+
+    private Integer size = DEFAULT_SIZE;
+
+    // Sparse fieldset, e.g. ?fields=id,name,finalPrice or ?fields=card — empty means every field
+    private String fields;
+
+    public ProductSort resolvedSort() {
+        return resolvedSort(ProductSort.NEWEST);
+    }
+
+    public ProductSort resolvedSort(ProductSort fallback) {
+        return sort != null ? sort : fallback;
+    }
+
+    public int resolvedSize() {
+        if (size == null || size < 1) return DEFAULT_SIZE;
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public Set<String> resolvedFields() {
+        return parseFields(fields);
+    }
+
+    /** Requested field names (id always included), or null when the full item was asked for. */
+    public static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) return null;
+        Set<String> resolved = new LinkedHashSet<>();
+        resolved.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.equals("card")) resolved.addAll(CARD_FIELDS);
+            else if (!name.isEmpty()) resolved.add(name);
+        }
+        return resolved;
+    }
+
+    /** True when every requested field is on the card — the page can skip descriptions, images and collections. */
+    public boolean cardFieldsOnly() {
+        Set<String> resolved = resolvedFields();
+        return resolved != null && CARD_FIELDS.containsAll(resolved);
+    }
+
+    public ProductCursor decodedCursor() {
+        return decodedCursor(resolvedSort());
+    }
+
+    public ProductCursor decodedCursor(ProductSort sort) {
+        return ProductCursor.decode(cursor, sort);
+    }
+}
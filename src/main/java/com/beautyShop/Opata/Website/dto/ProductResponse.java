@@ -11,7 +11,7 @@ import java.util.List;
 // ── Returned when viewing products ───────────────────────────
 @Data
 @Builder
-public class ProductResponse {
+public class ProductResponse implements ProductView {
 
     private Long id;
     private String name;
@@ -52,9 +52,15 @@ public class ProductResponse {
     // Primary (cover) image URL
     private String imageUrl;
 
+    // Cover image at listing-card size (640px)
+    private String cardImageUrl;
+
     // All images in display order
     private List<String> imageUrls;
 
+    // Per image: optimized, thumbnail (320px), card (640px), detail (1280px)
+    private List<ImageDeliveryUrls> imageVariants;
+
     // Name of the shop owner who added this product
     private String addedByAdmin;
 
@@ -0,0 +1,90 @@
+package com.beautyShop.Opata.Website.dto;
+
+import com.beautyShop.Opata.Website.entity.ClothingColor;
+import com.beautyShop.Opata.Website.entity.ClothingSize;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.entity.SubCategory;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// ── Bound from /api/products/search query params — every filter is optional ──
+// Multi-valued params accept repeats or commas: ?sizes=M&sizes=L or ?sizes=M,L
+@Data
+public class ProductSearchRequest {
+
+    private ProductType type = ProductType.CLOTHING;
+
+    // Keyword, matched through the search index
+    private String q;
+
+    private List<String> categories;
+    private List<String> subCategories;
+    private List<String> brands;
+
+    // Clothing only
+    private List<String> sizes;
+    private List<String> colors;
+    private List<String> materials;
+
+    // General only — attributes as "key=value", e.g. "Skin Type=Oily"
+    private List<String> tags;
+    private List<String> attributes;
+
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    private Boolean available;
+    private Boolean inStock;
+    private Boolean discounted;
+
+    public ProductType resolvedType() {
+        return type != null ? type : ProductType.CLOTHING;
+    }
+
+    /**
+     * Everything except the keyword, which is resolved by the search index.
+     * Unknown sizes, colors and clothing sub-categories are rejected, so the
+     * catalog and the database fallback answer them the same way.
+     */
+    public CatalogQuery toQuery() {
+        requireKnown("sizes", sizes, ClothingSize.class);
+        requireKnown("colors", colors, ClothingColor.class);
+        if (resolvedType() == ProductType.CLOTHING) requireKnown("subCategories", subCategories, SubCategory.class);
+
+        CatalogQuery query = CatalogQuery.all()
+                .withAny(Facet.CATEGORY,     categories)
+                .withAny(Facet.SUB_CATEGORY, subCategories)
+                .withAny(Facet.BRAND,        brands)
+                .withAny(Facet.SIZE,         sizes)
+                .withAny(Facet.COLOR,        colors)
+                .withAny(Facet.MATERIAL,     materials)
+                .withAny(Facet.TAG,          tags)
+                .withAny(Facet.ATTRIBUTE,    attributes)
+                .priceBetween(minPrice, maxPrice);
+        if (Boolean.TRUE.equals(available))  query.availableOnly();
+        if (Boolean.TRUE.equals(inStock))    query.inStockOnly();
+        if (Boolean.TRUE.equals(discounted)) query.discountedOnly();
+        return query;
+    }
+
+    public boolean hasKeyword() {
+        return q != null && !q.isBlank();
+    }
+
+    private static <E extends Enum<E>> void requireKnown(String param, List<String> values, Class<E> type) {
+        if (values == null) return;
+        for (String value : values) {
+            if (value == null || value.isBlank()) continue;
+            try {
+                Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown " + param + " value: " + value
+                        + " — expected one of " + Arrays.toString(type.getEnumConstants()));
+            }
+        }
+    }
+}
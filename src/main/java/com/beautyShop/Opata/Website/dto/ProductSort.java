@@ -0,0 +1,64 @@
+package com.beautyShop.Opata.Website.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Stable sort orders for the public catalog.
+ * Every order is tie-broken by product id so keyset cursors never skip or repeat a row.
+ */
+public enum ProductSort {
+
+    NEWEST("createdAt", false),
+    PRICE_ASC("price", true),
+    PRICE_DESC("price", false),
+    FINAL_PRICE_ASC("finalPrice", true),
+    FINAL_PRICE_DESC("finalPrice", false),
+    NAME_ASC("name", true),
+    NAME_DESC("name", false),
+
+    // Keyword search only — best match first, scored by the search index
+    RELEVANCE("relevance", false);
+
+    private final String property;
+    private final boolean ascending;
+
+    ProductSort(String property, boolean ascending) {
+        this.property  = property;
+        this.ascending = ascending;
+    }
+
+    public String getProperty() { return property; }
+    public boolean isAscending() { return ascending; }
+
+    /** Sort key of a product as it appears in a response. */
+    public Comparable<?> keyOf(ProductView p) {
+        return keyOf(property, p);
+    }
+
+    /** Value of a sortable property — "createdAt", "price", "finalPrice" or "name". */
+    public static Comparable<?> keyOf(String property, ProductView p) {
+        return switch (property) {
+            case "createdAt"  -> p.getCreatedAt();
+            case "price"      -> p.getPrice();
+            case "finalPrice" -> p.getFinalPrice();
+            case "relevance"  -> throw new IllegalStateException("Relevance is only known to the search index");
+            default           -> p.getName();
+        };
+    }
+
+    /** Parses a sort key back from its cursor string form. */
+    public Comparable<?> parseKey(String raw) {
+        return switch (property) {
+            case "createdAt"            -> LocalDateTime.parse(raw);
+            case "price", "finalPrice"  -> new BigDecimal(raw);
+            case "relevance"            -> Float.valueOf(raw);
+            default                     -> raw;
+        };
+    }
+
+    /** Writes a sort key in a form {@link #parseKey} can read back. */
+    public String formatKey(Comparable<?> key) {
+        return key instanceof BigDecimal d ? d.toPlainString() : String.valueOf(key);
+    }
+}
@@ -0,0 +1,22 @@
+package com.beautyShop.Opata.Website.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// ── Fields shared by clothing and general product responses ──
+// Used for sort keys, cursors and the in-memory catalog so both types are handled alike
+public interface ProductView {
+
+    Long getId();
+    String getName();
+    String getDescription();
+    String getCategory();
+    String getBrand();
+    BigDecimal getPrice();
+    BigDecimal getFinalPrice();
+    BigDecimal getDiscountPercentage();
+    Integer getStock();
+    Boolean getIsAvailable();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
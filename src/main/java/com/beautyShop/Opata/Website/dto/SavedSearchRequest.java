@@ -0,0 +1,30 @@
+package com.beautyShop.Opata.Website.dto;
+
+import com.beautyShop.Opata.Website.entity.ClothingColor;
+import com.beautyShop.Opata.Website.entity.ClothingSize;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// At least one criterion is required; size and color apply to clothing, tag to general products
+@Data
+public class SavedSearchRequest {
+
+    // Defaults to CLOTHING
+    private ProductType productType;
+
+    @Size(max = 100, message = "Name must be at most 100 characters")
+    private String name;
+
+    private String category;
+    private String brand;
+    private String tag;
+    private ClothingSize size;
+    private ClothingColor color;
+
+    @DecimalMin(value = "0.0", inclusive = false, message = "Max price must be positive")
+    private BigDecimal maxPrice;
+}
@@ -0,0 +1,25 @@
+package com.beautyShop.Opata.Website.dto;
+
+import com.beautyShop.Opata.Website.entity.ClothingColor;
+import com.beautyShop.Opata.Website.entity.ClothingSize;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class SavedSearchResponse {
+    private Long id;
+    private ProductType productType;
+    private String name;
+    private String category;
+    private String brand;
+    private String tag;
+    private ClothingSize size;
+    private ClothingColor color;
+    private BigDecimal maxPrice;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,12 @@
+package com.beautyShop.Opata.Website.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class StockHoldItemResponse {
+    private Long productId;
+    private String productName;
+    private int quantity;
+}
@@ -0,0 +1,15 @@
+package com.beautyShop.Opata.Website.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// The cart lines held for checkout — place the order before expiresAt
+@Data
+@Builder
+public class StockHoldResponse {
+    private List<StockHoldItemResponse> items;
+    private LocalDateTime expiresAt;
+}
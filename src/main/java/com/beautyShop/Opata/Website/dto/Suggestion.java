@@ -0,0 +1,9 @@
+package com.beautyShop.Opata.Website.dto;
+
+import com.beautyShop.Opata.Website.entity.ProductType;
+
+// ── One autocomplete row — productId is set for PRODUCT suggestions only ──
+public record Suggestion(String text, Kind kind, ProductType type, Long productId) {
+
+    public enum Kind { PRODUCT, BRAND, CATEGORY, TAG }
+}
@@ -0,0 +1,7 @@
+package com.beautyShop.Opata.Website.entity;
+
+// What a ProductAlertSubscription waits for
+public enum AlertKind {
+    BACK_IN_STOCK,   // stock goes from 0 to above 0
+    PRICE_DROP       // final (discounted) price goes down
+}
@@ -1,5 +1,7 @@
 package com.beautyShop.Opata.Website.entity;
 
+// Stored as bits of products.color_mask by ordinal — add new colors at the end
+// (at most 64 of them)
 public enum ClothingColor {
     // Neutrals
     BLACK,
@@ -0,0 +1,21 @@
+package com.beautyShop.Opata.Website.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/** Product.availableColors ↔ products.color_mask (see EnumMask). */
+@Converter
+public class ClothingColorsConverter implements AttributeConverter<List<ClothingColor>, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(List<ClothingColor> colors) {
+        return EnumMask.of(colors);
+    }
+
+    @Override
+    public List<ClothingColor> convertToEntityAttribute(Long mask) {
+        return EnumMask.values(ClothingColor.class, mask != null ? mask : 0);
+    }
+}
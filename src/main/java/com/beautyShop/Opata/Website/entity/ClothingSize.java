@@ -1,5 +1,6 @@
 package com.beautyShop.Opata.Website.entity;
 
+// Stored as bits of products.size_mask by ordinal — add new sizes at the end
 public enum ClothingSize {
     XS,
     S,
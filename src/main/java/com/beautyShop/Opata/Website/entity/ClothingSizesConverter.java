@@ -0,0 +1,21 @@
+package com.beautyShop.Opata.Website.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/** Product.availableSizes ↔ products.size_mask (see EnumMask). */
+@Converter
+public class ClothingSizesConverter implements AttributeConverter<List<ClothingSize>, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(List<ClothingSize> sizes) {
+        return (int) EnumMask.of(sizes);
+    }
+
+    @Override
+    public List<ClothingSize> convertToEntityAttribute(Integer mask) {
+        return EnumMask.values(ClothingSize.class, mask != null ? mask : 0);
+    }
+}
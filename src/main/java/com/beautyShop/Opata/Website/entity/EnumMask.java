@@ -0,0 +1,38 @@
+package com.beautyShop.Opata.Website.entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sets of enum values packed into one long — bit n is the constant with ordinal n.
+ * Backs the size and color columns on products; new constants must therefore
+ * be added at the END of their enum, never in between.
+ */
+public final class EnumMask {
+
+    private EnumMask() {}
+
+    public static long bit(Enum<?> value) {
+        return 1L << value.ordinal();
+    }
+
+    public static long of(Collection<? extends Enum<?>> values) {
+        long mask = 0;
+        if (values != null) {
+            for (Enum<?> value : values) {
+                if (value != null) mask |= bit(value);
+            }
+        }
+        return mask;
+    }
+
+    /** Constants whose bits are set, in declaration order. */
+    public static <E extends Enum<E>> List<E> values(Class<E> type, long mask) {
+        List<E> values = new ArrayList<>(Long.bitCount(mask));
+        for (E constant : type.getEnumConstants()) {
+            if ((mask & bit(constant)) != 0) values.add(constant);
+        }
+        return values;
+    }
+}
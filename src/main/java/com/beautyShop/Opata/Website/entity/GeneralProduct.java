@@ -3,10 +3,15 @@ package com.beautyShop.Opata.Website.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,7 +19,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "general_products")
+// Composite (sort key, id) indexes back keyset pagination on the public catalog
+// and on the admin change feed (updatedAt)
+@Table(name = "general_products", indexes = {
+        @Index(name = "idx_general_products_created_id",          columnList = "createdAt, id"),
+        @Index(name = "idx_general_products_price_id",            columnList = "price, id"),
+        @Index(name = "idx_general_products_final_price_id",      columnList = "finalPrice, id"),
+        @Index(name = "idx_general_products_name_id",             columnList = "name, id"),
+        @Index(name = "idx_general_products_category_created_id", columnList = "category, createdAt, id"),
+        @Index(name = "idx_general_products_updated_id",          columnList = "updatedAt, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -72,26 +86,34 @@ public class GeneralProduct {
     @Column(precision = 5, scale = 2)
     private BigDecimal discountPercentage;
 
+    // What the customer pays — see Product.finalPrice
+    @Setter(AccessLevel.NONE)
+    @Column(name = "final_price", precision = 10, scale = 2)
+    private BigDecimal finalPrice;
+
     // Tags for search/filtering e.g. "sale", "new arrival", "trending"
-    @ElementCollection
-    @CollectionTable(name = "general_product_tags", joinColumns = @JoinColumn(name = "product_id"))
-    @Column(name = "tag")
+    // Stored lower-cased in a text[] column (GIN-indexed) — a tag filter is one
+    // array containment, tags @> ARRAY['sale'], instead of a join table
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "tags")
     @Builder.Default
     private List<String> tags = new ArrayList<>();
 
     // Key-value pairs for flexible product attributes
     // e.g. {"Voltage": "220V", "Warranty": "1 year"} for electronics
     //      {"Scent": "Lavender", "Skin Type": "Oily"} for beauty
-    @ElementCollection
-    @CollectionTable(name = "general_product_attributes", joinColumns = @JoinColumn(name = "product_id"))
-    @MapKeyColumn(name = "attribute_key")
-    @Column(name = "attribute_value")
+    // Stored as one jsonb document (GIN-indexed, case-insensitive), so several
+    // pairs are matched in a single containment: attributes @> '{"Skin Type":"Oily"}'
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "attributes")
     @Builder.Default
     private java.util.Map<String, String> attributes = new java.util.HashMap<>();
 
     // ── Multiple images ─────────────────────────────────────
+    // Batch-loaded for a whole listing page at once
     @OneToMany(mappedBy = "generalProduct", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("displayOrder ASC")
+    @BatchSize(size = Product.FETCH_BATCH)
     @Builder.Default
     private List<GeneralProductImage> images = new ArrayList<>();
 
@@ -108,11 +130,13 @@ public class GeneralProduct {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        finalPrice = getFinalPrice();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        finalPrice = getFinalPrice();
     }
 
     // ── Convenience helpers ─────────────────────────────────
@@ -129,11 +153,7 @@ public class GeneralProduct {
 
     /** Returns the final price after discount, or original price if no discount. */
     public BigDecimal getFinalPrice() {
-        if (discountPercentage == null || discountPercentage.compareTo(BigDecimal.ZERO) == 0) {
-            return price;
-        }
-        BigDecimal discount = price.multiply(discountPercentage).divide(BigDecimal.valueOf(100));
-        return price.subtract(discount);
+        return Product.finalPriceOf(price, discountPercentage);
     }
 
     /** Returns true if the product is in stock. */
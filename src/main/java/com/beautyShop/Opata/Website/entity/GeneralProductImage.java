@@ -24,6 +24,10 @@ public class GeneralProductImage {
     // Cloudinary public ID for deletion/transformation
     private String imagePublicId;
 
+    // Precomputed optimized + responsive URLs
+    @Embedded
+    private ImageDeliveryUrls deliveryUrls;
+
     // 0 = primary/cover image
     private Integer displayOrder;
 
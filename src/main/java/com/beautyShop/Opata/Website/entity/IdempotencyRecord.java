@@ -0,0 +1,52 @@
+package com.beautyShop.Opata.Website.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// ── The first successful response for one Idempotency-Key ──
+// Written in the same transaction as the order / delivery it describes, so a
+// key is recorded if and only if its work committed. Purged after a day.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "idempotency_keys", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_user_scope_key",
+                columnNames = {"user_id", "scope", "idempotency_key"})
+}, indexes = {
+        @Index(name = "idx_idempotency_created", columnList = "createdAt")
+})
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // No foreign key — just namespaces the key
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 24)
+    private IdempotencyScope scope;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 of the request body — a reused key with a different body is refused
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String responseJson;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.beautyShop.Opata.Website.entity;
+
+// The endpoint an Idempotency-Key was sent to — the same key may be reused across scopes
+public enum IdempotencyScope {
+    PLACE_ORDER,        // POST /api/user/orders/place
+    REQUEST_DELIVERY    // POST /api/user/deliveries/request
+}
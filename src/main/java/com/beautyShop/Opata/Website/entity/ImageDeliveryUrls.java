@@ -0,0 +1,38 @@
+package com.beautyShop.Opata.Website.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cloudinary delivery URLs for one image, generated once at upload time
+ * (or by ImageUrlBackfillJob for older rows) so reads never build URLs.
+ * All variants are q_auto + f_auto; the sized ones are capped at a width
+ * and never upscaled.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageDeliveryUrls {
+
+    // Full size — what imageUrl / imageUrls in responses point at
+    @Column(name = "optimized_url", length = 512)
+    private String optimized;
+
+    // 320px — cart lines, thumbnails strip
+    @Column(name = "thumbnail_url", length = 512)
+    private String thumbnail;
+
+    // 640px — product cards in listings
+    @Column(name = "card_url", length = 512)
+    private String card;
+
+    // 1280px — product detail page
+    @Column(name = "detail_url", length = 512)
+    private String detail;
+}
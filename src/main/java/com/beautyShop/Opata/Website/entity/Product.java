@@ -3,24 +3,40 @@ package com.beautyShop.Opata.Website.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+// Composite (sort key, id) indexes back keyset pagination on the public catalog
+// and on the admin change feed (updatedAt)
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_created_id",          columnList = "createdAt, id"),
+        @Index(name = "idx_products_price_id",            columnList = "price, id"),
+        @Index(name = "idx_products_final_price_id",      columnList = "finalPrice, id"),
+        @Index(name = "idx_products_name_id",             columnList = "name, id"),
+        @Index(name = "idx_products_category_created_id", columnList = "category, createdAt, id"),
+        @Index(name = "idx_products_updated_id",          columnList = "updatedAt, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Product {
 
+    // Largest listing page (100) plus the look-ahead row
+    public static final int FETCH_BATCH = 128;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -52,18 +68,17 @@ public class Product {
     private String brand;
 
     // Available sizes using enum
-    @ElementCollection(targetClass = ClothingSize.class)
-    @CollectionTable(name = "product_sizes", joinColumns = @JoinColumn(name = "product_id"))
-    @Enumerated(EnumType.STRING)
-    @Column(name = "size")
+    // Sizes and colors are bitmasks on the product row (bit n = ordinal n), so
+    // loading or updating a product touches no side tables; a "has size M and
+    // color RED" filter is two bitwise tests on one row
+    @Convert(converter = ClothingSizesConverter.class)
+    @Column(name = "size_mask")
     @Builder.Default
     private List<ClothingSize> availableSizes = new ArrayList<>();
 
     // Available colors using enum
-    @ElementCollection(targetClass = ClothingColor.class)
-    @CollectionTable(name = "product_colors", joinColumns = @JoinColumn(name = "product_id"))
-    @Enumerated(EnumType.STRING)
-    @Column(name = "color")
+    @Convert(converter = ClothingColorsConverter.class)
+    @Column(name = "color_mask")
     @Builder.Default
     private List<ClothingColor> availableColors = new ArrayList<>();
 
@@ -84,9 +99,16 @@ public class Product {
     @Column(precision = 5, scale = 2)
     private BigDecimal discountPercentage;
 
+    // What the customer pays — derived from price and discount on every insert
+    // and update, stored so price filters, sorts and histograms run in the database
+    @Setter(AccessLevel.NONE)
+    @Column(name = "final_price", precision = 10, scale = 2)
+    private BigDecimal finalPrice;
+
     // ── Multiple images ─────────────────────────────────────
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("displayOrder ASC")
+    @BatchSize(size = Product.FETCH_BATCH)
     @Builder.Default
     private List<ProductImage> images = new ArrayList<>();
 
@@ -103,11 +125,13 @@ public class Product {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        finalPrice = getFinalPrice();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        finalPrice = getFinalPrice();
     }
 
     // ── Convenience helpers ─────────────────────────────────
@@ -124,10 +148,15 @@ public class Product {
 
     /** Returns the final price after discount, or original price if no discount. */
     public BigDecimal getFinalPrice() {
-        if (discountPercentage == null || discountPercentage.compareTo(BigDecimal.ZERO) == 0) {
+        return finalPriceOf(price, discountPercentage);
+    }
+
+    /** price - price * discount / 100, rounded to cents — the value kept in final_price. */
+    public static BigDecimal finalPriceOf(BigDecimal price, BigDecimal discountPercentage) {
+        if (price == null || discountPercentage == null || discountPercentage.compareTo(BigDecimal.ZERO) == 0) {
             return price;
         }
         BigDecimal discount = price.multiply(discountPercentage).divide(BigDecimal.valueOf(100));
-        return price.subtract(discount);
+        return price.subtract(discount).setScale(2, RoundingMode.HALF_UP);
     }
 }
\ No newline at end of file
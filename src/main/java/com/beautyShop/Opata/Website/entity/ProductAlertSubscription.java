@@ -0,0 +1,52 @@
+package com.beautyShop.Opata.Website.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// ── "Tell me when this product is back / cheaper" ──
+// One-shot: removed once its alert has been sent
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "product_alert_subscriptions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_alert_user_product_kind",
+                columnNames = {"user_id", "product_type", "product_id", "kind"})
+}, indexes = {
+        @Index(name = "idx_product_alert_product", columnList = "product_type, product_id")
+})
+public class ProductAlertSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ProductType productType;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AlertKind kind;
+
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
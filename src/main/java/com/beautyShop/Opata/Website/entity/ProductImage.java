@@ -24,6 +24,10 @@ public class ProductImage {
     @Column(nullable = false)
     private String imagePublicId;
 
+    // Precomputed optimized + responsive URLs
+    @Embedded
+    private ImageDeliveryUrls deliveryUrls;
+
     // Display order (0 = primary/cover image)
     @Column(nullable = false)
     private int displayOrder;
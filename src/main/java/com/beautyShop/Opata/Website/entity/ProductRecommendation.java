@@ -0,0 +1,37 @@
+package com.beautyShop.Opata.Website.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// ── "Frequently bought together": one row per (product, recommended product) ──
+// Written by CoPurchaseRecommender — top-K per product, rank 0 first
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "product_recommendations", indexes = {
+        @Index(name = "idx_product_recommendations_product_rank", columnList = "productId, recommendation_rank")
+})
+public class ProductRecommendation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long recommendedId;
+
+    // Orders that contained both products
+    @Column(nullable = false)
+    private int coPurchases;
+
+    @Column(name = "recommendation_rank", nullable = false)
+    private int rank;
+}
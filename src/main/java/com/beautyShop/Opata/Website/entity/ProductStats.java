@@ -0,0 +1,44 @@
+package com.beautyShop.Opata.Website.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// ── Running view / search-impression totals per product ──
+// Written only by ProductViewCounter, as batched upserts — never per request
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "product_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_stats_type_product", columnNames = {"product_type", "product_id"})
+})
+public class ProductStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ProductType productType;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    // Product page opens
+    @Column(nullable = false)
+    private long views;
+
+    // Times the product appeared in a keyword search result page
+    @Column(nullable = false)
+    private long searchImpressions;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,7 @@
+package com.beautyShop.Opata.Website.entity;
+
+// Which catalog a product id belongs to — ids are only unique within one type
+public enum ProductType {
+    CLOTHING,   // Product
+    GENERAL     // GeneralProduct
+}
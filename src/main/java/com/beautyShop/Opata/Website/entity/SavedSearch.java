@@ -0,0 +1,64 @@
+package com.beautyShop.Opata.Website.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// ── A customer's standing search: notify me when a matching product arrives ──
+// Every criterion left null matches anything; the rest must all hold
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "saved_searches", indexes = {
+        @Index(name = "idx_saved_searches_user", columnList = "user_id")
+})
+public class SavedSearch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ProductType productType;
+
+    // Optional label shown in the customer's list, e.g. "Summer dresses"
+    private String name;
+
+    // Stored lower-case, like product categories and tags
+    private String category;
+    private String brand;
+
+    // General products only
+    private String tag;
+
+    // Clothing only
+    @Enumerated(EnumType.STRING)
+    private ClothingSize size;
+
+    @Enumerated(EnumType.STRING)
+    private ClothingColor color;
+
+    // Compared with the product's final (discounted) price
+    @Column(precision = 10, scale = 2)
+    private BigDecimal maxPrice;
+
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -2,6 +2,7 @@ package com.beautyShop.Opata.Website.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 import java.util.UUID;
@@ -11,6 +12,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @Entity
 @Table(name = "shopOwner")
+// Admin names on product listings resolve in one query per page, not one per product
+@BatchSize(size = Product.FETCH_BATCH)
 @Builder
 @Getter
 @Setter
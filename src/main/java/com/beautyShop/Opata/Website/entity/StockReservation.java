@@ -0,0 +1,50 @@
+package com.beautyShop.Opata.Website.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// ── Units of a clothing product held for one customer's checkout ──
+// Kept in memory by StockReservationService; this table lets holds survive a restart.
+// Deleted when the order is placed, the checkout is abandoned, or expiresAt passes.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_stock_reservations_user",    columnList = "user_id"),
+        @Index(name = "idx_stock_reservations_expires", columnList = "expiresAt")
+})
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // No foreign key — a hold on a product deleted meanwhile just runs out
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
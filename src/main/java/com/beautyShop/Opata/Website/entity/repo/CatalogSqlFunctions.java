@@ -0,0 +1,56 @@
+package com.beautyShop.Opata.Website.entity.repo;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * PostgreSQL operators the Criteria API cannot spell, exposed as HQL functions
+ * for ProductSpecifications. Each renders the exact expression its GIN index
+ * was built on — a function-call form (jsonb_contains(...)) would not use it.
+ *
+ * catalog_mask_bits(bigint) → smallint[] is created by ProductMaskMigration.
+ * Other dialects (H2 in tests) get plain-SQL equivalents without the indexes.
+ *
+ * Registered through META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class CatalogSqlFunctions implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functions) {
+        SqmFunctionRegistry registry = functions.getFunctionRegistry();
+        BasicType<Boolean> bool = functions.getTypeConfiguration()
+                .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+
+        if (!(functions.getDialect() instanceof PostgreSQLDialect)) {
+            registry.registerPattern("tags_contain", "array_contains(?1, lower(?2))", bool);
+            registry.registerPattern("attribute_is",
+                    "(lower(cast(?1 as varchar)) like concat('%\"', lower(?2), '\":\"', lower(?3), '\"%'))", bool);
+            registry.registerPattern("attribute_key_exists",
+                    "(lower(cast(?1 as varchar)) like concat('%\"', lower(?2), '\":%'))", bool);
+            registry.registerPattern("mask_has_any", "(bitand(?1, ?2) <> 0)", bool);
+            return;
+        }
+
+        // tags_contain(p.tags, 'sale') — idx_general_products_tags
+        registry.registerPattern("tags_contain",
+                "(?1 @> array[lower(?2)]::text[])", bool);
+
+        // attribute_is(p.attributes, 'Skin Type', 'Oily') — idx_general_products_attributes;
+        // several of these on one query are answered by a single GIN scan
+        registry.registerPattern("attribute_is",
+                "(lower(cast(?1 as text))::jsonb @> jsonb_build_object(lower(?2), lower(?3)))", bool);
+
+        // attribute_key_exists(p.attributes, 'Warranty') — key-only filters are rare; not index-served
+        registry.registerPattern("attribute_key_exists",
+                "jsonb_exists(lower(cast(?1 as text))::jsonb, lower(?2))", bool);
+
+        // mask_has_any(p.availableSizes, bits) — the same test as (size_mask & bits) <> 0, spelled
+        // as overlap of the set bits so idx_products_size_bits / idx_products_color_bits serve it
+        registry.registerPattern("mask_has_any",
+                "(catalog_mask_bits(?1) && catalog_mask_bits(?2))", bool);
+    }
+}
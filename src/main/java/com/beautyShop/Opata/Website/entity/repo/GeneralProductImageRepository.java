@@ -1,6 +1,7 @@
 package com.beautyShop.Opata.Website.entity.repo;
 
 import com.beautyShop.Opata.Website.entity.GeneralProductImage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -40,6 +41,10 @@ public interface GeneralProductImageRepository extends JpaRepository<GeneralProd
     @Query("SELECT i FROM GeneralProductImage i ORDER BY i.generalProduct.id ASC, i.displayOrder ASC")
     List<GeneralProductImage> findAllOrderedByProductAndDisplay();
 
+    // ── IMAGES UPLOADED BEFORE DELIVERY URLS WERE STORED ─────
+    @Query("SELECT i FROM GeneralProductImage i WHERE i.deliveryUrls.optimized IS NULL ORDER BY i.id")
+    List<GeneralProductImage> findMissingDeliveryUrls(Pageable pageable);
+
     // ── UPDATE DISPLAY ORDER ──────────────────────────────────
     @Modifying
     @Transactional
@@ -1,17 +1,60 @@
 package com.beautyShop.Opata.Website.entity.repo;
 
 import com.beautyShop.Opata.Website.entity.GeneralProduct;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface GeneralProductRepository extends JpaRepository<GeneralProduct, Long> {
+public interface GeneralProductRepository extends JpaRepository<GeneralProduct, Long>,
+                                                  JpaSpecificationExecutor<GeneralProduct> {
+
+    // Listing fetch plan: the owning admin is joined in, images are batch-loaded
+    // (see @BatchSize on the entity); tags and attributes are plain columns
+    String LISTING_GRAPH = "addedBy";
+
+    @Override
+    @EntityGraph(attributePaths = LISTING_GRAPH)
+    List<GeneralProduct> findAll();
+
+    // One IN query for a batch lookup; order is not guaranteed
+    @EntityGraph(attributePaths = LISTING_GRAPH)
+    List<GeneralProduct> findByIdIn(Collection<Long> ids);
+
+    // Whole table for ProductExportService, read through an open cursor
+    // EXPORT_FETCH_SIZE rows at a time — the caller must hold a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ProductRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY,  value = "true")
+    })
+    @Query("SELECT g FROM GeneralProduct g LEFT JOIN FETCH g.addedBy ORDER BY g.id")
+    Stream<GeneralProduct> streamAllForExport();
+
+    // ── CHANGE FEED — rows touched after (since, afterId), up to until ──
+    // Range scan on idx_*_updated_id; see ProductChangeFeed
+    @EntityGraph(attributePaths = LISTING_GRAPH)
+    @Query("SELECT g FROM GeneralProduct g " +
+           "WHERE g.updatedAt >= :since AND g.updatedAt <= :until " +
+           "AND (g.updatedAt > :since OR g.id > :afterId) " +
+           "ORDER BY g.updatedAt, g.id")
+    List<GeneralProduct> findChangedSince(@Param("since") LocalDateTime since,
+                                          @Param("afterId") long afterId,
+                                          @Param("until") LocalDateTime until,
+                                          Pageable pageable);
 
     // ── NAME SEARCH ──────────────────────────────────────────
     List<GeneralProduct> findByNameContainingIgnoreCase(String name);
@@ -48,10 +91,13 @@ public interface GeneralProductRepository extends JpaRepository<GeneralProduct,
     List<GeneralProduct> findByCategoryIgnoreCaseAndPriceBetween(String category, BigDecimal min, BigDecimal max);
 
     // ── PRODUCTS BY ADMIN ─────────────────────────────────────
+    @EntityGraph(attributePaths = LISTING_GRAPH)
     List<GeneralProduct> findByAddedById(UUID adminId);
 
-    // ── TAGS — uses JOIN because tags is an @ElementCollection ─
-    @Query("SELECT DISTINCT p FROM GeneralProduct p JOIN p.tags t WHERE LOWER(t) = LOWER(:tag)")
+    // ── TAGS — text[] containment, served by idx_general_products_tags (GIN) ─
+    // Tags are stored lower-cased, so the lookup value is lower-cased too
+    @Query(value = "SELECT * FROM general_products WHERE tags @> ARRAY[LOWER(:tag)]::text[]",
+           nativeQuery = true)
     List<GeneralProduct> findByTagsContaining(@Param("tag") String tag);
 
     // ── KEYWORD SEARCH (name + description + brand + category) ─
@@ -63,9 +109,11 @@ public interface GeneralProductRepository extends JpaRepository<GeneralProduct,
            "LOWER(p.subCategory) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<GeneralProduct> searchByKeyword(@Param("keyword") String keyword);
 
-    // ── ATTRIBUTE SEARCH — find by a specific attribute key-value pair ─
-    @Query("SELECT DISTINCT p FROM GeneralProduct p JOIN p.attributes a " +
-           "WHERE KEY(a) = :attrKey AND LOWER(VALUE(a)) = LOWER(:attrValue)")
+    // ── ATTRIBUTE SEARCH — jsonb containment, served by idx_general_products_attributes ─
+    // (GIN over the lower-cased document, so key and value match case-insensitively)
+    @Query(value = "SELECT * FROM general_products " +
+                   "WHERE LOWER(attributes::text)::jsonb @> jsonb_build_object(LOWER(:attrKey), LOWER(:attrValue))",
+           nativeQuery = true)
     List<GeneralProduct> findByAttribute(@Param("attrKey") String attrKey,
                                           @Param("attrValue") String attrValue);
 
@@ -79,6 +127,6 @@ public interface GeneralProductRepository extends JpaRepository<GeneralProduct,
     @Query("SELECT DISTINCT p.brand FROM GeneralProduct p WHERE p.brand IS NOT NULL ORDER BY p.brand")
     List<String> findAllBrands();
 
-    @Query("SELECT DISTINCT t FROM GeneralProduct p JOIN p.tags t ORDER BY t")
+    @Query(value = "SELECT DISTINCT t FROM general_products, UNNEST(tags) AS t ORDER BY t", nativeQuery = true)
     List<String> findAllTags();
 }
\ No newline at end of file
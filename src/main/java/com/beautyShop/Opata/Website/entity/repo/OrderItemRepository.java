@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,6 +40,14 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Query("SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.product.id = :productId")
     int getTotalQuantitySoldByProduct(@Param("productId") Long productId);
 
+    // Units sold per product, one row per product ever ordered: [productId, quantity]
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi GROUP BY oi.product.id")
+    List<Object[]> sumQuantityGroupedByProduct();
+
+    // Units sold for a batch of products; products never ordered have no row
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi WHERE oi.product.id IN :productIds GROUP BY oi.product.id")
+    List<Object[]> sumQuantityGroupedByProductIn(@Param("productIds") Collection<Long> productIds);
+
     // Admin: rank products by total units sold (best sellers)
     @Query("SELECT oi.product.id, oi.product.name, SUM(oi.quantity) as totalSold " +
             "FROM OrderItem oi GROUP BY oi.product.id, oi.product.name ORDER BY totalSold DESC")
@@ -0,0 +1,26 @@
+package com.beautyShop.Opata.Website.entity.repo;
+
+import com.beautyShop.Opata.Website.entity.AlertKind;
+import com.beautyShop.Opata.Website.entity.ProductAlertSubscription;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ProductAlertSubscriptionRepository extends JpaRepository<ProductAlertSubscription, Long> {
+
+    List<ProductAlertSubscription> findByUserIdOrderByCreatedAtDesc(UUID userId);
+
+    List<ProductAlertSubscription> findByProductTypeAndProductId(ProductType productType, Long productId);
+
+    Optional<ProductAlertSubscription> findByIdAndUserId(Long id, UUID userId);
+
+    Optional<ProductAlertSubscription> findByUserIdAndProductTypeAndProductIdAndKind(
+            UUID userId, ProductType productType, Long productId, AlertKind kind);
+
+    long countByUserId(UUID userId);
+}
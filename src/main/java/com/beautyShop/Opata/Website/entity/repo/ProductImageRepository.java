@@ -1,10 +1,16 @@
 package com.beautyShop.Opata.Website.entity.repo;
 
 import com.beautyShop.Opata.Website.entity.ProductImage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
     List<ProductImage> findByProductIdOrderByDisplayOrderAsc(Long productId);
+
+    // ── IMAGES UPLOADED BEFORE DELIVERY URLS WERE STORED ─────
+    @Query("SELECT i FROM ProductImage i WHERE i.deliveryUrls.optimized IS NULL ORDER BY i.id")
+    List<ProductImage> findMissingDeliveryUrls(Pageable pageable);
 }
\ No newline at end of file
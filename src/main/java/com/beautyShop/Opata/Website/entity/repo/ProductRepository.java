@@ -2,17 +2,62 @@ package com.beautyShop.Opata.Website.entity.repo;
 
 import com.beautyShop.Opata.Website.entity.Product;
 import com.beautyShop.Opata.Website.entity.*;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    // Listing fetch plan: the owning admin is joined in, images are batch-loaded
+    // (see @BatchSize on the entity); sizes and colors are columns on the row
+    String LISTING_GRAPH = "addedBy";
+
+    // Rows per JDBC round-trip when streaming an export
+    String EXPORT_FETCH_SIZE = "500";
+
+    @Override
+    @EntityGraph(attributePaths = LISTING_GRAPH)
+    List<Product> findAll();
+
+    // One IN query for a batch lookup; order is not guaranteed
+    @EntityGraph(attributePaths = LISTING_GRAPH)
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    // Whole table for ProductExportService, read through an open cursor
+    // EXPORT_FETCH_SIZE rows at a time — the caller must hold a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ProductRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY,  value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.addedBy ORDER BY p.id")
+    Stream<Product> streamAllForExport();
+
+    // ── CHANGE FEED — rows touched after (since, afterId), up to until ──
+    // Range scan on idx_*_updated_id; see ProductChangeFeed
+    @EntityGraph(attributePaths = LISTING_GRAPH)
+    @Query("SELECT p FROM Product p " +
+           "WHERE p.updatedAt >= :since AND p.updatedAt <= :until " +
+           "AND (p.updatedAt > :since OR p.id > :afterId) " +
+           "ORDER BY p.updatedAt, p.id")
+    List<Product> findChangedSince(@Param("since") LocalDateTime since,
+                              @Param("afterId") long afterId,
+                              @Param("until") LocalDateTime until,
+                              Pageable pageable);
 
     // ── CATEGORY ─────────────────────────────────────────────
     List<Product> findByCategory(String category);
@@ -50,15 +95,18 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // ── DISCOUNTED PRODUCTS ───────────────────────────────────
     List<Product> findByDiscountPercentageGreaterThan(BigDecimal zero);
 
-    // ── SIZES ────────────────────────────────────────────────
-    @Query("SELECT DISTINCT p FROM Product p JOIN p.availableSizes s WHERE s = :size")
-    List<Product> findByAvailableSizesContaining(@Param("size") ClothingSize size);
+    // ── SIZES — bit test on products.size_mask ───────────────
+    default List<Product> findByAvailableSizesContaining(ClothingSize size) {
+        return findAll(ProductSpecifications.hasSize(size));
+    }
 
-    // ── COLORS ───────────────────────────────────────────────
-    @Query("SELECT DISTINCT p FROM Product p JOIN p.availableColors c WHERE c = :color")
-    List<Product> findByAvailableColorsContaining(@Param("color") ClothingColor color);
+    // ── COLORS — bit test on products.color_mask ─────────────
+    default List<Product> findByAvailableColorsContaining(ClothingColor color) {
+        return findAll(ProductSpecifications.hasColor(color));
+    }
 
     // ── PRODUCTS BY ADMIN ────────────────────────────────────
+    @EntityGraph(attributePaths = LISTING_GRAPH)
     List<Product> findByAddedById(UUID adminId);
 
     // ── FULL KEYWORD SEARCH (name + description + brand) ─────
@@ -0,0 +1,264 @@
+package com.beautyShop.Opata.Website.entity.repo;
+
+import com.beautyShop.Opata.Website.dto.CatalogQuery;
+import com.beautyShop.Opata.Website.dto.Facet;
+import com.beautyShop.Opata.Website.dto.ProductCursor;
+import com.beautyShop.Opata.Website.dto.ProductSort;
+import com.beautyShop.Opata.Website.entity.*;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reusable query building blocks for the public catalog.
+ * Shared by Product and GeneralProduct — both carry the same core columns
+ * (name, price, discountPercentage, category, brand, stock, isAvailable, createdAt).
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {}
+
+    // ═══════════════════════════════════════════════════════════
+    //  CATALOG QUERY → SPECIFICATION
+    //  Database fallback for the in-memory catalog — same semantics:
+    //  facets AND-ed, values within one facet OR-ed
+    // ═══════════════════════════════════════════════════════════
+
+    public static Specification<Product> clothing(CatalogQuery q) {
+        Specification<Product> spec = common(q);
+        spec = spec.and(anyOf(q, Facet.SUB_CATEGORY,
+                v -> subCategoryIs(SubCategory.valueOf(v.toUpperCase(Locale.ROOT)))));
+        spec = spec.and(anyOf(q, Facet.MATERIAL, ProductSpecifications::materialIs));
+        if (!q.values(Facet.SIZE).isEmpty())  spec = spec.and(hasAnySize(enums(q, Facet.SIZE, ClothingSize.class)));
+        if (!q.values(Facet.COLOR).isEmpty()) spec = spec.and(hasAnyColor(enums(q, Facet.COLOR, ClothingColor.class)));
+        if (q.getKeyword() != null) spec = spec.and(keyword(q.getKeyword(), "name", "description", "brand"));
+        return spec;
+    }
+
+    public static Specification<GeneralProduct> general(CatalogQuery q) {
+        Specification<GeneralProduct> spec = common(q);
+        spec = spec.and(anyOf(q, Facet.SUB_CATEGORY, ProductSpecifications::generalSubCategoryIs));
+        spec = spec.and(anyOf(q, Facet.TAG, ProductSpecifications::hasTag));
+        spec = spec.and(attributes(q));
+        if (q.getKeyword() != null) spec = spec.and(keyword(q.getKeyword(),
+                "name", "description", "brand", "category", "subCategory"));
+        return spec;
+    }
+
+    private static <T> Specification<T> common(CatalogQuery q) {
+        Specification<T> spec = Specification.unrestricted();
+        spec = spec.and(anyOf(q, Facet.CATEGORY, ProductSpecifications::categoryIs));
+        spec = spec.and(anyOf(q, Facet.BRAND, ProductSpecifications::brandIs));
+        if (q.getMinPrice() != null) spec = spec.and(finalPriceAtLeast(q.getMinPrice()));
+        if (q.getMaxPrice() != null) spec = spec.and(finalPriceAtMost(q.getMaxPrice()));
+        if (q.isAvailableOnly())     spec = spec.and(available());
+        if (q.isInStockOnly())       spec = spec.and(inStock());
+        if (q.isDiscountedOnly())    spec = spec.and(discounted());
+        if (q.getNameContains() != null) spec = spec.and(nameContains(q.getNameContains()));
+        if (q.getIds() != null)          spec = spec.and(idIn(q.getIds()));
+        return spec;
+    }
+
+    private static <T> Specification<T> anyOf(CatalogQuery q, Facet facet, Function<String, Specification<T>> each) {
+        return anyOf(q.values(facet), each);
+    }
+
+    private static <T> Specification<T> anyOf(Collection<String> values, Function<String, Specification<T>> each) {
+        List<Specification<T>> specs = new ArrayList<>();
+        for (String value : values) specs.add(each.apply(value));
+        return specs.isEmpty() ? Specification.unrestricted() : Specification.anyOf(specs);
+    }
+
+    private static <E extends Enum<E>> List<E> enums(CatalogQuery q, Facet facet, Class<E> type) {
+        List<E> values = new ArrayList<>();
+        for (String v : q.values(facet)) values.add(Enum.valueOf(type, v.toUpperCase(Locale.ROOT)));
+        return values;
+    }
+
+    // One dimension per attribute key: keys AND-ed, alternatives for a key OR-ed
+    private static Specification<GeneralProduct> attributes(CatalogQuery q) {
+        Specification<GeneralProduct> spec = Specification.unrestricted();
+        for (Set<String> group : q.attributeGroups()) {
+            spec = spec.and(anyOf(group, v -> {
+                int eq = v.indexOf('=');
+                return eq < 0 ? hasAttributeKey(v) : hasAttribute(v.substring(0, eq), v.substring(eq + 1));
+            }));
+        }
+        return spec;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  KEYSET PAGINATION
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Orders by (sort key, id) and, when a cursor is given, keeps only rows after it:
+     *   ASC  → key > :key OR (key = :key AND id > :id)
+     *   DESC → key < :key OR (key = :key AND id < :id)
+     * Backed by the (key, id) composite indexes, so page N costs the same as page 1.
+     * Final price is a stored column too, so every sort is a plain index walk.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Specification<T> keyset(ProductSort sort, ProductCursor after) {
+        return (root, query, cb) -> {
+            Expression<Comparable> key = root.get(sort.getProperty());
+            Path<Long> id = root.get("id");
+
+            if (query != null && !Long.class.equals(query.getResultType())) {
+                query.orderBy(sort.isAscending()
+                        ? List.of(cb.asc(key), cb.asc(id))
+                        : List.of(cb.desc(key), cb.desc(id)));
+            }
+
+            if (after == null) return cb.conjunction();
+
+            Comparable value = after.getKey();
+            return sort.isAscending()
+                    ? cb.or(cb.greaterThan(key, value),
+                            cb.and(cb.equal(key, value), cb.greaterThan(id, after.getId())))
+                    : cb.or(cb.lessThan(key, value),
+                            cb.and(cb.equal(key, value), cb.lessThan(id, after.getId())));
+        };
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  COMMON FILTERS (both product types)
+    // ═══════════════════════════════════════════════════════════
+
+    // Categories are stored lower-cased by AdminProductService, so a plain
+    // equality keeps the (category, created_at, id) index usable
+    public static <T> Specification<T> categoryIs(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category.toLowerCase());
+    }
+
+    public static <T> Specification<T> brandIs(String brand) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("brand")), brand.toLowerCase());
+    }
+
+    public static <T> Specification<T> nameContains(String name) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%");
+    }
+
+    public static <T> Specification<T> priceBetween(BigDecimal min, BigDecimal max) {
+        return (root, query, cb) -> cb.between(root.get("price"), min, max);
+    }
+
+    public static <T> Specification<T> priceAtLeast(BigDecimal min) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), min);
+    }
+
+    public static <T> Specification<T> priceAtMost(BigDecimal max) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), max);
+    }
+
+    // Catalog price filters use what the customer pays — the indexed final_price column
+    public static <T> Specification<T> finalPriceAtLeast(BigDecimal min) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("finalPrice"), min);
+    }
+
+    public static <T> Specification<T> finalPriceAtMost(BigDecimal max) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("finalPrice"), max);
+    }
+
+    public static <T> Specification<T> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    public static <T> Specification<T> available() {
+        return (root, query, cb) -> cb.isTrue(root.get("isAvailable"));
+    }
+
+    public static <T> Specification<T> inStock() {
+        return (root, query, cb) -> cb.greaterThan(root.get("stock"), 0);
+    }
+
+    public static <T> Specification<T> discounted() {
+        return (root, query, cb) -> cb.greaterThan(root.get("discountPercentage"), BigDecimal.ZERO);
+    }
+
+    // name + description + brand (+ category + subCategory for general products)
+    public static <T> Specification<T> keyword(String keyword, String... fields) {
+        return (root, query, cb) -> {
+            String pattern = "%" + keyword.toLowerCase() + "%";
+            Predicate[] matches = new Predicate[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                matches[i] = cb.like(cb.lower(root.get(fields[i])), pattern);
+            }
+            return cb.or(matches);
+        };
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  CLOTHING ONLY
+    // ═══════════════════════════════════════════════════════════
+
+    public static Specification<Product> subCategoryIs(SubCategory subCategory) {
+        return (root, query, cb) -> cb.equal(root.get("subCategory"), subCategory);
+    }
+
+    public static Specification<Product> materialIs(String material) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("material")), material.toLowerCase());
+    }
+
+    // Bit tests on the size/color masks — see CatalogSqlFunctions for the SQL
+    public static Specification<Product> hasSize(ClothingSize size) {
+        return hasAnySize(List.of(size));
+    }
+
+    public static Specification<Product> hasColor(ClothingColor color) {
+        return hasAnyColor(List.of(color));
+    }
+
+    public static Specification<Product> hasAnySize(Collection<ClothingSize> sizes) {
+        return maskHasAny("availableSizes", EnumMask.of(sizes));
+    }
+
+    public static Specification<Product> hasAnyColor(Collection<ClothingColor> colors) {
+        return maskHasAny("availableColors", EnumMask.of(colors));
+    }
+
+    private static Specification<Product> maskHasAny(String attribute, long bits) {
+        return (root, query, cb) -> cb.isTrue(
+                cb.function("mask_has_any", Boolean.class, root.get(attribute), cb.literal(bits)));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  GENERAL PRODUCTS ONLY
+    // ═══════════════════════════════════════════════════════════
+
+    public static Specification<GeneralProduct> generalSubCategoryIs(String subCategory) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("subCategory")), subCategory.toLowerCase());
+    }
+
+    // Array containment and jsonb containment — see CatalogSqlFunctions for the SQL
+    public static Specification<GeneralProduct> hasTag(String tag) {
+        return (root, query, cb) -> cb.isTrue(
+                cb.function("tags_contain", Boolean.class, root.get("tags"), cb.literal(tag)));
+    }
+
+    // Matched case-insensitively
+    public static Specification<GeneralProduct> hasAttribute(String key, String value) {
+        return (root, query, cb) -> cb.isTrue(cb.function("attribute_is", Boolean.class,
+                root.get("attributes"), cb.literal(key), cb.literal(value)));
+    }
+
+    /** Products carrying every one of the pairs. */
+    public static Specification<GeneralProduct> hasAttributes(Map<String, String> attributes) {
+        List<Specification<GeneralProduct>> specs = new ArrayList<>();
+        attributes.forEach((key, value) -> specs.add(hasAttribute(key, value)));
+        return specs.isEmpty() ? Specification.unrestricted() : Specification.allOf(specs);
+    }
+
+    public static Specification<GeneralProduct> hasAttributeKey(String key) {
+        return (root, query, cb) -> cb.isTrue(cb.function("attribute_key_exists", Boolean.class,
+                root.get("attributes"), cb.literal(key)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.beautyShop.Opata.Website.entity.repo;
+
+import com.beautyShop.Opata.Website.entity.ProductTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    // Deletes after (since, afterId), up to until — same shape as the products' change queries
+    @Query("SELECT t FROM ProductTombstone t " +
+           "WHERE t.deletedAt >= :since AND t.deletedAt <= :until " +
+           "AND (t.deletedAt > :since OR t.id > :afterId) " +
+           "ORDER BY t.deletedAt, t.id")
+    List<ProductTombstone> findDeletedSince(@Param("since") LocalDateTime since,
+                                            @Param("afterId") long afterId,
+                                            @Param("until") LocalDateTime until,
+                                            Pageable pageable);
+}
@@ -0,0 +1,19 @@
+package com.beautyShop.Opata.Website.entity.repo;
+
+import com.beautyShop.Opata.Website.entity.SavedSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+
+    List<SavedSearch> findByUserIdOrderByCreatedAtDesc(UUID userId);
+
+    Optional<SavedSearch> findByIdAndUserId(Long id, UUID userId);
+
+    long countByUserId(UUID userId);
+}
@@ -1,17 +1,27 @@
 package com.beautyShop.Opata.Website.service;
 
+import com.beautyShop.Opata.Website.dto.CatalogQuery;
+import com.beautyShop.Opata.Website.dto.Facet;
 import com.beautyShop.Opata.Website.dto.GeneralProductRequest;
 import com.beautyShop.Opata.Website.dto.GeneralProductResponse;
 import com.beautyShop.Opata.Website.dto.ProductRequest;
 import com.beautyShop.Opata.Website.dto.ProductResponse;
+import com.beautyShop.Opata.Website.dto.ProductSort;
 import com.beautyShop.Opata.Website.entity.*;
 import com.beautyShop.Opata.Website.entity.repo.*;
+import com.beautyShop.Opata.Website.service.alerts.ProductAlertService;
+import com.beautyShop.Opata.Website.service.alerts.SavedSearchService;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import com.beautyShop.Opata.Website.service.catalog.CatalogService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -27,10 +37,15 @@ public class AdminProductService {
     private final GeneralProductRepository      generalProductRepository;
     private final GeneralProductImageRepository generalProductImageRepository;
     private final AdminRepo                     shopOwnerRepository;
-    private final UserRepo                      userRepository;
     private final CloudinaryService             cloudinaryService;
     private final EmailService                  emailService;
     private final TelegramBotService            telegramBotService;
+    private final ProductMapper                 productMapper;
+    private final ApplicationEventPublisher     events;
+    private final CatalogService                catalog;
+    private final ProductTombstoneRepository    tombstoneRepository;
+    private final SavedSearchService            savedSearchService;
+    private final ProductAlertService           productAlertService;
 
     // ═══════════════════════════════════════════════════════════
     //  CLOTHING PRODUCT METHODS
@@ -72,12 +87,9 @@ public class AdminProductService {
         System.out.println("✅ Clothing product added: [" + saved.getName() + "] | SubCategory: "
                 + saved.getSubCategory() + " | Images: " + saved.getImages().size());
 
-        // ── Email all users ───────────────────────────────────
+        // ── Email users whose saved searches match ────────────
         try {
-            List<User> allUsers = userRepository.findAll();
-            if (!allUsers.isEmpty()) {
-                emailService.announceNewProductToAllUsers(allUsers, saved, admin.getShopName());
-            }
+            savedSearchService.notifyMatches(saved, admin.getShopName());
         } catch (Exception e) {
             System.err.println("⚠️ Email notification failed (product was saved successfully): " + e.getMessage());
         }
@@ -108,6 +120,7 @@ public class AdminProductService {
             System.err.println("⚠️ Telegram notification failed (product was saved successfully): " + e.getMessage());
         }
 
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.CLOTHING, saved.getId()));
         return mapToProductResponse(saved);
     }
 
@@ -119,6 +132,8 @@ public class AdminProductService {
                                          UUID adminId) throws IOException {
 
         Product product = findProductById(productId);
+        int oldStock = stockOf(product.getStock());
+        BigDecimal oldPrice = product.getFinalPrice();
 
         product.setName(request.getName());
         product.setDescription(request.getDescription());
@@ -160,6 +175,9 @@ public class AdminProductService {
         Product updated = productRepository.save(product);
         System.out.println("✅ Clothing product updated: [" + updated.getName() + "] | "
                 + updated.getImages().size() + " image(s)");
+        if (isRestock(oldStock, updated.getStock())) notifyRestock(updated);
+        productAlertService.onChanged(updated, oldStock, oldPrice);
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.CLOTHING, updated.getId()));
         return mapToProductResponse(updated);
     }
 
@@ -180,16 +198,24 @@ public class AdminProductService {
             product.setImages(uploaded);
         }
 
-        return mapToProductResponse(productRepository.save(product));
+        // Images live in their own table — touch the row so the change feed sees the new set
+        product.setUpdatedAt(LocalDateTime.now());
+        Product saved = productRepository.save(product);
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.CLOTHING, saved.getId()));
+        return mapToProductResponse(saved);
     }
 
     // ── UPDATE CLOTHING STOCK ────────────────────────────────
     public ProductResponse updateStock(Long productId, int newStock) {
         Product product = findProductById(productId);
+        int oldStock = stockOf(product.getStock());
         product.setStock(newStock);
         product.setIsAvailable(newStock > 0);
         productRepository.save(product);
         System.out.println("📦 Stock updated for [" + product.getName() + "]: " + newStock + " units");
+        if (isRestock(oldStock, newStock)) notifyRestock(product);
+        productAlertService.onChanged(product, oldStock, product.getFinalPrice());
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.CLOTHING, productId));
         return mapToProductResponse(product);
     }
 
@@ -199,70 +225,96 @@ public class AdminProductService {
         product.setIsAvailable(!product.getIsAvailable());
         productRepository.save(product);
         System.out.println("🔄 Product [" + product.getName() + "] availability: " + product.getIsAvailable());
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.CLOTHING, productId));
         return mapToProductResponse(product);
     }
 
     // ── REMOVE CLOTHING PRODUCT ──────────────────────────────
+    // The tombstone commits with the delete — the change feed reports it from there
+    @Transactional
     public String removeProduct(Long productId) throws IOException {
         Product product = findProductById(productId);
         for (ProductImage img : product.getImages()) {
             cloudinaryService.deleteImage(img.getImagePublicId());
         }
         productRepository.delete(product);
+        tombstoneRepository.save(ProductTombstone.of(ProductType.CLOTHING, productId));
         System.out.println("🗑️  Clothing product removed: [" + product.getName() + "]");
+        events.publishEvent(CatalogChangedEvent.deleted(ProductType.CLOTHING, productId));
         return "Product \"" + product.getName() + "\" removed successfully.";
     }
 
     // ── CLOTHING READ OPERATIONS ─────────────────────────────
+    @Transactional(readOnly = true)
     public List<ProductResponse> getAllProducts() {
         return productRepository.findAll().stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> getMyProducts(UUID adminId) {
         return productRepository.findByAddedById(adminId).stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public ProductResponse getProductById(Long productId) {
         return mapToProductResponse(findProductById(productId));
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> searchByName(String name) {
         return productRepository.findByNameContainingIgnoreCase(name).stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> searchByKeyword(String keyword) {
         return productRepository.searchByKeyword(keyword).stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> getByCategory(String category) {
         return productRepository.findByCategoryIgnoreCase(category).stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> getBySubCategory(SubCategory subCategory) {
         return productRepository.findBySubCategory(subCategory).stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
     }
 
+    // Size/color lookups are bitmap reads on the catalog snapshot; the
+    // size_mask/color_mask query only runs while it loads
+    @Transactional(readOnly = true)
     public List<ProductResponse> getBySize(ClothingSize size) {
+        if (catalog.isReady()) {
+            return catalog.clothing().query(CatalogQuery.all().with(Facet.SIZE, size.name()),
+                    ProductSort.NEWEST, null, Integer.MAX_VALUE);
+        }
         return productRepository.findByAvailableSizesContaining(size).stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> getByColor(ClothingColor color) {
+        if (catalog.isReady()) {
+            return catalog.clothing().query(CatalogQuery.all().with(Facet.COLOR, color.name()),
+                    ProductSort.NEWEST, null, Integer.MAX_VALUE);
+        }
         return productRepository.findByAvailableColorsContaining(color).stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> getAvailableProducts() {
         return productRepository.findByIsAvailableTrue().stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> getDiscountedProducts() {
         return productRepository.findByDiscountPercentageGreaterThan(BigDecimal.ZERO).stream()
                 .map(this::mapToProductResponse).collect(Collectors.toList());
@@ -300,7 +352,7 @@ public class AdminProductService {
                 .widthCm(request.getWidthCm())
                 .heightCm(request.getHeightCm())
                 .discountPercentage(request.getDiscountPercentage())
-                .tags(request.getTags())
+                .tags(normalizeTags(request.getTags()))
                 .attributes(request.getAttributes())
                 .isAvailable(true)
                 .addedBy(admin)
@@ -317,12 +369,9 @@ public class AdminProductService {
         System.out.println("✅ General product added: [" + saved.getName() + "] | Category: "
                 + saved.getCategory() + " | Images: " + saved.getImages().size());
 
-        // ── Email all users ───────────────────────────────────
+        // ── Email users whose saved searches match ────────────
         try {
-            List<User> allUsers = userRepository.findAll();
-            if (!allUsers.isEmpty()) {
-                emailService.announceNewGeneralProductToAllUsers(allUsers, saved, admin.getShopName());
-            }
+            savedSearchService.notifyMatches(saved, admin.getShopName());
         } catch (Exception e) {
             System.err.println("⚠️ Email notification failed (product was saved successfully): " + e.getMessage());
         }
@@ -347,6 +396,7 @@ public class AdminProductService {
             System.err.println("⚠️ Telegram notification failed (product was saved successfully): " + e.getMessage());
         }
 
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.GENERAL, saved.getId()));
         return mapToGeneralProductResponse(saved);
     }
 
@@ -358,6 +408,8 @@ public class AdminProductService {
                                                        UUID adminId) throws IOException {
 
         GeneralProduct product = findGeneralProductById(productId);
+        int oldStock = stockOf(product.getStock());
+        BigDecimal oldPrice = product.getFinalPrice();
 
         product.setName(request.getName());
         product.setDescription(request.getDescription());
@@ -373,7 +425,7 @@ public class AdminProductService {
         product.setWidthCm(request.getWidthCm());
         product.setHeightCm(request.getHeightCm());
         product.setDiscountPercentage(request.getDiscountPercentage());
-        product.setTags(request.getTags());
+        product.setTags(normalizeTags(request.getTags()));
         product.setAttributes(request.getAttributes());
         product.setIsAvailable(request.getIsAvailable());
 
@@ -403,6 +455,9 @@ public class AdminProductService {
         GeneralProduct updated = generalProductRepository.save(product);
         System.out.println("✅ General product updated: [" + updated.getName() + "] | "
                 + updated.getImages().size() + " image(s)");
+        if (isRestock(oldStock, updated.getStock())) notifyRestock(updated);
+        productAlertService.onChanged(updated, oldStock, oldPrice);
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.GENERAL, updated.getId()));
         return mapToGeneralProductResponse(updated);
     }
 
@@ -423,16 +478,24 @@ public class AdminProductService {
             product.setImages(uploaded);
         }
 
-        return mapToGeneralProductResponse(generalProductRepository.save(product));
+        // Images live in their own table — touch the row so the change feed sees the new set
+        product.setUpdatedAt(LocalDateTime.now());
+        GeneralProduct saved = generalProductRepository.save(product);
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.GENERAL, saved.getId()));
+        return mapToGeneralProductResponse(saved);
     }
 
     // ── UPDATE GENERAL PRODUCT STOCK ─────────────────────────
     public GeneralProductResponse updateGeneralStock(Long productId, int newStock) {
         GeneralProduct product = findGeneralProductById(productId);
+        int oldStock = stockOf(product.getStock());
         product.setStock(newStock);
         product.setIsAvailable(newStock > 0);
         generalProductRepository.save(product);
         System.out.println("📦 General stock updated for [" + product.getName() + "]: " + newStock + " units");
+        if (isRestock(oldStock, newStock)) notifyRestock(product);
+        productAlertService.onChanged(product, oldStock, product.getFinalPrice());
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.GENERAL, productId));
         return mapToGeneralProductResponse(product);
     }
 
@@ -442,70 +505,85 @@ public class AdminProductService {
         product.setIsAvailable(!product.getIsAvailable());
         generalProductRepository.save(product);
         System.out.println("🔄 General product [" + product.getName() + "] availability: " + product.getIsAvailable());
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.GENERAL, productId));
         return mapToGeneralProductResponse(product);
     }
 
     // ── REMOVE GENERAL PRODUCT ───────────────────────────────
+    @Transactional
     public String removeGeneralProduct(Long productId) throws IOException {
         GeneralProduct product = findGeneralProductById(productId);
         for (GeneralProductImage img : product.getImages()) {
             cloudinaryService.deleteImage(img.getImagePublicId());
         }
         generalProductRepository.delete(product);
+        tombstoneRepository.save(ProductTombstone.of(ProductType.GENERAL, productId));
         System.out.println("🗑️  General product removed: [" + product.getName() + "]");
+        events.publishEvent(CatalogChangedEvent.deleted(ProductType.GENERAL, productId));
         return "Product \"" + product.getName() + "\" removed successfully.";
     }
 
     // ── GENERAL PRODUCT READ OPERATIONS ──────────────────────
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> getAllGeneralProducts() {
         return generalProductRepository.findAll().stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> getMyGeneralProducts(UUID adminId) {
         return generalProductRepository.findByAddedById(adminId).stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public GeneralProductResponse getGeneralProductById(Long productId) {
         return mapToGeneralProductResponse(findGeneralProductById(productId));
     }
 
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> searchGeneralByName(String name) {
         return generalProductRepository.findByNameContainingIgnoreCase(name).stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> searchGeneralByKeyword(String keyword) {
         return generalProductRepository.searchByKeyword(keyword).stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> getGeneralByCategory(String category) {
         return generalProductRepository.findByCategoryIgnoreCase(category).stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> getGeneralBySubCategory(String subCategory) {
         return generalProductRepository.findBySubCategoryIgnoreCase(subCategory).stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> getAvailableGeneralProducts() {
         return generalProductRepository.findByIsAvailableTrue().stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> getDiscountedGeneralProducts() {
         return generalProductRepository.findByDiscountPercentageGreaterThan(BigDecimal.ZERO).stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> getGeneralByTag(String tag) {
         return generalProductRepository.findByTagsContaining(tag).stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GeneralProductResponse> getGeneralByPriceRange(BigDecimal min, BigDecimal max) {
         return generalProductRepository.findByPriceBetween(min, max).stream()
                 .map(this::mapToGeneralProductResponse).collect(Collectors.toList());
@@ -520,6 +598,46 @@ public class AdminProductService {
     //  PRIVATE HELPERS
     // ═══════════════════════════════════════════════════════════
 
+    // Back in stock — tell the owners of matching saved searches
+    private static boolean isRestock(int oldStock, Integer newStock) {
+        return oldStock <= 0 && stockOf(newStock) > 0;
+    }
+
+    private static int stockOf(Integer stock) {
+        return stock == null ? 0 : stock;
+    }
+
+    private void notifyRestock(Product product) {
+        try {
+            savedSearchService.notifyMatches(product, shopNameOf(product.getAddedBy()));
+        } catch (Exception e) {
+            System.err.println("⚠️ Restock notification failed (stock was saved successfully): " + e.getMessage());
+        }
+    }
+
+    private void notifyRestock(GeneralProduct product) {
+        try {
+            savedSearchService.notifyMatches(product, shopNameOf(product.getAddedBy()));
+        } catch (Exception e) {
+            System.err.println("⚠️ Restock notification failed (stock was saved successfully): " + e.getMessage());
+        }
+    }
+
+    private static String shopNameOf(ShopOwner owner) {
+        return owner != null ? owner.getShopName() : "Opata Beauty Shop";
+    }
+
+    // Tags are stored lower-cased (like categories) so the text[] GIN index
+    // answers tag filters with a plain containment
+    private static List<String> normalizeTags(List<String> tags) {
+        if (tags == null) return new ArrayList<>();
+        return tags.stream()
+                .filter(t -> t != null && !t.isBlank())
+                .map(t -> t.trim().toLowerCase())
+                .distinct()
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
     private List<ProductImage> uploadClothingImages(List<MultipartFile> files,
                                                     Product product) throws IOException {
         return uploadClothingImages(files, product, 0);
@@ -536,6 +654,7 @@ public class AdminProductService {
             result.add(ProductImage.builder()
                     .imageUrl((String) uploadResult.get("secure_url"))
                     .imagePublicId((String) uploadResult.get("public_id"))
+                    .deliveryUrls(cloudinaryService.buildDeliveryUrls((String) uploadResult.get("public_id")))
                     .displayOrder(order++)
                     .product(product)
                     .build());
@@ -559,6 +678,7 @@ public class AdminProductService {
             result.add(GeneralProductImage.builder()
                     .imageUrl((String) uploadResult.get("secure_url"))
                     .imagePublicId((String) uploadResult.get("public_id"))
+                    .deliveryUrls(cloudinaryService.buildDeliveryUrls((String) uploadResult.get("public_id")))
                     .displayOrder(order++)
                     .generalProduct(product)
                     .build());
@@ -577,64 +697,10 @@ public class AdminProductService {
     }
 
     ProductResponse mapToProductResponse(Product p) {
-        List<String> imageUrls = p.getImages().stream()
-                .map(img -> cloudinaryService.getOptimizedImageUrl(img.getImagePublicId()))
-                .collect(Collectors.toList());
-
-        return ProductResponse.builder()
-                .id(p.getId())
-                .name(p.getName())
-                .description(p.getDescription())
-                .price(p.getPrice())
-                .finalPrice(p.getFinalPrice())
-                .discountPercentage(p.getDiscountPercentage())
-                .category(p.getCategory())
-                .subCategory(p.getSubCategory())
-                .brand(p.getBrand())
-                .availableSizes(p.getAvailableSizes())
-                .availableColors(p.getAvailableColors())
-                .material(p.getMaterial())
-                .style(p.getStyle())
-                .stock(p.getStock())
-                .isAvailable(p.getIsAvailable())
-                .imageUrl(imageUrls.isEmpty() ? null : imageUrls.getFirst())
-                .imageUrls(imageUrls)
-                .addedByAdmin(p.getAddedBy() != null ? p.getAddedBy().getName() : "N/A")
-                .createdAt(p.getCreatedAt())
-                .updatedAt(p.getUpdatedAt())
-                .build();
+        return productMapper.toResponse(p);
     }
 
     GeneralProductResponse mapToGeneralProductResponse(GeneralProduct p) {
-        List<String> imageUrls = p.getImages().stream()
-                .map(img -> cloudinaryService.getOptimizedImageUrl(img.getImagePublicId()))
-                .collect(Collectors.toList());
-
-        return GeneralProductResponse.builder()
-                .id(p.getId())
-                .name(p.getName())
-                .description(p.getDescription())
-                .price(p.getPrice())
-                .finalPrice(p.getFinalPrice())
-                .discountPercentage(p.getDiscountPercentage())
-                .category(p.getCategory())
-                .subCategory(p.getSubCategory())
-                .brand(p.getBrand())
-                .sku(p.getSku())
-                .stock(p.getStock())
-                .unit(p.getUnit())
-                .weightKg(p.getWeightKg())
-                .lengthCm(p.getLengthCm())
-                .widthCm(p.getWidthCm())
-                .heightCm(p.getHeightCm())
-                .isAvailable(p.getIsAvailable())
-                .tags(p.getTags())
-                .attributes(p.getAttributes())
-                .imageUrl(imageUrls.isEmpty() ? null : imageUrls.getFirst())
-                .imageUrls(imageUrls)
-                .addedByAdmin(p.getAddedBy() != null ? p.getAddedBy().getName() : "N/A")
-                .createdAt(p.getCreatedAt())
-                .updatedAt(p.getUpdatedAt())
-                .build();
+        return productMapper.toResponse(p);
     }
-}
\ No newline at end of file
+}
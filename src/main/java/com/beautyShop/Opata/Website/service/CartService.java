@@ -5,6 +5,7 @@ import com.beautyShop.Opata.Website.entity.*;
 import com.beautyShop.Opata.Website.entity.repo.CartItemRepository;
 import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
 import com.beautyShop.Opata.Website.entity.repo.UserRepo;
+import com.beautyShop.Opata.Website.service.stock.StockReservationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +24,7 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepo userRepository;
+    private final StockReservationService reservations;
 
     // ── ADD TO CART ──────────────────────────────────────────
     // If product already in cart → update quantity
@@ -32,8 +34,10 @@ public class CartService {
         Product product = productRepository.findById(request.getProductId())
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        if (product.getStock() < request.getQuantity()) {
-            throw new RuntimeException("Not enough stock. Available: " + product.getStock());
+        // Units other customers hold for checkout are not for sale
+        long available = reservations.availableToSell(userId, product.getId(), product.getStock());
+        if (available < request.getQuantity()) {
+            throw new RuntimeException("Not enough stock. Available: " + available);
         }
 
         User user = userRepository.findById(userId)
@@ -119,8 +123,9 @@ public class CartService {
             System.out.println("🗑️  Removed from cart (qty set to 0): " + item.getProduct().getName());
         } else {
             // Check stock
-            if (item.getProduct().getStock() < newQuantity) {
-                throw new RuntimeException("Not enough stock. Available: " + item.getProduct().getStock());
+            long available = reservations.availableToSell(userId, item.getProduct().getId(), item.getProduct().getStock());
+            if (available < newQuantity) {
+                throw new RuntimeException("Not enough stock. Available: " + available);
             }
             item.setQuantity(newQuantity);
             item.computeSubtotal();
@@ -1,6 +1,8 @@
 package com.beautyShop.Opata.Website.service;
 
+import com.beautyShop.Opata.Website.entity.ImageDeliveryUrls;
 import com.cloudinary.Cloudinary;
+import com.cloudinary.Transformation;
 import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -92,16 +94,36 @@ public class CloudinaryService {
     // Returns the optimized URL for a given public ID
     // ─────────────────────────────────────────────────────────
     public String getOptimizedImageUrl(String publicId) {
-        String url = cloudinary.url()
-                .transformation(new com.cloudinary.Transformation()
+        return cloudinary.url()
+                .transformation(new Transformation()
                         .quality("auto")      // q_auto
                         .fetchFormat("auto")  // f_auto
                 )
                 .generate(publicId);
+    }
 
-        System.out.println("🖼️  Optimized image URL for [" + publicId + "]:");
-        System.out.println("   " + url);
-        return url;
+    // ─────────────────────────────────────────────────────────
+    // BUILD ALL DELIVERY URLS
+    // Called once per image when it is stored — never on reads
+    // ─────────────────────────────────────────────────────────
+    public ImageDeliveryUrls buildDeliveryUrls(String publicId) {
+        return ImageDeliveryUrls.builder()
+                .optimized(getOptimizedImageUrl(publicId))
+                .thumbnail(getResizedImageUrl(publicId, 320))
+                .card(getResizedImageUrl(publicId, 640))
+                .detail(getResizedImageUrl(publicId, 1280))
+                .build();
+    }
+
+    // q_auto + f_auto, scaled down to at most `width` px (c_limit never upscales)
+    private String getResizedImageUrl(String publicId, int width) {
+        return cloudinary.url()
+                .transformation(new Transformation()
+                        .width(width).crop("limit")
+                        .quality("auto")
+                        .fetchFormat("auto")
+                )
+                .generate(publicId);
     }
 
     // ─────────────────────────────────────────────────────────
@@ -2,7 +2,9 @@ package com.beautyShop.Opata.Website.service;
 
 import com.beautyShop.Opata.Website.entity.GeneralProduct;
 import com.beautyShop.Opata.Website.entity.Product;
+import com.beautyShop.Opata.Website.entity.ProductType;
 import com.beautyShop.Opata.Website.entity.User;
+import com.beautyShop.Opata.Website.service.alerts.ProductAlert;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -335,6 +337,63 @@ public class EmailService {
         System.out.println("📧 General product announcement sent to " + allUsers.size() + " users for: " + product.getName());
     }
 
+    // ─────────────────────────────────────────────────────────
+    // PRODUCT ALERTS — back in stock / price drop, subscribers only
+    // ─────────────────────────────────────────────────────────
+
+    // Not @Async — ProductAlertService already calls this from its own thread
+    public void sendProductAlert(List<User> users, ProductAlert alert) {
+
+        String headline = alert.backInStock() && alert.priceDropped() ? "Back in stock — and cheaper!"
+                : alert.backInStock() ? "Back in stock!"
+                : "Price drop!";
+        String subject = SHOP_NAME + " | 🔔 " + alert.name() + ": " + headline;
+
+        String priceBlock = alert.priceDropped()
+                ? "<p style='margin:0 0 16px;'>"
+                  + "<span style='text-decoration:line-through; color:#aaa; font-size:16px;'>₵" + alert.oldPrice() + "</span>"
+                  + "&nbsp;&nbsp;"
+                  + "<span style='color:" + ACCENT_COLOR + "; font-size:24px; font-weight:bold;'>₵" + alert.newPrice() + "</span>"
+                  + "</p>"
+                : "<p style='color:" + ACCENT_COLOR + "; font-size:24px; font-weight:bold; margin:0 0 16px;'>₵" + alert.newPrice() + "</p>";
+
+        String path = alert.type() == ProductType.GENERAL ? "general-products" : "products";
+
+        String body = """
+            <html><body style="font-family: Arial, sans-serif; color: #333;">
+              <div style="max-width:600px; margin:auto; border:1px solid #ddd; border-radius:8px; overflow:hidden;">
+                <div style="background:%s; padding:20px; color:white;">
+                  <h2 style="margin:0;">🔔 %s</h2>
+                  <p style="margin:4px 0 0; opacity:0.8; font-size:13px;">%s</p>
+                </div>
+                %s
+                <div style="padding:24px;">
+                  <h2 style="margin:0 0 8px;">%s</h2>
+                  %s
+                  <p style="color:#555;">You asked us to let you know — grab it before it's gone.</p>
+                  <a href="http://localhost:8080/%s/%d"
+                     style="background:%s; color:white; padding:14px 32px; border-radius:6px;
+                            text-decoration:none; display:inline-block; margin-top:16px; font-size:15px; font-weight:bold;">
+                    🛍️ Shop Now
+                  </a>
+                </div>
+                <div style="padding:12px 24px; background:#f9f9f9; color:#888; font-size:12px;">%s</div>
+              </div>
+            </body></html>
+            """.formatted(
+                HEADER_BG, headline, SHOP_NAME,
+                imageTag(alert.imageUrl()),
+                alert.name(),
+                priceBlock,
+                path, alert.productId(),
+                ACCENT_COLOR,
+                FOOTER_TEXT
+        );
+
+        users.forEach(user -> sendHtmlEmail(user.getEmail(), subject, body));
+        System.out.println("📧 Product alert sent to " + users.size() + " users for: " + alert.name());
+    }
+
     // ─────────────────────────────────────────────────────────
 // ORDER CHAT NOTIFICATION — sent to USER when admin opens an order chat
 // ─────────────────────────────────────────────────────────
@@ -0,0 +1,54 @@
+package com.beautyShop.Opata.Website.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * FinalPriceMigration — ONE-OFF
+ * ─────────────────────────────────────────────────
+ * Fills products.final_price / general_products.final_price for rows saved
+ * before the column existed. From then on the entities keep it current on
+ * every insert and update (see Product.finalPriceOf — same formula, same rounding).
+ *
+ * Runs before the web server starts so no price filter sees a NULL.
+ * Plain SQL, so it runs on every database; after the first boot it is two
+ * UPDATEs that match nothing.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class FinalPriceMigration implements SmartInitializingSingleton {
+
+    private static final String BACKFILL = """
+            UPDATE %s
+            SET final_price = ROUND(price - price * COALESCE(discount_percentage, 0) / 100, 2)
+            WHERE final_price IS NULL""";
+
+    private final JdbcTemplate        jdbc;
+    private final TransactionTemplate tx;
+
+    public FinalPriceMigration(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.tx   = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            tx.executeWithoutResult(status -> {
+                int clothing = jdbc.update(BACKFILL.formatted("products"));
+                int general  = jdbc.update(BACKFILL.formatted("general_products"));
+                if (clothing + general > 0) {
+                    log.info("Backfilled final_price on {} clothing and {} general products", clothing, general);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Not fatal — rows without a final price only drop out of price filters until the next boot
+            log.error("final_price backfill failed", e);
+        }
+    }
+}
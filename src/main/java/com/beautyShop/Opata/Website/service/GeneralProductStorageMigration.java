@@ -0,0 +1,114 @@
+package com.beautyShop.Opata.Website.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+/**
+ * GeneralProductStorageMigration — ONE-OFF (PostgreSQL)
+ * ─────────────────────────────────────────────────
+ * Moves GeneralProduct tags and attributes out of their element-collection
+ * tables into columns on general_products:
+ *   general_product_tags       → tags        text[]  (lower-cased)
+ *   general_product_attributes → attributes  jsonb
+ * then renames the old tables to *_legacy and makes sure both GIN indexes exist.
+ *
+ * The new columns are added by Hibernate's schema update; this fills them.
+ * Runs once all beans exist — before the web server starts and before the
+ * catalog or search index read a single product. Every step checks its own
+ * precondition, so after the first run each boot costs a few catalog lookups.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class GeneralProductStorageMigration implements SmartInitializingSingleton {
+
+    private static final String TAGS_TABLE       = "general_product_tags";
+    private static final String ATTRIBUTES_TABLE = "general_product_attributes";
+
+    private final JdbcTemplate        jdbc;
+    private final TransactionTemplate tx;
+
+    public GeneralProductStorageMigration(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.tx   = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            if (!isPostgres()) return;
+            tx.executeWithoutResult(status -> migrate());
+        } catch (RuntimeException e) {
+            // Not fatal — products keep loading, just without tags/attributes until the next boot retries
+            log.error("General product tags/attributes migration failed", e);
+        }
+    }
+
+    void migrate() {
+        // Hibernate creates varchar(255)[] for a List<String>; text[] is what the index and queries expect
+        if (!"_text".equals(columnType("tags"))) {
+            jdbc.execute("ALTER TABLE general_products ALTER COLUMN tags TYPE text[] USING tags::text[]");
+        }
+        if (!"jsonb".equals(columnType("attributes"))) {
+            jdbc.execute("ALTER TABLE general_products ALTER COLUMN attributes TYPE jsonb USING attributes::jsonb");
+        }
+
+        if (tableExists(TAGS_TABLE)) {
+            int moved = jdbc.update("""
+                    UPDATE general_products p SET tags = t.tags
+                    FROM (SELECT product_id, array_agg(DISTINCT lower(trim(tag))) AS tags
+                          FROM general_product_tags
+                          WHERE tag IS NOT NULL AND trim(tag) <> ''
+                          GROUP BY product_id) t
+                    WHERE p.id = t.product_id""");
+            jdbc.execute("ALTER TABLE " + TAGS_TABLE + " RENAME TO " + TAGS_TABLE + "_legacy");
+            log.info("Moved tags of {} general products into general_products.tags", moved);
+        }
+
+        if (tableExists(ATTRIBUTES_TABLE)) {
+            int moved = jdbc.update("""
+                    UPDATE general_products p SET attributes = a.attributes
+                    FROM (SELECT product_id, jsonb_object_agg(attribute_key, attribute_value) AS attributes
+                          FROM general_product_attributes
+                          WHERE attribute_key IS NOT NULL
+                          GROUP BY product_id) a
+                    WHERE p.id = a.product_id""");
+            jdbc.execute("ALTER TABLE " + ATTRIBUTES_TABLE + " RENAME TO " + ATTRIBUTES_TABLE + "_legacy");
+            log.info("Moved attributes of {} general products into general_products.attributes", moved);
+        }
+
+        jdbc.update("UPDATE general_products SET tags = '{}' WHERE tags IS NULL");
+        jdbc.update("UPDATE general_products SET attributes = '{}'::jsonb WHERE attributes IS NULL");
+
+        // Tags: plain containment (tags @> ARRAY['sale']) — values are stored lower-cased.
+        // Attributes: built over the lower-cased document so containment is case-insensitive;
+        // queries must use the same expression (see CatalogSqlFunctions)
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_general_products_tags " +
+                "ON general_products USING gin (tags)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_general_products_attributes " +
+                "ON general_products USING gin ((lower(attributes::text)::jsonb))");
+    }
+
+    private boolean isPostgres() {
+        String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbc.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private String columnType(String column) {
+        return jdbc.queryForList("""
+                        SELECT udt_name FROM information_schema.columns
+                        WHERE table_schema = current_schema() AND table_name = 'general_products' AND column_name = ?""",
+                String.class, column).stream().filter(Objects::nonNull).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,82 @@
+package com.beautyShop.Opata.Website.service;
+
+import com.beautyShop.Opata.Website.entity.GeneralProductImage;
+import com.beautyShop.Opata.Website.entity.ImageDeliveryUrls;
+import com.beautyShop.Opata.Website.entity.ProductImage;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductImageRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductImageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * ImageUrlBackfillJob — ONE-OFF
+ * ─────────────────────────────────────────────────
+ * Fills ImageDeliveryUrls for images uploaded before they were stored.
+ * Runs at startup ahead of the catalog load and only touches rows whose
+ * URLs are still null, so once every row is filled it is a single empty
+ * query per boot.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageUrlBackfillJob {
+
+    private static final int BATCH = 500;
+
+    private final ProductImageRepository        productImageRepository;
+    private final GeneralProductImageRepository generalProductImageRepository;
+    private final CloudinaryService             cloudinaryService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void run() {
+        try {
+            int clothing = backfillClothingImages();
+            int general  = backfillGeneralImages();
+            if (clothing + general > 0) {
+                log.info("Backfilled delivery URLs for {} clothing and {} general product images", clothing, general);
+            }
+        } catch (RuntimeException e) {
+            // Not fatal — unfilled images keep serving their original upload URL
+            log.error("Image delivery URL backfill failed", e);
+        }
+    }
+
+    int backfillClothingImages() {
+        int total = 0;
+        List<ProductImage> batch;
+        while (!(batch = productImageRepository.findMissingDeliveryUrls(PageRequest.of(0, BATCH))).isEmpty()) {
+            batch.forEach(img -> img.setDeliveryUrls(urlsFor(img.getImagePublicId(), img.getImageUrl())));
+            productImageRepository.saveAll(batch);
+            total += batch.size();
+        }
+        return total;
+    }
+
+    int backfillGeneralImages() {
+        int total = 0;
+        List<GeneralProductImage> batch;
+        while (!(batch = generalProductImageRepository.findMissingDeliveryUrls(PageRequest.of(0, BATCH))).isEmpty()) {
+            batch.forEach(img -> img.setDeliveryUrls(urlsFor(img.getImagePublicId(), img.getImageUrl())));
+            generalProductImageRepository.saveAll(batch);
+            total += batch.size();
+        }
+        return total;
+    }
+
+    // Images without a public ID cannot be transformed — every variant is the original URL
+    private ImageDeliveryUrls urlsFor(String publicId, String originalUrl) {
+        return publicId != null && !publicId.isBlank()
+                ? cloudinaryService.buildDeliveryUrls(publicId)
+                : new ImageDeliveryUrls(originalUrl, originalUrl, originalUrl, originalUrl);
+    }
+}
@@ -3,11 +3,19 @@ package com.beautyShop.Opata.Website.service;
 import com.beautyShop.Opata.Website.dto.*;
 import com.beautyShop.Opata.Website.entity.*;
 import com.beautyShop.Opata.Website.entity.repo.*;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import com.beautyShop.Opata.Website.service.recommend.OrderPlacedEvent;
+import com.beautyShop.Opata.Website.service.stock.StockReservationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -30,11 +38,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderService {
 
+    // Succeeds only if what is left still covers other customers' checkout holds,
+    // judged when the row is written — no read-check-write race
+    private static final String DECREMENT_STOCK = """
+            UPDATE products SET stock = stock - ?, updated_at = ?
+            WHERE id = ? AND stock - ? >= ?""";
+
     private final OrderRepository orderRepository;
     private final CartItemRepository cartItemRepository;
-    private final ProductRepository  productRepository;
     private final UserRepo           userRepository;
     private final CartService        cartService;
+    private final ApplicationEventPublisher events;
+    private final JdbcTemplate       jdbc;
+    private final StockReservationService reservations;
 
     // ── PLACE ORDER (from cart) ───────────────────────────────
     @Transactional
@@ -54,17 +70,10 @@ public class OrderService {
                 .status(OrderStatus.PENDING)
                 .build();
 
+        deductStock(userId, cartItems);
+
         List<OrderItem> orderItems = cartItems.stream().map(cartItem -> {
             Product product = cartItem.getProduct();
-
-            if (product.getStock() < cartItem.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for: " + product.getName());
-            }
-
-            // Deduct stock
-            product.setStock(product.getStock() - cartItem.getQuantity());
-            productRepository.save(product);
-
             BigDecimal subtotal = cartItem.getUnitPrice()
                     .multiply(BigDecimal.valueOf(cartItem.getQuantity()));
 
@@ -86,6 +95,9 @@ public class OrderService {
 
         Order saved = orderRepository.save(order);
         cartService.clearCart(userId);
+        events.publishEvent(new OrderPlacedEvent(saved.getId(),
+                orderItems.stream().map(item -> item.getProduct().getId()).toList(),
+                orderItems.stream().map(OrderItem::getQuantity).toList()));
 
         System.out.println("✅ Order placed! Order ID: " + saved.getId() + " | Total: $" + total);
         return mapToResponse(saved);
@@ -110,7 +122,36 @@ public class OrderService {
         return mapToResponse(order);
     }
 
-    // ── PRIVATE HELPER ────────────────────────────────────────
+    // ── PRIVATE HELPERS ───────────────────────────────────────
+
+    // One batch of conditional decrements for the whole cart. A line that
+    // updates no row is short of stock: the exception rolls back the lines
+    // already deducted along with the order. The user's own checkout holds
+    // are turned into the order in the same transaction.
+    private void deductStock(UUID userId, List<CartItem> cartItems) {
+        // Same lock order for every checkout, so two carts sharing products cannot deadlock
+        List<CartItem> lines = cartItems.stream()
+                .sorted(Comparator.comparing(item -> item.getProduct().getId()))
+                .toList();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] updated = jdbc.batchUpdate(DECREMENT_STOCK, lines.stream()
+                .map(item -> new Object[]{item.getQuantity(), now, item.getProduct().getId(), item.getQuantity(),
+                        reservations.heldByOthers(userId, item.getProduct().getId())})
+                .toList());
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new RuntimeException("Insufficient stock for: " + lines.get(i).getProduct().getName());
+            }
+        }
+        reservations.consumeHolds(userId);
+
+        // One event for the whole order — listeners refresh every touched product in one pass
+        events.publishEvent(CatalogChangedEvent.upserted(ProductType.CLOTHING,
+                lines.stream().map(item -> item.getProduct().getId()).toList()));
+    }
+
     private OrderResponse mapToResponse(Order order) {
         List<OrderItemResponse> items = order.getOrderItems().stream().map(item ->
                 OrderItemResponse.builder()
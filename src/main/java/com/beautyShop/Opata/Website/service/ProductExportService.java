@@ -0,0 +1,225 @@
+package com.beautyShop.Opata.Website.service;
+
+import com.beautyShop.Opata.Website.dto.GeneralProductResponse;
+import com.beautyShop.Opata.Website.dto.ProductResponse;
+import com.beautyShop.Opata.Website.entity.Product;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ProductExportService — FEEDS & INTEGRATIONS
+ * ─────────────────────────────────────────────────
+ * Writes the whole product table as NDJSON (one ProductResponse per line,
+ * same shape as the JSON API) or CSV, while it is being read.
+ *
+ * Rows come from a database cursor (ProductRepository.EXPORT_FETCH_SIZE per
+ * round-trip) and are handled in chunks of Product.FETCH_BATCH: the chunk's
+ * images are loaded by one batch query, the chunk is written and flushed to the
+ * client, then the persistence context is cleared. Memory stays flat however
+ * large the catalog is, and the first bytes leave before the last row is read.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class ProductExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final MediaType mediaType;
+        private final String    extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = MediaType.parseMediaType(mediaType + ";charset=UTF-8");
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() { return mediaType; }
+
+        public String fileName(String base) { return base + "." + extension; }
+    }
+
+    /** How long one export may stream — a full catalog can take minutes. */
+    public static final Duration TIMEOUT = Duration.ofMinutes(30);
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    // One CSV column: header name and how to read it from the response
+    private record Column<R>(String name, Function<R, Object> value) {}
+
+    private static final List<Column<ProductResponse>> CLOTHING_COLUMNS = List.of(
+            new Column<>("id", ProductResponse::getId),
+            new Column<>("name", ProductResponse::getName),
+            new Column<>("brand", ProductResponse::getBrand),
+            new Column<>("category", ProductResponse::getCategory),
+            new Column<>("subCategory", ProductResponse::getSubCategory),
+            new Column<>("price", ProductResponse::getPrice),
+            new Column<>("discountPercentage", ProductResponse::getDiscountPercentage),
+            new Column<>("finalPrice", ProductResponse::getFinalPrice),
+            new Column<>("stock", ProductResponse::getStock),
+            new Column<>("isAvailable", ProductResponse::getIsAvailable),
+            new Column<>("sizes", ProductResponse::getAvailableSizes),
+            new Column<>("colors", ProductResponse::getAvailableColors),
+            new Column<>("material", ProductResponse::getMaterial),
+            new Column<>("style", ProductResponse::getStyle),
+            new Column<>("imageUrl", ProductResponse::getImageUrl),
+            new Column<>("imageUrls", ProductResponse::getImageUrls),
+            new Column<>("updatedAt", ProductResponse::getUpdatedAt));
+
+    private static final List<Column<GeneralProductResponse>> GENERAL_COLUMNS = List.of(
+            new Column<>("id", GeneralProductResponse::getId),
+            new Column<>("name", GeneralProductResponse::getName),
+            new Column<>("sku", GeneralProductResponse::getSku),
+            new Column<>("brand", GeneralProductResponse::getBrand),
+            new Column<>("category", GeneralProductResponse::getCategory),
+            new Column<>("subCategory", GeneralProductResponse::getSubCategory),
+            new Column<>("price", GeneralProductResponse::getPrice),
+            new Column<>("discountPercentage", GeneralProductResponse::getDiscountPercentage),
+            new Column<>("finalPrice", GeneralProductResponse::getFinalPrice),
+            new Column<>("stock", GeneralProductResponse::getStock),
+            new Column<>("isAvailable", GeneralProductResponse::getIsAvailable),
+            new Column<>("unit", GeneralProductResponse::getUnit),
+            new Column<>("weightKg", GeneralProductResponse::getWeightKg),
+            new Column<>("tags", GeneralProductResponse::getTags),
+            new Column<>("attributes", GeneralProductResponse::getAttributes),
+            new Column<>("imageUrl", GeneralProductResponse::getImageUrl),
+            new Column<>("imageUrls", GeneralProductResponse::getImageUrls),
+            new Column<>("updatedAt", GeneralProductResponse::getUpdatedAt));
+
+    private final ProductRepository        productRepository;
+    private final GeneralProductRepository generalProductRepository;
+    private final ProductMapper            productMapper;
+    private final ObjectMapper             objectMapper;
+    private final EntityManager            entityManager;
+    private final TransactionTemplate      readTx;
+
+    public ProductExportService(ProductRepository productRepository,
+                                GeneralProductRepository generalProductRepository,
+                                ProductMapper productMapper,
+                                ObjectMapper objectMapper,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager) {
+        this.productRepository        = productRepository;
+        this.generalProductRepository = generalProductRepository;
+        this.productMapper            = productMapper;
+        this.objectMapper             = objectMapper;
+        this.entityManager            = entityManager;
+
+        // The cursor only stays open inside a transaction
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    public StreamingResponseBody exportClothing(Format format) {
+        return out -> export(out, format, productRepository::streamAllForExport,
+                productMapper::toResponse, CLOTHING_COLUMNS);
+    }
+
+    public StreamingResponseBody exportGeneral(Format format) {
+        return out -> export(out, format, generalProductRepository::streamAllForExport,
+                productMapper::toResponse, GENERAL_COLUMNS);
+    }
+
+    // Runs on an MVC async thread after the controller method has returned
+    private <E, R> void export(OutputStream target,
+                               Format format,
+                               Supplier<Stream<E>> rows,
+                               Function<E, R> mapper,
+                               List<Column<R>> columns) throws IOException {
+        OutputStream out = new BufferedOutputStream(target, BUFFER_BYTES);
+        if (format == Format.CSV) {
+            writeLine(out, columns.stream().map(c -> csvCell(c.name())).collect(Collectors.joining(",")));
+        }
+
+        try {
+            Long written = readTx.execute(tx -> {
+                long count = 0;
+                try (Stream<E> stream = rows.get()) {
+                    Iterator<E> it = stream.iterator();
+                    List<E> chunk = new ArrayList<>(Product.FETCH_BATCH);
+                    while (it.hasNext()) {
+                        chunk.add(it.next());
+                        if (chunk.size() == Product.FETCH_BATCH || !it.hasNext()) {
+                            for (E entity : chunk) {
+                                R row = mapper.apply(entity);
+                                writeLine(out, format == Format.CSV ? csvRow(row, columns) : json(row));
+                            }
+                            count += chunk.size();
+                            chunk.clear();
+                            out.flush();
+                            entityManager.clear();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+            log.info("Exported {} products as {}", written, format);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private String json(Object row) throws IOException {
+        return objectMapper.writeValueAsString(row);
+    }
+
+    private static <R> String csvRow(R row, List<Column<R>> columns) {
+        return columns.stream()
+                .map(column -> csvCell(csvValue(column.value().apply(row))))
+                .collect(Collectors.joining(","));
+    }
+
+    // Lists are joined with '|', maps as key=value pairs joined with '|'
+    private static String csvValue(Object value) {
+        if (value == null) return "";
+        if (value instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).collect(Collectors.joining("|"));
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).collect(Collectors.joining("|"));
+        }
+        return value.toString();
+    }
+
+    // RFC 4180: quote when the cell holds a delimiter, quote or line break
+    private static String csvCell(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+}
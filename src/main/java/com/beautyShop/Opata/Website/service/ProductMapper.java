@@ -0,0 +1,123 @@
+package com.beautyShop.Opata.Website.service;
+
+import com.beautyShop.Opata.Website.dto.GeneralProductResponse;
+import com.beautyShop.Opata.Website.dto.ProductResponse;
+import com.beautyShop.Opata.Website.entity.GeneralProduct;
+import com.beautyShop.Opata.Website.entity.ImageDeliveryUrls;
+import com.beautyShop.Opata.Website.entity.Product;
+import com.beautyShop.Opata.Website.service.catalog.ProductCardQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Entity → response mapping shared by the admin and customer product services
+ * and the in-memory catalog, so every read path returns identical JSON.
+ */
+@Component
+public class ProductMapper {
+
+    public ProductResponse toResponse(Product p) {
+        List<ImageDeliveryUrls> variants = p.getImages().stream()
+                .map(img -> deliveryUrls(img.getDeliveryUrls(), img.getImageUrl()))
+                .collect(Collectors.toList());
+        List<String> imageUrls = variants.stream().map(ImageDeliveryUrls::getOptimized).collect(Collectors.toList());
+
+        return ProductResponse.builder()
+                .id(p.getId())
+                .name(p.getName())
+                .description(p.getDescription())
+                .price(p.getPrice())
+                .finalPrice(p.getFinalPrice())
+                .discountPercentage(p.getDiscountPercentage())
+                .category(p.getCategory())
+                .subCategory(p.getSubCategory())
+                .brand(p.getBrand())
+                .availableSizes(copyOf(p.getAvailableSizes()))
+                .availableColors(copyOf(p.getAvailableColors()))
+                .material(p.getMaterial())
+                .style(p.getStyle())
+                .stock(p.getStock())
+                .isAvailable(p.getIsAvailable())
+                .imageUrl(imageUrls.isEmpty() ? null : imageUrls.getFirst())
+                .cardImageUrl(variants.isEmpty() ? null : variants.getFirst().getCard())
+                .imageUrls(imageUrls)
+                .imageVariants(variants)
+                .addedByAdmin(p.getAddedBy() != null ? p.getAddedBy().getName() : "N/A")
+                .createdAt(p.getCreatedAt())
+                .updatedAt(p.getUpdatedAt())
+                .build();
+    }
+
+    public GeneralProductResponse toResponse(GeneralProduct p) {
+        List<ImageDeliveryUrls> variants = p.getImages().stream()
+                .map(img -> deliveryUrls(img.getDeliveryUrls(), img.getImageUrl()))
+                .collect(Collectors.toList());
+        List<String> imageUrls = variants.stream().map(ImageDeliveryUrls::getOptimized).collect(Collectors.toList());
+
+        return GeneralProductResponse.builder()
+                .id(p.getId())
+                .name(p.getName())
+                .description(p.getDescription())
+                .price(p.getPrice())
+                .finalPrice(p.getFinalPrice())
+                .discountPercentage(p.getDiscountPercentage())
+                .category(p.getCategory())
+                .subCategory(p.getSubCategory())
+                .brand(p.getBrand())
+                .sku(p.getSku())
+                .stock(p.getStock())
+                .unit(p.getUnit())
+                .weightKg(p.getWeightKg())
+                .lengthCm(p.getLengthCm())
+                .widthCm(p.getWidthCm())
+                .heightCm(p.getHeightCm())
+                .isAvailable(p.getIsAvailable())
+                .tags(copyOf(p.getTags()))
+                .attributes(p.getAttributes() != null ? new HashMap<>(p.getAttributes()) : null)
+                .imageUrl(imageUrls.isEmpty() ? null : imageUrls.getFirst())
+                .cardImageUrl(variants.isEmpty() ? null : variants.getFirst().getCard())
+                .imageUrls(imageUrls)
+                .imageVariants(variants)
+                .addedByAdmin(p.getAddedBy() != null ? p.getAddedBy().getName() : "N/A")
+                .createdAt(p.getCreatedAt())
+                .updatedAt(p.getUpdatedAt())
+                .build();
+    }
+
+    // Card-only pages (?fields=card) — only the card fields and sort keys are set;
+    // the response is trimmed to the requested fields before it is written
+    public ProductResponse toClothingCard(ProductCardQuery.Row r) {
+        return ProductResponse.builder()
+                .id(r.id()).name(r.name()).price(r.price()).finalPrice(r.finalPrice())
+                .discountPercentage(r.discountPercentage()).category(r.category()).brand(r.brand())
+                .stock(r.stock()).isAvailable(r.isAvailable()).cardImageUrl(r.cardImageUrl())
+                .createdAt(r.createdAt()).updatedAt(r.updatedAt())
+                .build();
+    }
+
+    public GeneralProductResponse toGeneralCard(ProductCardQuery.Row r) {
+        return GeneralProductResponse.builder()
+                .id(r.id()).name(r.name()).price(r.price()).finalPrice(r.finalPrice())
+                .discountPercentage(r.discountPercentage()).category(r.category()).brand(r.brand())
+                .stock(r.stock()).isAvailable(r.isAvailable()).cardImageUrl(r.cardImageUrl())
+                .createdAt(r.createdAt()).updatedAt(r.updatedAt())
+                .build();
+    }
+
+    // URLs are stored with the image; rows the backfill has not reached yet
+    // fall back to the original upload URL rather than building one here
+    private static ImageDeliveryUrls deliveryUrls(ImageDeliveryUrls stored, String originalUrl) {
+        if (stored != null && stored.getOptimized() != null) return stored;
+        return new ImageDeliveryUrls(originalUrl, originalUrl, originalUrl, originalUrl);
+    }
+
+    // Responses outlive the session (they are cached by the catalog),
+    // so never hand out Hibernate's lazy collection wrappers
+    private static <E> List<E> copyOf(List<E> source) {
+        return source != null ? new ArrayList<>(source) : null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.beautyShop.Opata.Website.service;
+
+import com.beautyShop.Opata.Website.entity.ClothingColor;
+import com.beautyShop.Opata.Website.entity.ClothingSize;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * ProductMaskMigration — ONE-OFF (PostgreSQL)
+ * ─────────────────────────────────────────────────
+ * Moves clothing sizes and colors out of their element-collection tables
+ * into bitmask columns on products (bit n = enum ordinal n, see EnumMask):
+ *   product_sizes  → size_mask   integer
+ *   product_colors → color_mask  bigint
+ * then renames the old tables to *_legacy.
+ *
+ * A btree cannot answer (mask & bits) <> 0, so filters are written as an
+ * overlap of the set bits, catalog_mask_bits(size_mask) && catalog_mask_bits(bits),
+ * and each mask gets a GIN index on that expression. The function is
+ * (re)created on every boot — queries depend on it.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Component
+public class ProductMaskMigration implements SmartInitializingSingleton {
+
+    private final JdbcTemplate        jdbc;
+    private final TransactionTemplate tx;
+
+    public ProductMaskMigration(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.tx   = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            if (!isPostgres()) return;
+            tx.executeWithoutResult(status -> migrate());
+        } catch (RuntimeException e) {
+            // Not fatal — unfiltered listings keep working; size/color filters fail until the next boot
+            log.error("Product size/color mask migration failed", e);
+        }
+    }
+
+    void migrate() {
+        jdbc.execute("""
+                CREATE OR REPLACE FUNCTION catalog_mask_bits(mask bigint) RETURNS smallint[]
+                LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+                    SELECT coalesce(array_agg(b::smallint), '{}')
+                    FROM generate_series(0, 63) AS b
+                    WHERE mask & (1::bigint << b) <> 0
+                $$""");
+
+        moveToMask("product_sizes", "size", "size_mask", ClothingSize.class);
+        moveToMask("product_colors", "color", "color_mask", ClothingColor.class);
+
+        jdbc.update("UPDATE products SET size_mask = 0 WHERE size_mask IS NULL");
+        jdbc.update("UPDATE products SET color_mask = 0 WHERE color_mask IS NULL");
+
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_products_size_bits " +
+                "ON products USING gin (catalog_mask_bits(size_mask))");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_products_color_bits " +
+                "ON products USING gin (catalog_mask_bits(color_mask))");
+    }
+
+    // OR of 1 << ordinal over each product's rows; names no longer in the enum are dropped
+    private void moveToMask(String table, String column, String maskColumn, Class<? extends Enum<?>> type) {
+        if (!tableExists(table)) return;
+
+        String names = Arrays.stream(type.getEnumConstants()).map(Enum::name)
+                .collect(Collectors.joining(",", "'{", "}'::text[]"));
+        int moved = jdbc.update("""
+                UPDATE products p SET %4$s = m.mask
+                FROM (SELECT product_id, bit_or(1::bigint << (array_position(%3$s, %2$s) - 1)) AS mask
+                      FROM %1$s
+                      WHERE array_position(%3$s, %2$s) IS NOT NULL
+                      GROUP BY product_id) m
+                WHERE p.id = m.product_id""".formatted(table, column, names, maskColumn));
+        jdbc.execute("ALTER TABLE " + table + " RENAME TO " + table + "_legacy");
+        log.info("Moved {} of {} products into products.{}", table, moved, maskColumn);
+    }
+
+    private boolean isPostgres() {
+        String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbc.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+}
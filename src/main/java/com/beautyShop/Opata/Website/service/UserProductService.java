@@ -1,142 +1,218 @@
 package com.beautyShop.Opata.Website.service;
 
-import com.beautyShop.Opata.Website.dto.GeneralProductResponse;
-import com.beautyShop.Opata.Website.dto.ProductResponse;
+import com.beautyShop.Opata.Website.dto.*;
 import com.beautyShop.Opata.Website.entity.GeneralProduct;
 import com.beautyShop.Opata.Website.entity.Product;
 import com.beautyShop.Opata.Website.entity.*;
 import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
 import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import com.beautyShop.Opata.Website.entity.repo.ProductSpecifications;
+import com.beautyShop.Opata.Website.service.catalog.CatalogService;
+import com.beautyShop.Opata.Website.service.catalog.CatalogSnapshot;
+import com.beautyShop.Opata.Website.service.catalog.PriceHistogram;
+import com.beautyShop.Opata.Website.service.catalog.ProductCardQuery;
+import com.beautyShop.Opata.Website.service.ranking.ProductRankings;
+import com.beautyShop.Opata.Website.service.ranking.RankingWindow;
+import com.beautyShop.Opata.Website.service.recommend.CoPurchaseRecommender;
+import com.beautyShop.Opata.Website.service.recommend.SimilarProductIndex;
+import com.beautyShop.Opata.Website.service.search.ProductSearchIndex;
+import com.beautyShop.Opata.Website.service.stats.ProductViewCounter;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * UserProductService — CUSTOMER FACING
  * Handles: browse, search, filter — READ ONLY
  * Covers both Clothing Products and General Products
+ *
+ * Served from the in-memory catalog (CatalogService); the database is only
+ * queried while the catalog is still loading. Keyword search is answered by
+ * the Lucene index (ProductSearchIndex), ranked by relevance unless ?sort= is given.
+ * Listings take ?fields= (applied by SparseFieldsAdvice); card-only pages read
+ * from the database go through ProductCardQuery instead of loading entities.
+ * Product page opens and keyword-search hits are counted by ProductViewCounter.
  */
 @Service
-@RequiredArgsConstructor
 public class UserProductService {
 
-    private final ProductRepository       productRepository;
+    private final ProductRepository        productRepository;
     private final GeneralProductRepository generalProductRepository;
-    private final CloudinaryService       cloudinaryService;
+    private final ProductMapper            productMapper;
+    private final CatalogService           catalog;
+    private final ProductSearchIndex       searchIndex;
+    private final PriceHistogram           priceHistogram;
+    private final ProductCardQuery         cardQuery;
+    private final CoPurchaseRecommender    recommender;
+    private final SimilarProductIndex      similarProducts;
+    private final ProductViewCounter       viewCounter;
+    private final ProductRankings          rankings;
+    private final TransactionTemplate      readTx;
+
+    public UserProductService(ProductRepository productRepository,
+                              GeneralProductRepository generalProductRepository,
+                              ProductMapper productMapper,
+                              CatalogService catalog,
+                              ProductSearchIndex searchIndex,
+                              PriceHistogram priceHistogram,
+                              ProductCardQuery cardQuery,
+                              CoPurchaseRecommender recommender,
+                              SimilarProductIndex similarProducts,
+                              ProductViewCounter viewCounter,
+                              ProductRankings rankings,
+                              PlatformTransactionManager transactionManager) {
+        this.productRepository        = productRepository;
+        this.generalProductRepository = generalProductRepository;
+        this.productMapper            = productMapper;
+        this.catalog                  = catalog;
+        this.searchIndex              = searchIndex;
+        this.priceHistogram           = priceHistogram;
+        this.cardQuery                = cardQuery;
+        this.recommender              = recommender;
+        this.similarProducts          = similarProducts;
+        this.viewCounter              = viewCounter;
+        this.rankings                 = rankings;
+
+        // Database reads map inside one session so batch fetching applies —
+        // opened only on the fallback path, the in-memory path needs no connection
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+    }
 
 
     // ═══════════════════════════════════════════════════════════
     //  CLOTHING PRODUCTS — READ OPERATIONS
+    //  Every listing is keyset-paginated: ?sort=&cursor=&size=
     // ═══════════════════════════════════════════════════════════
 
     // ── GET ALL ──────────────────────────────────────────────
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll()
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getAllProducts(ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all(), page);
     }
 
     // ── GET AVAILABLE ONLY ───────────────────────────────────
-    public List<ProductResponse> getAvailableProducts() {
-        return productRepository.findByIsAvailableTrue()
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getAvailableProducts(ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().availableOnly(), page);
     }
 
     // ── GET SINGLE ───────────────────────────────────────────
     public ProductResponse getProductById(Long id) {
-        return mapToProductResponse(findProductById(id));
+        ProductResponse product = catalog.isReady()
+                ? catalog.clothing().get(id)
+                        .orElseThrow(() -> new RuntimeException("Product not found with id: " + id))
+                : readTx.execute(tx -> productMapper.toResponse(findProductById(id)));
+        viewCounter.recordView(ProductType.CLOTHING, id);
+        return product;
+    }
+
+    // ── FREQUENTLY BOUGHT TOGETHER ───────────────────────────
+    // Precomputed by CoPurchaseRecommender — one map lookup, then the catalog.
+    // The limit applies after missing products are dropped, so they cannot shorten the list
+    public List<ProductResponse> getFrequentlyBoughtTogether(Long id, int limit) {
+        List<ProductResponse> found = clothingByIds(recommender.recommendationsFor(id));
+        return found.subList(0, Math.clamp(limit, 0, found.size()));
+    }
+
+    // ── SIMILAR PRODUCTS ─────────────────────────────────────
+    // Content-based, from SimilarProductIndex — works before a product has any orders
+    public List<ProductResponse> getSimilarProducts(Long id, int limit) {
+        List<Long> ids = similarProducts.similarTo(ProductType.CLOTHING, id);
+        return clothingByIds(ids.subList(0, Math.clamp(limit, 0, ids.size())));
     }
 
     // ── IN STOCK ONLY ────────────────────────────────────────
-    public List<ProductResponse> getInStockProducts() {
-        return productRepository.findByStockGreaterThan(0)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getInStockProducts(ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().inStockOnly(), page);
     }
 
     // ── DISCOUNTED PRODUCTS ──────────────────────────────────
-    public List<ProductResponse> getDiscountedProducts() {
-        return productRepository.findByDiscountPercentageGreaterThan(BigDecimal.ZERO)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getDiscountedProducts(ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().discountedOnly(), page);
     }
 
     // ── BROWSE BY CATEGORY ───────────────────────────────────
-    public List<ProductResponse> getByCategory(String category) {
-        return productRepository.findByCategoryIgnoreCase(category)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getByCategory(String category, ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().with(Facet.CATEGORY, category), page);
     }
 
     // ── BROWSE BY SUB-CATEGORY ───────────────────────────────
-    public List<ProductResponse> getBySubCategory(SubCategory subCategory) {
-        return productRepository.findBySubCategory(subCategory)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getBySubCategory(SubCategory subCategory, ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().with(Facet.SUB_CATEGORY, subCategory.name()), page);
     }
 
     // ── BROWSE BY BRAND ──────────────────────────────────────
-    public List<ProductResponse> getByBrand(String brand) {
-        return productRepository.findByBrandIgnoreCase(brand)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getByBrand(String brand, ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().with(Facet.BRAND, brand), page);
     }
 
     // ── BROWSE BY SIZE ───────────────────────────────────────
-    public List<ProductResponse> getBySize(ClothingSize size) {
-        return productRepository.findByAvailableSizesContaining(size)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getBySize(ClothingSize size, ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().with(Facet.SIZE, size.name()), page);
     }
 
     // ── BROWSE BY COLOR ──────────────────────────────────────
-    public List<ProductResponse> getByColor(ClothingColor color) {
-        return productRepository.findByAvailableColorsContaining(color)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getByColor(ClothingColor color, ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().with(Facet.COLOR, color.name()), page);
     }
 
     // ── BROWSE BY MATERIAL ───────────────────────────────────
-    public List<ProductResponse> getByMaterial(String material) {
-        return productRepository.findByNameContainingIgnoreCase(material)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getByMaterial(String material, ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().with(Facet.MATERIAL, material), page);
     }
 
     // ── SEARCH BY NAME ───────────────────────────────────────
-    public List<ProductResponse> searchByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> searchByName(String name, ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().nameContains(name), page);
     }
 
     // ── FULL KEYWORD SEARCH ──────────────────────────────────
-    public List<ProductResponse> searchByKeyword(String keyword) {
-        return productRepository.searchByKeyword(keyword)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    // Relevance-ranked by default; any other ?sort= orders the matches like a listing
+    public CursorPage<ProductResponse> searchByKeyword(String keyword, ProductPageRequest page) {
+        return impressions(ProductType.CLOTHING, clothingKeywordPage(keyword, page));
     }
 
     // ── SEARCH BY NAME + CATEGORY ────────────────────────────
-    public List<ProductResponse> searchByNameAndCategory(String name, String category) {
-        return productRepository.findByNameContainingIgnoreCaseAndCategoryIgnoreCase(name, category)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> searchByNameAndCategory(String name, String category,
+                                                               ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().nameContains(name).with(Facet.CATEGORY, category), page);
     }
 
     // ── SEARCH BY NAME + BRAND ───────────────────────────────
-    public List<ProductResponse> searchByNameAndBrand(String name, String brand) {
-        return productRepository.findByNameContainingIgnoreCaseAndBrandIgnoreCase(name, brand)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> searchByNameAndBrand(String name, String brand,
+                                                            ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().nameContains(name).with(Facet.BRAND, brand), page);
     }
 
     // ── FILTER BY PRICE RANGE ────────────────────────────────
-    public List<ProductResponse> getByPriceRange(BigDecimal min, BigDecimal max) {
-        return productRepository.findByPriceBetween(min, max)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getByPriceRange(BigDecimal min, BigDecimal max,
+                                                       ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().priceBetween(min, max), page);
     }
 
     // ── FILTER BY CATEGORY + PRICE RANGE ────────────────────
-    public List<ProductResponse> getByCategoryAndPriceRange(String category, BigDecimal min, BigDecimal max) {
-        return productRepository.findByCategoryIgnoreCaseAndPriceBetween(category, min, max)
-                .stream().map(this::mapToProductResponse).collect(Collectors.toList());
+    public CursorPage<ProductResponse> getByCategoryAndPriceRange(String category, BigDecimal min, BigDecimal max,
+                                                                  ProductPageRequest page) {
+        return clothingPage(CatalogQuery.all().with(Facet.CATEGORY, category).priceBetween(min, max), page);
     }
 
     // ── DROPDOWN HELPERS ─────────────────────────────────────
-    public List<String> getAllCategories()  { return productRepository.findAllCategories(); }
-    public List<String> getAllBrands()      { return productRepository.findAllBrands(); }
-    public List<String> getAllMaterials()   { return productRepository.findAllMaterials(); }
+    public List<String> getAllCategories() {
+        return catalog.isReady() ? catalog.clothing().facetValues(Facet.CATEGORY) : productRepository.findAllCategories();
+    }
+
+    public List<String> getAllBrands() {
+        return catalog.isReady() ? catalog.clothing().facetValues(Facet.BRAND) : productRepository.findAllBrands();
+    }
+
+    public List<String> getAllMaterials() {
+        return catalog.isReady() ? catalog.clothing().facetValues(Facet.MATERIAL) : productRepository.findAllMaterials();
+    }
 
 
     // ═══════════════════════════════════════════════════════════
@@ -144,102 +220,426 @@ public class UserProductService {
     // ═══════════════════════════════════════════════════════════
 
     // ── GET ALL ──────────────────────────────────────────────
-    public List<GeneralProductResponse> getAllGeneralProducts() {
-        return generalProductRepository.findAll()
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getAllGeneralProducts(ProductPageRequest page) {
+        return generalPage(CatalogQuery.all(), page);
     }
 
     // ── GET AVAILABLE ONLY ───────────────────────────────────
-    public List<GeneralProductResponse> getAvailableGeneralProducts() {
-        return generalProductRepository.findByIsAvailableTrue()
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getAvailableGeneralProducts(ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().availableOnly(), page);
     }
 
     // ── GET SINGLE ───────────────────────────────────────────
     public GeneralProductResponse getGeneralProductById(Long id) {
-        return mapToGeneralProductResponse(findGeneralProductById(id));
+        GeneralProductResponse product = catalog.isReady()
+                ? catalog.general().get(id)
+                        .orElseThrow(() -> new RuntimeException("General product not found with id: " + id))
+                : readTx.execute(tx -> productMapper.toResponse(findGeneralProductById(id)));
+        viewCounter.recordView(ProductType.GENERAL, id);
+        return product;
+    }
+
+    // ── SIMILAR PRODUCTS ─────────────────────────────────────
+    public List<GeneralProductResponse> getSimilarGeneralProducts(Long id, int limit) {
+        List<Long> ids = similarProducts.similarTo(ProductType.GENERAL, id);
+        return generalByIds(ids.subList(0, Math.clamp(limit, 0, ids.size())));
     }
 
     // ── IN STOCK ONLY ────────────────────────────────────────
-    public List<GeneralProductResponse> getGeneralInStockProducts() {
-        return generalProductRepository.findByStockGreaterThan(0)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getGeneralInStockProducts(ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().inStockOnly(), page);
     }
 
     // ── DISCOUNTED PRODUCTS ──────────────────────────────────
-    public List<GeneralProductResponse> getDiscountedGeneralProducts() {
-        return generalProductRepository.findByDiscountPercentageGreaterThan(BigDecimal.ZERO)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getDiscountedGeneralProducts(ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().discountedOnly(), page);
     }
 
     // ── BROWSE BY CATEGORY ───────────────────────────────────
-    public List<GeneralProductResponse> getGeneralByCategory(String category) {
-        return generalProductRepository.findByCategoryIgnoreCase(category)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getGeneralByCategory(String category, ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().with(Facet.CATEGORY, category), page);
     }
 
     // ── BROWSE BY SUB-CATEGORY ───────────────────────────────
-    public List<GeneralProductResponse> getGeneralBySubCategory(String subCategory) {
-        return generalProductRepository.findBySubCategoryIgnoreCase(subCategory)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getGeneralBySubCategory(String subCategory, ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().with(Facet.SUB_CATEGORY, subCategory), page);
     }
 
     // ── BROWSE BY BRAND ──────────────────────────────────────
-    public List<GeneralProductResponse> getGeneralByBrand(String brand) {
-        return generalProductRepository.findByBrandIgnoreCase(brand)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getGeneralByBrand(String brand, ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().with(Facet.BRAND, brand), page);
     }
 
     // ── BROWSE BY TAG ────────────────────────────────────────
-    public List<GeneralProductResponse> getGeneralByTag(String tag) {
-        return generalProductRepository.findByTagsContaining(tag)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getGeneralByTag(String tag, ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().with(Facet.TAG, tag), page);
     }
 
     // ── SEARCH BY NAME ───────────────────────────────────────
-    public List<GeneralProductResponse> searchGeneralByName(String name) {
-        return generalProductRepository.findByNameContainingIgnoreCase(name)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> searchGeneralByName(String name, ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().nameContains(name), page);
     }
 
     // ── FULL KEYWORD SEARCH ──────────────────────────────────
-    public List<GeneralProductResponse> searchGeneralByKeyword(String keyword) {
-        return generalProductRepository.searchByKeyword(keyword)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> searchGeneralByKeyword(String keyword, ProductPageRequest page) {
+        return impressions(ProductType.GENERAL, generalKeywordPage(keyword, page));
     }
 
     // ── FILTER BY PRICE RANGE ────────────────────────────────
-    public List<GeneralProductResponse> getGeneralByPriceRange(BigDecimal min, BigDecimal max) {
-        return generalProductRepository.findByPriceBetween(min, max)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getGeneralByPriceRange(BigDecimal min, BigDecimal max,
+                                                                     ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().priceBetween(min, max), page);
     }
 
     // ── FILTER BY CATEGORY + PRICE RANGE ────────────────────
-    public List<GeneralProductResponse> getGeneralByCategoryAndPriceRange(String category,
-                                                                          BigDecimal min,
-                                                                          BigDecimal max) {
-        return generalProductRepository.findByCategoryIgnoreCaseAndPriceBetween(category, min, max)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getGeneralByCategoryAndPriceRange(String category,
+                                                                                BigDecimal min,
+                                                                                BigDecimal max,
+                                                                                ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().with(Facet.CATEGORY, category).priceBetween(min, max), page);
     }
 
     // ── SEARCH BY CUSTOM ATTRIBUTE ───────────────────────────
     // e.g. key="Skin Type", value="Oily" or key="Warranty", value="2 years"
-    public List<GeneralProductResponse> getGeneralByAttribute(String key, String value) {
-        return generalProductRepository.findByAttribute(key, value)
-                .stream().map(this::mapToGeneralProductResponse).collect(Collectors.toList());
+    public CursorPage<GeneralProductResponse> getGeneralByAttribute(String key, String value,
+                                                                    ProductPageRequest page) {
+        return generalPage(CatalogQuery.all().with(Facet.ATTRIBUTE, key + "=" + value), page);
     }
 
     // ── DROPDOWN HELPERS ─────────────────────────────────────
-    public List<String> getAllGeneralCategories()    { return generalProductRepository.findAllCategories(); }
-    public List<String> getAllGeneralSubCategories() { return generalProductRepository.findAllSubCategories(); }
-    public List<String> getAllGeneralBrands()        { return generalProductRepository.findAllBrands(); }
-    public List<String> getAllGeneralTags()          { return generalProductRepository.findAllTags(); }
+    public List<String> getAllGeneralCategories() {
+        return catalog.isReady() ? catalog.general().facetValues(Facet.CATEGORY) : generalProductRepository.findAllCategories();
+    }
+
+    public List<String> getAllGeneralSubCategories() {
+        return catalog.isReady() ? catalog.general().facetValues(Facet.SUB_CATEGORY) : generalProductRepository.findAllSubCategories();
+    }
+
+    public List<String> getAllGeneralBrands() {
+        return catalog.isReady() ? catalog.general().facetValues(Facet.BRAND) : generalProductRepository.findAllBrands();
+    }
+
+    public List<String> getAllGeneralTags() {
+        return catalog.isReady() ? catalog.general().facetValues(Facet.TAG) : generalProductRepository.findAllTags();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BATCH LOOKUP — cart, wishlist and recently-viewed widgets
+    //  Catalog hits cost nothing; the fallback is one IN query
+    //  plus batch-loaded images for the whole list
+    // ═══════════════════════════════════════════════════════════
+
+    public static final int MAX_BATCH_IDS = 300;
+
+    public ProductBatch<ProductResponse> getProductBatch(List<Long> ids) {
+        return batch(ids, this::clothingByIds, ProductResponse::getId);
+    }
+
+    public ProductBatch<GeneralProductResponse> getGeneralProductBatch(List<Long> ids) {
+        return batch(ids, this::generalByIds, GeneralProductResponse::getId);
+    }
+
+    private <T> ProductBatch<T> batch(List<Long> ids,
+                                      Function<List<Long>, List<T>> loader,
+                                      Function<T, Long> idOf) {
+        List<Long> requested = ids == null ? List.of()
+                : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("ids is required");
+        }
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids per request");
+        }
+
+        List<T> items = loader.apply(requested);
+        Set<Long> found = new HashSet<>();
+        items.forEach(item -> found.add(idOf.apply(item)));
+
+        return ProductBatch.<T>builder()
+                .items(items)
+                .missing(requested.stream().filter(id -> !found.contains(id)).toList())
+                .build();
+    }
+
+
+    // ═══════════════════════════════════════════════════════════
+    //  FACETED SEARCH — one query for results + filter sidebar
+    // ═══════════════════════════════════════════════════════════
+
+    private static final List<Facet> CLOTHING_FACETS = List.of(
+            Facet.CATEGORY, Facet.SUB_CATEGORY, Facet.BRAND, Facet.MATERIAL, Facet.SIZE, Facet.COLOR);
+
+    private static final List<Facet> GENERAL_FACETS = List.of(
+            Facet.CATEGORY, Facet.SUB_CATEGORY, Facet.BRAND, Facet.TAG, Facet.ATTRIBUTE);
+
+    public FacetedPage<ProductResponse> searchClothing(ProductSearchRequest request, ProductPageRequest page) {
+        return facetedSearch(ProductType.CLOTHING, request, page, CLOTHING_FACETS,
+                () -> catalog.clothing(), this::clothingPage, this::clothingByIds,
+                q -> productRepository.count(ProductSpecifications.clothing(q)),
+                q -> priceHistogram.count(Product.class, ProductSpecifications.clothing(q)));
+    }
+
+    public FacetedPage<GeneralProductResponse> searchGeneral(ProductSearchRequest request, ProductPageRequest page) {
+        return facetedSearch(ProductType.GENERAL, request, page, GENERAL_FACETS,
+                () -> catalog.general(), this::generalPage, this::generalByIds,
+                q -> generalProductRepository.count(ProductSpecifications.general(q)),
+                q -> priceHistogram.count(GeneralProduct.class, ProductSpecifications.general(q)));
+    }
+
+    /**
+     * Relevance-ranked when ?q= is given, newest first otherwise; ?sort= overrides both.
+     * Facet counts need the in-memory catalog — while it is still loading the
+     * results, total and price histogram come from the database and facets are left empty.
+     */
+    private <T extends ProductView> FacetedPage<T> facetedSearch(
+            ProductType type,
+            ProductSearchRequest request,
+            ProductPageRequest page,
+            List<Facet> facets,
+            Supplier<CatalogSnapshot<T>> snapshot,
+            PageLoader<T> pageLoader,
+            Function<List<Long>, List<T>> byIds,
+            Function<CatalogQuery, Long> databaseCount,
+            Function<CatalogQuery, List<PriceRangeCount>> databasePriceRanges) {
+
+        CatalogQuery query = request.toQuery();
+        ProductSort sort = page.resolvedSort(request.hasKeyword() ? ProductSort.RELEVANCE : ProductSort.NEWEST);
+        if (!request.hasKeyword()) requireCatalogSort(sort);
+
+        List<ProductSearchIndex.Hit> hits = null;
+        if (request.hasKeyword()) {
+            if (searchIndex.isReady()) {
+                // Every match filters, counts and facets; the ranked hits only order a relevance page
+                query.onlyIds(searchIndex.matchingIds(type, request.getQ()));
+                if (sort == ProductSort.RELEVANCE) hits = searchIndex.search(type, request.getQ());
+            } else {
+                query.keyword(request.getQ());
+                sort = withoutRelevance(sort);
+            }
+        }
+
+        if (!catalog.isReady()) {
+            CursorPage<T> results = sort == ProductSort.RELEVANCE
+                    ? pageLoader.load(query, ProductSort.NEWEST, page)
+                    : pageLoader.load(query, sort, page);
+            if (request.hasKeyword()) impressions(type, results);
+            return FacetedPage.<T>builder()
+                    .results(results)
+                    .total(Math.toIntExact(databaseCount.apply(query)))
+                    .facets(Map.of())
+                    .priceRanges(databasePriceRanges.apply(query.withoutPrice()))
+                    .build();
+        }
+
+        CatalogSnapshot<T> catalogSnapshot = snapshot.get();
+        Set<Long> matching = catalogSnapshot.matchingIds(query);
+
+        CursorPage<T> results;
+        if (sort == ProductSort.RELEVANCE) {
+            List<ProductSearchIndex.Hit> filtered = hits.stream()
+                    .filter(h -> matching.contains(h.productId()))
+                    .toList();
+            results = relevancePage(filtered, page, byIds);
+        } else {
+            results = pageLoader.load(query, sort, page);
+        }
+        if (request.hasKeyword()) impressions(type, results);
+
+        return FacetedPage.<T>builder()
+                .results(results)
+                .total(matching.size())
+                .facets(catalogSnapshot.facetCounts(query, facets))
+                .priceRanges(catalogSnapshot.priceRangeCounts(query))
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface PageLoader<T> {
+        CursorPage<T> load(CatalogQuery query, ProductSort sort, ProductPageRequest page);
+    }
+
+
+    // ═══════════════════════════════════════════════════════════
+    //  TRENDING + BESTSELLERS — ranked in memory by ProductRankings
+    // ═══════════════════════════════════════════════════════════
+
+    public List<ProductResponse> getTrendingProducts(RankingWindow window, int limit) {
+        return clothingByIds(rankings.trending(ProductType.CLOTHING, window, rankingLimit(limit)));
+    }
+
+    public List<GeneralProductResponse> getTrendingGeneralProducts(RankingWindow window, int limit) {
+        return generalByIds(rankings.trending(ProductType.GENERAL, window, rankingLimit(limit)));
+    }
+
+    public List<ProductResponse> getBestsellers(RankingWindow window, int limit) {
+        return clothingByIds(rankings.bestsellers(ProductType.CLOTHING, window, rankingLimit(limit)));
+    }
+
+    public List<GeneralProductResponse> getGeneralBestsellers(RankingWindow window, int limit) {
+        return generalByIds(rankings.bestsellers(ProductType.GENERAL, window, rankingLimit(limit)));
+    }
+
+    private static int rankingLimit(int limit) {
+        return Math.clamp(limit, 0, ProductRankings.MAX_LIMIT);
+    }
 
 
     // ═══════════════════════════════════════════════════════════
     //  PRIVATE HELPERS
     // ═══════════════════════════════════════════════════════════
 
+    private CursorPage<ProductResponse> clothingKeywordPage(String keyword, ProductPageRequest page) {
+        ProductSort sort = page.resolvedSort(ProductSort.RELEVANCE);
+        if (!searchIndex.isReady()) {
+            return clothingPage(CatalogQuery.all().keyword(keyword), withoutRelevance(sort), page);
+        }
+        if (sort == ProductSort.RELEVANCE) {
+            return relevancePage(searchIndex.search(ProductType.CLOTHING, keyword), page, this::clothingByIds);
+        }
+        return clothingPage(CatalogQuery.all().onlyIds(searchIndex.matchingIds(ProductType.CLOTHING, keyword)), page);
+    }
+
+    private CursorPage<GeneralProductResponse> generalKeywordPage(String keyword, ProductPageRequest page) {
+        ProductSort sort = page.resolvedSort(ProductSort.RELEVANCE);
+        if (!searchIndex.isReady()) {
+            return generalPage(CatalogQuery.all().keyword(keyword), withoutRelevance(sort), page);
+        }
+        if (sort == ProductSort.RELEVANCE) {
+            return relevancePage(searchIndex.search(ProductType.GENERAL, keyword), page, this::generalByIds);
+        }
+        return generalPage(CatalogQuery.all().onlyIds(searchIndex.matchingIds(ProductType.GENERAL, keyword)), page);
+    }
+
+    // Counts every product on a keyword-search result page as one impression
+    private <T extends ProductView> CursorPage<T> impressions(ProductType type, CursorPage<T> page) {
+        viewCounter.recordImpressions(type, page.getItems().stream().map(ProductView::getId).toList());
+        return page;
+    }
+
+    private CursorPage<ProductResponse> clothingPage(CatalogQuery query, ProductPageRequest page) {
+        return clothingPage(query, page.resolvedSort(), page);
+    }
+
+    private CursorPage<GeneralProductResponse> generalPage(CatalogQuery query, ProductPageRequest page) {
+        return generalPage(query, page.resolvedSort(), page);
+    }
+
+    // Both paths fetch size + 1 rows after the cursor — the extra row only tells us hasNext
+    private CursorPage<ProductResponse> clothingPage(CatalogQuery query, ProductSort sort, ProductPageRequest page) {
+        requireCatalogSort(sort);
+        int size = page.resolvedSize();
+        ProductCursor after = page.decodedCursor(sort);
+
+        if (catalog.isReady()) {
+            List<ProductResponse> rows = catalog.clothing().query(query, sort, after, size + 1);
+            return CursorPage.of(rows, size, sort, Function.identity());
+        }
+
+        Specification<Product> spec = ProductSpecifications.clothing(query).and(ProductSpecifications.keyset(sort, after));
+        return readTx.execute(tx -> {
+            if (page.cardFieldsOnly()) {
+                List<ProductCardQuery.Row> rows = cardQuery.find(Product.class, spec, size + 1, ProductImage.class, "product");
+                return CursorPage.of(rows, size, sort, productMapper::toClothingCard);
+            }
+            List<Product> rows = productRepository.findBy(spec,
+                    q -> q.project(ProductRepository.LISTING_GRAPH).limit(size + 1).all());
+            return CursorPage.of(rows, size, sort, productMapper::toResponse);
+        });
+    }
+
+    private CursorPage<GeneralProductResponse> generalPage(CatalogQuery query, ProductSort sort,
+                                                           ProductPageRequest page) {
+        requireCatalogSort(sort);
+        int size = page.resolvedSize();
+        ProductCursor after = page.decodedCursor(sort);
+
+        if (catalog.isReady()) {
+            List<GeneralProductResponse> rows = catalog.general().query(query, sort, after, size + 1);
+            return CursorPage.of(rows, size, sort, Function.identity());
+        }
+
+        Specification<GeneralProduct> spec = ProductSpecifications.general(query).and(ProductSpecifications.keyset(sort, after));
+        return readTx.execute(tx -> {
+            if (page.cardFieldsOnly()) {
+                List<ProductCardQuery.Row> rows = cardQuery.find(GeneralProduct.class, spec, size + 1,
+                        GeneralProductImage.class, "generalProduct");
+                return CursorPage.of(rows, size, sort, productMapper::toGeneralCard);
+            }
+            List<GeneralProduct> rows = generalProductRepository.findBy(spec,
+                    q -> q.project(GeneralProductRepository.LISTING_GRAPH).limit(size + 1).all());
+            return CursorPage.of(rows, size, sort, productMapper::toResponse);
+        });
+    }
+
+    /**
+     * Pages through ranked search hits, keyset-style on (score, id):
+     * the cursor remembers the last hit's score and id, and the next page
+     * starts at the first hit ranked below it.
+     */
+    private <T extends ProductView> CursorPage<T> relevancePage(List<ProductSearchIndex.Hit> hits,
+                                                               ProductPageRequest page,
+                                                               Function<List<Long>, List<T>> loader) {
+        int size = page.resolvedSize();
+        ProductCursor after = page.decodedCursor(ProductSort.RELEVANCE);
+
+        int from = 0;
+        if (after != null) {
+            float score = (Float) after.getKey();
+            while (from < hits.size()) {
+                ProductSearchIndex.Hit h = hits.get(from);
+                if (h.score() < score || (h.score() == score && h.productId() < after.getId())) break;
+                from++;
+            }
+        }
+
+        List<ProductSearchIndex.Hit> window = hits.subList(from, Math.min(from + size, hits.size()));
+        boolean hasNext = from + size < hits.size();
+        List<T> items = loader.apply(window.stream().map(ProductSearchIndex.Hit::productId).toList());
+
+        ProductSearchIndex.Hit last = window.isEmpty() ? null : window.getLast();
+        return CursorPage.<T>builder()
+                .items(items)
+                .size(items.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? ProductCursor.of(ProductSort.RELEVANCE, last.score(), last.productId()).encode() : null)
+                .sort(ProductSort.RELEVANCE)
+                .build();
+    }
+
+    // Responses in the order of the given ids; products deleted since they were matched are skipped
+    private List<ProductResponse> clothingByIds(List<Long> ids) {
+        if (catalog.isReady()) {
+            return ids.stream().map(catalog.clothing()::get).flatMap(Optional::stream).toList();
+        }
+        return readTx.execute(tx -> inOrder(ids, productRepository.findByIdIn(ids), Product::getId)
+                .stream().map(productMapper::toResponse).toList());
+    }
+
+    private List<GeneralProductResponse> generalByIds(List<Long> ids) {
+        if (catalog.isReady()) {
+            return ids.stream().map(catalog.general()::get).flatMap(Optional::stream).toList();
+        }
+        return readTx.execute(tx -> inOrder(ids, generalProductRepository.findByIdIn(ids), GeneralProduct::getId)
+                .stream().map(productMapper::toResponse).toList());
+    }
+
+    private static <E> List<E> inOrder(List<Long> ids, List<E> rows, Function<E, Long> idOf) {
+        Map<Long, E> byId = new HashMap<>();
+        rows.forEach(r -> byId.put(idOf.apply(r), r));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static void requireCatalogSort(ProductSort sort) {
+        if (sort == ProductSort.RELEVANCE) {
+            throw new IllegalArgumentException("Sort RELEVANCE is only available on keyword search");
+        }
+    }
+
+    // Substring fallback while the search index is building — it has no scores to rank by
+    private static ProductSort withoutRelevance(ProductSort sort) {
+        return sort == ProductSort.RELEVANCE ? ProductSort.NEWEST : sort;
+    }
+
     private Product findProductById(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
@@ -249,66 +649,4 @@ public class UserProductService {
         return generalProductRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("General product not found with id: " + id));
     }
-
-    private ProductResponse mapToProductResponse(Product p) {
-        List<String> imageUrls = p.getImages().stream()
-                .map(img -> cloudinaryService.getOptimizedImageUrl(img.getImagePublicId()))
-                .collect(Collectors.toList());
-
-        return ProductResponse.builder()
-                .id(p.getId())
-                .name(p.getName())
-                .description(p.getDescription())
-                .price(p.getPrice())
-                .finalPrice(p.getFinalPrice())
-                .discountPercentage(p.getDiscountPercentage())
-                .category(p.getCategory())
-                .subCategory(p.getSubCategory())
-                .brand(p.getBrand())
-                .availableSizes(p.getAvailableSizes())
-                .availableColors(p.getAvailableColors())
-                .material(p.getMaterial())
-                .style(p.getStyle())
-                .stock(p.getStock())
-                .isAvailable(p.getIsAvailable())
-                .imageUrl(imageUrls.isEmpty() ? null : imageUrls.getFirst())
-                .imageUrls(imageUrls)
-                .addedByAdmin(p.getAddedBy() != null ? p.getAddedBy().getName() : "N/A")
-                .createdAt(p.getCreatedAt())
-                .updatedAt(p.getUpdatedAt())
-                .build();
-    }
-
-    private GeneralProductResponse mapToGeneralProductResponse(GeneralProduct p) {
-        List<String> imageUrls = p.getImages().stream()
-                .map(img -> cloudinaryService.getOptimizedImageUrl(img.getImagePublicId()))
-                .collect(Collectors.toList());
-
-        return GeneralProductResponse.builder()
-                .id(p.getId())
-                .name(p.getName())
-                .description(p.getDescription())
-                .price(p.getPrice())
-                .finalPrice(p.getFinalPrice())
-                .discountPercentage(p.getDiscountPercentage())
-                .category(p.getCategory())
-                .subCategory(p.getSubCategory())
-                .brand(p.getBrand())
-                .sku(p.getSku())
-                .stock(p.getStock())
-                .unit(p.getUnit())
-                .weightKg(p.getWeightKg())
-                .lengthCm(p.getLengthCm())
-                .widthCm(p.getWidthCm())
-                .heightCm(p.getHeightCm())
-                .isAvailable(p.getIsAvailable())
-                .tags(p.getTags())
-                .attributes(p.getAttributes())
-                .imageUrl(imageUrls.isEmpty() ? null : imageUrls.getFirst())
-                .imageUrls(imageUrls)
-                .addedByAdmin(p.getAddedBy() != null ? p.getAddedBy().getName() : "N/A")
-                .createdAt(p.getCreatedAt())
-                .updatedAt(p.getUpdatedAt())
-                .build();
-    }
-}
\ No newline at end of file
+}
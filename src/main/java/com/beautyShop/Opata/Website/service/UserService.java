@@ -3,6 +3,9 @@ package com.beautyShop.Opata.Website.service;
 import com.beautyShop.Opata.Website.dto.*;
 import com.beautyShop.Opata.Website.entity.*;
 import com.beautyShop.Opata.Website.entity.repo.*;
+import com.beautyShop.Opata.Website.service.alerts.ProductAlertService;
+import com.beautyShop.Opata.Website.service.alerts.SavedSearchService;
+import com.beautyShop.Opata.Website.service.stock.StockReservationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -17,6 +20,9 @@ public class UserService {
     private final UserRepo userRepository;
     private final AdminRepo ownerRepo;
     private final OrderRepository orderRepository;
+    private final SavedSearchService savedSearchService;
+    private final ProductAlertService productAlertService;
+    private final StockReservationService stockReservationService;
 
     // ── GET MY PROFILE (logged-in user) ──────────────────────
     public UserResponse getMyProfile(UUID userId) {
@@ -98,6 +104,9 @@ public class UserService {
     // ── ADMIN: REMOVE A USER ─────────────────────────────────
     public String removeUser(UUID userId) {
         User user = findUserById(userId);
+        savedSearchService.deleteAllFor(userId);
+        productAlertService.deleteAllFor(userId);
+        stockReservationService.cancelCheckout(userId);
         userRepository.delete(user);
         System.out.println("🗑️  User removed: " + user.getEmail());
         return "User " + user.getFirstName() + " " + user.getLastName() +
@@ -0,0 +1,17 @@
+package com.beautyShop.Opata.Website.service.alerts;
+
+import com.beautyShop.Opata.Website.entity.ProductType;
+
+import java.math.BigDecimal;
+
+/**
+ * What changed on one product, captured on the request thread so the
+ * fan-out never touches the entity. oldPrice is null unless the price dropped.
+ */
+public record ProductAlert(ProductType type, Long productId, String name, String imageUrl,
+                           boolean backInStock, BigDecimal oldPrice, BigDecimal newPrice) {
+
+    public boolean priceDropped() {
+        return oldPrice != null;
+    }
+}
@@ -0,0 +1,276 @@
+package com.beautyShop.Opata.Website.service.alerts;
+
+import com.beautyShop.Opata.Website.dto.ProductAlertRequest;
+import com.beautyShop.Opata.Website.dto.ProductAlertResponse;
+import com.beautyShop.Opata.Website.entity.*;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductAlertSubscriptionRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.UserRepo;
+import com.beautyShop.Opata.Website.service.EmailService;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductAlertService — "TELL ME WHEN IT'S BACK / CHEAPER"
+ * ─────────────────────────────────────────────────
+ * Customers subscribe to a product for BACK_IN_STOCK or PRICE_DROP alerts.
+ * AdminProductService reports every stock and price edit here; when stock
+ * goes from 0 to above 0, or the final price goes down, the product's
+ * waiting subscriptions are taken out of an in-memory index keyed by
+ * product and handed to a fan-out thread:
+ *   - one batched user lookup and one batched delete per change
+ *   - one email per user, even if both of their subscriptions fired
+ *   - subscriptions are one-shot; taking them out of the index first means
+ *     a second edit straight after cannot alert the same people again
+ *
+ * The admin request only pays for a map lookup. Runs on its own thread —
+ * the application has no @EnableAsync. A failed load at startup is retried
+ * on that thread every RETRY_SECONDS; until it succeeds, edits alert no one.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class ProductAlertService {
+
+    public static final int MAX_PER_USER  = 100;
+    public static final int RETRY_SECONDS = 30;
+
+    private record ProductKey(ProductType type, long productId) {}
+
+    private record Watch(long id, UUID userId, AlertKind kind) {}
+
+    private final ProductAlertSubscriptionRepository subscriptionRepository;
+    private final ProductRepository                  productRepository;
+    private final GeneralProductRepository           generalProductRepository;
+    private final UserRepo                           userRepository;
+    private final EmailService                       emailService;
+    private final TransactionTemplate                tx;
+
+    // Guarded by itself
+    private final Map<ProductKey, List<Watch>> index = new HashMap<>();
+    private volatile boolean                   loaded;
+
+    private final ScheduledExecutorService fanOut = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "product-alerts");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ProductAlertService(ProductAlertSubscriptionRepository subscriptionRepository,
+                               ProductRepository productRepository,
+                               GeneralProductRepository generalProductRepository,
+                               UserRepo userRepository,
+                               EmailService emailService,
+                               PlatformTransactionManager transactionManager) {
+        this.subscriptionRepository   = subscriptionRepository;
+        this.productRepository        = productRepository;
+        this.generalProductRepository = generalProductRepository;
+        this.userRepository           = userRepository;
+        this.emailService             = emailService;
+
+        // Own transaction — the catalog listener runs after the caller's has committed
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  CUSTOMER OPERATIONS
+    // ═══════════════════════════════════════════════════════════
+
+    public List<ProductAlertResponse> getMyAlerts(UUID userId) {
+        return subscriptionRepository.findByUserIdOrderByCreatedAtDesc(userId)
+                .stream().map(this::toResponse).toList();
+    }
+
+    /** Subscribes; asking twice for the same alert returns the existing subscription. */
+    public ProductAlertResponse subscribe(UUID userId, ProductAlertRequest request) {
+        ProductType type = request.getProductType() != null ? request.getProductType() : ProductType.CLOTHING;
+        boolean exists = type == ProductType.CLOTHING
+                ? productRepository.existsById(request.getProductId())
+                : generalProductRepository.existsById(request.getProductId());
+        if (!exists) throw new RuntimeException("Product not found with id: " + request.getProductId());
+
+        Optional<ProductAlertSubscription> existing = subscriptionRepository
+                .findByUserIdAndProductTypeAndProductIdAndKind(userId, type, request.getProductId(), request.getKind());
+        if (existing.isPresent()) return toResponse(existing.get());
+
+        if (subscriptionRepository.countByUserId(userId) >= MAX_PER_USER) {
+            throw new IllegalArgumentException("You can keep at most " + MAX_PER_USER + " product alerts");
+        }
+        ProductAlertSubscription saved = subscriptionRepository.save(ProductAlertSubscription.builder()
+                .user(userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found")))
+                .productType(type)
+                .productId(request.getProductId())
+                .kind(request.getKind())
+                .build());
+        synchronized (index) {
+            watch(saved, userId);
+        }
+        return toResponse(saved);
+    }
+
+    public void unsubscribe(UUID userId, Long subscriptionId) {
+        ProductAlertSubscription s = subscriptionRepository.findByIdAndUserId(subscriptionId, userId)
+                .orElseThrow(() -> new RuntimeException("Product alert not found with id: " + subscriptionId));
+        subscriptionRepository.delete(s);
+        synchronized (index) {
+            unwatch(s);
+        }
+    }
+
+    /** Drops every subscription of a user about to be removed. */
+    public void deleteAllFor(UUID userId) {
+        List<ProductAlertSubscription> subscriptions = subscriptionRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        if (subscriptions.isEmpty()) return;
+        subscriptionRepository.deleteAll(subscriptions);
+        synchronized (index) {
+            subscriptions.forEach(this::unwatch);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  TRIGGER — called by AdminProductService after a save
+    // ═══════════════════════════════════════════════════════════
+
+    public void onChanged(Product product, int oldStock, BigDecimal oldPrice) {
+        changed(ProductType.CLOTHING, product.getId(), product.getName(), product.getPrimaryImageUrl(),
+                product.getIsAvailable(), oldStock, product.getStock(), oldPrice, product.getFinalPrice());
+    }
+
+    public void onChanged(GeneralProduct product, int oldStock, BigDecimal oldPrice) {
+        changed(ProductType.GENERAL, product.getId(), product.getName(), product.getPrimaryImageUrl(),
+                product.getIsAvailable(), oldStock, product.getStock(), oldPrice, product.getFinalPrice());
+    }
+
+    private void changed(ProductType type, Long productId, String name, String imageUrl, Boolean available,
+                         int oldStock, Integer newStock, BigDecimal oldPrice, BigDecimal newPrice) {
+        // Nothing to tell about a product customers cannot buy
+        if (!Boolean.TRUE.equals(available) || newStock == null || newStock <= 0) return;
+
+        boolean backInStock = oldStock <= 0;
+        boolean cheaper     = oldPrice != null && newPrice != null && newPrice.compareTo(oldPrice) < 0;
+        if (!backInStock && !cheaper) return;
+        if (!loaded) {
+            log.warn("Product alerts not loaded yet — no one alerted about {} {}", type, productId);
+            return;
+        }
+
+        List<Watch> due = new ArrayList<>();
+        synchronized (index) {
+            List<Watch> watches = index.get(new ProductKey(type, productId));
+            if (watches == null) return;
+            for (Iterator<Watch> it = watches.iterator(); it.hasNext(); ) {
+                Watch w = it.next();
+                if (w.kind() == AlertKind.BACK_IN_STOCK ? backInStock : cheaper) {
+                    due.add(w);
+                    it.remove();
+                }
+            }
+            if (watches.isEmpty()) index.remove(new ProductKey(type, productId));
+        }
+        if (due.isEmpty()) return;
+
+        boolean stockFired = due.stream().anyMatch(w -> w.kind() == AlertKind.BACK_IN_STOCK);
+        boolean priceFired = due.stream().anyMatch(w -> w.kind() == AlertKind.PRICE_DROP);
+        ProductAlert alert = new ProductAlert(type, productId, name, imageUrl,
+                stockFired, priceFired ? oldPrice : null, newPrice);
+        fanOut.execute(() -> send(alert, due));
+    }
+
+    // Runs on the fan-out thread
+    private void send(ProductAlert alert, List<Watch> due) {
+        try {
+            Set<UUID> userIds = new HashSet<>();
+            due.forEach(w -> userIds.add(w.userId()));
+
+            // Delete first: a failed email is better than a repeated one
+            List<User> users = tx.execute(status -> {
+                subscriptionRepository.deleteAllByIdInBatch(due.stream().map(Watch::id).toList());
+                return userRepository.findAllById(userIds);
+            });
+            emailService.sendProductAlert(users, alert);
+        } catch (RuntimeException e) {
+            log.error("Sending product alerts for {} {} failed", alert.type(), alert.productId(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!event.isDeleted()) return;
+        tx.executeWithoutResult(status -> event.getProductIds().forEach(id -> subscriptionRepository.deleteAllInBatch(
+                subscriptionRepository.findByProductTypeAndProductId(event.getType(), id))));
+        synchronized (index) {
+            event.getProductIds().forEach(id -> index.remove(new ProductKey(event.getType(), id)));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  INDEX
+    // ═══════════════════════════════════════════════════════════
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            long started = System.currentTimeMillis();
+            List<ProductAlertSubscription> all = subscriptionRepository.findAll();
+            synchronized (index) {
+                index.clear();
+                all.forEach(s -> watch(s, s.getUser().getId()));
+            }
+            loaded = true;
+            log.info("Product alerts loaded: {} in {} ms", all.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            // Not fatal — edits alert no one until a retry succeeds
+            log.error("Loading product alerts failed — retrying in {} s", RETRY_SECONDS, e);
+            fanOut.schedule(this::loadOnStartup, RETRY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        fanOut.shutdown();
+        fanOut.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  PRIVATE HELPERS
+    // ═══════════════════════════════════════════════════════════
+
+    private void watch(ProductAlertSubscription s, UUID userId) {
+        index.computeIfAbsent(new ProductKey(s.getProductType(), s.getProductId()), k -> new ArrayList<>())
+                .add(new Watch(s.getId(), userId, s.getKind()));
+    }
+
+    private void unwatch(ProductAlertSubscription s) {
+        ProductKey key = new ProductKey(s.getProductType(), s.getProductId());
+        List<Watch> watches = index.get(key);
+        if (watches == null) return;
+        watches.removeIf(w -> w.id() == s.getId());
+        if (watches.isEmpty()) index.remove(key);
+    }
+
+    private ProductAlertResponse toResponse(ProductAlertSubscription s) {
+        return ProductAlertResponse.builder()
+                .id(s.getId())
+                .productType(s.getProductType())
+                .productId(s.getProductId())
+                .kind(s.getKind())
+                .createdAt(s.getCreatedAt())
+                .build();
+    }
+}
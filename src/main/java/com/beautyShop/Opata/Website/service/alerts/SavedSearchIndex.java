@@ -0,0 +1,154 @@
+package com.beautyShop.Opata.Website.service.alerts;
+
+import com.beautyShop.Opata.Website.entity.ClothingColor;
+import com.beautyShop.Opata.Website.entity.ClothingSize;
+import com.beautyShop.Opata.Website.entity.ProductType;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Reverse index over saved searches: given a product, which searches match it?
+ * ─────────────────────────────────────────────────
+ * Every search is filed under exactly one key — one of its own criteria,
+ * e.g. "CLOTHING:brand=zara", picking whichever key currently has the
+ * fewest searches. Searches with no criterion but a price go under
+ * "CLOTHING:*". A product looks up the keys of its own values (its
+ * category, brand, every size, colour and tag, and "*"), so it only ever
+ * meets searches that share at least one value with it.
+ *
+ * Within a key, searches are ordered by max price: those under the
+ * product's price are never visited. The few candidates left are checked
+ * against their full criteria. A product insert costs roughly the number
+ * of matching searches, not the number of searches or users.
+ * Not thread-safe; SavedSearchService serialises access.
+ * ─────────────────────────────────────────────────
+ */
+final class SavedSearchIndex {
+
+    /** One saved search — every non-null criterion must hold. */
+    record Criteria(long id, UUID userId, ProductType type,
+                    String category, String brand, String tag,
+                    ClothingSize size, ClothingColor color, BigDecimal maxPrice) {
+
+        List<String> keys() {
+            List<String> keys = new ArrayList<>(5);
+            if (category != null) keys.add(key(type, "category", category));
+            if (brand    != null) keys.add(key(type, "brand", brand));
+            if (tag      != null) keys.add(key(type, "tag", tag));
+            if (size     != null) keys.add(key(type, "size", size.name()));
+            if (color    != null) keys.add(key(type, "color", color.name()));
+            return keys;
+        }
+
+        boolean matches(Facts p) {
+            return type == p.type()
+                    && (category == null || category.equals(p.category()))
+                    && (brand    == null || brand.equals(p.brand()))
+                    && (tag      == null || p.tags().contains(tag))
+                    && (size     == null || p.sizes().contains(size))
+                    && (color    == null || p.colors().contains(color))
+                    && (maxPrice == null || p.price() == null || p.price().compareTo(maxPrice) <= 0);
+        }
+    }
+
+    /** The values of one product that searches can ask for. Strings lower-case. */
+    record Facts(ProductType type, String category, String brand, Set<String> tags,
+                 Set<ClothingSize> sizes, Set<ClothingColor> colors, BigDecimal price) {
+
+        List<String> keys() {
+            List<String> keys = new ArrayList<>();
+            keys.add(wildcard(type));
+            if (category != null) keys.add(key(type, "category", category));
+            if (brand    != null) keys.add(key(type, "brand", brand));
+            tags.forEach(t -> keys.add(key(type, "tag", t)));
+            sizes.forEach(s -> keys.add(key(type, "size", s.name())));
+            colors.forEach(c -> keys.add(key(type, "color", c.name())));
+            return keys;
+        }
+    }
+
+    /** Searches filed under one key, by max price; null max price = no cap. */
+    private static final class Bucket {
+
+        final Set<Long>                           uncapped = new HashSet<>();
+        final NavigableMap<BigDecimal, Set<Long>> capped   = new TreeMap<>();
+        int size;
+
+        void add(Criteria c) {
+            (c.maxPrice() == null ? uncapped : capped.computeIfAbsent(c.maxPrice(), p -> new HashSet<>())).add(c.id());
+            size++;
+        }
+
+        void remove(Criteria c) {
+            if (c.maxPrice() == null) {
+                uncapped.remove(c.id());
+            } else {
+                Set<Long> ids = capped.get(c.maxPrice());
+                ids.remove(c.id());
+                if (ids.isEmpty()) capped.remove(c.maxPrice());
+            }
+            size--;
+        }
+
+        // Ids whose cap is at or above the price — cheaper searches are skipped without a look
+        void forEachAffordable(BigDecimal price, Consumer<Long> action) {
+            uncapped.forEach(action);
+            (price == null ? capped : capped.tailMap(price, true)).values().forEach(ids -> ids.forEach(action));
+        }
+    }
+
+    private final Map<String, Bucket> buckets  = new HashMap<>();
+    private final Map<Long, Criteria> searches = new HashMap<>();
+    private final Map<Long, String>   filedAt  = new HashMap<>();
+
+    void add(Criteria c) {
+        remove(c.id());
+        String key = c.keys().stream()
+                .min(Comparator.comparingInt(k -> bucketSize(k)))
+                .orElse(wildcard(c.type()));
+        buckets.computeIfAbsent(key, k -> new Bucket()).add(c);
+        searches.put(c.id(), c);
+        filedAt.put(c.id(), key);
+    }
+
+    void remove(long id) {
+        Criteria c = searches.remove(id);
+        if (c == null) return;
+        String key = filedAt.remove(id);
+        Bucket bucket = buckets.get(key);
+        bucket.remove(c);
+        if (bucket.size == 0) buckets.remove(key);
+    }
+
+    List<Criteria> match(Facts product) {
+        List<Criteria> matched = new ArrayList<>();
+        for (String key : product.keys()) {
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) continue;
+            bucket.forEachAffordable(product.price(), id -> {
+                Criteria c = searches.get(id);
+                if (c.matches(product)) matched.add(c);
+            });
+        }
+        return matched;
+    }
+
+    int size() {
+        return searches.size();
+    }
+
+    private int bucketSize(String key) {
+        Bucket bucket = buckets.get(key);
+        return bucket == null ? 0 : bucket.size;
+    }
+
+    private static String key(ProductType type, String field, String value) {
+        return type + ":" + field + "=" + value;
+    }
+
+    private static String wildcard(ProductType type) {
+        return type + ":*";
+    }
+}
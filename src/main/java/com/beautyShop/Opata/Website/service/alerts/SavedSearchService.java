@@ -0,0 +1,250 @@
+package com.beautyShop.Opata.Website.service.alerts;
+
+import com.beautyShop.Opata.Website.dto.SavedSearchRequest;
+import com.beautyShop.Opata.Website.dto.SavedSearchResponse;
+import com.beautyShop.Opata.Website.entity.*;
+import com.beautyShop.Opata.Website.entity.repo.SavedSearchRepository;
+import com.beautyShop.Opata.Website.entity.repo.UserRepo;
+import com.beautyShop.Opata.Website.service.EmailService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * SavedSearchService — "NOTIFY ME ABOUT NEW ARRIVALS LIKE THIS"
+ * ─────────────────────────────────────────────────
+ * Customers save criteria (category, brand, tag, size, colour, max price);
+ * when a product is added or comes back into stock, only the owners of
+ * matching searches are emailed — once each, however many of their
+ * searches match.
+ *
+ * Matching runs against a SavedSearchIndex loaded once the application is
+ * ready and updated as searches are saved and deleted, so a new product
+ * costs about as much as the searches it matches — no scan of users or
+ * of the saved_searches table. A failed load is retried every
+ * RETRY_SECONDS on a timer thread of its own; until it succeeds, new
+ * products notify no one.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class SavedSearchService {
+
+    public static final int MAX_PER_USER  = 20;
+    public static final int RETRY_SECONDS = 30;
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final UserRepo              userRepository;
+    private final EmailService          emailService;
+    private final TransactionTemplate   readTx;
+
+    // Guarded by itself
+    private final SavedSearchIndex index = new SavedSearchIndex();
+    private volatile boolean       loaded;
+
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "saved-searches");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SavedSearchService(SavedSearchRepository savedSearchRepository,
+                              UserRepo userRepository,
+                              EmailService emailService,
+                              PlatformTransactionManager transactionManager) {
+        this.savedSearchRepository = savedSearchRepository;
+        this.userRepository        = userRepository;
+        this.emailService          = emailService;
+
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  CUSTOMER OPERATIONS
+    // ═══════════════════════════════════════════════════════════
+
+    public List<SavedSearchResponse> getMySearches(UUID userId) {
+        return savedSearchRepository.findByUserIdOrderByCreatedAtDesc(userId)
+                .stream().map(this::toResponse).toList();
+    }
+
+    public SavedSearchResponse saveSearch(UUID userId, SavedSearchRequest request) {
+        ProductType type = request.getProductType() != null ? request.getProductType() : ProductType.CLOTHING;
+        SavedSearch search = SavedSearch.builder()
+                .productType(type)
+                .name(trimToNull(request.getName()))
+                .category(normalize(request.getCategory()))
+                .brand(normalize(request.getBrand()))
+                .tag(normalize(request.getTag()))
+                .size(request.getSize())
+                .color(request.getColor())
+                .maxPrice(request.getMaxPrice())
+                .build();
+        validate(search);
+
+        if (savedSearchRepository.countByUserId(userId) >= MAX_PER_USER) {
+            throw new IllegalArgumentException("You can keep at most " + MAX_PER_USER + " saved searches");
+        }
+        search.setUser(userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found")));
+
+        SavedSearch saved = savedSearchRepository.save(search);
+        synchronized (index) {
+            index.add(criteriaOf(saved, userId));
+        }
+        return toResponse(saved);
+    }
+
+    public void deleteSearch(UUID userId, Long searchId) {
+        SavedSearch search = savedSearchRepository.findByIdAndUserId(searchId, userId)
+                .orElseThrow(() -> new RuntimeException("Saved search not found with id: " + searchId));
+        savedSearchRepository.delete(search);
+        synchronized (index) {
+            index.remove(searchId);
+        }
+    }
+
+    /** Drops every search of a user about to be removed. */
+    public void deleteAllFor(UUID userId) {
+        List<SavedSearch> searches = savedSearchRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        if (searches.isEmpty()) return;
+        savedSearchRepository.deleteAll(searches);
+        synchronized (index) {
+            searches.forEach(s -> index.remove(s.getId()));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  NOTIFY — called by AdminProductService on add and restock
+    // ═══════════════════════════════════════════════════════════
+
+    /** Emails the owners of searches matching this product; returns how many were emailed. */
+    public int notifyMatches(Product product, String shopName) {
+        List<User> users = usersMatching(new SavedSearchIndex.Facts(ProductType.CLOTHING,
+                normalize(product.getCategory()),
+                normalize(product.getBrand()),
+                Set.of(),
+                enumSet(product.getAvailableSizes(), ClothingSize.class),
+                enumSet(product.getAvailableColors(), ClothingColor.class),
+                product.getFinalPrice()));
+        if (!users.isEmpty()) emailService.announceNewProductToAllUsers(users, product, shopName);
+        return users.size();
+    }
+
+    /** Emails the owners of searches matching this product; returns how many were emailed. */
+    public int notifyMatches(GeneralProduct product, String shopName) {
+        Set<String> tags = product.getTags() == null ? Set.of() : product.getTags().stream()
+                .map(SavedSearchService::normalize).filter(Objects::nonNull).collect(Collectors.toSet());
+        List<User> users = usersMatching(new SavedSearchIndex.Facts(ProductType.GENERAL,
+                normalize(product.getCategory()),
+                normalize(product.getBrand()),
+                tags, Set.of(), Set.of(),
+                product.getFinalPrice()));
+        if (!users.isEmpty()) emailService.announceNewGeneralProductToAllUsers(users, product, shopName);
+        return users.size();
+    }
+
+    private List<User> usersMatching(SavedSearchIndex.Facts product) {
+        if (!loaded) {
+            log.warn("Saved searches not loaded yet — no one notified about this product");
+            return List.of();
+        }
+        Set<UUID> userIds;
+        synchronized (index) {
+            userIds = index.match(product).stream()
+                    .map(SavedSearchIndex.Criteria::userId)
+                    .collect(Collectors.toSet());
+        }
+        return userIds.isEmpty() ? List.of() : userRepository.findAllById(userIds);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  INDEX
+    // ═══════════════════════════════════════════════════════════
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            long started = System.currentTimeMillis();
+            readTx.executeWithoutResult(tx -> {
+                synchronized (index) {
+                    savedSearchRepository.findAll().forEach(s -> index.add(criteriaOf(s, s.getUser().getId())));
+                }
+            });
+            loaded = true;
+            log.info("Saved searches loaded: {} in {} ms", index.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            // Not fatal — new products notify no one until a retry succeeds. Searches read
+            // before the failure stay filed; add() replaces them when the retry reads them again
+            log.error("Loading saved searches failed — retrying in {} s", RETRY_SECONDS, e);
+            retries.schedule(this::loadOnStartup, RETRY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retries.shutdownNow();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  PRIVATE HELPERS
+    // ═══════════════════════════════════════════════════════════
+
+    private static void validate(SavedSearch s) {
+        if (s.getCategory() == null && s.getBrand() == null && s.getTag() == null
+                && s.getSize() == null && s.getColor() == null && s.getMaxPrice() == null) {
+            throw new IllegalArgumentException("A saved search needs at least one criterion");
+        }
+        if (s.getProductType() == ProductType.CLOTHING && s.getTag() != null) {
+            throw new IllegalArgumentException("Tags apply to general products only");
+        }
+        if (s.getProductType() == ProductType.GENERAL && (s.getSize() != null || s.getColor() != null)) {
+            throw new IllegalArgumentException("Size and color apply to clothing only");
+        }
+    }
+
+    private static SavedSearchIndex.Criteria criteriaOf(SavedSearch s, UUID userId) {
+        return new SavedSearchIndex.Criteria(s.getId(), userId, s.getProductType(),
+                s.getCategory(), s.getBrand(), s.getTag(), s.getSize(), s.getColor(), s.getMaxPrice());
+    }
+
+    private SavedSearchResponse toResponse(SavedSearch s) {
+        return SavedSearchResponse.builder()
+                .id(s.getId())
+                .productType(s.getProductType())
+                .name(s.getName())
+                .category(s.getCategory())
+                .brand(s.getBrand())
+                .tag(s.getTag())
+                .size(s.getSize())
+                .color(s.getColor())
+                .maxPrice(s.getMaxPrice())
+                .createdAt(s.getCreatedAt())
+                .build();
+    }
+
+    private static <E extends Enum<E>> Set<E> enumSet(Collection<E> values, Class<E> type) {
+        EnumSet<E> set = EnumSet.noneOf(type);
+        if (values != null) values.stream().filter(Objects::nonNull).forEach(set::add);
+        return set;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase();
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
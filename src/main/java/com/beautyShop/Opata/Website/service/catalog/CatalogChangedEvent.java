@@ -0,0 +1,38 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import com.beautyShop.Opata.Website.entity.ProductType;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published whenever product rows change (admin edits, stock updates, order placement).
+ * One event covers every product a write touched — an order publishes one for all of
+ * its lines — so listeners refresh their read models for the whole batch in one pass.
+ */
+@Getter
+public class CatalogChangedEvent {
+
+    private final ProductType type;
+    private final Set<Long>   productIds;
+    private final boolean     deleted;
+
+    private CatalogChangedEvent(ProductType type, Collection<Long> productIds, boolean deleted) {
+        this.type       = type;
+        this.productIds = Set.copyOf(productIds);
+        this.deleted    = deleted;
+    }
+
+    public static CatalogChangedEvent upserted(ProductType type, Long productId) {
+        return new CatalogChangedEvent(type, Set.of(productId), false);
+    }
+
+    public static CatalogChangedEvent upserted(ProductType type, Collection<Long> productIds) {
+        return new CatalogChangedEvent(type, productIds, false);
+    }
+
+    public static CatalogChangedEvent deleted(ProductType type, Long productId) {
+        return new CatalogChangedEvent(type, Set.of(productId), true);
+    }
+}
@@ -0,0 +1,16 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import com.beautyShop.Opata.Website.dto.Facet;
+
+import java.util.Collection;
+import java.util.Map;
+
+// ── Tells a CatalogSnapshot what to index for one product type ──
+public interface CatalogIndexer<T> {
+
+    /** Raw facet values of a product, e.g. SIZE → [M, L]. Nulls are skipped. */
+    Map<Facet, Collection<String>> facetsOf(T item);
+
+    /** Text scanned by keyword search. */
+    String searchTextOf(T item);
+}
@@ -0,0 +1,309 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import com.beautyShop.Opata.Website.dto.Facet;
+import com.beautyShop.Opata.Website.dto.GeneralProductResponse;
+import com.beautyShop.Opata.Website.dto.ProductResponse;
+import com.beautyShop.Opata.Website.dto.ProductView;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.service.ProductMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CatalogService — IN-MEMORY READ MODEL
+ * ─────────────────────────────────────────────────
+ * Keeps a fully indexed snapshot of both catalogs so customer browsing
+ * never touches the database:
+ *   - Loaded once when the application is ready; a failed load is retried
+ *     every RETRY_SECONDS
+ *   - CatalogChangedEvents only queue the product ids, after commit. The
+ *     "catalog-patch" thread drains the queue: one query per catalog for
+ *     every queued product, one new snapshot per batch — a burst of edits
+ *     or a checkout touching many products costs one copy, not one each
+ *   - Readers grab the current snapshot reference — no locks, no queries
+ *
+ * Until the first load completes isReady() is false and callers fall back
+ * to the keyset queries in ProductSpecifications. Changes queued meanwhile
+ * are applied right after the load.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class CatalogService {
+
+    public static final int RETRY_SECONDS = 30;
+
+    private final ProductRepository        productRepository;
+    private final GeneralProductRepository generalProductRepository;
+    private final ProductMapper            productMapper;
+    private final TransactionTemplate      readTx;
+
+    private final Object writeLock = new Object();
+
+    private volatile CatalogSnapshot<ProductResponse>        clothing;
+    private volatile CatalogSnapshot<GeneralProductResponse> general;
+
+    // Product id → deleted, per catalog, until the next patch picks it up
+    private final Map<ProductType, Map<Long, Boolean>> pending = new EnumMap<>(ProductType.class);
+    private final AtomicBoolean                        patchScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService patcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "catalog-patch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public CatalogService(ProductRepository productRepository,
+                          GeneralProductRepository generalProductRepository,
+                          ProductMapper productMapper,
+                          PlatformTransactionManager transactionManager) {
+        this.productRepository        = productRepository;
+        this.generalProductRepository = generalProductRepository;
+        this.productMapper            = productMapper;
+
+        // Own read-only transaction: after-commit listeners must not reuse the finished one
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTx.setReadOnly(true);
+
+        for (ProductType type : ProductType.values()) pending.put(type, new ConcurrentHashMap<>());
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  READ
+    // ═══════════════════════════════════════════════════════════
+
+    public boolean isReady() {
+        return clothing != null && general != null;
+    }
+
+    public CatalogSnapshot<ProductResponse> clothing() {
+        return clothing;
+    }
+
+    public CatalogSnapshot<GeneralProductResponse> general() {
+        return general;
+    }
+
+    /** Grows on every load and every patch of either catalog — the basis of HTTP ETags. */
+    public long version() {
+        return isReady() ? clothing.version() + general.version() : 0;
+    }
+
+    /** Most recent product change across both catalogs, or null while nothing is loaded. */
+    public Instant lastModified() {
+        if (!isReady()) return null;
+        LocalDateTime c = clothing.lastModified();
+        LocalDateTime g = general.lastModified();
+        LocalDateTime latest = c == null ? g : g == null ? c : (c.isAfter(g) ? c : g);
+        return latest == null ? null : latest.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  LOAD + MAINTAIN
+    // ═══════════════════════════════════════════════════════════
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Not fatal — listings keep being served from the database until a retry succeeds
+            log.error("Catalog snapshot load failed, serving listings from the database — retrying in {} s",
+                    RETRY_SECONDS, e);
+            patcher.schedule(this::loadOnStartup, RETRY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Rebuilds both snapshots from the database. */
+    public void reload() {
+        long started = System.currentTimeMillis();
+        synchronized (writeLock) {
+            List<ProductResponse> products = readTx.execute(tx ->
+                    productRepository.findAll().stream().map(productMapper::toResponse).toList());
+            List<GeneralProductResponse> generals = readTx.execute(tx ->
+                    generalProductRepository.findAll().stream().map(productMapper::toResponse).toList());
+
+            clothing = CatalogSnapshot.build(products, CLOTHING_INDEXER, nextVersion(clothing));
+            general  = CatalogSnapshot.build(generals, GENERAL_INDEXER, nextVersion(general));
+        }
+        log.info("Catalog snapshot loaded: {} clothing, {} general products in {} ms",
+                clothing.size(), general.size(), System.currentTimeMillis() - started);
+
+        // Changes queued during the load may or may not be in it — re-reading them is harmless
+        schedulePatch();
+    }
+
+    // fallbackExecution — admin writes are not transactional, so the event may arrive outside one
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Map<Long, Boolean> queued = pending.get(event.getType());
+        event.getProductIds().forEach(id -> queued.merge(id, event.isDeleted(), Boolean::logicalOr));
+        schedulePatch();
+    }
+
+    /**
+     * Applies every queued change — one query and one new snapshot per catalog.
+     * Returns how many products were patched; queued changes wait while the
+     * catalog is not loaded.
+     */
+    public int applyPending() {
+        if (!isReady()) return 0;
+        int patched = 0;
+        synchronized (writeLock) {
+            for (ProductType type : ProductType.values()) {
+                Map<Long, Boolean> queued = pending.get(type);
+                List<Long> upserted = new ArrayList<>();
+                List<Long> deleted  = new ArrayList<>();
+                for (Long id : List.copyOf(queued.keySet())) {
+                    Boolean isDeleted = queued.remove(id);
+                    if (isDeleted != null) (isDeleted ? deleted : upserted).add(id);
+                }
+                if (upserted.isEmpty() && deleted.isEmpty()) continue;
+
+                try {
+                    patch(type, upserted, deleted);
+                } catch (RuntimeException e) {
+                    // Put the batch back for the next patch
+                    upserted.forEach(id -> queued.merge(id, false, Boolean::logicalOr));
+                    deleted.forEach(id -> queued.put(id, true));
+                    throw e;
+                }
+                patched += upserted.size() + deleted.size();
+            }
+        }
+        return patched;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        patcher.shutdownNow();
+    }
+
+    // Rows no longer found are removed like deletes
+    private void patch(ProductType type, List<Long> upserted, List<Long> deleted) {
+        switch (type) {
+            case CLOTHING -> {
+                List<ProductResponse> rows = upserted.isEmpty() ? List.of() : readTx.execute(tx ->
+                        productRepository.findByIdIn(upserted).stream().map(productMapper::toResponse).toList());
+                clothing = clothing.withChanges(rows, gone(upserted, deleted, rows));
+            }
+            case GENERAL -> {
+                List<GeneralProductResponse> rows = upserted.isEmpty() ? List.of() : readTx.execute(tx ->
+                        generalProductRepository.findByIdIn(upserted).stream().map(productMapper::toResponse).toList());
+                general = general.withChanges(rows, gone(upserted, deleted, rows));
+            }
+        }
+    }
+
+    private static List<Long> gone(List<Long> upserted, List<Long> deleted, List<? extends ProductView> found) {
+        Set<Long> missing = new HashSet<>(upserted);
+        found.forEach(p -> missing.remove(p.getId()));
+        missing.addAll(deleted);
+        return List.copyOf(missing);
+    }
+
+    private void schedulePatch() {
+        if (patchScheduled.compareAndSet(false, true)) patcher.execute(this::patchQuietly);
+    }
+
+    private void patchQuietly() {
+        patchScheduled.set(false);
+        try {
+            applyPending();
+        } catch (RuntimeException e) {
+            log.error("Patching the catalog snapshot failed — retrying in {} s", RETRY_SECONDS, e);
+            patcher.schedule(this::schedulePatch, RETRY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private static long nextVersion(CatalogSnapshot<?> current) {
+        return current == null ? 1 : current.version() + 1;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  INDEXERS
+    // ═══════════════════════════════════════════════════════════
+
+    private static final CatalogIndexer<ProductResponse> CLOTHING_INDEXER = new CatalogIndexer<>() {
+        @Override
+        public Map<Facet, Collection<String>> facetsOf(ProductResponse p) {
+            Map<Facet, Collection<String>> facets = new EnumMap<>(Facet.class);
+            facets.put(Facet.CATEGORY, single(p.getCategory()));
+            facets.put(Facet.SUB_CATEGORY, single(p.getSubCategory() != null ? p.getSubCategory().name() : null));
+            facets.put(Facet.BRAND, single(p.getBrand()));
+            facets.put(Facet.MATERIAL, single(p.getMaterial()));
+            facets.put(Facet.SIZE, names(p.getAvailableSizes()));
+            facets.put(Facet.COLOR, names(p.getAvailableColors()));
+            return facets;
+        }
+
+        @Override
+        public String searchTextOf(ProductResponse p) {
+            return join(p.getName(), p.getDescription(), p.getBrand());
+        }
+    };
+
+    private static final CatalogIndexer<GeneralProductResponse> GENERAL_INDEXER = new CatalogIndexer<>() {
+        @Override
+        public Map<Facet, Collection<String>> facetsOf(GeneralProductResponse p) {
+            Map<Facet, Collection<String>> facets = new EnumMap<>(Facet.class);
+            facets.put(Facet.CATEGORY, single(p.getCategory()));
+            facets.put(Facet.SUB_CATEGORY, single(p.getSubCategory()));
+            facets.put(Facet.BRAND, single(p.getBrand()));
+            facets.put(Facet.TAG, p.getTags() != null ? p.getTags() : List.of());
+
+            List<String> attributes = new ArrayList<>();
+            if (p.getAttributes() != null) {
+                p.getAttributes().forEach((k, v) -> {
+                    attributes.add(k);          // key alone: "has this attribute at all"
+                    attributes.add(k + "=" + v);
+                });
+            }
+            facets.put(Facet.ATTRIBUTE, attributes);
+            return facets;
+        }
+
+        @Override
+        public String searchTextOf(GeneralProductResponse p) {
+            return join(p.getName(), p.getDescription(), p.getBrand(), p.getCategory(), p.getSubCategory());
+        }
+    };
+
+    private static Collection<String> single(String value) {
+        return value == null ? List.of() : List.of(value);
+    }
+
+    private static Collection<String> names(Collection<? extends Enum<?>> values) {
+        if (values == null) return List.of();
+        List<String> names = new ArrayList<>(values.size());
+        values.forEach(v -> names.add(v.name()));
+        return names;
+    }
+
+    // Fields are kept apart by a newline so a keyword never matches across two of them
+    private static String join(String... fields) {
+        StringJoiner joiner = new StringJoiner("\n");
+        for (String f : fields) if (f != null) joiner.add(f);
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,505 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import com.beautyShop.Opata.Website.dto.CatalogQuery;
+import com.beautyShop.Opata.Website.dto.Facet;
+import com.beautyShop.Opata.Website.dto.FacetCount;
+import com.beautyShop.Opata.Website.dto.ProductCursor;
+import com.beautyShop.Opata.Website.dto.ProductSort;
+import com.beautyShop.Opata.Website.dto.PriceRangeCount;
+import com.beautyShop.Opata.Website.dto.ProductView;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, fully indexed copy of one product catalog.
+ * ─────────────────────────────────────────────────
+ *   byId      — id → prebuilt response
+ *   ordered   — every product sorted by (key, id) for each sortable property
+ *   postings  — term → compressed id bitmap, e.g. "SIZE:m", "CATEGORY:women", "FLAG:in_stock", "PRICE:3"
+ *
+ * Filters are bitmap AND (across facets) / OR (within a facet); facet counts
+ * are AND-cardinalities, so nothing is materialised to count a sidebar.
+ * Bitmaps hold product ids as ints — identity ids stay far below 2^31.
+ *
+ * Never mutated after construction. Writers derive a new snapshot with
+ * withChanges, one batch of product changes at a time — the sort orders
+ * are re-merged in a single pass and only the touched postings cloned —
+ * and publish it with a single reference swap. Readers never block.
+ * ─────────────────────────────────────────────────
+ */
+public final class CatalogSnapshot<T extends ProductView> {
+
+    private static final List<String> SORT_PROPERTIES = List.of("createdAt", "price", "finalPrice", "name");
+
+    static final String AVAILABLE  = "FLAG:available";
+    static final String IN_STOCK   = "FLAG:in_stock";
+    static final String DISCOUNTED = "FLAG:discounted";
+    static final String PRICE_BAND = "PRICE:";
+
+    // Shared, never modified — postings and candidates are read-only once published
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final long                  version;
+    private final CatalogIndexer<T>     indexer;
+    private final Map<Long, T>          byId;
+    private final Map<String, List<T>>  ordered;
+    private final Map<String, RoaringBitmap> postings;
+    private final RoaringBitmap          allIds;
+    private final Map<Long, String>     searchText;
+    private final LocalDateTime         lastModified;
+
+    // Dropdown values are derived on first use — each snapshot computes them at most once
+    private final Map<Facet, List<String>> facetValues = new ConcurrentHashMap<>();
+    private final Map<Facet, Map<String, String>> facetTerms = new ConcurrentHashMap<>();
+
+    private CatalogSnapshot(long version,
+                            CatalogIndexer<T> indexer,
+                            Map<Long, T> byId,
+                            Map<String, List<T>> ordered,
+                            Map<String, RoaringBitmap> postings,
+                            RoaringBitmap allIds,
+                            Map<Long, String> searchText,
+                            LocalDateTime lastModified) {
+        this.version      = version;
+        this.indexer      = indexer;
+        this.byId         = byId;
+        this.ordered      = ordered;
+        this.postings     = postings;
+        this.allIds       = allIds;
+        this.searchText   = searchText;
+        this.lastModified = lastModified;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BUILD
+    // ═══════════════════════════════════════════════════════════
+
+    public static <T extends ProductView> CatalogSnapshot<T> build(Collection<T> items,
+                                                                  CatalogIndexer<T> indexer,
+                                                                  long version) {
+        Map<Long, T> byId = new HashMap<>();
+        Map<String, RoaringBitmap> postings = new HashMap<>();
+        RoaringBitmap allIds = new RoaringBitmap();
+        Map<Long, String> searchText = new HashMap<>();
+        LocalDateTime lastModified = null;
+
+        for (T item : items) {
+            lastModified = latest(lastModified, modifiedAt(item));
+            byId.put(item.getId(), item);
+            allIds.add(key(item.getId()));
+            searchText.put(item.getId(), lower(indexer.searchTextOf(item)));
+            for (String term : termsOf(item, indexer)) {
+                postings.computeIfAbsent(term, t -> new RoaringBitmap()).add(key(item.getId()));
+            }
+        }
+
+        Map<String, List<T>> ordered = new HashMap<>();
+        for (String property : SORT_PROPERTIES) {
+            List<T> list = new ArrayList<>(byId.values());
+            list.sort(ascending(property));
+            ordered.put(property, Collections.unmodifiableList(list));
+        }
+
+        postings.values().forEach(RoaringBitmap::runOptimize);
+        allIds.runOptimize();
+        return new CatalogSnapshot<>(version, indexer,
+                Collections.unmodifiableMap(byId),
+                Collections.unmodifiableMap(ordered),
+                Collections.unmodifiableMap(postings),
+                allIds,
+                Collections.unmodifiableMap(searchText),
+                lastModified);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  READ
+    // ═══════════════════════════════════════════════════════════
+
+    public long version() { return version; }
+    public int size()     { return byId.size(); }
+
+    /** Latest updatedAt in this snapshot (or removal time) — null for an empty catalog. */
+    public LocalDateTime lastModified() { return lastModified; }
+
+    public Optional<T> get(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /** Distinct raw values of a facet, sorted — feeds the meta/dropdown endpoints. */
+    public List<String> facetValues(Facet facet) {
+        return facetValues.computeIfAbsent(facet, f -> {
+            TreeSet<String> values = new TreeSet<>();
+            for (T item : byId.values()) {
+                Collection<String> raw = indexer.facetsOf(item).get(f);
+                if (raw != null) raw.stream().filter(Objects::nonNull).forEach(values::add);
+            }
+            return List.copyOf(values);
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} products matching the query, in sort order,
+     * strictly after the cursor (if any).
+     */
+    public List<T> query(CatalogQuery query, ProductSort sort, ProductCursor after, int limit) {
+        RoaringBitmap candidates = candidates(query);
+        Predicate<T> residual = residual(query);
+        List<T> order = ordered.get(sort.getProperty());
+
+        // Selective filters: sorting the few matches beats walking the whole order
+        if (candidates != null && candidates.getLongCardinality() * 8 < order.size()) {
+            List<T> subset = new ArrayList<>(candidates.getCardinality());
+            candidates.forEach((int id) -> subset.add(byId.get((long) id)));
+            subset.sort(ascending(sort.getProperty()));
+            order = subset;
+            candidates = null;
+        }
+
+        List<T> result = new ArrayList<>(Math.min(limit, order.size()));
+        if (sort.isAscending()) {
+            int i = after == null ? 0 : countNotAfter(order, sort, after, true);
+            for (; i < order.size() && result.size() < limit; i++) {
+                collect(order.get(i), candidates, residual, result);
+            }
+        } else {
+            int i = after == null ? order.size() - 1 : countNotAfter(order, sort, after, false) - 1;
+            for (; i >= 0 && result.size() < limit; i--) {
+                collect(order.get(i), candidates, residual, result);
+            }
+        }
+        return result;
+    }
+
+    /** Number of products matching the query. */
+    public int count(CatalogQuery query) {
+        return matching(query).getCardinality();
+    }
+
+    /** Ids of every product matching the query, in no particular order. */
+    public Set<Long> matchingIds(CatalogQuery query) {
+        Set<Long> ids = new HashSet<>();
+        matching(query).forEach((int id) -> ids.add((long) id));
+        return ids;
+    }
+
+    /**
+     * Value counts per facet for the products matching the query.
+     * Each facet is counted with its own filter lifted (disjunctive faceting):
+     * with size=M selected the SIZE counts still show L and XL, while every
+     * other facet counts only size-M products. Sorted by count, then value.
+     */
+    public Map<Facet, List<FacetCount>> facetCounts(CatalogQuery query, Collection<Facet> facets) {
+        Map<Facet, List<FacetCount>> result = new EnumMap<>(Facet.class);
+        RoaringBitmap base = null;
+        for (Facet facet : facets) {
+            RoaringBitmap within;
+            if (query.values(facet).isEmpty()) {
+                if (base == null) base = matching(query);
+                within = base;
+            } else {
+                within = matching(query.without(facet));
+            }
+            result.put(facet, countValues(within, facet));
+        }
+        return result;
+    }
+
+    /** Products per final-price band, counted with the price filter lifted. Empty bands are left out. */
+    public List<PriceRangeCount> priceRangeCounts(CatalogQuery query) {
+        RoaringBitmap within = matching(query.withoutPrice());
+        List<PriceRangeCount> result = new ArrayList<>();
+        for (int b = 0; b < PriceBuckets.count(); b++) {
+            int count = RoaringBitmap.andCardinality(within, posting(PRICE_BAND + b));
+            if (count > 0) {
+                result.add(new PriceRangeCount(PriceBuckets.lowerBound(b), PriceBuckets.upperBound(b), count));
+            }
+        }
+        return result;
+    }
+
+    // ── Exact matches: indexed filters as bitmap algebra, then residual checks on what is left ──
+    private RoaringBitmap matching(CatalogQuery query) {
+        RoaringBitmap candidates = candidates(query);
+        RoaringBitmap result = candidates != null ? candidates : allIds;
+        if (!hasResidual(query)) return result;
+
+        Predicate<T> residual = residual(query);
+        RoaringBitmap kept = new RoaringBitmap();
+        result.forEach((int id) -> {
+            if (residual.test(byId.get((long) id))) kept.add(id);
+        });
+        return kept;
+    }
+
+    // One AND-cardinality per facet value — no per-product work
+    private List<FacetCount> countValues(RoaringBitmap within, Facet facet) {
+        List<FacetCount> counts = new ArrayList<>();
+        termsOf(facet).forEach((term, display) -> {
+            int count = RoaringBitmap.andCardinality(within, postings.get(term));
+            if (count > 0) counts.add(new FacetCount(display, count));
+        });
+        counts.sort(Comparator.comparingInt(FacetCount::count).reversed()
+                .thenComparing(FacetCount::value));
+        return counts;
+    }
+
+    // Posting term → value to show, derived once per snapshot. Values match case-insensitively,
+    // so each term shows one spelling; attribute keys alone are not listed, only "key=value"
+    private Map<String, String> termsOf(Facet facet) {
+        return facetTerms.computeIfAbsent(facet, f -> {
+            Map<String, String> terms = new LinkedHashMap<>();
+            for (String value : facetValues(f)) {
+                if (f == Facet.ATTRIBUTE && value.indexOf('=') < 0) continue;
+                String term = term(f, value);
+                if (postings.containsKey(term)) terms.putIfAbsent(term, value);
+            }
+            return terms;
+        });
+    }
+
+    private void collect(T item, RoaringBitmap candidates, Predicate<T> residual, List<T> result) {
+        if ((candidates == null || candidates.contains(key(item.getId()))) && residual.test(item)) {
+            result.add(item);
+        }
+    }
+
+    // ── Ids satisfying every indexed filter, or null when nothing is indexed-filtered ──
+    private RoaringBitmap candidates(CatalogQuery query) {
+        List<RoaringBitmap> required = new ArrayList<>();
+
+        query.getFacets().forEach((facet, values) -> {
+            if (facet == Facet.ATTRIBUTE) return;
+            List<RoaringBitmap> anyOf = new ArrayList<>();
+            for (String value : values) anyOf.add(posting(term(facet, value)));
+            required.add(union(anyOf));
+        });
+        for (Set<String> group : query.attributeGroups()) {
+            List<RoaringBitmap> anyOf = new ArrayList<>();
+            for (String value : group) anyOf.add(posting(term(Facet.ATTRIBUTE, value)));
+            required.add(union(anyOf));
+        }
+
+        if (query.getIds() != null) {
+            RoaringBitmap ids = new RoaringBitmap();
+            query.getIds().forEach(id -> ids.add(key(id)));
+            required.add(ids);
+        }
+        if (query.isAvailableOnly())  required.add(posting(AVAILABLE));
+        if (query.isInStockOnly())    required.add(posting(IN_STOCK));
+        if (query.isDiscountedOnly()) required.add(posting(DISCOUNTED));
+
+        if (query.getMinPrice() != null || query.getMaxPrice() != null) {
+            int from = query.getMinPrice() != null ? PriceBuckets.bucketOf(query.getMinPrice()) : 0;
+            int to   = query.getMaxPrice() != null ? PriceBuckets.bucketOf(query.getMaxPrice()) : PriceBuckets.count() - 1;
+            List<RoaringBitmap> bands = new ArrayList<>();
+            for (int b = from; b <= to; b++) bands.add(posting(PRICE_BAND + b));
+            required.add(union(bands));
+        }
+
+        if (required.isEmpty()) return null;
+        return required.size() == 1 ? required.getFirst() : FastAggregation.and(required.iterator());
+    }
+
+    private static boolean hasResidual(CatalogQuery query) {
+        return query.getMinPrice() != null || query.getMaxPrice() != null
+                || query.getNameContains() != null || query.getKeyword() != null;
+    }
+
+    // ── Checks the index cannot answer exactly: price edges and substring matches ──
+    private Predicate<T> residual(CatalogQuery query) {
+        Predicate<T> p = item -> true;
+
+        BigDecimal min = query.getMinPrice();
+        BigDecimal max = query.getMaxPrice();
+        if (min != null) p = p.and(item -> item.getFinalPrice().compareTo(min) >= 0);
+        if (max != null) p = p.and(item -> item.getFinalPrice().compareTo(max) <= 0);
+
+        if (query.getNameContains() != null) {
+            String name = lower(query.getNameContains());
+            p = p.and(item -> lower(item.getName()).contains(name));
+        }
+        if (query.getKeyword() != null) {
+            String keyword = lower(query.getKeyword());
+            p = p.and(item -> searchText.getOrDefault(item.getId(), "").contains(keyword));
+        }
+        return p;
+    }
+
+    private RoaringBitmap posting(String term) {
+        RoaringBitmap ids = postings.get(term);
+        return ids != null ? ids : EMPTY;
+    }
+
+    private static RoaringBitmap union(List<RoaringBitmap> bitmaps) {
+        return bitmaps.size() == 1 ? bitmaps.getFirst() : FastAggregation.or(bitmaps.iterator());
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  COPY-ON-WRITE UPDATES
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * New snapshot with a batch of products added or replaced and others removed
+     * (a removal wins over an upsert of the same id). One pass over the catalog
+     * for the whole batch: each sort order is re-merged in O(n + k log k), and
+     * only the postings the batch touches are cloned. Returns this snapshot when
+     * nothing changes.
+     */
+    public CatalogSnapshot<T> withChanges(Collection<T> upserts, Collection<Long> removals) {
+        Map<Long, T> added = new HashMap<>();
+        for (T item : upserts) added.put(item.getId(), item);
+        removals.forEach(added::remove);
+
+        // Indexed items leaving the snapshot — removed, or replaced by a newer copy
+        Map<Long, T> replaced = new HashMap<>();
+        for (Long id : added.keySet()) if (byId.containsKey(id)) replaced.put(id, byId.get(id));
+        for (Long id : removals)       if (byId.containsKey(id)) replaced.put(id, byId.get(id));
+        if (added.isEmpty() && replaced.isEmpty()) return this;
+
+        Map<Long, T> newById = new HashMap<>(byId);
+        replaced.keySet().forEach(newById::remove);
+        newById.putAll(added);
+
+        Map<String, List<T>> newOrdered = new HashMap<>();
+        for (String property : SORT_PROPERTIES) {
+            newOrdered.put(property, merge(ordered.get(property), replaced.keySet(), added.values(), property));
+        }
+
+        // Net posting changes per term, so each touched bitmap is cloned once for the batch
+        Map<String, Set<Long>> adds = new HashMap<>();
+        Map<String, Set<Long>> drops = new HashMap<>();
+        for (T old : replaced.values()) {
+            for (String term : termsOf(old, indexer)) drops.computeIfAbsent(term, t -> new HashSet<>()).add(old.getId());
+        }
+        for (T item : added.values()) {
+            for (String term : termsOf(item, indexer)) {
+                Set<Long> dropped = drops.get(term);
+                if (dropped != null && dropped.remove(item.getId())) continue;   // unchanged term
+                adds.computeIfAbsent(term, t -> new HashSet<>()).add(item.getId());
+            }
+        }
+        Map<String, RoaringBitmap> newPostings = new HashMap<>(postings);
+        Set<String> touched = new HashSet<>(adds.keySet());
+        drops.forEach((term, ids) -> { if (!ids.isEmpty()) touched.add(term); });
+        for (String term : touched) {
+            RoaringBitmap previous = newPostings.get(term);
+            RoaringBitmap ids = previous != null ? previous.clone() : new RoaringBitmap();
+            drops.getOrDefault(term, Set.of()).forEach(id -> ids.remove(key(id)));
+            adds.getOrDefault(term, Set.of()).forEach(id -> ids.add(key(id)));
+            if (ids.isEmpty()) newPostings.remove(term);
+            else newPostings.put(term, ids);
+        }
+
+        RoaringBitmap newAllIds = allIds.clone();
+        replaced.keySet().forEach(id -> newAllIds.remove(key(id)));
+        added.keySet().forEach(id -> newAllIds.add(key(id)));
+
+        Map<Long, String> newSearchText = new HashMap<>(searchText);
+        replaced.keySet().forEach(newSearchText::remove);
+        added.values().forEach(item -> newSearchText.put(item.getId(), lower(indexer.searchTextOf(item))));
+
+        LocalDateTime newLastModified = lastModified;
+        for (T item : added.values()) newLastModified = latest(newLastModified, modifiedAt(item));
+        // A deleted row leaves no timestamp behind — the removal itself is the change
+        if (removals.stream().anyMatch(byId::containsKey)) newLastModified = latest(newLastModified, LocalDateTime.now());
+
+        return new CatalogSnapshot<>(version + 1, indexer,
+                Collections.unmodifiableMap(newById),
+                Collections.unmodifiableMap(newOrdered),
+                Collections.unmodifiableMap(newPostings),
+                newAllIds,
+                Collections.unmodifiableMap(newSearchText),
+                newLastModified);
+    }
+
+    // The old order minus the leaving ids, merged with the new items sorted on their own
+    private static <T extends ProductView> List<T> merge(List<T> order, Set<Long> leaving,
+                                                        Collection<T> arriving, String property) {
+        Comparator<T> cmp = ascending(property);
+        List<T> incoming = new ArrayList<>(arriving);
+        incoming.sort(cmp);
+
+        List<T> merged = new ArrayList<>(order.size() - leaving.size() + incoming.size());
+        int j = 0;
+        for (T item : order) {
+            if (leaving.contains(item.getId())) continue;
+            while (j < incoming.size() && cmp.compare(incoming.get(j), item) < 0) merged.add(incoming.get(j++));
+            merged.add(item);
+        }
+        while (j < incoming.size()) merged.add(incoming.get(j++));
+        return Collections.unmodifiableList(merged);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  HELPERS
+    // ═══════════════════════════════════════════════════════════
+
+    static <T extends ProductView> Set<String> termsOf(T item, CatalogIndexer<T> indexer) {
+        Set<String> terms = new HashSet<>();
+        indexer.facetsOf(item).forEach((facet, values) -> values.stream()
+                .filter(Objects::nonNull)
+                .forEach(v -> terms.add(term(facet, v))));
+
+        if (Boolean.TRUE.equals(item.getIsAvailable()))           terms.add(AVAILABLE);
+        if (item.getStock() != null && item.getStock() > 0)       terms.add(IN_STOCK);
+        if (item.getDiscountPercentage() != null
+                && item.getDiscountPercentage().signum() > 0)     terms.add(DISCOUNTED);
+        terms.add(PRICE_BAND + PriceBuckets.bucketOf(item.getFinalPrice()));
+        return terms;
+    }
+
+    private static LocalDateTime modifiedAt(ProductView item) {
+        return item.getUpdatedAt() != null ? item.getUpdatedAt() : item.getCreatedAt();
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+
+    static int key(Long id) {
+        return Math.toIntExact(id);
+    }
+
+    static String term(Facet facet, String value) {
+        return facet.name() + ":" + lower(value);
+    }
+
+    private static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    private static <T extends ProductView> Comparator<T> ascending(String property) {
+        return (a, b) -> compare(a, ProductSort.keyOf(property, b), b.getId(), property);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(ProductView item, Comparable<?> key, long id, String property) {
+        Comparable itemKey = ProductSort.keyOf(property, item);
+        int cmp;
+        if (itemKey == null || key == null) cmp = itemKey == null ? (key == null ? 0 : -1) : 1;
+        else cmp = itemKey.compareTo(key);
+        return cmp != 0 ? cmp : Long.compare(item.getId(), id);
+    }
+
+    // Number of leading items ordered at-or-before the cursor (inclusive) or strictly before it
+    private static <T extends ProductView> int countNotAfter(List<T> order, ProductSort sort,
+                                                            ProductCursor cursor, boolean inclusive) {
+        int lo = 0, hi = order.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(order.get(mid), cursor.getKey(), cursor.getId(), sort.getProperty());
+            if (cmp < 0 || (inclusive && cmp == 0)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,42 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed bands of final price (what the customer pays) used to index the catalog.
+ * A range filter unions the bands it overlaps, then checks exact prices
+ * only for products in the two edge bands.
+ */
+public final class PriceBuckets {
+
+    // Band i covers [EDGES[i], EDGES[i + 1]); the last band is open-ended
+    private static final BigDecimal[] EDGES = {
+            BigDecimal.valueOf(0),    BigDecimal.valueOf(10),   BigDecimal.valueOf(25),
+            BigDecimal.valueOf(50),   BigDecimal.valueOf(100),  BigDecimal.valueOf(250),
+            BigDecimal.valueOf(500),  BigDecimal.valueOf(1000), BigDecimal.valueOf(2500),
+            BigDecimal.valueOf(5000)
+    };
+
+    private PriceBuckets() {}
+
+    public static int count() {
+        return EDGES.length;
+    }
+
+    public static int bucketOf(BigDecimal price) {
+        if (price == null) return 0;
+        for (int i = EDGES.length - 1; i > 0; i--) {
+            if (price.compareTo(EDGES[i]) >= 0) return i;
+        }
+        return 0;
+    }
+
+    public static BigDecimal lowerBound(int bucket) {
+        return EDGES[bucket];
+    }
+
+    /** Upper bound (exclusive), or null for the open-ended last band. */
+    public static BigDecimal upperBound(int bucket) {
+        return bucket + 1 < EDGES.length ? EDGES[bucket + 1] : null;
+    }
+}
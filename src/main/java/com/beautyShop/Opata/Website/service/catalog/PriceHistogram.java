@@ -0,0 +1,59 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import com.beautyShop.Opata.Website.dto.PriceRangeCount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Products per PriceBuckets band, counted by the database on the indexed
+ * final_price column — the fallback for CatalogSnapshot.priceRangeCounts
+ * while the catalog is loading. One row comes back: a conditional sum per band.
+ */
+@Component
+public class PriceHistogram {
+
+    private final EntityManager entityManager;
+
+    public PriceHistogram(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /** Same shape as the in-memory histogram: bands in order, empty ones left out. */
+    @Transactional(readOnly = true)
+    public <T> List<PriceRangeCount> count(Class<T> type, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(type);
+        Path<BigDecimal> finalPrice = root.get("finalPrice");
+
+        List<Selection<?>> bands = new ArrayList<>(PriceBuckets.count());
+        for (int b = 0; b < PriceBuckets.count(); b++) {
+            Predicate inBand = cb.greaterThanOrEqualTo(finalPrice, PriceBuckets.lowerBound(b));
+            if (PriceBuckets.upperBound(b) != null) {
+                inBand = cb.and(inBand, cb.lessThan(finalPrice, PriceBuckets.upperBound(b)));
+            }
+            bands.add(cb.sum(cb.<Integer>selectCase().when(inBand, 1).otherwise(0)));
+        }
+        query.select(cb.array(bands));
+
+        Predicate where = spec.toPredicate(root, query, cb);
+        if (where != null) query.where(where);
+
+        Object[] counts = entityManager.createQuery(query).getSingleResult();
+        List<PriceRangeCount> result = new ArrayList<>();
+        for (int b = 0; b < counts.length; b++) {
+            int count = counts[b] != null ? ((Number) counts[b]).intValue() : 0;
+            if (count > 0) {
+                result.add(new PriceRangeCount(PriceBuckets.lowerBound(b), PriceBuckets.upperBound(b), count));
+            }
+        }
+        return result;
+    }
+}
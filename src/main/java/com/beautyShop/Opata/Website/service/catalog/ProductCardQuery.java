@@ -0,0 +1,83 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listing pages at card size, straight from the database — the fallback for
+ * ?fields=card (or any subset of it) while the catalog is loading.
+ *
+ * Two statements per page: the card columns of the matching rows, then the
+ * cover URL of each. No entities are built, so descriptions, the owning admin
+ * and the size/tag/attribute columns are never read.
+ */
+@Component
+public class ProductCardQuery {
+
+    /** Card columns plus the sort keys a cursor needs. */
+    public record Row(Long id, String name, BigDecimal price, BigDecimal finalPrice,
+                      BigDecimal discountPercentage, String category, String brand,
+                      Integer stock, Boolean isAvailable, LocalDateTime createdAt,
+                      LocalDateTime updatedAt, String cardImageUrl) {}
+
+    private static final String[] COLUMNS = {
+            "id", "name", "price", "finalPrice", "discountPercentage", "category",
+            "brand", "stock", "isAvailable", "createdAt", "updatedAt"};
+
+    private final EntityManager entityManager;
+
+    public ProductCardQuery(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Up to {@code limit} rows matching the specification, in the order it sets.
+     * {@code imageType} is the image entity and {@code imageOwner} its association back to the product.
+     */
+    public <E> List<Row> find(Class<E> type, Specification<E> spec, int limit,
+                              Class<?> imageType, String imageOwner) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(type);
+
+        Selection<?>[] columns = new Selection<?>[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) columns[i] = root.get(COLUMNS[i]);
+        query.select(cb.tuple(columns));
+
+        Predicate where = spec.toPredicate(root, query, cb);
+        if (where != null) query.where(where);
+
+        List<Tuple> tuples = entityManager.createQuery(query).setMaxResults(limit).getResultList();
+        if (tuples.isEmpty()) return List.of();
+
+        Map<Long, String> covers = coverUrls(tuples.stream().map(t -> (Long) t.get(0)).toList(), imageType, imageOwner);
+        return tuples.stream().map(t -> new Row(
+                (Long) t.get(0), (String) t.get(1), (BigDecimal) t.get(2), (BigDecimal) t.get(3),
+                (BigDecimal) t.get(4), (String) t.get(5), (String) t.get(6), (Integer) t.get(7),
+                (Boolean) t.get(8), (LocalDateTime) t.get(9), (LocalDateTime) t.get(10),
+                covers.get((Long) t.get(0)))).toList();
+    }
+
+    // First image by display order; rows the URL backfill has not reached fall back to the upload URL
+    private Map<Long, String> coverUrls(List<Long> ids, Class<?> imageType, String imageOwner) {
+        List<Object[]> images = entityManager.createQuery(
+                        "SELECT i." + imageOwner + ".id, COALESCE(i.deliveryUrls.card, i.imageUrl) " +
+                        "FROM " + imageType.getSimpleName() + " i " +
+                        "WHERE i." + imageOwner + ".id IN :ids ORDER BY i.displayOrder", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList();
+
+        Map<Long, String> covers = new HashMap<>();
+        for (Object[] image : images) covers.putIfAbsent((Long) image[0], (String) image[1]);
+        return covers;
+    }
+}
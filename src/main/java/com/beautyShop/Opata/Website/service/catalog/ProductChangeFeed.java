@@ -0,0 +1,154 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import com.beautyShop.Opata.Website.dto.ProductChange;
+import com.beautyShop.Opata.Website.dto.ProductChangePage;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductTombstoneRepository;
+import com.beautyShop.Opata.Website.service.ProductMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Incremental change feed for downstream sync (marketplaces, POS).
+ *
+ * Three sources merged into one order — (time, source, id):
+ *   clothing upserts   products.updated_at
+ *   general upserts    general_products.updated_at
+ *   deletes            product_tombstones.deleted_at (written by AdminProductService)
+ * A page reads at most limit + 1 rows from each source off its (time, id)
+ * index, so a poll costs three index range scans however large the catalog is.
+ *
+ * The cursor is the position of the last change returned. Starting without
+ * one walks the whole catalog, which doubles as the initial full sync.
+ *
+ * Changes younger than SETTLE are held back: updatedAt is stamped before
+ * commit, so a slower transaction can still commit a slightly older stamp
+ * after a poll has moved past it.
+ */
+@Service
+public class ProductChangeFeed {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT     = 500;
+
+    private static final Duration SETTLE = Duration.ofSeconds(5);
+
+    // Order of the sources within one timestamp — part of the cursor, append only
+    private enum Source { CLOTHING, GENERAL, DELETED }
+
+    private final ProductRepository          productRepository;
+    private final GeneralProductRepository   generalProductRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final ProductMapper              productMapper;
+    private final TransactionTemplate        readTx;
+
+    public ProductChangeFeed(ProductRepository productRepository,
+                             GeneralProductRepository generalProductRepository,
+                             ProductTombstoneRepository tombstoneRepository,
+                             ProductMapper productMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.productRepository        = productRepository;
+        this.generalProductRepository = generalProductRepository;
+        this.tombstoneRepository      = tombstoneRepository;
+        this.productMapper            = productMapper;
+
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    public ProductChangePage changesSince(String cursor, int limit) {
+        int size = Math.clamp(limit, 1, MAX_LIMIT);
+        Position from = Position.decode(cursor);
+        LocalDateTime until = LocalDateTime.now().minus(SETTLE);
+        PageRequest rows = PageRequest.of(0, size + 1);
+
+        return readTx.execute(tx -> {
+            List<Entry> merged = new ArrayList<>();
+            productRepository.findChangedSince(from.at(), from.afterId(Source.CLOTHING), until, rows)
+                    .forEach(p -> merged.add(new Entry(new Position(p.getUpdatedAt(), Source.CLOTHING, p.getId()),
+                            () -> upsert(ProductType.CLOTHING, p.getId(), p.getUpdatedAt())
+                                    .product(productMapper.toResponse(p)).build())));
+            generalProductRepository.findChangedSince(from.at(), from.afterId(Source.GENERAL), until, rows)
+                    .forEach(g -> merged.add(new Entry(new Position(g.getUpdatedAt(), Source.GENERAL, g.getId()),
+                            () -> upsert(ProductType.GENERAL, g.getId(), g.getUpdatedAt())
+                                    .product(productMapper.toResponse(g)).build())));
+            tombstoneRepository.findDeletedSince(from.at(), from.afterId(Source.DELETED), until, rows)
+                    .forEach(t -> merged.add(new Entry(new Position(t.getDeletedAt(), Source.DELETED, t.getId()),
+                            () -> ProductChange.builder()
+                                    .operation(ProductChange.Operation.DELETE)
+                                    .productType(t.getProductType())
+                                    .productId(t.getProductId())
+                                    .changedAt(t.getDeletedAt())
+                                    .build())));
+
+            merged.sort(Comparator.comparing(Entry::position, Position.ORDER));
+            boolean hasMore = merged.size() > size;
+            List<Entry> page = hasMore ? merged.subList(0, size) : merged;
+
+            // Only the rows that made the page are mapped
+            return ProductChangePage.builder()
+                    .changes(page.stream().map(e -> e.change().get()).toList())
+                    .nextCursor(page.isEmpty() ? cursor : page.getLast().position().encode())
+                    .hasMore(hasMore)
+                    .build();
+        });
+    }
+
+    private static ProductChange.ProductChangeBuilder upsert(ProductType type, Long id, LocalDateTime at) {
+        return ProductChange.builder()
+                .operation(ProductChange.Operation.UPSERT)
+                .productType(type)
+                .productId(id)
+                .changedAt(at);
+    }
+
+    private record Entry(Position position, Supplier<ProductChange> change) {}
+
+    /**
+     * A point in the merged order. Encoded as URL-safe base64 of "time|SOURCE|id".
+     */
+    private record Position(LocalDateTime at, Source source, long id) {
+
+        // Before any stored timestamp — and inside the range every database can bind
+        static final Position START = new Position(LocalDateTime.of(1970, 1, 1, 0, 0), Source.CLOTHING, Long.MIN_VALUE);
+
+        static final Comparator<Position> ORDER = Comparator.comparing(Position::at)
+                .thenComparing(Position::source)
+                .thenComparingLong(Position::id);
+
+        // Rows of the given source at exactly this timestamp come after the cursor only past this id
+        long afterId(Source of) {
+            int cmp = of.compareTo(source);
+            return cmp > 0 ? Long.MIN_VALUE : cmp < 0 ? Long.MAX_VALUE : id;
+        }
+
+        String encode() {
+            String raw = at + "|" + source.name() + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Position decode(String token) {
+            if (token == null || token.isBlank()) return START;
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+                if (parts.length != 3) throw new IllegalArgumentException();
+                return new Position(LocalDateTime.parse(parts[0]), Source.valueOf(parts[1]), Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.beautyShop.Opata.Website.service.idempotency;
+
+import com.beautyShop.Opata.Website.entity.IdempotencyRecord;
+import com.beautyShop.Opata.Website.entity.IdempotencyScope;
+import com.beautyShop.Opata.Website.entity.repo.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * IdempotencyService — "SAME KEY, SAME ANSWER"
+ * ─────────────────────────────────────────────────
+ * Runs a create-something call at most once per Idempotency-Key, so a
+ * client retrying after a network timeout gets the first response back
+ * instead of a second order or delivery:
+ *   - The first response is stored in idempotency_keys in the same
+ *     transaction as the work itself — a key is recorded exactly when the
+ *     work committed; a failed call stores nothing and may be retried
+ *   - Calls in flight and recent responses stay in memory for CACHE_FOR;
+ *     a duplicate arriving meanwhile waits for the first call's result
+ *     instead of running it again
+ *   - The unique key on the table settles races the cache cannot see
+ *     (another instance, or after a restart): the loser rolls back and
+ *     returns the winner's response
+ *   - A key reused with a different request body is refused
+ *
+ * Keys are scoped per user and endpoint and kept for KEEP_FOR. Without the
+ * header, calls run as before.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String   HEADER         = "Idempotency-Key";
+    public static final int      MAX_KEY_LENGTH = 100;
+    public static final Duration CACHE_FOR      = Duration.ofMinutes(5);
+    public static final Duration KEEP_FOR       = Duration.ofHours(24);
+
+    private static final int WAIT_SECONDS  = 30;
+    private static final int PURGE_SECONDS = 60;
+
+    private record CallKey(UUID userId, IdempotencyScope scope, String key) {}
+
+    /** One call for a key — in flight until response completes. */
+    private static final class Call {
+        final String                    requestHash;
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        volatile long                   doneAtMillis;
+
+        Call(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper                objectMapper;
+    private final TransactionTemplate         tx;
+
+    private final Map<CallKey, Call> calls = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "idempotency-purge");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.recordRepository = recordRepository;
+        this.objectMapper     = objectMapper;
+        this.tx               = new TransactionTemplate(transactionManager);
+
+        purger.scheduleWithFixedDelay(this::purgeQuietly, PURGE_SECONDS, PURGE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  EXECUTE
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Runs action once per (user, scope, key) and returns its result; later
+     * calls with the key get the first result back. A null or blank key
+     * just runs the action.
+     */
+    public <T> T execute(UUID userId, IdempotencyScope scope, String key, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) return action.get();
+        key = key.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        CallKey callKey = new CallKey(userId, scope, key);
+        Call mine = new Call(fingerprint(request));
+        Call earlier = calls.putIfAbsent(callKey, mine);
+        if (earlier != null) {
+            log.info("🔁 Replaying {} for key [{}] of user [{}]", scope, key, userId);
+            return read(awaitResponse(earlier, mine.requestHash), responseType);
+        }
+
+        try {
+            // Answered before this cache entry existed — an earlier run, or another instance
+            IdempotencyRecord stored = find(callKey);
+            if (stored != null) {
+                complete(mine, stored.getResponseJson());
+                return read(checked(stored, mine.requestHash), responseType);
+            }
+
+            T result;
+            try {
+                result = tx.execute(status -> {
+                    T r = action.get();
+                    recordRepository.saveAndFlush(IdempotencyRecord.builder()
+                            .userId(userId)
+                            .scope(scope)
+                            .idempotencyKey(callKey.key())
+                            .requestHash(mine.requestHash)
+                            .responseJson(write(r))
+                            .createdAt(LocalDateTime.now())
+                            .build());
+                    return r;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another instance stored this key first; our work was rolled back with the insert
+                stored = find(callKey);
+                if (stored == null) throw e;
+                complete(mine, stored.getResponseJson());
+                return read(checked(stored, mine.requestHash), responseType);
+            }
+            complete(mine, write(result));
+            return result;
+        } catch (RuntimeException e) {
+            // Nothing was stored — forget the call so a retry runs it afresh
+            calls.remove(callKey, mine);
+            mine.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  PURGE
+    // ═══════════════════════════════════════════════════════════
+
+    /** Drops cached responses older than CACHE_FOR and stored keys older than KEEP_FOR. */
+    public int purge() {
+        long cutoff = System.currentTimeMillis() - CACHE_FOR.toMillis();
+        calls.values().removeIf(call -> call.response.isDone() && call.doneAtMillis < cutoff);
+        return recordRepository.deleteOlderThan(LocalDateTime.now().minus(KEEP_FOR));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        purger.shutdownNow();
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.error("Purging idempotency keys failed", e);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  PRIVATE HELPERS
+    // ═══════════════════════════════════════════════════════════
+
+    // Waits for the first call with this key; its failure is this call's failure
+    private String awaitResponse(Call earlier, String requestHash) {
+        if (!earlier.requestHash.equals(requestHash)) throw keyReused();
+        try {
+            return earlier.response.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("A request with this " + HEADER + " is still being processed — retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request", e);
+        }
+    }
+
+    private IdempotencyRecord find(CallKey callKey) {
+        return recordRepository.findByUserIdAndScopeAndIdempotencyKey(callKey.userId(), callKey.scope(), callKey.key())
+                .orElse(null);
+    }
+
+    private static String checked(IdempotencyRecord stored, String requestHash) {
+        if (!stored.getRequestHash().equals(requestHash)) throw keyReused();
+        return stored.getResponseJson();
+    }
+
+    private static IllegalArgumentException keyReused() {
+        return new IllegalArgumentException(HEADER + " was already used for a different request");
+    }
+
+    private static void complete(Call call, String json) {
+        call.doneAtMillis = System.currentTimeMillis();
+        call.response.complete(json);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(write(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored " + type.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.beautyShop.Opata.Website.service.ranking;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Products ordered by an exponentially time-decayed score.
+ * ─────────────────────────────────────────────────
+ * An event of weight w at time t is worth w · e^(-(now - t) / τ). Rather
+ * than decaying every score as time passes, each event is stored as
+ * w · e^((t - landmark) / τ): the common factor e^(-(now - landmark) / τ)
+ * does not change the order, so a score only changes when its product
+ * gets a new event. When the exponent grows large the landmark moves
+ * forward and every score is scaled down once.
+ *
+ * Entries sit in a skip list sorted best first, so the top K is a walk of
+ * K nodes. Reads are lock-free; writes must be serialised by the owner
+ * (ProductRankings) — a reader may briefly miss a product while its entry
+ * is being replaced.
+ * ─────────────────────────────────────────────────
+ */
+final class DecayedRanking {
+
+    private record Entry(long productId, double score) {}
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator
+            .comparingDouble(Entry::score).reversed()
+            .thenComparingLong(Entry::productId);
+
+    // e^200 ≈ 7e86 — far from overflowing a double even after many more events
+    private static final double MAX_EXPONENT = 200;
+
+    private final double tauMillis;
+    private long         landmark;
+
+    private final Map<Long, Entry>    entries = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> ranked  = new ConcurrentSkipListSet<>(BEST_FIRST);
+
+    DecayedRanking(RankingWindow window, long landmarkMillis) {
+        this.tauMillis = window.length().toMillis();
+        this.landmark  = landmarkMillis;
+    }
+
+    void add(long productId, double weight, long atMillis) {
+        if (weight <= 0) return;
+        if ((atMillis - landmark) / tauMillis > MAX_EXPONENT) rebase(atMillis);
+
+        double value = weight * Math.exp((atMillis - landmark) / tauMillis);
+        Entry old = entries.get(productId);
+        Entry next = new Entry(productId, old == null ? value : old.score() + value);
+        if (old != null) ranked.remove(old);
+        ranked.add(next);
+        entries.put(productId, next);
+    }
+
+    void remove(long productId) {
+        Entry old = entries.remove(productId);
+        if (old != null) ranked.remove(old);
+    }
+
+    /** Best first, at most limit ids. */
+    List<Long> top(int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        for (Entry e : ranked) {
+            if (ids.size() >= limit) break;
+            ids.add(e.productId());
+        }
+        return ids;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // Moves the landmark to now and scales every score down to match
+    private void rebase(long nowMillis) {
+        double factor = Math.exp(-(nowMillis - landmark) / tauMillis);
+        landmark = nowMillis;
+        List<Entry> scaled = entries.values().stream()
+                .map(e -> new Entry(e.productId(), e.score() * factor))
+                .toList();
+        ranked.clear();
+        ranked.addAll(scaled);
+        scaled.forEach(e -> entries.put(e.productId(), e));
+    }
+}
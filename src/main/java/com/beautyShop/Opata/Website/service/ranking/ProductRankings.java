@@ -0,0 +1,184 @@
+package com.beautyShop.Opata.Website.service.ranking;
+
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import com.beautyShop.Opata.Website.service.recommend.OrderPlacedEvent;
+import com.beautyShop.Opata.Website.service.stats.ProductViewsFlushedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ProductRankings — "TRENDING" + "BESTSELLERS"
+ * ─────────────────────────────────────────────────
+ * Time-decayed product rankings per product type and RankingWindow:
+ *   - bestsellers: units sold
+ *   - trending:    units sold plus page views, a view worth VIEW_WEIGHT of a sale
+ *
+ * Rebuilt from order_items once the application is ready (orders of the
+ * last HISTORY_WINDOWS months; older ones would weigh under 5%), then kept
+ * current from OrderPlacedEvent, ProductViewsFlushedEvent and product
+ * deletes. Views are not stored with a time, so trending starts from
+ * sales alone after a restart.
+ *
+ * Reading the top K walks K skip-list nodes — no locks, no queries.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class ProductRankings {
+
+    public static final int MAX_LIMIT = 50;
+
+    private static final double VIEW_WEIGHT     = 0.05;
+    private static final int    HISTORY_WINDOWS = 3;
+
+    /** Both rankings for one product type. */
+    private static final class Board {
+
+        final Map<RankingWindow, DecayedRanking> trending    = new EnumMap<>(RankingWindow.class);
+        final Map<RankingWindow, DecayedRanking> bestsellers = new EnumMap<>(RankingWindow.class);
+
+        Board(long landmarkMillis) {
+            for (RankingWindow w : RankingWindow.values()) {
+                trending.put(w, new DecayedRanking(w, landmarkMillis));
+                bestsellers.put(w, new DecayedRanking(w, landmarkMillis));
+            }
+        }
+
+        void sale(long productId, int units, long atMillis) {
+            trending.values().forEach(r -> r.add(productId, units, atMillis));
+            bestsellers.values().forEach(r -> r.add(productId, units, atMillis));
+        }
+
+        void views(long productId, long views, long atMillis) {
+            trending.values().forEach(r -> r.add(productId, views * VIEW_WEIGHT, atMillis));
+        }
+
+        void remove(long productId) {
+            trending.values().forEach(r -> r.remove(productId));
+            bestsellers.values().forEach(r -> r.remove(productId));
+        }
+    }
+
+    private final JdbcTemplate        jdbc;
+    private final TransactionTemplate snapshotTx;
+
+    // Written under this; read without locking
+    private volatile Map<ProductType, Board> boards;
+    private long builtThroughOrderId;
+    private final AtomicLong version = new AtomicLong();
+
+    public ProductRankings(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+
+        // The order lines and the last order id must come from the same snapshot
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTx.setReadOnly(true);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  READ
+    // ═══════════════════════════════════════════════════════════
+
+    /** Ids of the most viewed and bought products, best first; empty until built. */
+    public List<Long> trending(ProductType type, RankingWindow window, int limit) {
+        Map<ProductType, Board> current = boards;
+        return current == null ? List.of() : current.get(type).trending.get(window).top(limit);
+    }
+
+    /** Ids of the products with the most units sold, best first; empty until built. */
+    public List<Long> bestsellers(ProductType type, RankingWindow window, int limit) {
+        Map<ProductType, Board> current = boards;
+        return current == null ? List.of() : current.get(type).bestsellers.get(window).top(limit);
+    }
+
+    /**
+     * Grows on every rebuild — part of the catalog ETag. Orders and deletes
+     * also change stock or the catalog, so they bump the catalog version;
+     * trending (moved by views) is kept out of conditional GETs.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BUILD + MAINTAIN
+    // ═══════════════════════════════════════════════════════════
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Not fatal — the rails stay empty until a rebuild succeeds
+            log.error("Product rankings build failed", e);
+        }
+    }
+
+    /** Re-reads recent orders; returns how many products have sold in that time. */
+    public synchronized int rebuild() {
+        long started = System.currentTimeMillis();
+        long since   = started - HISTORY_WINDOWS * RankingWindow.MONTH.length().toMillis();
+
+        Map<ProductType, Board> fresh = new EnumMap<>(ProductType.class);
+        for (ProductType type : ProductType.values()) fresh.put(type, new Board(since));
+
+        // Orders hold clothing only
+        Board clothing = fresh.get(ProductType.CLOTHING);
+        Long lastOrderId = snapshotTx.execute(status -> {
+            jdbc.query("""
+                    SELECT oi.product_id, oi.quantity, o.created_at
+                    FROM order_items oi JOIN orders o ON o.id = oi.order_id
+                    WHERE o.status <> 'CANCELLED' AND o.created_at >= ?""",
+                    rs -> { clothing.sale(rs.getLong(1), rs.getInt(2), rs.getTimestamp(3).getTime()); },
+                    new Timestamp(since));
+            return jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM orders", Long.class);
+        });
+
+        builtThroughOrderId = lastOrderId == null ? 0 : lastOrderId;
+        boards = fresh;
+        version.incrementAndGet();
+        int products = clothing.bestsellers.get(RankingWindow.MONTH).size();
+        log.info("Product rankings built: {} products sold since {} in {} ms",
+                products, new Timestamp(since), System.currentTimeMillis() - started);
+        return products;
+    }
+
+    // fallbackExecution — tests and scripts may place orders outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderPlaced(OrderPlacedEvent event) {
+        // Not built yet, or the order was already read by the last build
+        if (boards == null || event.orderId() <= builtThroughOrderId) return;
+
+        long now = System.currentTimeMillis();
+        Board clothing = boards.get(ProductType.CLOTHING);
+        for (int i = 0; i < event.productIds().size(); i++) {
+            clothing.sale(event.productIds().get(i), event.quantities().get(i), now);
+        }
+    }
+
+    @EventListener
+    public synchronized void onViews(ProductViewsFlushedEvent event) {
+        if (boards == null) return;
+        long now = System.currentTimeMillis();
+        Board board = boards.get(event.type());
+        event.views().forEach((id, views) -> board.views(id, views, now));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (boards != null && event.isDeleted()) event.getProductIds().forEach(boards.get(event.getType())::remove);
+    }
+}
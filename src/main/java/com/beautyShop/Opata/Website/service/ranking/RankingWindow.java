@@ -0,0 +1,25 @@
+package com.beautyShop.Opata.Website.service.ranking;
+
+import java.time.Duration;
+
+/**
+ * How far back a trending / bestseller ranking looks.
+ * An event's weight decays by e every window length, so a sale from
+ * two windows ago counts about a seventh of one made today.
+ */
+public enum RankingWindow {
+
+    DAY(Duration.ofHours(24)),
+    WEEK(Duration.ofDays(7)),
+    MONTH(Duration.ofDays(30));
+
+    private final Duration length;
+
+    RankingWindow(Duration length) {
+        this.length = length;
+    }
+
+    public Duration length() {
+        return length;
+    }
+}
@@ -0,0 +1,232 @@
+package com.beautyShop.Opata.Website.service.recommend;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Sparse item-item co-purchase counts plus each product's top-K neighbours.
+ * ─────────────────────────────────────────────────
+ * Every unordered pair of distinct products in one order adds 1 to the
+ * pair's count. Counts live in a single LongIntCounter keyed by the pair
+ * (smaller id in the high 32 bits), so only pairs that were actually bought
+ * together take space.
+ *
+ * The bulk build splits the order lines into ranges on order boundaries and
+ * counts each range in its own fork-join task, merging the counters on the
+ * way back up. After that, orders are added one at a time: counts only ever
+ * grow, so a pair's new count either updates a neighbour already in the top
+ * K or displaces the weakest one — the top lists stay exact without a rescan.
+ *
+ * Product ids above Integer.MAX_VALUE do not fit the pair code and are skipped.
+ * Not thread-safe; CoPurchaseRecommender serialises access.
+ * ─────────────────────────────────────────────────
+ */
+final class CoPurchaseMatrix {
+
+    /** Order lines sorted by order id, then product id — parallel arrays, no objects per line. */
+    record OrderLines(long[] orderIds, long[] productIds, int size) {}
+
+    /** One recommended product and how many orders it shared with the source product. */
+    record Neighbour(long productId, int coPurchases) {}
+
+    // Lines per fork-join leaf — below this, splitting costs more than it saves
+    private static final int LEAF_LINES = 20_000;
+
+    private final int                   k;
+    private final LongIntCounter        pairs;
+    private final Map<Long, Neighbours> top = new HashMap<>();
+
+    private CoPurchaseMatrix(int k, LongIntCounter pairs) {
+        this.k     = k;
+        this.pairs = pairs;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BUILD
+    // ═══════════════════════════════════════════════════════════
+
+    static CoPurchaseMatrix build(OrderLines lines, int k, ForkJoinPool pool) {
+        LongIntCounter pairs = lines.size() == 0
+                ? new LongIntCounter(16)
+                : pool.invoke(new PairCountTask(lines, 0, lines.size()));
+
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(k, pairs);
+        pairs.forEach((pair, count) -> {
+            long a = pair >>> 32;
+            long b = pair & 0xFFFF_FFFFL;
+            matrix.neighboursOf(a).offer(b, count);
+            matrix.neighboursOf(b).offer(a, count);
+        });
+        return matrix;
+    }
+
+    private static final class PairCountTask extends RecursiveTask<LongIntCounter> {
+
+        private final OrderLines lines;
+        private final int        from;
+        private final int        to;
+
+        PairCountTask(OrderLines lines, int from, int to) {
+            this.lines = lines;
+            this.from  = from;
+            this.to    = to;
+        }
+
+        @Override
+        protected LongIntCounter compute() {
+            int mid = to - from > LEAF_LINES ? nextOrderStart(lines, from + (to - from) / 2, to) : to;
+            if (mid >= to) {
+                return countPairs(lines, from, to);
+            }
+            PairCountTask left = new PairCountTask(lines, from, mid);
+            left.fork();
+            LongIntCounter right  = new PairCountTask(lines, mid, to).compute();
+            LongIntCounter merged = left.join();
+
+            // Fold the smaller counter into the larger
+            if (merged.size() < right.size()) {
+                right.addAll(merged);
+                return right;
+            }
+            merged.addAll(right);
+            return merged;
+        }
+    }
+
+    // First line at or after i that starts a new order
+    private static int nextOrderStart(OrderLines lines, int i, int to) {
+        long[] orders = lines.orderIds();
+        while (i < to && i > 0 && orders[i] == orders[i - 1]) i++;
+        return i;
+    }
+
+    private static LongIntCounter countPairs(OrderLines lines, int from, int to) {
+        LongIntCounter counter = new LongIntCounter(Math.max(16, to - from));
+        long[] orders   = lines.orderIds();
+        long[] products = lines.productIds();
+
+        int start = from;
+        while (start < to) {
+            int end = start + 1;
+            while (end < to && orders[end] == orders[start]) end++;
+            countOrder(counter, distinct(products, start, end));
+            start = end;
+        }
+        return counter;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  INCREMENTAL
+    // ═══════════════════════════════════════════════════════════
+
+    /** Adds one order; returns the products whose top-K may have changed. */
+    Set<Long> addOrder(long[] productIds) {
+        long[] sorted = productIds.clone();
+        Arrays.sort(sorted);
+        long[] ids = distinct(sorted, 0, sorted.length);
+
+        Set<Long> touched = new HashSet<>();
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = i + 1; j < ids.length; j++) {
+                int count = pairs.add(pair(ids[i], ids[j]), 1);
+                neighboursOf(ids[i]).offer(ids[j], count);
+                neighboursOf(ids[j]).offer(ids[i], count);
+                touched.add(ids[i]);
+                touched.add(ids[j]);
+            }
+        }
+        return touched;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  READ
+    // ═══════════════════════════════════════════════════════════
+
+    /** Top-K neighbours, most co-purchased first. */
+    List<Neighbour> neighbours(long productId) {
+        Neighbours n = top.get(productId);
+        return n == null ? List.of() : n.ranked();
+    }
+
+    Set<Long> products() {
+        return Collections.unmodifiableSet(top.keySet());
+    }
+
+    int pairCount() {
+        return pairs.size();
+    }
+
+    private Neighbours neighboursOf(long productId) {
+        return top.computeIfAbsent(productId, id -> new Neighbours(k));
+    }
+
+    private static void countOrder(LongIntCounter counter, long[] ids) {
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = i + 1; j < ids.length; j++) {
+                counter.add(pair(ids[i], ids[j]), 1);
+            }
+        }
+    }
+
+    // Sorted input → ascending distinct ids that fit the pair code
+    private static long[] distinct(long[] sorted, int from, int to) {
+        long[] out = new long[to - from];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            long id = sorted[i];
+            if (id < 0 || id > Integer.MAX_VALUE) continue;
+            if (n == 0 || out[n - 1] != id) out[n++] = id;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // a < b
+    private static long pair(long a, long b) {
+        return (a << 32) | b;
+    }
+
+    /** Bounded top-K for one product — K is small, so linear scans beat a heap. */
+    private static final class Neighbours {
+
+        private final long[] ids;
+        private final int[]  counts;
+        private int          size;
+
+        Neighbours(int k) {
+            ids    = new long[k];
+            counts = new int[k];
+        }
+
+        void offer(long id, int count) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    counts[i] = count;
+                    return;
+                }
+            }
+            if (size < ids.length) {
+                ids[size]    = id;
+                counts[size] = count;
+                size++;
+                return;
+            }
+            int weakest = 0;
+            for (int i = 1; i < size; i++) {
+                if (counts[i] < counts[weakest]) weakest = i;
+            }
+            if (count > counts[weakest]) {
+                ids[weakest]    = id;
+                counts[weakest] = count;
+            }
+        }
+
+        List<Neighbour> ranked() {
+            List<Neighbour> ranked = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) ranked.add(new Neighbour(ids[i], counts[i]));
+            ranked.sort(Comparator.comparingInt(Neighbour::coPurchases).reversed()
+                    .thenComparingLong(Neighbour::productId));
+            return ranked;
+        }
+    }
+}
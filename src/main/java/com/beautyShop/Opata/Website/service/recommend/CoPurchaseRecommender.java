@@ -0,0 +1,277 @@
+package com.beautyShop.Opata.Website.service.recommend;
+
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CoPurchaseRecommender — "FREQUENTLY BOUGHT TOGETHER"
+ * ─────────────────────────────────────────────────
+ * Builds a CoPurchaseMatrix from every non-cancelled order and keeps the
+ * top TOP_K neighbours per product:
+ *   - in product_recommendations, so a restart serves them straight away
+ *   - in memory, so a product page costs one map lookup
+ *
+ * Rebuilt in the background once the application is ready (or on demand),
+ * then patched per order as OrderService.placeOrder commits, and a deleted
+ * product is dropped from every list as its CatalogChangedEvent commits.
+ * All matrix
+ * work runs on one worker thread, in submission order — no locks, and
+ * the order's request thread never waits for it.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class CoPurchaseRecommender {
+
+    public static final int TOP_K = 10;
+
+    private static final int LOAD_FETCH_SIZE = 5_000;
+
+    private final JdbcTemplate        jdbc;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readTx;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "co-purchase");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Worker thread only
+    private CoPurchaseMatrix matrix;
+    // Sorted ids of the orders the last build read. Ids are taken in insert order but
+    // committed in any order, so "id <= highest read" would drop a late-committing order
+    private long[]           builtOrderIds = new long[0];
+    // Deleted products, filtered out of every list the matrix produces; ids are never reused
+    private final Set<Long>  removed       = new HashSet<>();
+
+    private volatile Map<Long, List<Long>> recommendations = new ConcurrentHashMap<>();
+    private final AtomicLong               version         = new AtomicLong();
+
+    public CoPurchaseRecommender(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc   = new JdbcTemplate(Objects.requireNonNull(jdbc.getDataSource()));
+        this.jdbc.setFetchSize(LOAD_FETCH_SIZE);
+        this.tx     = new TransactionTemplate(transactionManager);
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  READ
+    // ═══════════════════════════════════════════════════════════
+
+    /** Ids of the products most often ordered together with this one, best first. */
+    public List<Long> recommendationsFor(Long productId) {
+        return recommendations.getOrDefault(productId, List.of());
+    }
+
+    /**
+     * Grows whenever the recommendations are replaced wholesale (startup load,
+     * rebuild) — part of the catalog ETag. Per-order patches need no bump: the
+     * same order changes stock, which bumps the catalog version.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BUILD + MAINTAIN
+    // ═══════════════════════════════════════════════════════════
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            recommendations = loadPersisted();
+            version.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.error("Loading stored recommendations failed", e);
+        }
+        worker.submit(() -> {
+            try {
+                rebuildNow();
+            } catch (RuntimeException e) {
+                // Not fatal — stored recommendations keep being served until a rebuild succeeds
+                log.error("Co-purchase matrix build failed", e);
+            }
+        });
+    }
+
+    /** Rebuilds from all orders and waits for it; returns how many products have recommendations. */
+    public int rebuild() {
+        try {
+            return worker.submit(this::rebuildNow).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding recommendations", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rebuilding recommendations failed", e.getCause());
+        }
+    }
+
+    // fallbackExecution — tests and scripts may place orders outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        worker.submit(() -> {
+            try {
+                addOrder(event);
+            } catch (RuntimeException e) {
+                // The next rebuild counts this order
+                log.error("Updating recommendations for order {} failed", event.orderId(), e);
+            }
+        });
+    }
+
+    // Only clothing is ordered, so only clothing can be recommended
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!event.isDeleted() || event.getType() != ProductType.CLOTHING) return;
+        worker.submit(() -> {
+            try {
+                removeProducts(event.getProductIds());
+            } catch (RuntimeException e) {
+                // Readers drop missing products anyway; the next rebuild forgets them for good
+                log.error("Removing deleted products {} from recommendations failed", event.getProductIds(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private int rebuildNow() {
+        long started = System.currentTimeMillis();
+        CoPurchaseMatrix.OrderLines lines = readTx.execute(status -> loadOrderLines());
+        CoPurchaseMatrix built = CoPurchaseMatrix.build(lines, TOP_K, ForkJoinPool.commonPool());
+
+        Map<Long, List<Long>> fresh = new ConcurrentHashMap<>();
+        built.products().forEach(id -> {
+            if (!removed.contains(id)) fresh.put(id, ids(built.neighbours(id)));
+        });
+        tx.executeWithoutResult(status -> {
+            jdbc.update("DELETE FROM product_recommendations");
+            insert(built, built.products());
+        });
+
+        matrix              = built;
+        builtOrderIds       = distinctOrderIds(lines);
+        recommendations     = fresh;
+        version.incrementAndGet();
+        log.info("Co-purchase matrix built: {} order lines, {} pairs, {} products in {} ms",
+                lines.size(), built.pairCount(), fresh.size(), System.currentTimeMillis() - started);
+        return fresh.size();
+    }
+
+    private void addOrder(OrderPlacedEvent event) {
+        // Not built yet, or the order was already read by the last build
+        if (matrix == null || Arrays.binarySearch(builtOrderIds, event.orderId()) >= 0) return;
+
+        Set<Long> touched = matrix.addOrder(event.productIds().stream().mapToLong(Long::longValue).toArray());
+        touched.removeAll(removed);
+        if (touched.isEmpty()) return;
+
+        tx.executeWithoutResult(status -> {
+            jdbc.batchUpdate("DELETE FROM product_recommendations WHERE product_id = ?",
+                    touched.stream().map(id -> new Object[]{id}).toList());
+            insert(matrix, touched);
+        });
+        touched.forEach(id -> recommendations.put(id, ids(matrix.neighbours(id))));
+    }
+
+    private void removeProducts(Set<Long> productIds) {
+        removed.addAll(productIds);
+
+        // The lists that recommended a deleted product lose it; its own list goes
+        Map<Long, List<Long>> trimmed = new HashMap<>();
+        recommendations.forEach((id, list) -> {
+            if (!productIds.contains(id) && list.stream().anyMatch(productIds::contains)) {
+                trimmed.put(id, list.stream().filter(r -> !productIds.contains(r)).toList());
+            }
+        });
+
+        tx.executeWithoutResult(status -> jdbc.batchUpdate(
+                "DELETE FROM product_recommendations WHERE product_id = ? OR recommended_id = ?",
+                productIds.stream().map(id -> new Object[]{id, id}).toList()));
+        productIds.forEach(recommendations::remove);
+        recommendations.putAll(trimmed);
+    }
+
+    private CoPurchaseMatrix.OrderLines loadOrderLines() {
+        long[][] columns = {new long[1024], new long[1024]};
+        int[] size = {0};
+        jdbc.query("""
+                SELECT oi.order_id, oi.product_id
+                FROM order_items oi JOIN orders o ON o.id = oi.order_id
+                WHERE o.status <> 'CANCELLED'
+                ORDER BY oi.order_id, oi.product_id""", rs -> {
+            if (size[0] == columns[0].length) {
+                columns[0] = Arrays.copyOf(columns[0], size[0] * 2);
+                columns[1] = Arrays.copyOf(columns[1], size[0] * 2);
+            }
+            columns[0][size[0]] = rs.getLong(1);
+            columns[1][size[0]] = rs.getLong(2);
+            size[0]++;
+        });
+        return new CoPurchaseMatrix.OrderLines(columns[0], columns[1], size[0]);
+    }
+
+    // Lines come ordered by order id
+    private static long[] distinctOrderIds(CoPurchaseMatrix.OrderLines lines) {
+        long[] ids = new long[lines.size()];
+        int n = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            long id = lines.orderIds()[i];
+            if (n == 0 || ids[n - 1] != id) ids[n++] = id;
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    private Map<Long, List<Long>> loadPersisted() {
+        Map<Long, List<Long>> loaded = new HashMap<>();
+        jdbc.query("SELECT product_id, recommended_id FROM product_recommendations " +
+                   "ORDER BY product_id, recommendation_rank",
+                rs -> { loaded.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2)); });
+
+        Map<Long, List<Long>> frozen = new ConcurrentHashMap<>();
+        loaded.forEach((id, list) -> frozen.put(id, List.copyOf(list)));
+        return frozen;
+    }
+
+    private void insert(CoPurchaseMatrix source, Collection<Long> productIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long productId : productIds) {
+            List<CoPurchaseMatrix.Neighbour> neighbours = source.neighbours(productId);
+            if (removed.contains(productId)) continue;
+            int rank = 0;
+            for (CoPurchaseMatrix.Neighbour n : neighbours) {
+                if (removed.contains(n.productId())) continue;
+                rows.add(new Object[]{productId, n.productId(), n.coPurchases(), rank++});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO product_recommendations " +
+                         "(product_id, recommended_id, co_purchases, recommendation_rank) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    private List<Long> ids(List<CoPurchaseMatrix.Neighbour> neighbours) {
+        return neighbours.stream().map(CoPurchaseMatrix.Neighbour::productId)
+                .filter(id -> !removed.contains(id)).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.beautyShop.Opata.Website.service.recommend;
+
+import java.util.Arrays;
+
+/**
+ * Counts per non-negative long key, without boxing.
+ * ─────────────────────────────────────────────────
+ * Open addressing with linear probing over parallel long[]/int[] arrays,
+ * kept at most half full. A co-purchase pair costs 12 bytes of table
+ * instead of a Long, an Integer and a HashMap node.
+ * Not thread-safe — each fork-join task fills its own and they are merged.
+ * ─────────────────────────────────────────────────
+ */
+final class LongIntCounter {
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, int count);
+    }
+
+    // Keys are pair codes (see CoPurchaseMatrix.pair) and never negative
+    private static final long FREE = -1L;
+
+    private long[] keys;
+    private int[]  counts;
+    private int    size;
+
+    LongIntCounter(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys   = new long[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    /** Adds delta to the key's count and returns the new count. */
+    int add(long key, int delta) {
+        int slot = slotOf(keys, key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            counts[slot] = delta;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return delta;
+        }
+        return counts[slot] += delta;
+    }
+
+    int get(long key) {
+        int slot = slotOf(keys, key);
+        return keys[slot] == FREE ? 0 : counts[slot];
+    }
+
+    void addAll(LongIntCounter other) {
+        other.forEach(this::add);
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) consumer.accept(keys[i], counts[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys   = keys;
+        int[]  oldCounts = counts;
+        keys   = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) continue;
+            int slot = slotOf(keys, oldKeys[i]);
+            keys[slot]   = oldKeys[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+    // Slot holding the key, or the free slot where it would go
+    private static int slotOf(long[] table, long key) {
+        int mask = table.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (table[slot] != FREE && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,10 @@
+package com.beautyShop.Opata.Website.service.recommend;
+
+import java.util.List;
+
+/**
+ * Published by OrderService.placeOrder; handled after the order commits.
+ * One entry per order line — quantities.get(i) units of productIds.get(i).
+ */
+public record OrderPlacedEvent(Long orderId, List<Long> productIds, List<Integer> quantities) {
+}
@@ -0,0 +1,216 @@
+package com.beautyShop.Opata.Website.service.recommend;
+
+import com.beautyShop.Opata.Website.entity.GeneralProduct;
+import com.beautyShop.Opata.Website.entity.Product;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SimilarProductIndex — "SIMILAR PRODUCTS"
+ * ─────────────────────────────────────────────────
+ * Content-based neighbours for every product, so new products get
+ * recommendations before they have any order history (see
+ * CoPurchaseRecommender for those that do).
+ *   - Features: stemmed words of the name (weighted up), description,
+ *     material and style, plus exact brand, category, sub-category,
+ *     tags and attribute key=value pairs
+ *   - One TfIdfSpace per product type; neighbours are the top TOP_K by cosine
+ *   - Built at startup, patched per CatalogChangedEvent batch —
+ *     stock-only changes leave the features alone and cost nothing
+ *
+ * Lookups read a published map: no locks, no queries.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class SimilarProductIndex {
+
+    public static final int TOP_K = 10;
+
+    // Feature weights — a shared word in the name says more than one in the description
+    private static final float NAME        = 3.0f;
+    private static final float BRAND       = 2.0f;
+    private static final float TAG         = 2.0f;
+    private static final float CATEGORY    = 1.5f;
+    private static final float ATTRIBUTE   = 1.5f;
+    private static final float MATERIAL    = 1.5f;
+    private static final float DESCRIPTION = 1.0f;
+
+    private final ProductRepository        productRepository;
+    private final GeneralProductRepository generalProductRepository;
+    private final TransactionTemplate      readTx;
+    private final Analyzer                 analyzer = new EnglishAnalyzer();
+
+    // Guarded by this
+    private TfIdfSpace clothingSpace;
+    private TfIdfSpace generalSpace;
+
+    private volatile Map<Long, List<Long>> clothing = new ConcurrentHashMap<>();
+    private volatile Map<Long, List<Long>> general  = new ConcurrentHashMap<>();
+    private final AtomicLong               version  = new AtomicLong();
+
+    public SimilarProductIndex(ProductRepository productRepository,
+                               GeneralProductRepository generalProductRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.productRepository        = productRepository;
+        this.generalProductRepository = generalProductRepository;
+
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTx.setReadOnly(true);
+    }
+
+    /** Ids of the most similar products of the same type, best first. */
+    public List<Long> similarTo(ProductType type, Long productId) {
+        Map<Long, List<Long>> lists = type == ProductType.GENERAL ? general : clothing;
+        return lists.getOrDefault(productId, List.of());
+    }
+
+    /** Grows on every full rebuild — part of the catalog ETag; per-product patches follow catalog writes. */
+    public long version() {
+        return version.get();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BUILD + MAINTAIN
+    // ═══════════════════════════════════════════════════════════
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Not fatal — similar-product lists stay empty until a rebuild succeeds
+            log.error("Similar products index build failed", e);
+        }
+    }
+
+    /** Re-reads both catalogs and recomputes every neighbour list. Returns the number of products. */
+    public synchronized int rebuild() {
+        long started = System.currentTimeMillis();
+        Map<Long, Map<String, Float>> clothingFeatures = new HashMap<>();
+        Map<Long, Map<String, Float>> generalFeatures  = new HashMap<>();
+        readTx.executeWithoutResult(tx -> {
+            productRepository.findAll().forEach(p -> clothingFeatures.put(p.getId(), features(p)));
+            generalProductRepository.findAll().forEach(p -> generalFeatures.put(p.getId(), features(p)));
+        });
+
+        clothingSpace = TfIdfSpace.build(clothingFeatures, TOP_K);
+        generalSpace  = TfIdfSpace.build(generalFeatures, TOP_K);
+        clothing = publish(clothingSpace);
+        general  = publish(generalSpace);
+        version.incrementAndGet();
+
+        int count = clothingFeatures.size() + generalFeatures.size();
+        log.info("Similar products index built: {} products in {} ms", count, System.currentTimeMillis() - started);
+        return count;
+    }
+
+    // fallbackExecution — admin writes are not transactional, so the event may arrive outside one
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (clothingSpace == null) return;   // the startup build will pick the change up
+        try {
+            boolean isClothing = event.getType() == ProductType.CLOTHING;
+            TfIdfSpace space = isClothing ? clothingSpace : generalSpace;
+            Map<Long, List<Long>> lists = isClothing ? clothing : general;
+
+            // One IN query for the batch; ids not found were deleted
+            Map<Long, Map<String, Float>> found = event.isDeleted() ? Map.of() : readTx.execute(tx -> {
+                Map<Long, Map<String, Float>> f = new HashMap<>();
+                if (isClothing) productRepository.findByIdIn(event.getProductIds()).forEach(p -> f.put(p.getId(), features(p)));
+                else generalProductRepository.findByIdIn(event.getProductIds()).forEach(p -> f.put(p.getId(), features(p)));
+                return f;
+            });
+
+            // Neighbour lists are recomputed once per batch, not once per product
+            Set<Long> changed = new HashSet<>();
+            for (Long id : event.getProductIds()) {
+                Map<String, Float> f = found != null ? found.get(id) : null;
+                changed.addAll(f != null ? space.upsert(id, f) : space.remove(id));
+            }
+
+            changed.forEach(id -> {
+                if (space.products().contains(id)) lists.put(id, space.similar(id));
+                else lists.remove(id);
+            });
+            event.getProductIds().forEach(id -> { if (!space.products().contains(id)) lists.remove(id); });
+        } catch (RuntimeException e) {
+            log.error("Similar products update failed for {} {}", event.getType(), event.getProductIds(), e);
+        }
+    }
+
+    private static Map<Long, List<Long>> publish(TfIdfSpace space) {
+        Map<Long, List<Long>> lists = new ConcurrentHashMap<>();
+        space.products().forEach(id -> lists.put(id, space.similar(id)));
+        return lists;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  FEATURES
+    // ═══════════════════════════════════════════════════════════
+
+    private Map<String, Float> features(Product p) {
+        Map<String, Float> f = new HashMap<>();
+        words(f, p.getName(), NAME);
+        words(f, p.getDescription(), DESCRIPTION);
+        words(f, p.getMaterial(), MATERIAL);
+        words(f, p.getStyle(), MATERIAL);
+        exact(f, "brand", p.getBrand(), BRAND);
+        exact(f, "category", p.getCategory(), CATEGORY);
+        exact(f, "sub", p.getSubCategory() != null ? p.getSubCategory().name() : null, CATEGORY);
+        return f;
+    }
+
+    private Map<String, Float> features(GeneralProduct p) {
+        Map<String, Float> f = new HashMap<>();
+        words(f, p.getName(), NAME);
+        words(f, p.getDescription(), DESCRIPTION);
+        exact(f, "brand", p.getBrand(), BRAND);
+        exact(f, "category", p.getCategory(), CATEGORY);
+        exact(f, "sub", p.getSubCategory(), CATEGORY);
+        if (p.getTags() != null) p.getTags().forEach(t -> exact(f, "tag", t, TAG));
+        if (p.getAttributes() != null) {
+            p.getAttributes().forEach((key, value) -> exact(f, "attr", key + "=" + value, ATTRIBUTE));
+        }
+        return f;
+    }
+
+    private void words(Map<String, Float> f, String text, float weight) {
+        if (text == null || text.isBlank()) return;
+        try (TokenStream ts = analyzer.tokenStream("text", text)) {
+            CharTermAttribute term = ts.addAttribute(CharTermAttribute.class);
+            ts.reset();
+            while (ts.incrementToken()) f.merge(term.toString(), weight, Float::sum);
+            ts.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // "brand:nike" — never collides with a word, which has no colon
+    private static void exact(Map<String, Float> f, String kind, String value, float weight) {
+        if (value == null || value.isBlank()) return;
+        f.merge(kind + ":" + value.trim().toLowerCase(Locale.ROOT), weight, Float::sum);
+    }
+}
@@ -0,0 +1,181 @@
+package com.beautyShop.Opata.Website.service.recommend;
+
+import java.util.*;
+
+/**
+ * TF-IDF vectors for one product type, and each product's top-K cosine neighbours.
+ * ─────────────────────────────────────────────────
+ * A product is a bag of weighted features (stemmed words, "brand:nike",
+ * "tag:sale" …). Its vector is (1 + ln tf) · idf per feature, L2-normalised,
+ * so a dot product is the cosine. Vectors are stored as postings —
+ * feature → (product → weight) — and a product's similarities to every
+ * other product come from walking the postings of its own features only.
+ *
+ * The bulk build scores all products in parallel (read-only by then). Single
+ * upserts and removals patch the affected neighbour lists; idf is not
+ * recomputed for products that did not change, which drifts slightly until
+ * the next rebuild.
+ * Not thread-safe for writes; SimilarProductIndex serialises them.
+ * ─────────────────────────────────────────────────
+ */
+final class TfIdfSpace {
+
+    record Scored(long productId, float score) {}
+
+    private static final Comparator<Scored> BEST_FIRST = Comparator
+            .comparingDouble(Scored::score).reversed()
+            .thenComparingLong(Scored::productId);
+
+    private final int k;
+
+    private final Map<Long, Map<String, Float>> features  = new HashMap<>();
+    private final Map<String, Integer>          documents = new HashMap<>();   // feature → products having it
+    private final Map<String, Map<Long, Float>> postings  = new HashMap<>();
+    private final Map<Long, List<Scored>>       top       = new HashMap<>();
+
+    private TfIdfSpace(int k) {
+        this.k = k;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BUILD
+    // ═══════════════════════════════════════════════════════════
+
+    static TfIdfSpace build(Map<Long, Map<String, Float>> products, int k) {
+        TfIdfSpace space = new TfIdfSpace(k);
+        products.forEach((id, f) -> {
+            space.features.put(id, f);
+            f.keySet().forEach(term -> space.documents.merge(term, 1, Integer::sum));
+        });
+        space.features.forEach(space::index);
+
+        // Postings are complete and no longer written — score every product in parallel
+        Map<Long, List<Scored>> scored = new HashMap<>();
+        space.features.keySet().parallelStream()
+                .map(id -> Map.entry(id, space.topOf(space.similarities(id))))
+                .toList()
+                .forEach(e -> scored.put(e.getKey(), e.getValue()));
+        space.top.putAll(scored);
+        return space;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  INCREMENTAL
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Adds or replaces a product. Returns the products whose neighbour list
+     * changed, or an empty set when its features are the same as before.
+     */
+    Set<Long> upsert(long id, Map<String, Float> f) {
+        if (f.equals(features.get(id))) return Set.of();
+
+        Set<Long> changed = new HashSet<>(remove(id));
+        features.put(id, f);
+        f.keySet().forEach(term -> documents.merge(term, 1, Integer::sum));
+        index(id, f);
+
+        Map<Long, Float> sims = similarities(id);
+        top.put(id, topOf(sims));
+        changed.add(id);
+
+        // Similarity is symmetric — offer the product to everyone it scored against
+        sims.forEach((other, score) -> {
+            if (offer(other, new Scored(id, score))) changed.add(other);
+        });
+        return changed;
+    }
+
+    /** Removes a product. Returns the products whose neighbour list changed. */
+    Set<Long> remove(long id) {
+        Map<String, Float> old = features.remove(id);
+        if (old == null) return Set.of();
+
+        old.keySet().forEach(term -> {
+            documents.computeIfPresent(term, (t, n) -> n > 1 ? n - 1 : null);
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) postings.remove(term);
+            }
+        });
+        top.remove(id);
+
+        // Lists that held it have a free slot now — rescore those products
+        Set<Long> changed = new HashSet<>();
+        top.forEach((other, list) -> {
+            if (list.stream().anyMatch(s -> s.productId() == id)) changed.add(other);
+        });
+        changed.forEach(other -> top.put(other, topOf(similarities(other))));
+        return changed;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  READ
+    // ═══════════════════════════════════════════════════════════
+
+    List<Long> similar(long id) {
+        List<Scored> list = top.get(id);
+        return list == null ? List.of() : list.stream().map(Scored::productId).toList();
+    }
+
+    Set<Long> products() {
+        return Collections.unmodifiableSet(features.keySet());
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  VECTORS
+    // ═══════════════════════════════════════════════════════════
+
+    private void index(long id, Map<String, Float> f) {
+        int n = features.size();
+        Map<String, Float> vector = new HashMap<>();
+        double norm = 0;
+        for (Map.Entry<String, Float> e : f.entrySet()) {
+            double tf  = 1 + Math.log(Math.max(1f, e.getValue()));
+            double idf = Math.log((1.0 + n) / (1.0 + documents.getOrDefault(e.getKey(), 0))) + 1;
+            double w   = tf * idf;
+            vector.put(e.getKey(), (float) w);
+            norm += w * w;
+        }
+        float length = (float) Math.sqrt(norm);
+        if (length == 0) return;
+        vector.forEach((term, w) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, w / length));
+    }
+
+    // Cosine to every product sharing at least one feature
+    private Map<Long, Float> similarities(long id) {
+        Map<Long, Float> scores = new HashMap<>();
+        for (String term : features.getOrDefault(id, Map.of()).keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting == null) continue;
+            Float own = posting.get(id);
+            if (own == null) continue;
+            posting.forEach((other, w) -> {
+                if (other != id) scores.merge(other, own * w, Float::sum);
+            });
+        }
+        return scores;
+    }
+
+    private List<Scored> topOf(Map<Long, Float> scores) {
+        return scores.entrySet().stream()
+                .map(e -> new Scored(e.getKey(), e.getValue()))
+                .sorted(BEST_FIRST)
+                .limit(k)
+                .toList();
+    }
+
+    // Puts the candidate into the product's list if it belongs there; true when the list changed
+    private boolean offer(long productId, Scored candidate) {
+        List<Scored> current = top.getOrDefault(productId, List.of());
+        if (current.size() >= k && BEST_FIRST.compare(candidate, current.getLast()) > 0) {
+            return false;
+        }
+        List<Scored> next = new ArrayList<>(current);
+        next.add(candidate);
+        next.sort(BEST_FIRST);
+        top.put(productId, List.copyOf(next.subList(0, Math.min(k, next.size()))));
+        return true;
+    }
+}
@@ -0,0 +1,464 @@
+package com.beautyShop.Opata.Website.service.search;
+
+import com.beautyShop.Opata.Website.entity.ClothingColor;
+import com.beautyShop.Opata.Website.entity.GeneralProduct;
+import com.beautyShop.Opata.Website.entity.Product;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ProductSearchIndex — KEYWORD SEARCH
+ * ─────────────────────────────────────────────────
+ * Embedded, in-memory Lucene index over both product types.
+ *   - English stemming ("dresses" finds "dress"), BM25 ranking
+ *   - Field boosts: a hit in the name outranks one in the description
+ *   - The last word also matches as a prefix, for search-as-you-type
+ *   - Rebuilt from the database at startup (or via the admin reindex
+ *     endpoint) and kept current from CatalogChangedEvent, near-real-time
+ *
+ * Until the first build completes isReady() is false and keyword search
+ * falls back to substring matching. A failed build is retried every
+ * RETRY_SECONDS; a failed near-real-time update puts its product ids back
+ * in a queue that is re-read on the same timer, so the index catches up
+ * with the database without an admin reindex.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class ProductSearchIndex {
+
+    public static final int RETRY_SECONDS = 30;
+
+    private static final String KEY  = "key";    // "CLOTHING:42" — unique per product
+    private static final String TYPE = "type";
+    private static final String ID   = "id";
+
+    // Searched fields and their boosts
+    private static final Map<String, Float> FIELDS = new LinkedHashMap<>();
+    static {
+        FIELDS.put("name",        4.0f);
+        FIELDS.put("brand",       2.5f);
+        FIELDS.put("tags",        2.0f);   // general: tags — clothing: style + colors
+        FIELDS.put("category",    1.5f);
+        FIELDS.put("subCategory", 1.5f);
+        FIELDS.put("material",    1.5f);
+        FIELDS.put("description", 1.0f);
+    }
+
+    public record Hit(long productId, float score) {}
+
+    private final ProductRepository        productRepository;
+    private final GeneralProductRepository generalProductRepository;
+    private final TransactionTemplate      readTx;
+
+    private final Analyzer        analyzer = new EnglishAnalyzer();
+    private final IndexWriter     writer;
+    private final SearcherManager searchers;
+
+    private volatile boolean ready;
+    private final AtomicLong version = new AtomicLong();
+
+    // Product ids whose update failed, per type, until a retry re-reads them
+    private final Map<ProductType, Set<Long>> failed = new EnumMap<>(ProductType.class);
+    private final AtomicBoolean               retryScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService retrier = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-index");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              GeneralProductRepository generalProductRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.productRepository        = productRepository;
+        this.generalProductRepository = generalProductRepository;
+
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTx.setReadOnly(true);
+
+        for (ProductType type : ProductType.values()) failed.put(type, ConcurrentHashMap.newKeySet());
+
+        try {
+            // BM25 is Lucene's default similarity
+            this.writer    = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+            this.searchers = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open product search index", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Grows on every full build (0 until the first) — part of the catalog ETag. */
+    public long version() {
+        return version.get();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  SEARCH
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Every match of one product type, best first; equal scores are ordered by
+     * descending id so results can be keyset-paginated on (score, id). Not
+     * capped — relevance pages reach the same total that matchingIds counts.
+     */
+    public List<Hit> search(ProductType type, String text) {
+        IndexSearcher searcher = null;
+        try {
+            searcher = searchers.acquire();
+            Query query = buildQuery(type, text, FieldInfos.getIndexedFields(searcher.getIndexReader()));
+            if (query == null) return List.of();
+
+            int matches = searcher.count(query);
+            if (matches == 0) return List.of();
+            TopDocs top = searcher.search(query, matches);
+            StoredFields stored = searcher.storedFields();
+
+            List<Hit> hits = new ArrayList<>(top.scoreDocs.length);
+            for (ScoreDoc sd : top.scoreDocs) {
+                long id = stored.document(sd.doc, Set.of(ID)).getField(ID).numericValue().longValue();
+                hits.add(new Hit(id, sd.score));
+            }
+            hits.sort(Comparator.comparingDouble((Hit h) -> h.score()).reversed()
+                    .thenComparing(Comparator.comparingLong(Hit::productId).reversed()));
+            return hits;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Product search failed", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /** Ids of every match, unranked and uncapped — for keyword search under a catalog sort, and for counts. */
+    public Set<Long> matchingIds(ProductType type, String text) {
+        IndexSearcher searcher = null;
+        try {
+            searcher = searchers.acquire();
+            Query query = buildQuery(type, text, FieldInfos.getIndexedFields(searcher.getIndexReader()));
+            if (query == null) return new HashSet<>();
+            return searcher.search(query, ALL_IDS);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Product search failed", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    // Every match's id, read from doc values — no scoring, no top-N queue
+    private static final class IdCollector extends SimpleCollector {
+
+        final Set<Long> ids = new HashSet<>();
+        private NumericDocValues values;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            values = DocValues.getNumeric(context.reader(), ID);
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            if (values.advanceExact(doc)) ids.add(values.longValue());
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+
+    private static final CollectorManager<IdCollector, Set<Long>> ALL_IDS = new CollectorManager<>() {
+        @Override
+        public IdCollector newCollector() {
+            return new IdCollector();
+        }
+
+        @Override
+        public Set<Long> reduce(Collection<IdCollector> collectors) {
+            Set<Long> ids = new HashSet<>();
+            collectors.forEach(c -> ids.addAll(c.ids));
+            return ids;
+        }
+    };
+
+    // Every word must match in some field; the last one may also be a prefix
+    private Query buildQuery(ProductType type, String text, Collection<String> indexedFields) {
+        if (text == null || text.isBlank()) return null;
+
+        // Fields no document has yet carry no statistics to score against
+        Map<String, Float> fields = new LinkedHashMap<>(FIELDS);
+        fields.keySet().retainAll(indexedFields);
+        if (fields.isEmpty()) return null;
+
+        List<String> terms = analyze(text);
+        String[] words = text.trim().toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        String lastWord = words.length > 0 ? words[words.length - 1] : "";
+
+        // The prefix only rides on the last term if the last word produced it: in "red the"
+        // the stopword yields no term, and "the*" must not turn the clause for "red" into red OR the*
+        List<String> lastWordTerms = lastWord.isEmpty() ? List.of() : analyze(lastWord);
+        boolean lastWordMadeLastTerm = !terms.isEmpty() && !lastWordTerms.isEmpty()
+                && terms.getLast().equals(lastWordTerms.getLast());
+
+        BooleanQuery.Builder all = new BooleanQuery.Builder();
+        all.add(new TermQuery(new Term(TYPE, type.name())), BooleanClause.Occur.FILTER);
+
+        for (int i = 0; i < terms.size(); i++) {
+            boolean last = i == terms.size() - 1;
+            all.add(anyField(fields, terms.get(i), last && lastWordMadeLastTerm ? lastWord : null),
+                    BooleanClause.Occur.MUST);
+        }
+        if (terms.isEmpty()) {
+            if (lastWord.isEmpty()) return null;
+            all.add(anyField(fields, null, lastWord), BooleanClause.Occur.MUST);
+        }
+        return all.build();
+    }
+
+    private static Query anyField(Map<String, Float> fields, String term, String prefix) {
+        BooleanQuery.Builder any = new BooleanQuery.Builder();
+        if (term != null) {
+            // Blended: one document frequency across all fields, so a word that is
+            // rare in brand but common in names cannot outrank a name match
+            BlendedTermQuery.Builder blended = new BlendedTermQuery.Builder()
+                    .setRewriteMethod(BlendedTermQuery.BOOLEAN_REWRITE);
+            fields.forEach((field, boost) -> blended.add(new Term(field, term), boost));
+            any.add(blended.build(), BooleanClause.Occur.SHOULD);
+        }
+        if (prefix != null && !prefix.isEmpty()) {
+            // Half weight — a whole-word match should outrank a partial one
+            fields.forEach((field, boost) -> any.add(
+                    new BoostQuery(new PrefixQuery(new Term(field, prefix)), boost / 2), BooleanClause.Occur.SHOULD));
+        }
+        return any.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream ts = analyzer.tokenStream("name", text)) {
+            CharTermAttribute term = ts.addAttribute(CharTermAttribute.class);
+            ts.reset();
+            while (ts.incrementToken()) terms.add(term.toString());
+            ts.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BUILD + MAINTAIN
+    // ═══════════════════════════════════════════════════════════
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Not fatal — keyword search keeps using substring matching until a retry succeeds
+            log.error("Product search index build failed, keyword search falls back to substring matching"
+                    + " — retrying in {} s", RETRY_SECONDS, e);
+            retrier.schedule(this::buildOnStartup, RETRY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Drops the index and re-reads every product from the database. Returns the number indexed. */
+    public synchronized int rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            writer.deleteAll();
+            // Every product is re-read below — failed updates queued so far are covered
+            failed.values().forEach(Set::clear);
+            int count = Objects.requireNonNull(readTx.execute(tx -> {
+                int n = 0;
+                for (Product p : productRepository.findAll())        { add(document(p)); n++; }
+                for (GeneralProduct p : generalProductRepository.findAll()) { add(document(p)); n++; }
+                return n;
+            }));
+            writer.commit();
+            searchers.maybeRefreshBlocking();
+            ready = true;
+            version.incrementAndGet();
+            log.info("Product search index built: {} products in {} ms", count, System.currentTimeMillis() - started);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Product search index rebuild failed", e);
+        }
+    }
+
+    // fallbackExecution — admin writes are not transactional, so the event may arrive outside one
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (!ready) return;   // the startup build will pick the change up
+        try {
+            update(event.getType(), event.getProductIds(), event.isDeleted());
+        } catch (IOException | RuntimeException e) {
+            requeue(event.getType(), event.getProductIds(), e);
+        }
+    }
+
+    /** Re-reads every product whose update failed; returns how many were re-read. */
+    public synchronized int applyFailed() {
+        int applied = 0;
+        for (ProductType type : ProductType.values()) {
+            Set<Long> queued = failed.get(type);
+            if (queued.isEmpty()) continue;
+            List<Long> ids = List.copyOf(queued);
+            queued.removeAll(ids);
+            try {
+                // Re-read as upserts: a deleted product is no longer found and is removed
+                update(type, ids, false);
+                applied += ids.size();
+            } catch (IOException | RuntimeException e) {
+                requeue(type, ids, e);
+            }
+        }
+        return applied;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        retrier.shutdownNow();
+        searchers.close();
+        writer.close();
+    }
+
+    private void update(ProductType type, Collection<Long> ids, boolean deleted) throws IOException {
+        // One IN query for the batch; ids not found were deleted or never existed
+        Map<Long, Document> docs = deleted ? Map.of() : readTx.execute(tx -> {
+            Map<Long, Document> found = new HashMap<>();
+            switch (type) {
+                case CLOTHING -> productRepository.findByIdIn(ids)
+                        .forEach(p -> found.put(p.getId(), document(p)));
+                case GENERAL  -> generalProductRepository.findByIdIn(ids)
+                        .forEach(p -> found.put(p.getId(), document(p)));
+            }
+            return found;
+        });
+
+        for (Long id : ids) {
+            Term key = new Term(KEY, key(type, id));
+            Document doc = docs != null ? docs.get(id) : null;
+            if (doc != null) writer.updateDocument(key, doc);
+            else writer.deleteDocuments(key);
+        }
+
+        // Near-real-time: visible to the next search without a commit
+        searchers.maybeRefreshBlocking();
+    }
+
+    private void requeue(ProductType type, Collection<Long> ids, Exception e) {
+        log.error("Search index update failed for {} {} — retrying in {} s", type, ids, RETRY_SECONDS, e);
+        failed.get(type).addAll(ids);
+        if (retryScheduled.compareAndSet(false, true)) {
+            retrier.schedule(() -> {
+                retryScheduled.set(false);
+                applyFailed();
+            }, RETRY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void add(Document doc) {
+        try {
+            writer.addDocument(doc);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  DOCUMENTS
+    // ═══════════════════════════════════════════════════════════
+
+    private Document document(Product p) {
+        Document doc = base(ProductType.CLOTHING, p.getId());
+        text(doc, "name",        p.getName());
+        text(doc, "brand",       p.getBrand());
+        text(doc, "category",    p.getCategory());
+        text(doc, "subCategory", p.getSubCategory() != null ? p.getSubCategory().name().replace('_', ' ') : null);
+        text(doc, "material",    p.getMaterial());
+        text(doc, "description", p.getDescription());
+        text(doc, "tags",        p.getStyle());
+        if (p.getAvailableColors() != null) {
+            for (ClothingColor c : p.getAvailableColors()) text(doc, "tags", c.name().replace('_', ' '));
+        }
+        return doc;
+    }
+
+    private Document document(GeneralProduct p) {
+        Document doc = base(ProductType.GENERAL, p.getId());
+        text(doc, "name",        p.getName());
+        text(doc, "brand",       p.getBrand());
+        text(doc, "category",    p.getCategory());
+        text(doc, "subCategory", p.getSubCategory());
+        text(doc, "description", p.getDescription());
+        if (p.getTags() != null) p.getTags().forEach(t -> text(doc, "tags", t));
+        return doc;
+    }
+
+    private static Document base(ProductType type, Long id) {
+        Document doc = new Document();
+        doc.add(new StringField(KEY, key(type, id), Field.Store.NO));
+        doc.add(new StringField(TYPE, type.name(), Field.Store.NO));
+        doc.add(new StoredField(ID, id));
+        doc.add(new NumericDocValuesField(ID, id));
+        return doc;
+    }
+
+    private static void text(Document doc, String field, String value) {
+        if (value != null && !value.isBlank()) doc.add(new TextField(field, value, Field.Store.NO));
+    }
+
+    private static String key(ProductType type, Long id) {
+        return type.name() + ":" + id;
+    }
+
+    private void release(IndexSearcher searcher) {
+        if (searcher == null) return;
+        try {
+            searchers.release(searcher);
+        } catch (IOException e) {
+            log.warn("Could not release index searcher", e);
+        }
+    }
+}
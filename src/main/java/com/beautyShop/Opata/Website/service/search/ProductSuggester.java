@@ -0,0 +1,326 @@
+package com.beautyShop.Opata.Website.service.search;
+
+import com.beautyShop.Opata.Website.dto.Suggestion;
+import com.beautyShop.Opata.Website.entity.GeneralProduct;
+import com.beautyShop.Opata.Website.entity.Product;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.OrderItemRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * ProductSuggester — SEARCH-BOX AUTOCOMPLETE
+ * ─────────────────────────────────────────────────
+ * One SuggestTrie per product type over product names, brands, categories
+ * and (general) tags. Every word start is a key, so "dre" finds "Red Summer Dress".
+ *
+ * Ranking, best first:
+ *   - anything with stock left outranks what is sold out
+ *   - then units sold (order history), then how many products share the term
+ *
+ * Built at startup, then patched from each CatalogChangedEvent batch:
+ * only the suggestions those products contribute to are re-weighted,
+ * and only their trie paths are copied.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class ProductSuggester {
+
+    public static final int MAX_LIMIT = SuggestTrie.TOP;
+
+    // Sold-out suggestions sink below every in-stock one, whatever their sales
+    private static final long IN_STOCK_BONUS = 1L << 40;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ProductRepository        productRepository;
+    private final GeneralProductRepository generalProductRepository;
+    private final OrderItemRepository      orderItemRepository;
+    private final TransactionTemplate      readTx;
+
+    // Written under the monitor; the tries are immutable and read lock-free
+    private final Map<ProductType, Map<Long, Contribution>> contributions = new EnumMap<>(ProductType.class);
+    private final Map<ProductType, Map<String, TermStats>>  terms         = new EnumMap<>(ProductType.class);
+    private volatile Map<ProductType, SuggestTrie>          tries;
+
+    /** What one product adds to the suggestions it appears in. */
+    private record Contribution(Map<String, Suggestion> terms, boolean inStock, long sold) {}
+
+    /** Totals of every product sharing one suggestion. */
+    private static final class TermStats {
+        final Suggestion suggestion;
+        int  products;
+        int  inStock;
+        long sold;
+        // PRODUCT suggestions: every product with this name — the suggestion opens the best of them
+        final Set<Long> productIds = new HashSet<>();
+
+        TermStats(Suggestion suggestion) {
+            this.suggestion = suggestion;
+        }
+
+        long weight() {
+            return (inStock > 0 ? IN_STOCK_BONUS : 0) + sold + products;
+        }
+    }
+
+    public ProductSuggester(ProductRepository productRepository,
+                            GeneralProductRepository generalProductRepository,
+                            OrderItemRepository orderItemRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.productRepository        = productRepository;
+        this.generalProductRepository = generalProductRepository;
+        this.orderItemRepository      = orderItemRepository;
+
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTx.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return tries != null;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  SUGGEST
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Best completions of what has been typed so far, from one product type
+     * or (type == null) from both. Empty until the first build completes.
+     */
+    public List<Suggestion> suggest(String prefix, ProductType type, int limit) {
+        Map<ProductType, SuggestTrie> current = tries;
+        String key = normalize(prefix);
+        if (current == null || key.isEmpty()) return List.of();
+
+        int n = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<SuggestTrie.Entry> entries = new ArrayList<>();
+        for (ProductType t : type != null ? List.of(type) : List.of(ProductType.values())) {
+            entries.addAll(current.get(t).lookup(key, n));
+        }
+        if (type == null) {
+            entries.sort(Comparator.comparingLong(SuggestTrie.Entry::weight).reversed());
+        }
+        return entries.stream().limit(n).map(SuggestTrie.Entry::suggestion).toList();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BUILD + MAINTAIN
+    // ═══════════════════════════════════════════════════════════
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Not fatal — the suggest endpoint answers with no suggestions until a rebuild succeeds
+            log.error("Autocomplete build failed", e);
+        }
+    }
+
+    /** Re-reads every product and its sales from the database. */
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        readTx.executeWithoutResult(tx -> {
+            Map<Long, Long> sold = new HashMap<>();
+            for (Object[] row : orderItemRepository.sumQuantityGroupedByProduct()) {
+                sold.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+
+            contributions.clear();
+            terms.clear();
+            for (ProductType t : ProductType.values()) {
+                contributions.put(t, new HashMap<>());
+                terms.put(t, new HashMap<>());
+            }
+            for (Product p : productRepository.findAll()) {
+                apply(ProductType.CLOTHING, p.getId(), contributionOf(p, sold.getOrDefault(p.getId(), 0L)));
+            }
+            for (GeneralProduct p : generalProductRepository.findAll()) {
+                apply(ProductType.GENERAL, p.getId(), contributionOf(p));
+            }
+        });
+
+        Map<ProductType, SuggestTrie> built = new EnumMap<>(ProductType.class);
+        for (ProductType t : ProductType.values()) {
+            Map<String, List<SuggestTrie.Entry>> byKey = new HashMap<>();
+            terms.get(t).forEach((id, stats) -> {
+                SuggestTrie.Entry entry = entry(t, id, stats);
+                for (String key : keysOf(stats.suggestion.text())) {
+                    byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+                }
+            });
+            built.put(t, SuggestTrie.build(byKey));
+        }
+        tries = built;
+        log.info("Autocomplete built: {} clothing, {} general suggestions in {} ms",
+                terms.get(ProductType.CLOTHING).size(), terms.get(ProductType.GENERAL).size(),
+                System.currentTimeMillis() - started);
+    }
+
+    // fallbackExecution — admin writes are not transactional, so the event may arrive outside one
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (!isReady()) return;   // the startup build will pick the change up
+        ProductType type = event.getType();
+        Set<Long> ids = event.getProductIds();
+        try {
+            // One IN query for the products (and one for their sales); ids not found were deleted
+            Map<Long, Contribution> next = event.isDeleted() ? Map.of() : readTx.execute(tx -> {
+                Map<Long, Contribution> found = new HashMap<>();
+                switch (type) {
+                    case CLOTHING -> {
+                        Map<Long, Long> sold = new HashMap<>();
+                        for (Object[] row : orderItemRepository.sumQuantityGroupedByProductIn(ids)) {
+                            sold.put((Long) row[0], ((Number) row[1]).longValue());
+                        }
+                        productRepository.findByIdIn(ids).forEach(p ->
+                                found.put(p.getId(), contributionOf(p, sold.getOrDefault(p.getId(), 0L))));
+                    }
+                    case GENERAL -> generalProductRepository.findByIdIn(ids)
+                            .forEach(p -> found.put(p.getId(), contributionOf(p)));
+                }
+                return found;
+            });
+
+            Set<String> touched = new HashSet<>();
+            for (Long id : ids) touched.addAll(apply(type, id, next != null ? next.get(id) : null));
+
+            SuggestTrie trie = tries.get(type);
+            for (String termId : touched) {
+                TermStats stats = terms.get(type).get(termId);
+                Suggestion s = stats != null ? stats.suggestion : suggestionOf(termId, type);
+                for (String key : keysOf(s.text())) {
+                    trie = stats != null ? trie.with(key, entry(type, termId, stats)) : trie.without(key, termId);
+                }
+            }
+            Map<ProductType, SuggestTrie> updated = new EnumMap<>(tries);
+            updated.put(type, trie);
+            tries = updated;
+        } catch (RuntimeException e) {
+            log.error("Autocomplete update failed for {} {}", type, ids, e);
+        }
+    }
+
+    // Swaps one product's contribution; returns the ids of every suggestion whose totals moved
+    private Set<String> apply(ProductType type, Long productId, Contribution next) {
+        Map<String, TermStats> stats = terms.get(type);
+        Contribution previous = next != null
+                ? contributions.get(type).put(productId, next)
+                : contributions.get(type).remove(productId);
+
+        Set<String> touched = new HashSet<>();
+        if (previous != null) {
+            previous.terms().forEach((termId, s) -> {
+                TermStats t = stats.get(termId);
+                t.products--;
+                if (previous.inStock()) t.inStock--;
+                t.sold -= previous.sold();
+                t.productIds.remove(productId);
+                if (t.products == 0) stats.remove(termId);
+                touched.add(termId);
+            });
+        }
+        if (next != null) {
+            next.terms().forEach((termId, s) -> {
+                TermStats t = stats.computeIfAbsent(termId, k -> new TermStats(s));
+                t.products++;
+                if (next.inStock()) t.inStock++;
+                t.sold += next.sold();
+                if (s.kind() == Suggestion.Kind.PRODUCT) t.productIds.add(productId);
+                touched.add(termId);
+            });
+        }
+        return touched;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  TERMS
+    // ═══════════════════════════════════════════════════════════
+
+    private Contribution contributionOf(Product p, long sold) {
+        if (!Boolean.TRUE.equals(p.getIsAvailable())) return null;
+        Map<String, Suggestion> t = new HashMap<>();
+        term(t, Suggestion.Kind.PRODUCT,  ProductType.CLOTHING, p.getName(), p.getId());
+        term(t, Suggestion.Kind.BRAND,    ProductType.CLOTHING, p.getBrand(), null);
+        term(t, Suggestion.Kind.CATEGORY, ProductType.CLOTHING, p.getCategory(), null);
+        return new Contribution(t, p.getStock() != null && p.getStock() > 0, sold);
+    }
+
+    // General products are not sold through orders — they rank by stock and spread only
+    private Contribution contributionOf(GeneralProduct p) {
+        if (!Boolean.TRUE.equals(p.getIsAvailable())) return null;
+        Map<String, Suggestion> t = new HashMap<>();
+        term(t, Suggestion.Kind.PRODUCT,  ProductType.GENERAL, p.getName(), p.getId());
+        term(t, Suggestion.Kind.BRAND,    ProductType.GENERAL, p.getBrand(), null);
+        term(t, Suggestion.Kind.CATEGORY, ProductType.GENERAL, p.getCategory(), null);
+        if (p.getTags() != null) {
+            p.getTags().forEach(tag -> term(t, Suggestion.Kind.TAG, ProductType.GENERAL, tag, null));
+        }
+        return new Contribution(t, p.getStock() != null && p.getStock() > 0, 0);
+    }
+
+    private static void term(Map<String, Suggestion> terms, Suggestion.Kind kind, ProductType type,
+                             String text, Long productId) {
+        String key = normalize(text);
+        if (key.isEmpty()) return;
+        terms.putIfAbsent(kind + ":" + key, new Suggestion(text.trim(), kind, type, productId));
+    }
+
+    private SuggestTrie.Entry entry(ProductType type, String id, TermStats stats) {
+        Suggestion s = stats.suggestion;
+        if (s.kind() == Suggestion.Kind.PRODUCT) {
+            Long opens = bestOf(type, stats.productIds);
+            if (!Objects.equals(s.productId(), opens)) s = new Suggestion(s.text(), s.kind(), s.type(), opens);
+        }
+        return new SuggestTrie.Entry(id, s, stats.weight());
+    }
+
+    // Of the live products sharing a name: in stock first, then best selling, then the lowest id
+    private Long bestOf(ProductType type, Set<Long> productIds) {
+        Map<Long, Contribution> live = contributions.get(type);
+        Comparator<Long> better = Comparator
+                .comparing((Long id) -> live.get(id).inStock())
+                .thenComparingLong(id -> live.get(id).sold())
+                .thenComparing(Comparator.<Long>reverseOrder());
+        return productIds.stream().max(better).orElse(null);
+    }
+
+    // Only needed to find the keys of a suggestion that has just disappeared
+    private static Suggestion suggestionOf(String termId, ProductType type) {
+        int colon = termId.indexOf(':');
+        return new Suggestion(termId.substring(colon + 1),
+                Suggestion.Kind.valueOf(termId.substring(0, colon)), type, null);
+    }
+
+    // "Red Summer Dress" → "red summer dress", "summer dress", "dress"
+    static List<String> keysOf(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) return keys;
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        return WHITESPACE.matcher(text.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+}
@@ -0,0 +1,210 @@
+package com.beautyShop.Opata.Website.service.search;
+
+import com.beautyShop.Opata.Website.dto.Suggestion;
+
+import java.util.*;
+
+/**
+ * Immutable prefix tree for autocomplete.
+ * ─────────────────────────────────────────────────
+ * Every node caches the TOP best entries of its whole subtree, so a lookup
+ * is one walk down the prefix — no subtree scan, no sorting at query time.
+ * Children are kept in sorted char arrays rather than maps to stay compact.
+ *
+ * Updates copy only the nodes on the changed path (and recompute their
+ * cached tops); everything else is shared with the previous trie, which
+ * readers can keep using until the new root is published.
+ * ─────────────────────────────────────────────────
+ */
+final class SuggestTrie {
+
+    /** Most suggestions a single lookup can return. */
+    static final int TOP = 10;
+
+    /** One suggestion; {@code id} identifies it across the several paths it is stored under. */
+    record Entry(String id, Suggestion suggestion, long weight) {}
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator
+            .comparingLong(Entry::weight).reversed()
+            .thenComparing(e -> e.suggestion().text());
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Node    EMPTY_NODE = new Node(new char[0], new Node[0], NO_ENTRIES, NO_ENTRIES);
+
+    static final SuggestTrie EMPTY = new SuggestTrie(EMPTY_NODE);
+
+    private final Node root;
+
+    private SuggestTrie(Node root) {
+        this.root = root;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  READ
+    // ═══════════════════════════════════════════════════════════
+
+    /** Best entries stored under any key starting with the prefix, best first. */
+    List<Entry> lookup(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) return List.of();
+        return Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  BUILD — bulk, bottom-up
+    // ═══════════════════════════════════════════════════════════
+
+    /** Builds a trie from key → entries; an entry may appear under several keys. */
+    static SuggestTrie build(Map<String, List<Entry>> entriesByKey) {
+        Builder root = new Builder();
+        entriesByKey.forEach((key, entries) -> {
+            Builder b = root;
+            for (int i = 0; i < key.length(); i++) {
+                b = b.children.computeIfAbsent(key.charAt(i), c -> new Builder());
+            }
+            b.here.addAll(entries);
+        });
+        return new SuggestTrie(root.freeze());
+    }
+
+    private static final class Builder {
+        final TreeMap<Character, Builder> children = new TreeMap<>();
+        final List<Entry> here = new ArrayList<>();
+
+        Node freeze() {
+            char[] labels = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                nodes[i++] = child.getValue().freeze();
+            }
+            return Node.of(labels, nodes, here.toArray(NO_ENTRIES));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  COPY-ON-WRITE UPDATES
+    // ═══════════════════════════════════════════════════════════
+
+    /** New trie with the entry stored (or replaced, by id) under the key. */
+    SuggestTrie with(String key, Entry entry) {
+        return new SuggestTrie(put(root, key, 0, entry));
+    }
+
+    /** New trie without the entry under the key — this trie if it was not there. */
+    SuggestTrie without(String key, String id) {
+        Node updated = remove(root, key, 0, id);
+        if (updated == root) return this;
+        return new SuggestTrie(updated != null ? updated : EMPTY_NODE);
+    }
+
+    private static Node put(Node node, String key, int depth, Entry entry) {
+        if (node == null) node = EMPTY_NODE;
+        if (depth == key.length()) {
+            List<Entry> here = new ArrayList<>(node.here.length + 1);
+            for (Entry e : node.here) if (!e.id().equals(entry.id())) here.add(e);
+            here.add(entry);
+            return Node.of(node.labels, node.children, here.toArray(NO_ENTRIES));
+        }
+        char c = key.charAt(depth);
+        int i = Arrays.binarySearch(node.labels, c);
+        Node child = put(i >= 0 ? node.children[i] : null, key, depth + 1, entry);
+        return node.withChild(c, i, child);
+    }
+
+    // Returns the same node when nothing changed, null when the node ends up empty
+    private static Node remove(Node node, String key, int depth, String id) {
+        if (depth == key.length()) {
+            List<Entry> here = new ArrayList<>(node.here.length);
+            for (Entry e : node.here) if (!e.id().equals(id)) here.add(e);
+            if (here.size() == node.here.length) return node;
+            if (here.isEmpty() && node.labels.length == 0) return null;
+            return Node.of(node.labels, node.children, here.toArray(NO_ENTRIES));
+        }
+        int i = Arrays.binarySearch(node.labels, key.charAt(depth));
+        if (i < 0) return node;
+        Node child = remove(node.children[i], key, depth + 1, id);
+        if (child == node.children[i]) return node;
+        Node updated = node.withChild(key.charAt(depth), i, child);
+        return updated.here.length == 0 && updated.labels.length == 0 ? null : updated;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  NODE
+    // ═══════════════════════════════════════════════════════════
+
+    private static final class Node {
+        final char[]  labels;     // sorted
+        final Node[]  children;   // parallel to labels
+        final Entry[] here;       // entries whose key ends at this node
+        final Entry[] top;        // best TOP entries of this subtree
+
+        private Node(char[] labels, Node[] children, Entry[] here, Entry[] top) {
+            this.labels   = labels;
+            this.children = children;
+            this.here     = here;
+            this.top      = top;
+        }
+
+        static Node of(char[] labels, Node[] children, Entry[] here) {
+            return new Node(labels, children, here, topOf(children, here));
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        // i is the binarySearch result for c; a null child drops the edge
+        Node withChild(char c, int i, Node child) {
+            char[] newLabels;
+            Node[] newChildren;
+            if (i >= 0 && child != null) {
+                newLabels   = labels;
+                newChildren = children.clone();
+                newChildren[i] = child;
+            } else if (i >= 0) {
+                newLabels   = new char[labels.length - 1];
+                newChildren = new Node[children.length - 1];
+                System.arraycopy(labels, 0, newLabels, 0, i);
+                System.arraycopy(labels, i + 1, newLabels, i, labels.length - i - 1);
+                System.arraycopy(children, 0, newChildren, 0, i);
+                System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            } else if (child != null) {
+                int at = -i - 1;
+                newLabels   = new char[labels.length + 1];
+                newChildren = new Node[children.length + 1];
+                System.arraycopy(labels, 0, newLabels, 0, at);
+                System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+                System.arraycopy(children, 0, newChildren, 0, at);
+                System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+                newLabels[at]   = c;
+                newChildren[at] = child;
+            } else {
+                return this;
+            }
+            return of(newLabels, newChildren, here);
+        }
+
+        // Merge of this node's entries and every child's cached top; an entry reachable
+        // through two keys in the same subtree is listed once
+        private static Entry[] topOf(Node[] children, Entry[] here) {
+            List<Entry> candidates = new ArrayList<>(here.length + children.length * TOP);
+            Collections.addAll(candidates, here);
+            for (Node child : children) Collections.addAll(candidates, child.top);
+            candidates.sort(BEST_FIRST);
+
+            List<Entry> top = new ArrayList<>(Math.min(TOP, candidates.size()));
+            Set<String> seen = new HashSet<>();
+            for (Entry e : candidates) {
+                if (top.size() == TOP) break;
+                if (seen.add(e.id())) top.add(e);
+            }
+            return top.toArray(NO_ENTRIES);
+        }
+    }
+}
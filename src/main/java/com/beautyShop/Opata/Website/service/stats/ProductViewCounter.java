@@ -0,0 +1,151 @@
+package com.beautyShop.Opata.Website.service.stats;
+
+import com.beautyShop.Opata.Website.entity.ProductType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ProductViewCounter — "WHAT CUSTOMERS LOOK AT"
+ * ─────────────────────────────────────────────────
+ * Counts product page views and keyword-search impressions in memory and
+ * writes the deltas to product_stats every FLUSH_SECONDS, as one batched
+ * upsert per flush.
+ *   - Recording is lock-free: a map lookup plus a LongAdder increment —
+ *     the read path never touches the database
+ *   - A failed flush puts its deltas back, so they go out with the next one
+ *   - Shutdown flushes whatever is still pending
+ *   - Each flush publishes the view deltas as ProductViewsFlushedEvent
+ *
+ * Runs on its own timer thread — the application has no @EnableScheduling.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class ProductViewCounter {
+
+    public static final int FLUSH_SECONDS = 5;
+
+    private static final String UPSERT = """
+            INSERT INTO product_stats (product_type, product_id, views, search_impressions, updated_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (product_type, product_id)
+            DO UPDATE SET
+                views              = product_stats.views + EXCLUDED.views,
+                search_impressions = product_stats.search_impressions + EXCLUDED.search_impressions,
+                updated_at         = EXCLUDED.updated_at""";
+
+    /** Deltas since the last flush for one product. */
+    private static final class Counts {
+        final LongAdder views       = new LongAdder();
+        final LongAdder impressions = new LongAdder();
+    }
+
+    private record Delta(ProductType type, Long productId, Counts counts, long views, long impressions) {}
+
+    private final JdbcTemplate              jdbc;
+    private final TransactionTemplate       tx;
+    private final ApplicationEventPublisher events;
+
+    // Entries are never removed — at most one per product, and removing one
+    // could drop an increment racing with the removal
+    private final Map<ProductType, Map<Long, Counts>> pending = new EnumMap<>(ProductType.class);
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "product-stats");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ProductViewCounter(JdbcTemplate jdbc,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher events) {
+        this.jdbc   = jdbc;
+        this.tx     = new TransactionTemplate(transactionManager);
+        this.events = events;
+        for (ProductType type : ProductType.values()) pending.put(type, new ConcurrentHashMap<>());
+
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_SECONDS, FLUSH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  RECORD
+    // ═══════════════════════════════════════════════════════════
+
+    public void recordView(ProductType type, Long productId) {
+        counts(type, productId).views.increment();
+    }
+
+    public void recordImpressions(ProductType type, Collection<Long> productIds) {
+        productIds.forEach(id -> counts(type, id).impressions.increment());
+    }
+
+    private Counts counts(ProductType type, Long productId) {
+        Map<Long, Counts> byId = pending.get(type);
+        Counts counts = byId.get(productId);   // lock-free on the common path
+        return counts != null ? counts : byId.computeIfAbsent(productId, id -> new Counts());
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  FLUSH
+    // ═══════════════════════════════════════════════════════════
+
+    /** Writes all pending deltas; returns how many products were updated. */
+    public synchronized int flush() {
+        List<Delta> deltas = new ArrayList<>();
+        pending.forEach((type, byId) -> byId.forEach((id, counts) -> {
+            long views       = counts.views.sumThenReset();
+            long impressions = counts.impressions.sumThenReset();
+            if (views != 0 || impressions != 0) deltas.add(new Delta(type, id, counts, views, impressions));
+        }));
+        if (deltas.isEmpty()) return 0;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            tx.executeWithoutResult(status -> jdbc.batchUpdate(UPSERT, deltas.stream()
+                    .map(d -> new Object[]{d.type().name(), d.productId(), d.views(), d.impressions(), now})
+                    .toList()));
+        } catch (RuntimeException e) {
+            // Put the counts back for the next flush
+            deltas.forEach(d -> {
+                d.counts().views.add(d.views());
+                d.counts().impressions.add(d.impressions());
+            });
+            throw e;
+        }
+
+        Map<ProductType, Map<Long, Long>> views = new EnumMap<>(ProductType.class);
+        deltas.stream().filter(d -> d.views() > 0).forEach(d ->
+                views.computeIfAbsent(d.type(), t -> new HashMap<>()).put(d.productId(), d.views()));
+        views.forEach((type, byId) -> events.publishEvent(new ProductViewsFlushedEvent(type, byId)));
+        return deltas.size();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(FLUSH_SECONDS, TimeUnit.SECONDS);
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Flushing product stats failed — retrying with the next flush", e);
+        }
+    }
+}
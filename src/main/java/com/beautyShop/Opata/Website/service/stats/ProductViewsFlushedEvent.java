@@ -0,0 +1,12 @@
+package com.beautyShop.Opata.Website.service.stats;
+
+import com.beautyShop.Opata.Website.entity.ProductType;
+
+import java.util.Map;
+
+/**
+ * Published by ProductViewCounter after each successful flush, once per product type:
+ * product id → page views since the previous flush.
+ */
+public record ProductViewsFlushedEvent(ProductType type, Map<Long, Long> views) {
+}
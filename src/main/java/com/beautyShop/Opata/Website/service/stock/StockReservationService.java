@@ -0,0 +1,304 @@
+package com.beautyShop.Opata.Website.service.stock;
+
+import com.beautyShop.Opata.Website.dto.StockHoldItemResponse;
+import com.beautyShop.Opata.Website.dto.StockHoldResponse;
+import com.beautyShop.Opata.Website.entity.CartItem;
+import com.beautyShop.Opata.Website.entity.StockReservation;
+import com.beautyShop.Opata.Website.entity.User;
+import com.beautyShop.Opata.Website.entity.repo.CartItemRepository;
+import com.beautyShop.Opata.Website.entity.repo.StockReservationRepository;
+import com.beautyShop.Opata.Website.entity.repo.UserRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StockReservationService — "HOLD MY CART FOR CHECKOUT"
+ * ─────────────────────────────────────────────────
+ * Starting checkout holds every cart line for HOLD_MINUTES. While a hold
+ * lives, other customers see that many fewer units:
+ *
+ *   available to sell = products.stock − units held by other customers
+ *
+ *   - Held units are counted per product in memory; taking a hold checks
+ *     and bumps one product's counter atomically (ConcurrentHashMap.compute
+ *     locks a single bin), so no products row is read-locked or written
+ *   - Holds are also written to stock_reservations so they survive a restart
+ *   - Placing the order deletes the holds in the order's transaction and
+ *     drops the counters once it commits — a rolled-back order keeps them
+ *   - A sweeper thread releases expired holds every SWEEP_SECONDS
+ *
+ * Holds never cause overselling: the order's conditional stock decrement
+ * stays the final check. Runs its own timer thread — the application has
+ * no @EnableScheduling.
+ *
+ * The counters live in this JVM: holds taken on one node are invisible to
+ * another, so this only works with a single application instance.
+ * ─────────────────────────────────────────────────
+ */
+@Slf4j
+@Service
+public class StockReservationService {
+
+    public static final int HOLD_MINUTES  = 10;
+    public static final int SWEEP_SECONDS = 15;
+
+    private static final int USER_LOCKS = 64;
+
+    /** One held cart line. */
+    private record Hold(long id, long productId, int quantity, LocalDateTime expiresAt) {}
+
+    private final StockReservationRepository reservationRepository;
+    private final CartItemRepository         cartItemRepository;
+    private final UserRepo                   userRepository;
+    private final TransactionTemplate        tx;
+
+    // Units held per product id
+    private final Map<Long, Long>       held   = new ConcurrentHashMap<>();
+    // Each user's current holds, replaced as a whole; whoever removes a list releases it
+    private final Map<UUID, List<Hold>> byUser = new ConcurrentHashMap<>();
+    private volatile boolean            loaded;
+
+    // Serialises checkouts of the same user without one global lock
+    private final Object[] userLocks = new Object[USER_LOCKS];
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "stock-holds");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public StockReservationService(StockReservationRepository reservationRepository,
+                                   CartItemRepository cartItemRepository,
+                                   UserRepo userRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.cartItemRepository    = cartItemRepository;
+        this.userRepository        = userRepository;
+        this.tx                    = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < USER_LOCKS; i++) userLocks[i] = new Object();
+
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, SWEEP_SECONDS, SWEEP_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  CHECKOUT
+    // ═══════════════════════════════════════════════════════════
+
+    /** Holds the whole cart, replacing any earlier holds; all lines or none. */
+    public StockHoldResponse startCheckout(UUID userId) {
+        if (!loaded) throw new RuntimeException("Checkout is starting up — please try again in a moment");
+
+        synchronized (userLocks[Math.floorMod(userId.hashCode(), USER_LOCKS)]) {
+            release(userId);
+
+            // A fresh read of stock for every line — no lock, the counters do the guarding
+            List<StockHoldItemResponse> lines = new ArrayList<>();
+            List<Long> stocks = new ArrayList<>();
+            tx.executeWithoutResult(status -> {
+                List<CartItem> cart = new ArrayList<>(cartItemRepository.findByUserId(userId));
+                cart.sort(Comparator.comparing(item -> item.getProduct().getId()));
+                for (CartItem item : cart) {
+                    lines.add(StockHoldItemResponse.builder()
+                            .productId(item.getProduct().getId())
+                            .productName(item.getProduct().getName())
+                            .quantity(item.getQuantity())
+                            .build());
+                    stocks.add((long) item.getProduct().getStock());
+                }
+            });
+            if (lines.isEmpty()) {
+                throw new RuntimeException("Your cart is empty. Add items before checking out.");
+            }
+
+            List<StockHoldItemResponse> taken = new ArrayList<>();
+            try {
+                for (int i = 0; i < lines.size(); i++) {
+                    StockHoldItemResponse line = lines.get(i);
+                    if (!take(line.getProductId(), line.getQuantity(), stocks.get(i))) {
+                        throw new RuntimeException("Insufficient stock for: " + line.getProductName());
+                    }
+                    taken.add(line);
+                }
+
+                LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(HOLD_MINUTES);
+                List<Hold> holds = tx.execute(status -> {
+                    User user = userRepository.getReferenceById(userId);
+                    return reservationRepository.saveAll(lines.stream()
+                                    .map(line -> StockReservation.builder()
+                                            .user(user)
+                                            .productId(line.getProductId())
+                                            .quantity(line.getQuantity())
+                                            .expiresAt(expiresAt)
+                                            .build())
+                                    .toList())
+                            .stream().map(StockReservationService::holdOf).toList();
+                });
+                byUser.put(userId, holds);
+                return StockHoldResponse.builder().items(lines).expiresAt(expiresAt).build();
+            } catch (RuntimeException e) {
+                taken.forEach(line -> untake(line.getProductId(), line.getQuantity()));
+                throw e;
+            }
+        }
+    }
+
+    /** Gives back the user's holds, if any. */
+    public void cancelCheckout(UUID userId) {
+        synchronized (userLocks[Math.floorMod(userId.hashCode(), USER_LOCKS)]) {
+            release(userId);
+        }
+    }
+
+    /**
+     * Called inside the order transaction: deletes the user's holds with
+     * the order and drops their counters once it commits.
+     */
+    public void consumeHolds(UUID userId) {
+        // Same lock as startCheckout — the holds read here are the ones whose rows are deleted
+        synchronized (userLocks[Math.floorMod(userId.hashCode(), USER_LOCKS)]) {
+            List<Hold> mine = byUser.get(userId);
+            if (mine == null) return;
+            reservationRepository.deleteByUserId(userId);
+
+            Runnable drop = () -> {
+                if (byUser.remove(userId, mine)) untakeAll(mine);
+            };
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        drop.run();
+                    }
+                });
+            } else {
+                drop.run();
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  AVAILABLE TO SELL
+    // ═══════════════════════════════════════════════════════════
+
+    /** Units of the product held by customers other than this user. */
+    public long heldByOthers(UUID userId, long productId) {
+        long total = held.getOrDefault(productId, 0L);
+        List<Hold> mine = byUser.get(userId);
+        if (mine != null) {
+            for (Hold h : mine) if (h.productId() == productId) total -= h.quantity();
+        }
+        return Math.max(total, 0);
+    }
+
+    /** Stock this user can still buy: what is on the shelf minus other customers' holds. */
+    public long availableToSell(UUID userId, long productId, int stock) {
+        return Math.max(stock - heldByOthers(userId, productId), 0);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  EXPIRY + STARTUP
+    // ═══════════════════════════════════════════════════════════
+
+    /** Releases every expired hold; returns how many cart lines were released. */
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> expired = new ArrayList<>();
+        byUser.forEach((userId, holds) -> {
+            if (!holds.get(0).expiresAt().isAfter(now) && byUser.remove(userId, holds)) {
+                untakeAll(holds);
+                holds.forEach(h -> expired.add(h.id()));
+            }
+        });
+        if (!expired.isEmpty()) reservationRepository.deleteAllByIdInBatch(expired);
+        return expired.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            // A retry may follow a half-finished attempt; nothing else writes before loaded
+            held.clear();
+            byUser.clear();
+            LocalDateTime now = LocalDateTime.now();
+            int dropped = reservationRepository.deleteExpired(now);
+            Map<UUID, List<Hold>> live = new HashMap<>();
+            tx.executeWithoutResult(status -> reservationRepository.findAll().forEach(r ->
+                    live.computeIfAbsent(r.getUser().getId(), id -> new ArrayList<>()).add(holdOf(r))));
+            live.forEach((userId, holds) -> {
+                holds.forEach(h -> held.merge(h.productId(), (long) h.quantity(), Long::sum));
+                byUser.put(userId, List.copyOf(holds));
+            });
+            loaded = true;
+            log.info("Stock holds loaded: {} customers holding {} products ({} expired dropped)",
+                    live.size(), held.size(), dropped);
+        } catch (RuntimeException e) {
+            // Not fatal — orders still work; checkout is refused until a retry on the sweeper succeeds
+            log.error("Loading stock holds failed — retrying in {}s", SWEEP_SECONDS, e);
+            sweeper.schedule(this::loadOnStartup, SWEEP_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private void sweepQuietly() {
+        try {
+            int released = sweep();
+            if (released > 0) log.info("Released {} expired stock hold(s)", released);
+        } catch (RuntimeException e) {
+            log.error("Releasing expired stock holds failed", e);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  PRIVATE HELPERS
+    // ═══════════════════════════════════════════════════════════
+
+    // Drops the user's holds from memory and the table; caller holds the user lock
+    private void release(UUID userId) {
+        List<Hold> holds = byUser.remove(userId);
+        if (holds == null) return;
+        untakeAll(holds);
+        reservationRepository.deleteAllByIdInBatch(holds.stream().map(Hold::id).toList());
+    }
+
+    // Check-and-add on one product's counter
+    private boolean take(long productId, int quantity, long stock) {
+        boolean[] taken = {false};
+        held.compute(productId, (id, current) -> {
+            long units = current == null ? 0 : current;
+            if (stock - units < quantity) return current;
+            taken[0] = true;
+            return units + quantity;
+        });
+        return taken[0];
+    }
+
+    private void untake(long productId, int quantity) {
+        held.computeIfPresent(productId, (id, units) -> units - quantity > 0 ? units - quantity : null);
+    }
+
+    private void untakeAll(List<Hold> holds) {
+        holds.forEach(h -> untake(h.productId(), h.quantity()));
+    }
+
+    private static Hold holdOf(StockReservation r) {
+        return new Hold(r.getId(), r.getProductId(), r.getQuantity(), r.getExpiresAt());
+    }
+}
@@ -0,0 +1,120 @@
+package com.beautyShop.Opata.Website.Config.CatalogCacheConfigs;
+
+import com.beautyShop.Opata.Website.service.catalog.CatalogService;
+import com.beautyShop.Opata.Website.service.ranking.ProductRankings;
+import com.beautyShop.Opata.Website.service.recommend.CoPurchaseRecommender;
+import com.beautyShop.Opata.Website.service.recommend.SimilarProductIndex;
+import com.beautyShop.Opata.Website.service.search.ProductSearchIndex;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogConditionalRequestFilterTest {
+
+    private final CatalogService        catalog  = mock(CatalogService.class);
+    private final ProductSearchIndex    search   = mock(ProductSearchIndex.class);
+    private final SimilarProductIndex   similar  = mock(SimilarProductIndex.class);
+    private final CoPurchaseRecommender coBought = mock(CoPurchaseRecommender.class);
+    private final ProductRankings       rankings = mock(ProductRankings.class);
+
+    private final CatalogConditionalRequestFilter filter = new CatalogConditionalRequestFilter(
+            catalog, search, similar, coBought, rankings, new CatalogCacheProperties());
+
+    @BeforeEach
+    void readyCatalog() {
+        when(catalog.isReady()).thenReturn(true);
+        when(catalog.version()).thenReturn(7L);
+        when(catalog.lastModified()).thenReturn(Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void successfulResponsesCarryValidatorsAndRevalidateTo304() throws Exception {
+        MockHttpServletResponse first = run(get("/api/products/clothing/1/similar"), 200);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        assertThat(first.getHeader(HttpHeaders.CACHE_CONTROL)).contains("public");
+
+        MockHttpServletRequest again = get("/api/products/clothing/1/similar");
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        assertThat(run(again, 200).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void errorResponsesAreNeverCacheable() throws Exception {
+        MockHttpServletResponse notFound = run(get("/api/products/clothing/999/similar"), 404);
+
+        assertThat(notFound.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(notFound.getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+        assertThat(notFound.getHeader(HttpHeaders.CACHE_CONTROL)).isNull();
+    }
+
+    @Test
+    void derivedRebuildInvalidatesTheEtag() throws Exception {
+        String before = run(get("/api/products/bestsellers"), 200).getHeader(HttpHeaders.ETAG);
+
+        // Rankings rebuilt by an admin — no product write, same catalog version
+        when(rankings.version()).thenReturn(1L);
+
+        MockHttpServletRequest again = get("/api/products/bestsellers");
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, before);
+        MockHttpServletResponse response = run(again, 200);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(before);
+    }
+
+    @Test
+    void productPagesAlwaysReachTheControllerSoViewsAreCounted() throws Exception {
+        MockHttpServletRequest detail = get("/api/products/clothing/1");
+        detail.addHeader(HttpHeaders.IF_NONE_MATCH, "*");
+        MockHttpServletResponse response = run(detail, 200);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isNull();
+
+        // Sub-resources of a product page read only the catalog and stay cacheable
+        assertThat(run(get("/api/products/clothing/1/similar"), 200).getHeader(HttpHeaders.ETAG)).isNotNull();
+    }
+
+    @Test
+    void keywordSearchesAlwaysReachTheControllerSoImpressionsAreCounted() throws Exception {
+        for (String uri : new String[]{
+                "/api/products/clothing/search/keyword",
+                "/api/products/general/search/keyword",
+                "/api/products/search"}) {
+            MockHttpServletRequest search = get(uri);
+            search.setParameter("q", "rose");
+            search.addHeader(HttpHeaders.IF_NONE_MATCH, "*");
+            MockHttpServletResponse response = run(search, 200);
+
+            assertThat(response.getStatus()).as(uri).isEqualTo(200);
+            assertThat(response.getHeader(HttpHeaders.ETAG)).as(uri).isNull();
+            assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).as(uri).isNull();
+        }
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    // Controller stand-in: sets the status, then writes a body
+    private MockHttpServletResponse run(MockHttpServletRequest request, int status) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain controller = (req, res) -> {
+            ((HttpServletResponse) res).setStatus(status);
+            res.getWriter().write("{}");
+        };
+        filter.doFilter(request, response, controller);
+        return response;
+    }
+}
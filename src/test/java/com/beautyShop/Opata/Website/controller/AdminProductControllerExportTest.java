@@ -0,0 +1,52 @@
+package com.beautyShop.Opata.Website.controller;
+
+import com.beautyShop.Opata.Website.service.AdminProductService;
+import com.beautyShop.Opata.Website.service.ProductExportService;
+import com.beautyShop.Opata.Website.service.catalog.ProductChangeFeed;
+import com.beautyShop.Opata.Website.service.ranking.ProductRankings;
+import com.beautyShop.Opata.Website.service.recommend.CoPurchaseRecommender;
+import com.beautyShop.Opata.Website.service.recommend.SimilarProductIndex;
+import com.beautyShop.Opata.Website.service.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AdminProductControllerExportTest {
+
+    private final ProductExportService exports = mock(ProductExportService.class);
+
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new AdminProductController(
+                    mock(AdminProductService.class), mock(ProductSearchIndex.class), exports,
+                    mock(ProductChangeFeed.class), mock(CoPurchaseRecommender.class),
+                    mock(SimilarProductIndex.class), mock(ProductRankings.class)))
+            .build();
+
+    @Test
+    void exportStreamsWithItsOwnAsyncTimeout() throws Exception {
+        when(exports.exportClothing(ProductExportService.Format.CSV))
+                .thenReturn(out -> out.write("id,name\n1,Shirt\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult started = mvc.perform(get("/api/admin/products/clothing/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(started.getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(ProductExportService.TIMEOUT.toMillis());
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"clothing-products.csv\""))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,name\n1,Shirt\n"));
+    }
+}
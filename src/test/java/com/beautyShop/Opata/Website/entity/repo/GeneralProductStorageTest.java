@@ -0,0 +1,60 @@
+package com.beautyShop.Opata.Website.entity.repo;
+
+import com.beautyShop.Opata.Website.entity.GeneralProduct;
+import com.beautyShop.Opata.Website.entity.ShopOwner;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tags and attributes are single columns (text[] / jsonb on PostgreSQL);
+ * the catalog SQL functions behind the specifications must match them the
+ * same way on every database.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class GeneralProductStorageTest {
+
+    @Autowired private GeneralProductRepository repository;
+    @Autowired private EntityManager            entityManager;
+
+    @BeforeEach
+    void seed() {
+        ShopOwner admin = ShopOwner.builder().name("Admin").build();
+        entityManager.persist(admin);
+        entityManager.persist(GeneralProduct.builder()
+                .name("Rose cream").price(BigDecimal.TEN).category("beauty").stock(1).addedBy(admin)
+                .tags(new ArrayList<>(List.of("sale")))
+                .attributes(new HashMap<>(Map.of("Skin Type", "Oily", "Scent", "Rose")))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void tagsRoundTripAndMatchCaseInsensitively() {
+        assertThat(repository.findAll().getFirst().getTags()).containsExactly("sale");
+        assertThat(repository.findAll(ProductSpecifications.hasTag("SALE"))).hasSize(1);
+        assertThat(repository.findAll(ProductSpecifications.hasTag("new"))).isEmpty();
+    }
+
+    @Test
+    void attributesRoundTripAndCombineInOneLookup() {
+        assertThat(repository.findAll().getFirst().getAttributes())
+                .containsExactlyInAnyOrderEntriesOf(Map.of("Skin Type", "Oily", "Scent", "Rose"));
+        assertThat(repository.findAll(ProductSpecifications.hasAttributes(
+                Map.of("skin type", "OILY", "Scent", "rose")))).hasSize(1);
+        assertThat(repository.findAll(ProductSpecifications.hasAttribute("Skin Type", "Dry"))).isEmpty();
+        assertThat(repository.findAll(ProductSpecifications.hasAttributeKey("scent"))).hasSize(1);
+        assertThat(repository.findAll(ProductSpecifications.hasAttributeKey("colour"))).isEmpty();
+    }
+}
@@ -0,0 +1,165 @@
+package com.beautyShop.Opata.Website.service;
+
+import com.beautyShop.Opata.Website.dto.PlaceOrderRequest;
+import com.beautyShop.Opata.Website.entity.*;
+import com.beautyShop.Opata.Website.entity.repo.*;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import com.beautyShop.Opata.Website.service.stock.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checkout stock deduction against a real database: one short line fails
+ * the whole order, and other customers' holds are kept out of reach.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({OrderService.class, CartService.class, StockReservationService.class, OrderServiceTest.CommittedEvents.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceTest {
+
+    @Autowired private OrderService               orders;
+    @Autowired private StockReservationService    holds;
+    @Autowired private OrderRepository            orderRepository;
+    @Autowired private CartItemRepository         carts;
+    @Autowired private ProductRepository          products;
+    @Autowired private UserRepo                   users;
+    @Autowired private AdminRepo                  admins;
+    @Autowired private JdbcTemplate               jdbc;
+    @Autowired private CommittedEvents            events;
+
+    @BeforeEach
+    void load() {
+        holds.loadOnStartup();
+        events.received.clear();
+    }
+
+    @Test
+    void oneShortLineFailsTheWholeOrder() {
+        Product plenty = product(5), scarce = product(1);
+        User a = user(), b = user();
+        cart(a, plenty, 2);
+        cart(a, scarce, 1);
+        holds.startCheckout(a.getId());
+
+        // Sold elsewhere after the hold was taken — the decrement is the final check
+        jdbc.update("UPDATE products SET stock = 0 WHERE id = ?", scarce.getId());
+
+        assertThatThrownBy(() -> orders.placeOrder(a.getId(), order()))
+                .hasMessageContaining("Insufficient stock for: " + scarce.getName());
+
+        // The line deducted before the short one is rolled back with the order
+        assertThat(stockOf(plenty)).isEqualTo(5);
+        assertThat(stockOf(scarce)).isZero();
+        assertThat(orderRepository.findByUserIdOrderByCreatedAtDesc(a.getId())).isEmpty();
+        assertThat(carts.findByUserId(a.getId())).hasSize(2);
+
+        // The holds are still there, in memory and in the table
+        assertThat(holds.heldByOthers(b.getId(), plenty.getId())).isEqualTo(2);
+        assertThat(rowsOf(a)).isEqualTo(2);
+
+        assertThat(events.received).isEmpty();
+    }
+
+    @Test
+    void stockHeldByOthersIsOutOfReach() {
+        Product p = product(5);
+        User holder = user(), buyer = user();
+        cart(holder, p, 3);
+        holds.startCheckout(holder.getId());
+
+        // 5 − 3 < 3 → refused, however the buyer's own cart looks
+        cart(buyer, p, 3);
+        assertThatThrownBy(() -> orders.placeOrder(buyer.getId(), order()))
+                .hasMessageContaining("Insufficient stock");
+        assertThat(stockOf(p)).isEqualTo(5);
+
+        // 5 − 2 ≥ 3 → exactly the unheld units can be sold
+        carts.deleteAll(carts.findByUserId(buyer.getId()));
+        cart(buyer, p, 2);
+        orders.placeOrder(buyer.getId(), order());
+        assertThat(stockOf(p)).isEqualTo(3);
+
+        // The holder's own units are not "held by others" for them
+        orders.placeOrder(holder.getId(), order());
+        assertThat(stockOf(p)).isZero();
+        assertThat(rowsOf(holder)).isZero();
+
+        assertThat(events.received).hasSize(2)
+                .allSatisfy(e -> assertThat(e.getProductIds()).containsExactly(p.getId()));
+    }
+
+    @Test
+    void oneEventCoversEveryLineOfTheOrder() {
+        Product first = product(5), second = product(5);
+        User a = user();
+        cart(a, first, 1);
+        cart(a, second, 2);
+
+        orders.placeOrder(a.getId(), order());
+
+        assertThat(events.received).singleElement()
+                .satisfies(e -> assertThat(e.getProductIds()).containsExactlyInAnyOrder(first.getId(), second.getId()));
+    }
+
+    /** Catalog events that outlived their transaction, as the read models see them. */
+    @TestConfiguration
+    static class CommittedEvents {
+
+        final List<CatalogChangedEvent> received = new CopyOnWriteArrayList<>();
+
+        @TransactionalEventListener(fallbackExecution = true)
+        void on(CatalogChangedEvent event) {
+            received.add(event);
+        }
+    }
+
+    private Product product(int stock) {
+        ShopOwner admin = admins.save(ShopOwner.builder().name("Admin").build());
+        return products.save(Product.builder()
+                .name("Linen shirt " + UUID.randomUUID()).brand("Acme").category("men")
+                .subCategory(SubCategory.values()[0])
+                .price(BigDecimal.TEN).stock(stock).isAvailable(true)
+                .addedBy(admin)
+                .build());
+    }
+
+    private User user() {
+        return users.save(User.builder().email(UUID.randomUUID() + "@example.com").build());
+    }
+
+    private void cart(User user, Product product, int quantity) {
+        carts.save(CartItem.builder().user(user).product(product).quantity(quantity)
+                .unitPrice(BigDecimal.TEN).subtotal(BigDecimal.TEN.multiply(BigDecimal.valueOf(quantity)))
+                .build());
+    }
+
+    private static PlaceOrderRequest order() {
+        PlaceOrderRequest request = new PlaceOrderRequest();
+        request.setDeliveryAddress("1 Main Street");
+        return request;
+    }
+
+    private int rowsOf(User user) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM stock_reservations WHERE user_id = ?", Integer.class, user.getId());
+    }
+
+    private int stockOf(Product product) {
+        return jdbc.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, product.getId());
+    }
+}
@@ -0,0 +1,226 @@
+package com.beautyShop.Opata.Website.service;
+
+import com.beautyShop.Opata.Website.dto.*;
+import com.beautyShop.Opata.Website.entity.*;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.service.catalog.CatalogService;
+import com.beautyShop.Opata.Website.service.catalog.PriceHistogram;
+import com.beautyShop.Opata.Website.service.catalog.ProductCardQuery;
+import com.beautyShop.Opata.Website.service.ranking.ProductRankings;
+import com.beautyShop.Opata.Website.service.recommend.CoPurchaseRecommender;
+import com.beautyShop.Opata.Website.service.recommend.SimilarProductIndex;
+import com.beautyShop.Opata.Website.service.stats.ProductViewCounter;
+import com.beautyShop.Opata.Website.service.search.ProductSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Listing endpoints must load a page in a fixed number of statements,
+ * however many products (and images, admins) are on it.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import({UserProductService.class, ProductMapper.class, PriceHistogram.class, ProductCardQuery.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductListingQueryCountTest {
+
+    private static final int PRODUCTS = 60;
+
+    @Autowired private UserProductService         userProductService;
+    @Autowired private ProductRepository          productRepository;
+    @Autowired private GeneralProductRepository   generalProductRepository;
+    @Autowired private EntityManager              entityManager;
+    @Autowired private EntityManagerFactory       entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @MockitoBean private CatalogService        catalogService;        // never ready → database path
+    @MockitoBean private ProductSearchIndex    productSearchIndex;    // never ready → substring search
+    @MockitoBean private CoPurchaseRecommender coPurchaseRecommender;
+    @MockitoBean private SimilarProductIndex   similarProductIndex;
+    @MockitoBean private ProductViewCounter    productViewCounter;
+    @MockitoBean private ProductRankings       productRankings;
+
+    @BeforeEach
+    void seed() {
+        if (productRepository.count() > 0) return;
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            for (int a = 0; a < 3; a++) {
+                ShopOwner admin = ShopOwner.builder().name("Admin " + a).build();
+                entityManager.persist(admin);
+
+                for (int i = 0; i < PRODUCTS / 3; i++) {
+                    Product p = Product.builder()
+                            .name("Shirt " + a + "-" + i).price(BigDecimal.valueOf(10 + i))
+                            .category("men").subCategory(SubCategory.T_SHIRT).brand("Nike").stock(5)
+                            .availableSizes(new ArrayList<>(List.of(ClothingSize.values()[0], ClothingSize.values()[1])))
+                            .availableColors(new ArrayList<>(List.of(ClothingColor.values()[0])))
+                            .addedBy(admin).build();
+                    entityManager.persist(p);
+                    for (int n = 0; n < 2; n++) {
+                        entityManager.persist(ProductImage.builder()
+                                .product(p).imageUrl("u").imagePublicId("p" + i + n).displayOrder(n).build());
+                    }
+
+                    GeneralProduct g = GeneralProduct.builder()
+                            .name("Cream " + a + "-" + i).price(BigDecimal.valueOf(5 + i))
+                            .category("beauty").subCategory("face").brand("Nivea").stock(5)
+                            .tags(new ArrayList<>(List.of("sale", "new")))
+                            .attributes(new HashMap<>(Map.of("Skin Type", "Oily")))
+                            .addedBy(admin).build();
+                    entityManager.persist(g);
+                    entityManager.persist(GeneralProductImage.builder()
+                            .generalProduct(g).imageUrl("u").imagePublicId("g" + i).displayOrder(0).build());
+                }
+            }
+        });
+    }
+
+    @Test
+    void clothingListingQueryCountDoesNotGrowWithPageSize() {
+        long small = statementsFor(() -> userProductService.getAllProducts(page(5)));
+        long large = statementsFor(() -> userProductService.getAllProducts(page(50)));
+
+        // page + images + admins — sizes and colors are bitmasks on the row
+        assertThat(large).isEqualTo(small).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void generalListingQueryCountDoesNotGrowWithPageSize() {
+        long small = statementsFor(() -> userProductService.getGeneralByTag("sale", page(5)));
+        long large = statementsFor(() -> userProductService.getGeneralByTag("sale", page(50)));
+
+        // page + images + admins — tags and attributes are columns on the row
+        assertThat(large).isEqualTo(small).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void filteredListingsStayConstant() {
+        assertThat(statementsFor(() -> userProductService.getBySize(ClothingSize.values()[0], page(40))))
+                .isLessThanOrEqualTo(3);
+        assertThat(statementsFor(() -> userProductService.searchByKeyword("shirt", page(40))))
+                .isLessThanOrEqualTo(3);
+        assertThat(statementsFor(() -> userProductService.getGeneralByAttribute("Skin Type", "oily", page(40))))
+                .isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void cardListingSkipsEntitiesAndCollections() {
+        ProductPageRequest cards = page(50);
+        cards.setFields("card");
+
+        AtomicReference<CursorPage<ProductResponse>> result = new AtomicReference<>();
+        long statements = statementsFor(() -> {
+            result.set(userProductService.getAllProducts(cards));
+            return null;
+        });
+
+        // card columns + cover URLs
+        assertThat(statements).isLessThanOrEqualTo(2);
+        assertThat(result.get().getItems()).hasSize(50).allSatisfy(p -> {
+            assertThat(p.getCardImageUrl()).isEqualTo("u");
+            assertThat(p.getDescription()).isNull();
+            assertThat(p.getImageUrls()).isNull();
+        });
+    }
+
+    @Test
+    void batchLookupIsOneQueryPlusImagesInRequestOrder() {
+        List<Long> ids = new ArrayList<>(productRepository.findAll().stream().map(Product::getId).limit(30).toList());
+        Collections.reverse(ids);
+        ids.add(1, -1L);
+        ids.add(ids.get(0));
+
+        AtomicReference<ProductBatch<ProductResponse>> result = new AtomicReference<>();
+        long statements = statementsFor(() -> {
+            result.set(userProductService.getProductBatch(ids));
+            return null;
+        });
+
+        // products (admins joined) + their images
+        assertThat(statements).isLessThanOrEqualTo(2);
+        assertThat(result.get().getItems()).extracting(ProductResponse::getId)
+                .containsExactlyElementsOf(ids.stream().filter(id -> id > 0).distinct().toList());
+        assertThat(result.get().getMissing()).containsExactly(-1L);
+    }
+
+    @Test
+    void facetedSearchFallbackCountsEveryMatchNotThePage() {
+        ProductSearchRequest request = new ProductSearchRequest();
+        request.setSizes(List.of(ClothingSize.values()[0].name()));
+
+        AtomicReference<FacetedPage<ProductResponse>> result = new AtomicReference<>();
+        long statements = statementsFor(() -> {
+            result.set(userProductService.searchClothing(request, page(5)));
+            return null;
+        });
+
+        // page + images + admins + count + price histogram
+        assertThat(statements).isLessThanOrEqualTo(5);
+        assertThat(result.get().getResults().getItems()).hasSize(5);
+        assertThat(result.get().getTotal()).isEqualTo(PRODUCTS);
+        assertThat(result.get().getPriceRanges().stream().mapToInt(PriceRangeCount::count).sum()).isEqualTo(PRODUCTS);
+    }
+
+    @Test
+    void unknownEnumFacetValuesAreRejected() {
+        ProductSearchRequest request = new ProductSearchRequest();
+        request.setColors(List.of("not-a-color"));
+
+        assertThatThrownBy(() -> userProductService.searchClothing(request, page(5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("colors");
+    }
+
+    @Test
+    void fullCatalogLoadQueryCountDoesNotGrowWithCatalogSize() {
+        // Same fetch plan the in-memory catalog uses at startup
+        long statements = statementsFor(() -> new TransactionTemplate(transactionManager).execute(tx -> {
+            productRepository.findAll().forEach(p -> p.getImages().size());
+            return null;
+        }));
+
+        assertThat(statements).isLessThanOrEqualTo(2);
+    }
+
+    private static ProductPageRequest page(int size) {
+        ProductPageRequest page = new ProductPageRequest();
+        page.setSize(size);
+        return page;
+    }
+
+    private long statementsFor(Supplier<?> call) {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        call.get();
+        return stats.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,127 @@
+package com.beautyShop.Opata.Website.service.alerts;
+
+import com.beautyShop.Opata.Website.dto.ProductAlertRequest;
+import com.beautyShop.Opata.Website.entity.*;
+import com.beautyShop.Opata.Website.entity.repo.AdminRepo;
+import com.beautyShop.Opata.Website.entity.repo.ProductAlertSubscriptionRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.UserRepo;
+import com.beautyShop.Opata.Website.service.EmailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(ProductAlertService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductAlertServiceTest {
+
+    @Autowired private ProductAlertService                alerts;
+    @Autowired private ProductAlertSubscriptionRepository subscriptions;
+    @Autowired private ProductRepository                  products;
+    @Autowired private UserRepo                           users;
+    @Autowired private AdminRepo                          admins;
+
+    @MockitoBean private EmailService emailService;
+
+    @BeforeEach
+    void load() {
+        alerts.loadOnStartup();
+    }
+
+    @Test
+    void restockAndPriceDropSendOneEmailPerUserOnce() {
+        Product p = product(0, 10);
+        User a = user(), b = user();
+        subscribe(a, p, AlertKind.BACK_IN_STOCK);
+        subscribe(a, p, AlertKind.PRICE_DROP);
+        subscribe(b, p, AlertKind.PRICE_DROP);
+
+        p.setStock(3);
+        p.setPrice(BigDecimal.valueOf(8));
+        alerts.onChanged(p, 0, BigDecimal.TEN);
+
+        // a had both alerts fire and is still emailed once, in the same batch as b
+        ArgumentCaptor<List<User>>    to    = captor();
+        ArgumentCaptor<ProductAlert>  alert = ArgumentCaptor.forClass(ProductAlert.class);
+        verify(emailService, timeout(5000)).sendProductAlert(to.capture(), alert.capture());
+        assertThat(to.getValue()).extracting(User::getId).containsExactlyInAnyOrder(a.getId(), b.getId());
+        assertThat(alert.getValue().backInStock()).isTrue();
+        assertThat(alert.getValue().priceDropped()).isTrue();
+        assertThat(alert.getValue().oldPrice()).isEqualByComparingTo("10");
+        assertThat(subscriptions.findByProductTypeAndProductId(ProductType.CLOTHING, p.getId())).isEmpty();
+
+        // One-shot: the same edit again alerts no one
+        alerts.onChanged(p, 0, BigDecimal.TEN);
+        verify(emailService, after(500).times(1)).sendProductAlert(anyList(), any());
+    }
+
+    @Test
+    void onlyTheAlertsThatFireAreTakenOut() {
+        Product p = product(2, 10);
+        User a = user(), b = user();
+        subscribe(a, p, AlertKind.BACK_IN_STOCK);
+        subscribe(b, p, AlertKind.PRICE_DROP);
+
+        // Still in stock, no cheaper — nothing to tell
+        alerts.onChanged(p, 1, BigDecimal.TEN);
+
+        // Cheaper while in stock — only the price watcher hears about it
+        p.setPrice(BigDecimal.valueOf(9));
+        alerts.onChanged(p, 2, BigDecimal.TEN);
+
+        ArgumentCaptor<List<User>>   to    = captor();
+        ArgumentCaptor<ProductAlert> alert = ArgumentCaptor.forClass(ProductAlert.class);
+        verify(emailService, timeout(5000)).sendProductAlert(to.capture(), alert.capture());
+        assertThat(to.getValue()).extracting(User::getId).containsExactly(b.getId());
+        assertThat(alert.getValue().backInStock()).isFalse();
+        assertThat(subscriptions.findByProductTypeAndProductId(ProductType.CLOTHING, p.getId()))
+                .extracting(ProductAlertSubscription::getKind).containsExactly(AlertKind.BACK_IN_STOCK);
+
+        // Back from 0 — now the stock watcher is due
+        alerts.onChanged(p, 0, p.getFinalPrice());
+        verify(emailService, timeout(5000).times(2)).sendProductAlert(anyList(), any());
+        assertThat(subscriptions.findByProductTypeAndProductId(ProductType.CLOTHING, p.getId())).isEmpty();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArgumentCaptor<List<User>> captor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+    }
+
+    private void subscribe(User user, Product product, AlertKind kind) {
+        ProductAlertRequest request = new ProductAlertRequest();
+        request.setProductId(product.getId());
+        request.setKind(kind);
+        alerts.subscribe(user.getId(), request);
+    }
+
+    private Product product(int stock, int price) {
+        ShopOwner admin = admins.save(ShopOwner.builder().name("Admin").build());
+        return products.save(Product.builder()
+                .name("Linen shirt").brand("Acme").category("men")
+                .subCategory(SubCategory.values()[0])
+                .price(BigDecimal.valueOf(price)).stock(stock).isAvailable(true)
+                .addedBy(admin)
+                .build());
+    }
+
+    private User user() {
+        return users.save(User.builder().email(UUID.randomUUID() + "@example.com").build());
+    }
+}
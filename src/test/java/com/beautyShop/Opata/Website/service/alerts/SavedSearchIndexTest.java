@@ -0,0 +1,71 @@
+package com.beautyShop.Opata.Website.service.alerts;
+
+import com.beautyShop.Opata.Website.entity.ClothingColor;
+import com.beautyShop.Opata.Website.entity.ClothingSize;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SavedSearchIndexTest {
+
+    private static final String[] CATEGORIES = {"dress", "shirt", "shoe", "bag"};
+    private static final String[] BRANDS     = {"zara", "nike", "gucci"};
+
+    @Test
+    void matchFindsExactlyTheSearchesABruteForceScanFinds() {
+        Random random = new Random(1);
+        SavedSearchIndex index = new SavedSearchIndex();
+        List<SavedSearchIndex.Criteria> all = new ArrayList<>();
+        for (long id = 0; id < 5_000; id++) {
+            SavedSearchIndex.Criteria c = criteria(random, id);
+            index.add(c);
+            all.add(c);
+        }
+        for (long id = 0; id < 1_000; id += 3) index.remove(id);
+        all.removeIf(c -> c.id() < 1_000 && c.id() % 3 == 0);
+        assertThat(index.size()).isEqualTo(all.size());
+
+        for (int k = 0; k < 500; k++) {
+            SavedSearchIndex.Facts product = facts(random, k % 10 == 0);
+
+            List<Long> matched = index.match(product).stream().map(SavedSearchIndex.Criteria::id).toList();
+            Set<Long> expected = new TreeSet<>();
+            all.stream().filter(c -> c.matches(product)).forEach(c -> expected.add(c.id()));
+
+            assertThat(matched).as("product %d", k).doesNotHaveDuplicates();
+            assertThat(new TreeSet<>(matched)).as("product %d", k).isEqualTo(expected);
+        }
+    }
+
+    private static SavedSearchIndex.Criteria criteria(Random random, long id) {
+        ProductType type = random.nextBoolean() ? ProductType.CLOTHING : ProductType.GENERAL;
+        boolean clothing = type == ProductType.CLOTHING;
+        return new SavedSearchIndex.Criteria(id, UUID.randomUUID(), type,
+                random.nextInt(3) == 0 ? CATEGORIES[random.nextInt(CATEGORIES.length)] : null,
+                random.nextInt(3) == 0 ? BRANDS[random.nextInt(BRANDS.length)] : null,
+                !clothing && random.nextInt(3) == 0 ? "t" + random.nextInt(5) : null,
+                clothing && random.nextInt(3) == 0 ? pick(random, ClothingSize.values()) : null,
+                clothing && random.nextInt(3) == 0 ? pick(random, ClothingColor.values()) : null,
+                random.nextBoolean() ? BigDecimal.valueOf(random.nextInt(100)) : null);
+    }
+
+    private static SavedSearchIndex.Facts facts(Random random, boolean noPrice) {
+        ProductType type = random.nextBoolean() ? ProductType.CLOTHING : ProductType.GENERAL;
+        boolean clothing = type == ProductType.CLOTHING;
+        return new SavedSearchIndex.Facts(type,
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                BRANDS[random.nextInt(BRANDS.length)],
+                clothing ? Set.of() : new HashSet<>(List.of("t" + random.nextInt(5), "t" + random.nextInt(5))),
+                clothing ? EnumSet.of(pick(random, ClothingSize.values())) : Set.of(),
+                clothing ? EnumSet.of(pick(random, ClothingColor.values())) : Set.of(),
+                noPrice ? null : BigDecimal.valueOf(random.nextInt(100)));
+    }
+
+    private static <E> E pick(Random random, E[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,75 @@
+package com.beautyShop.Opata.Website.service.alerts;
+
+import com.beautyShop.Opata.Website.dto.SavedSearchRequest;
+import com.beautyShop.Opata.Website.dto.SavedSearchResponse;
+import com.beautyShop.Opata.Website.entity.ClothingColor;
+import com.beautyShop.Opata.Website.entity.Product;
+import com.beautyShop.Opata.Website.entity.User;
+import com.beautyShop.Opata.Website.entity.repo.UserRepo;
+import com.beautyShop.Opata.Website.service.EmailService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(SavedSearchService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SavedSearchServiceTest {
+
+    @Autowired private SavedSearchService savedSearches;
+    @Autowired private UserRepo           users;
+
+    @MockitoBean private EmailService emailService;
+
+    @Test
+    void newProductNotifiesTheOwnersOfMatchingSearches() {
+        User a = user(), b = user();
+        savedSearches.loadOnStartup();
+
+        SavedSearchRequest cheapDresses = new SavedSearchRequest();
+        cheapDresses.setCategory(" Dress ");
+        cheapDresses.setMaxPrice(BigDecimal.valueOf(50));
+        savedSearches.saveSearch(a.getId(), cheapDresses);
+        SavedSearchRequest zara = new SavedSearchRequest();
+        zara.setBrand("Zara");
+        savedSearches.saveSearch(a.getId(), zara);
+        SavedSearchRequest firstColor = new SavedSearchRequest();
+        firstColor.setColor(ClothingColor.values()[0]);
+        SavedSearchResponse bSearch = savedSearches.saveSearch(b.getId(), firstColor);
+
+        // A search with no criterion would match every product
+        assertThatThrownBy(() -> savedSearches.saveSearch(a.getId(), new SavedSearchRequest()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        Product dress = Product.builder().name("Wrap dress").category("Dress").brand("ZARA")
+                .price(BigDecimal.valueOf(40)).availableColors(List.of(ClothingColor.values()[0])).build();
+
+        // a matches twice but is emailed once
+        assertThat(savedSearches.notifyMatches(dress, "Shop")).isEqualTo(2);
+        savedSearches.deleteSearch(b.getId(), bSearch.getId());
+        assertThat(savedSearches.notifyMatches(dress, "Shop")).isEqualTo(1);
+        savedSearches.deleteAllFor(a.getId());
+        assertThat(savedSearches.notifyMatches(dress, "Shop")).isZero();
+        assertThat(savedSearches.getMySearches(a.getId())).isEmpty();
+
+        verify(emailService, times(2)).announceNewProductToAllUsers(anyList(), any(), eq("Shop"));
+    }
+
+    private User user() {
+        return users.save(User.builder().email(UUID.randomUUID() + "@example.com").build());
+    }
+}
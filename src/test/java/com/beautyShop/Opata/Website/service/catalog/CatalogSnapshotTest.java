@@ -0,0 +1,110 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import com.beautyShop.Opata.Website.dto.*;
+import com.beautyShop.Opata.Website.entity.ClothingSize;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A snapshot patched batch by batch must answer exactly like one built from
+ * scratch over the same products.
+ */
+class CatalogSnapshotTest {
+
+    private static final CatalogIndexer<ProductResponse> INDEXER = new CatalogIndexer<>() {
+        @Override
+        public Map<Facet, Collection<String>> facetsOf(ProductResponse p) {
+            Map<Facet, Collection<String>> facets = new EnumMap<>(Facet.class);
+            facets.put(Facet.BRAND, List.of(p.getBrand()));
+            facets.put(Facet.SIZE, p.getAvailableSizes().stream().map(Enum::name).toList());
+            return facets;
+        }
+
+        @Override
+        public String searchTextOf(ProductResponse p) {
+            return p.getName();
+        }
+    };
+
+    private static final List<Facet> FACETS = List.of(Facet.BRAND, Facet.SIZE);
+
+    private final Random random = new Random(7);
+
+    @Test
+    void batchedChangesMatchAFreshBuild() {
+        Map<Long, ProductResponse> current = new HashMap<>();
+        for (long id = 1; id <= 200; id++) current.put(id, product(id));
+        CatalogSnapshot<ProductResponse> snapshot = CatalogSnapshot.build(current.values(), INDEXER, 1);
+        long nextId = 201;
+
+        for (int round = 0; round < 40; round++) {
+            List<ProductResponse> upserts = new ArrayList<>();
+            List<Long> removals = new ArrayList<>();
+            int changes = 1 + random.nextInt(round % 5 == 0 ? 60 : 4);
+            for (int c = 0; c < changes; c++) {
+                long id = random.nextInt(3) == 0 ? nextId++ : 1 + random.nextInt((int) nextId - 1);
+                if (random.nextInt(4) == 0) {
+                    removals.add(id);
+                } else {
+                    upserts.add(product(id));
+                }
+            }
+            // The same product upserted twice in a batch — the later copy wins
+            if (!upserts.isEmpty()) upserts.add(product(upserts.getFirst().getId()));
+
+            long version = snapshot.version();
+            snapshot = snapshot.withChanges(upserts, removals);
+            upserts.forEach(p -> current.put(p.getId(), p));
+            removals.forEach(current::remove);
+
+            assertThat(snapshot.version()).isGreaterThanOrEqualTo(version);
+            assertSameAnswers(snapshot, CatalogSnapshot.build(current.values(), INDEXER, 0));
+        }
+    }
+
+    @Test
+    void unchangedBatchKeepsTheSnapshot() {
+        CatalogSnapshot<ProductResponse> snapshot = CatalogSnapshot.build(List.of(product(1L)), INDEXER, 1);
+
+        assertThat(snapshot.withChanges(List.of(), List.of(99L))).isSameAs(snapshot);
+        assertThat(snapshot.withChanges(List.of(product(2L)), List.of(2L))).isSameAs(snapshot);
+    }
+
+    private void assertSameAnswers(CatalogSnapshot<ProductResponse> patched, CatalogSnapshot<ProductResponse> built) {
+        assertThat(patched.size()).isEqualTo(built.size());
+        for (ProductSort sort : ProductSort.values()) {
+            if (sort == ProductSort.RELEVANCE) continue;
+            assertThat(ids(patched.query(CatalogQuery.all(), sort, null, Integer.MAX_VALUE)))
+                    .as(sort.name()).isEqualTo(ids(built.query(CatalogQuery.all(), sort, null, Integer.MAX_VALUE)));
+        }
+
+        CatalogQuery filtered = CatalogQuery.all().with(Facet.SIZE, "M").inStockOnly().keyword("dress");
+        assertThat(patched.matchingIds(filtered)).isEqualTo(built.matchingIds(filtered));
+        assertThat(patched.facetCounts(CatalogQuery.all(), FACETS)).isEqualTo(built.facetCounts(CatalogQuery.all(), FACETS));
+        assertThat(patched.priceRangeCounts(filtered)).isEqualTo(built.priceRangeCounts(filtered));
+    }
+
+    private ProductResponse product(long id) {
+        BigDecimal price = BigDecimal.valueOf(5 + random.nextInt(300));
+        return ProductResponse.builder()
+                .id(id)
+                .name((random.nextBoolean() ? "Dress " : "Shirt ") + random.nextInt(20))
+                .brand("brand" + random.nextInt(6))
+                .availableSizes(List.of(ClothingSize.values()[random.nextInt(ClothingSize.values().length)]))
+                .price(price)
+                .finalPrice(price)
+                .stock(random.nextInt(3))
+                .isAvailable(true)
+                .createdAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(random.nextInt(50)))
+                .build();
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.beautyShop.Opata.Website.service.catalog;
+
+import com.beautyShop.Opata.Website.Exceptions.GlobalExceptionHandler;
+import com.beautyShop.Opata.Website.controller.AdminProductController;
+import com.beautyShop.Opata.Website.dto.ProductChange;
+import com.beautyShop.Opata.Website.dto.ProductChangePage;
+import com.beautyShop.Opata.Website.entity.*;
+import com.beautyShop.Opata.Website.entity.repo.AdminRepo;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductTombstoneRepository;
+import com.beautyShop.Opata.Website.service.AdminProductService;
+import com.beautyShop.Opata.Website.service.ProductExportService;
+import com.beautyShop.Opata.Website.service.ProductMapper;
+import com.beautyShop.Opata.Website.service.ranking.ProductRankings;
+import com.beautyShop.Opata.Website.service.recommend.CoPurchaseRecommender;
+import com.beautyShop.Opata.Website.service.recommend.SimilarProductIndex;
+import com.beautyShop.Opata.Website.service.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The feed merges three tables into one (time, source, id) order; pages cut
+ * through a group of changes sharing one timestamp must neither skip nor
+ * repeat any of them.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ProductChangeFeed.class, ProductMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductChangeFeedTest {
+
+    @Autowired private ProductChangeFeed          feed;
+    @Autowired private ProductRepository          products;
+    @Autowired private GeneralProductRepository   generals;
+    @Autowired private ProductTombstoneRepository tombstones;
+    @Autowired private AdminRepo                  admins;
+    @Autowired private JdbcTemplate               jdbc;
+
+    @Test
+    void smallPagesReturnEveryChangeOnceInOrder() {
+        ShopOwner admin = admins.save(ShopOwner.builder().name("Admin").build());
+        List<Long> clothing = new ArrayList<>(), general = new ArrayList<>(), deleted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            clothing.add(products.save(Product.builder()
+                    .name("Shirt " + i).brand("Acme").category("men").subCategory(SubCategory.values()[0])
+                    .price(BigDecimal.TEN).stock(1).isAvailable(true).addedBy(admin).build()).getId());
+            general.add(generals.save(GeneralProduct.builder()
+                    .name("Cream " + i).brand("Nivea").category("beauty")
+                    .price(BigDecimal.TEN).stock(1).isAvailable(true).addedBy(admin).build()).getId());
+        }
+        for (long productId : new long[]{9_001, 9_002}) {
+            tombstones.save(ProductTombstone.of(ProductType.CLOTHING, productId));
+            deleted.add(productId);
+        }
+
+        // Everything at one instant, safely past the settle window; one clothing row a little earlier
+        LocalDateTime same = LocalDateTime.now().minusMinutes(1).withNano(0);
+        jdbc.update("UPDATE products SET updated_at = ?", Timestamp.valueOf(same));
+        jdbc.update("UPDATE general_products SET updated_at = ?", Timestamp.valueOf(same));
+        jdbc.update("UPDATE product_tombstones SET deleted_at = ?", Timestamp.valueOf(same));
+        jdbc.update("UPDATE products SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(same.minusSeconds(1)), clothing.getLast());
+
+        List<ProductChange> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        ProductChangePage page;
+        do {
+            page = feed.changesSince(cursor, 2);
+            assertThat(page.getChanges()).hasSizeLessThanOrEqualTo(2);
+            all.addAll(page.getChanges());
+            cursor = page.getNextCursor();
+        } while (page.isHasMore() && ++pages < 50);
+
+        // Exactly once each: the earlier row first, then clothing, general and deletes in id order within the instant
+        List<String> expected = new ArrayList<>();
+        expected.add("UPSERT CLOTHING " + clothing.getLast());
+        clothing.subList(0, 2).forEach(id -> expected.add("UPSERT CLOTHING " + id));
+        general.forEach(id -> expected.add("UPSERT GENERAL " + id));
+        deleted.forEach(id -> expected.add("DELETE CLOTHING " + id));
+        assertThat(all).extracting(c -> c.getOperation() + " " + c.getProductType() + " " + c.getProductId())
+                .containsExactlyElementsOf(expected);
+
+        // Polling from the last cursor finds nothing new and keeps the cursor
+        ProductChangePage next = feed.changesSince(cursor, 2);
+        assertThat(next.getChanges()).isEmpty();
+        assertThat(next.getNextCursor()).isEqualTo(cursor);
+    }
+
+    @Test
+    void invalidCursorIsABadRequest() throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new AdminProductController(
+                        mock(AdminProductService.class), mock(ProductSearchIndex.class),
+                        mock(ProductExportService.class), feed, mock(CoPurchaseRecommender.class),
+                        mock(SimilarProductIndex.class), mock(ProductRankings.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mvc.perform(get("/api/admin/products/changes").param("since", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/admin/products/changes").param("since", "bm9wZQ"))   // "nope"
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,158 @@
+package com.beautyShop.Opata.Website.service.idempotency;
+
+import com.beautyShop.Opata.Website.Config.AppConfig;
+import com.beautyShop.Opata.Website.entity.IdempotencyScope;
+import com.beautyShop.Opata.Website.entity.User;
+import com.beautyShop.Opata.Website.entity.repo.IdempotencyRecordRepository;
+import com.beautyShop.Opata.Website.entity.repo.UserRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * One Idempotency-Key, one piece of work — within an instance, across
+ * instances, and after a restart. The "work" here creates a user row, so
+ * the test can count how often it committed.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({IdempotencyService.class, AppConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final IdempotencyScope SCOPE = IdempotencyScope.PLACE_ORDER;
+
+    /** Stands in for an order response. */
+    record Receipt(UUID createdUserId) {}
+
+    @Autowired private IdempotencyService          idempotency;
+    @Autowired private IdempotencyRecordRepository records;
+    @Autowired private UserRepo                    users;
+    @Autowired private ObjectMapper                objectMapper;
+    @Autowired private PlatformTransactionManager  transactionManager;
+
+    @Test
+    void concurrentDuplicatesRunTheWorkOnce() throws Exception {
+        UUID caller = UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(10);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Receipt>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(pool.submit(() -> {
+                start.await();
+                return idempotency.execute(caller, SCOPE, key, "body", Receipt.class, work(runs));
+            }));
+        }
+        start.countDown();
+        Set<Receipt> answers = new HashSet<>();
+        for (Future<Receipt> f : calls) answers.add(f.get());
+        pool.shutdown();
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(answers).hasSize(1);
+        assertThat(users.existsById(answers.iterator().next().createdUserId())).isTrue();
+    }
+
+    @Test
+    void keyReusedForADifferentBodyIsRefused() {
+        UUID caller = UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        idempotency.execute(caller, SCOPE, key, "body", Receipt.class, work(runs));
+
+        assertThatThrownBy(() -> idempotency.execute(caller, SCOPE, key, "other body", Receipt.class, work(runs)))
+                .isInstanceOf(IllegalArgumentException.class);
+        // ...also once the cache is gone
+        assertThatThrownBy(() -> restarted().execute(caller, SCOPE, key, "other body", Receipt.class, work(runs)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void storedResponseIsReplayedAfterARestart() {
+        UUID caller = UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        Receipt first = idempotency.execute(caller, SCOPE, key, "body", Receipt.class, work(runs));
+
+        Receipt replayed = restarted().execute(caller, SCOPE, key, "body", Receipt.class, work(runs));
+
+        assertThat(replayed).isEqualTo(first);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void failedWorkStoresNothingAndMayBeRetried() {
+        UUID caller = UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+        long stored = records.count();
+
+        assertThatThrownBy(() -> idempotency.execute(caller, SCOPE, key, "body", Receipt.class, () -> {
+            throw new RuntimeException("Insufficient stock");
+        })).hasMessage("Insufficient stock");
+        assertThat(records.count()).isEqualTo(stored);
+
+        AtomicInteger runs = new AtomicInteger();
+        idempotency.execute(caller, SCOPE, key, "body", Receipt.class, work(runs));
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void raceBetweenInstancesIsSettledByTheUniqueKey() throws Exception {
+        UUID caller = UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        long usersBefore = users.count();
+
+        // Both instances are inside the work before either stores its key
+        CyclicBarrier bothRunning = new CyclicBarrier(2);
+        Supplier<Receipt> racing = () -> {
+            Receipt r = work(runs).get();
+            try {
+                bothRunning.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return r;
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<Receipt> a = pool.submit(() -> restarted().execute(caller, SCOPE, key, "body", Receipt.class, racing));
+        Future<Receipt> b = pool.submit(() -> restarted().execute(caller, SCOPE, key, "body", Receipt.class, racing));
+        Receipt ra = a.get(), rb = b.get();
+        pool.shutdown();
+
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(ra).isEqualTo(rb);
+        // The loser's work was rolled back with its key
+        assertThat(users.count()).isEqualTo(usersBefore + 1);
+    }
+
+    // A fresh instance: empty cache, same table
+    private IdempotencyService restarted() {
+        return new IdempotencyService(records, objectMapper, transactionManager);
+    }
+
+    private Supplier<Receipt> work(AtomicInteger runs) {
+        return () -> {
+            runs.incrementAndGet();
+            User created = users.save(User.builder().email(UUID.randomUUID() + "@example.com").build());
+            return new Receipt(created.getId());
+        };
+    }
+}
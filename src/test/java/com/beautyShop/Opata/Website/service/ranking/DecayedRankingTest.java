@@ -0,0 +1,79 @@
+package com.beautyShop.Opata.Website.service.ranking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecayedRankingTest {
+
+    private static final long DAY = 86_400_000L;
+
+    @Test
+    void olderEventsCountLessTheShorterTheWindow() {
+        DecayedRanking day = new DecayedRanking(RankingWindow.DAY, 0);
+        day.add(1, 10, 0);
+        day.add(2, 2, 3 * DAY);    // 10 · e^-3 ≈ 0.5 < 2
+        assertThat(day.top(5)).containsExactly(2L, 1L);
+
+        DecayedRanking month = new DecayedRanking(RankingWindow.MONTH, 0);
+        month.add(1, 10, 0);
+        month.add(2, 2, 3 * DAY);  // 10 · e^-0.1 ≈ 9 > 2
+        assertThat(month.top(5)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void rebasingKeepsTheOrderAndLaterEventsCompareCorrectly() {
+        DecayedRanking ranking = new DecayedRanking(RankingWindow.DAY, 0);
+        ranking.add(1, 10, 0);
+        ranking.add(2, 2, 3 * DAY);
+
+        // 400 windows on — past MAX_EXPONENT, so the landmark moves
+        ranking.add(3, 1, 400 * DAY);
+        ranking.add(2, 0.5, 400 * DAY);
+        assertThat(ranking.top(5)).containsExactly(3L, 2L, 1L);
+
+        ranking.add(1, 2, 400 * DAY);
+        assertThat(ranking.top(3)).containsExactly(1L, 3L, 2L);
+        assertThat(ranking.top(1)).containsExactly(1L);
+
+        ranking.remove(1);
+        assertThat(ranking.top(5)).containsExactly(3L, 2L);
+        assertThat(ranking.size()).isEqualTo(2);
+    }
+
+    @Test
+    void topMatchesBruteForceDecay() {
+        Random random = new Random(3);
+        DecayedRanking ranking = new DecayedRanking(RankingWindow.WEEK, 0);
+        List<long[]> events = new ArrayList<>();   // productId, weight, time
+        long now = 0;
+        for (int i = 0; i < 20_000; i++) {
+            now += random.nextInt(600_000);
+            long id = random.nextInt(300);
+            long weight = 1 + random.nextInt(5);
+            ranking.add(id, weight, now);
+            events.add(new long[]{id, weight, now});
+        }
+
+        double tau = RankingWindow.WEEK.length().toMillis();
+        Map<Long, Double> scores = new HashMap<>();
+        for (long[] e : events) scores.merge(e[0], e[1] * Math.exp(-(now - e[2]) / tau), Double::sum);
+        List<Long> expected = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        assertThat(ranking.top(10)).isEqualTo(expected);
+    }
+
+    @Test
+    void nonPositiveWeightsAreIgnored() {
+        DecayedRanking ranking = new DecayedRanking(RankingWindow.DAY, 0);
+        ranking.add(1, 0, 0);
+        ranking.add(2, -1, 0);
+        assertThat(ranking.top(5)).isEmpty();
+    }
+}
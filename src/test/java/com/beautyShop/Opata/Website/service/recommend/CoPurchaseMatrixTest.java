@@ -0,0 +1,74 @@
+package com.beautyShop.Opata.Website.service.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoPurchaseMatrixTest {
+
+    private static final int ORDERS = 20_000;
+    private static final int K      = 10;
+
+    @Test
+    void parallelBuildAndIncrementalOrdersMatchBruteForce() {
+        Random random = new Random(7);
+        List<long[]> baskets = new ArrayList<>();
+        for (int o = 0; o < ORDERS; o++) {
+            long[] basket = new long[1 + random.nextInt(5)];
+            for (int i = 0; i < basket.length; i++) basket[i] = 1 + (long) Math.abs(random.nextGaussian() * 40);
+            baskets.add(basket);
+        }
+
+        // Order lines as the recommender reads them: by order id, then product id
+        List<long[]> rows = new ArrayList<>();
+        for (int o = 0; o < ORDERS; o++) {
+            long[] sorted = baskets.get(o).clone();
+            Arrays.sort(sorted);
+            for (long product : sorted) rows.add(new long[]{o + 1, product});
+        }
+        long[] orderIds = new long[rows.size()], productIds = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            orderIds[i]   = rows.get(i)[0];
+            productIds[i] = rows.get(i)[1];
+        }
+
+        Map<Long, Map<Long, Integer>> expected = bruteForce(baskets);
+        CoPurchaseMatrix full = CoPurchaseMatrix.build(
+                new CoPurchaseMatrix.OrderLines(orderIds, productIds, rows.size()), K, ForkJoinPool.commonPool());
+        expected.forEach((product, counts) -> {
+            assertThat(coPurchases(full, product)).as("product %d", product)
+                    .isEqualTo(counts.values().stream().sorted(Comparator.reverseOrder()).limit(K).toList());
+            full.neighbours(product).forEach(n -> assertThat(n.coPurchases()).isEqualTo(counts.get(n.productId())));
+        });
+
+        // Build from the first half, then add the rest one order at a time
+        int half = rows.size() / 2;
+        while (orderIds[half] == orderIds[half - 1]) half++;
+        CoPurchaseMatrix patched = CoPurchaseMatrix.build(
+                new CoPurchaseMatrix.OrderLines(orderIds, productIds, half), K, ForkJoinPool.commonPool());
+        for (int o = (int) orderIds[half] - 1; o < ORDERS; o++) patched.addOrder(baskets.get(o));
+
+        expected.keySet().forEach(product ->
+                assertThat(coPurchases(patched, product)).as("patched %d", product).isEqualTo(coPurchases(full, product)));
+    }
+
+    private static Map<Long, Map<Long, Integer>> bruteForce(List<long[]> baskets) {
+        Map<Long, Map<Long, Integer>> counts = new HashMap<>();
+        for (long[] basket : baskets) {
+            long[] distinct = Arrays.stream(basket).distinct().toArray();
+            for (long a : distinct) {
+                for (long b : distinct) {
+                    if (a != b) counts.computeIfAbsent(a, k -> new HashMap<>()).merge(b, 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static List<Integer> coPurchases(CoPurchaseMatrix matrix, long product) {
+        return matrix.neighbours(product).stream().map(CoPurchaseMatrix.Neighbour::coPurchases).toList();
+    }
+}
@@ -0,0 +1,135 @@
+package com.beautyShop.Opata.Website.service.recommend;
+
+import com.beautyShop.Opata.Website.entity.*;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(CoPurchaseRecommender.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CoPurchaseRecommenderTest {
+
+    @Autowired private CoPurchaseRecommender      recommender;
+    @Autowired private EntityManager              entityManager;
+    @Autowired private JdbcTemplate               jdbc;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void orderCommittedAfterTheBuildIsCountedEvenWithALowerId() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Product> products = new ArrayList<>();
+        Order[] orders = new Order[2];
+        tx.executeWithoutResult(status -> {
+            ShopOwner admin = ShopOwner.builder().name("Admin").build();
+            entityManager.persist(admin);
+            User user = User.builder().email("buyer@example.com").build();
+            entityManager.persist(user);
+            for (int i = 0; i < 3; i++) {
+                Product p = Product.builder().name("P" + i).brand("Acme").category("men")
+                        .subCategory(SubCategory.values()[0]).price(BigDecimal.TEN).stock(100).addedBy(admin).build();
+                entityManager.persist(p);
+                products.add(p);
+            }
+            // The lower id is taken first but its lines commit only after the build
+            orders[0] = order(user);
+            orders[1] = order(user);
+            line(orders[1], products.get(0));
+            line(orders[1], products.get(1));
+        });
+        Long a = products.get(0).getId(), b = products.get(1).getId(), c = products.get(2).getId();
+
+        recommender.rebuild();
+        assertThat(recommender.recommendationsFor(a)).containsExactly(b);
+
+        tx.executeWithoutResult(status -> {
+            Order late = entityManager.find(Order.class, orders[0].getId());
+            line(late, entityManager.find(Product.class, a));
+            line(late, entityManager.find(Product.class, c));
+        });
+        // An order the build already read is not counted twice
+        recommender.onOrderPlaced(new OrderPlacedEvent(orders[1].getId(), List.of(a, b), List.of(1, 1)));
+        recommender.onOrderPlaced(new OrderPlacedEvent(orders[0].getId(), List.of(a, c), List.of(1, 1)));
+
+        await(() -> recommender.recommendationsFor(a).contains(c));
+        assertThat(recommender.recommendationsFor(a)).containsExactlyInAnyOrder(b, c);
+        assertThat(jdbc.queryForObject("SELECT co_purchases FROM product_recommendations " +
+                "WHERE product_id = ? AND recommended_id = ?", Integer.class, a, b)).isEqualTo(1);
+
+        // Rebuilding from the table agrees with the patched state
+        recommender.rebuild();
+        assertThat(recommender.recommendationsFor(a)).containsExactlyInAnyOrder(b, c);
+    }
+
+    @Test
+    void deletedProductIsDroppedFromEveryList() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Product> products = new ArrayList<>();
+        Order[] orders = new Order[2];
+        tx.executeWithoutResult(status -> {
+            ShopOwner admin = ShopOwner.builder().name("Admin").build();
+            entityManager.persist(admin);
+            User user = User.builder().email("deleted@example.com").build();
+            entityManager.persist(user);
+            for (int i = 0; i < 3; i++) {
+                Product p = Product.builder().name("D" + i).brand("Acme").category("men")
+                        .subCategory(SubCategory.values()[0]).price(BigDecimal.TEN).stock(100).addedBy(admin).build();
+                entityManager.persist(p);
+                products.add(p);
+            }
+            orders[0] = order(user);
+            products.forEach(p -> line(orders[0], p));
+            orders[1] = order(user);
+        });
+        Long a = products.get(0).getId(), b = products.get(1).getId(), c = products.get(2).getId();
+
+        recommender.rebuild();
+        assertThat(recommender.recommendationsFor(a)).containsExactlyInAnyOrder(b, c);
+
+        recommender.onCatalogChanged(CatalogChangedEvent.deleted(ProductType.CLOTHING, b));
+        await(() -> !recommender.recommendationsFor(a).contains(b));
+        assertThat(recommender.recommendationsFor(a)).containsExactly(c);
+        assertThat(recommender.recommendationsFor(b)).isEmpty();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM product_recommendations " +
+                "WHERE product_id = ? OR recommended_id = ?", Integer.class, b, b)).isZero();
+
+        // A later order touching the deleted product's pairs does not bring it back
+        recommender.onOrderPlaced(new OrderPlacedEvent(orders[1].getId(), List.of(a, b, c), List.of(1, 1, 1)));
+        recommender.onOrderPlaced(new OrderPlacedEvent(orders[1].getId() + 1000, List.of(a, c), List.of(1, 1)));
+        await(() -> jdbc.queryForObject("SELECT co_purchases FROM product_recommendations " +
+                "WHERE product_id = ? AND recommended_id = ?", Integer.class, a, c) == 3);
+        assertThat(recommender.recommendationsFor(a)).containsExactly(c);
+        assertThat(recommender.recommendationsFor(b)).isEmpty();
+    }
+
+    private Order order(User user) {
+        Order o = Order.builder().user(user).totalAmount(BigDecimal.ONE).status(OrderStatus.PENDING).build();
+        entityManager.persist(o);
+        return o;
+    }
+
+    private void line(Order order, Product product) {
+        entityManager.persist(OrderItem.builder().order(order).product(product)
+                .quantity(1).unitPrice(BigDecimal.ONE).subtotal(BigDecimal.ONE).build());
+    }
+
+    // Order patches run on the recommender's worker thread
+    private static void await(Supplier<Boolean> condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.get(); i++) Thread.sleep(50);
+    }
+}
@@ -0,0 +1,97 @@
+package com.beautyShop.Opata.Website.service.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TfIdfSpaceTest {
+
+    private static final int K = 10;
+
+    @Test
+    void buildFindsTheTopCosineNeighbours() {
+        Map<Long, Map<String, Float>> products = randomProducts(new Random(1), 2_000);
+        TfIdfSpace space = TfIdfSpace.build(products, K);
+        Map<Long, Map<String, Double>> vectors = vectors(products);
+
+        for (long id = 1; id <= 50; id++) {
+            long self = id;
+            Map<String, Double> own = vectors.get(id);
+            List<Double> expected = vectors.entrySet().stream()
+                    .filter(e -> e.getKey() != self)
+                    .map(e -> cosine(own, e.getValue()))
+                    .filter(score -> score > 0)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(K)
+                    .toList();
+            List<Double> actual = space.similar(id).stream().map(other -> cosine(own, vectors.get(other))).toList();
+
+            assertThat(actual).as("product %d", id).hasSameSizeAs(expected);
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i)).as("product %d rank %d", id, i).isCloseTo(expected.get(i), within(1e-4));
+            }
+        }
+    }
+
+    @Test
+    void upsertAndRemovePatchTheNeighbourLists() {
+        Map<Long, Map<String, Float>> products = randomProducts(new Random(1), 5_000);
+        TfIdfSpace space = TfIdfSpace.build(products, K);
+        assertThat(space.similar(1)).hasSize(K);
+
+        // Same features — nothing changes
+        assertThat(space.upsert(1, new HashMap<>(products.get(1L)))).isEmpty();
+
+        // A copy of product 2 is its best neighbour, both ways
+        Set<Long> changed = space.upsert(9_999, new HashMap<>(products.get(2L)));
+        assertThat(changed).contains(2L, 9_999L);
+        assertThat(space.similar(2).getFirst()).isEqualTo(9_999L);
+        assertThat(space.similar(9_999).getFirst()).isEqualTo(2L);
+
+        // Removing it gives product 2 back the list a fresh build computes
+        assertThat(space.remove(9_999)).contains(2L);
+        assertThat(space.similar(2)).doesNotContain(9_999L).hasSize(K)
+                .isEqualTo(TfIdfSpace.build(products, K).similar(2));
+        assertThat(space.similar(9_999)).isEmpty();
+        assertThat(space.remove(9_999)).isEmpty();
+    }
+
+    private static Map<Long, Map<String, Float>> randomProducts(Random random, int count) {
+        Map<Long, Map<String, Float>> products = new HashMap<>();
+        for (long id = 1; id <= count; id++) {
+            Map<String, Float> features = new HashMap<>();
+            for (int i = 0, n = 3 + random.nextInt(8); i < n; i++) {
+                features.merge("t" + random.nextInt(200), 1f + random.nextInt(3), Float::sum);
+            }
+            products.put(id, features);
+        }
+        return products;
+    }
+
+    // (1 + ln tf) · idf, L2-normalised — computed from scratch
+    private static Map<Long, Map<String, Double>> vectors(Map<Long, Map<String, Float>> products) {
+        Map<String, Integer> documents = new HashMap<>();
+        products.values().forEach(f -> f.keySet().forEach(term -> documents.merge(term, 1, Integer::sum)));
+        int n = products.size();
+
+        Map<Long, Map<String, Double>> vectors = new HashMap<>();
+        products.forEach((id, f) -> {
+            Map<String, Double> v = new HashMap<>();
+            f.forEach((term, tf) -> v.put(term,
+                    (1 + Math.log(Math.max(1f, tf))) * (Math.log((1.0 + n) / (1.0 + documents.get(term))) + 1)));
+            double norm = Math.sqrt(v.values().stream().mapToDouble(w -> w * w).sum());
+            v.replaceAll((term, w) -> w / norm);
+            vectors.put(id, v);
+        });
+        return vectors;
+    }
+
+    private static double cosine(Map<String, Double> a, Map<String, Double> b) {
+        double dot = 0;
+        for (Map.Entry<String, Double> e : a.entrySet()) dot += e.getValue() * b.getOrDefault(e.getKey(), 0.0);
+        return dot;
+    }
+}
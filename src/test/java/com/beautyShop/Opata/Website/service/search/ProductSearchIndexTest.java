@@ -0,0 +1,89 @@
+package com.beautyShop.Opata.Website.service.search;
+
+import com.beautyShop.Opata.Website.entity.Product;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest {
+
+    private final ProductRepository        products = mock(ProductRepository.class);
+    private final GeneralProductRepository generals = mock(GeneralProductRepository.class);
+
+    private ProductSearchIndex indexOf(List<Product> clothing) {
+        when(products.findAll()).thenReturn(clothing);
+        when(generals.findAll()).thenReturn(List.of());
+        ProductSearchIndex index = new ProductSearchIndex(products, generals, mock(PlatformTransactionManager.class));
+        index.rebuild();
+        return index;
+    }
+
+    @Test
+    void trailingStopwordDoesNotWidenTheLastTerm() {
+        ProductSearchIndex index = indexOf(List.of(product(1L, "Red dress"), product(2L, "Blue thermal top")));
+
+        // "the" is dropped by the analyzer — it must not become a the* prefix on "red"
+        assertThat(index.matchingIds(ProductType.CLOTHING, "red the")).containsExactly(1L);
+        assertThat(index.matchingIds(ProductType.CLOTHING, "blue ther")).containsExactly(2L);
+        assertThat(index.matchingIds(ProductType.CLOTHING, "dre")).containsExactly(1L);
+    }
+
+    @Test
+    void relevanceRanksEveryMatchThatIsCounted() {
+        List<Product> many = new ArrayList<>();
+        for (long id = 1; id <= 1500; id++) many.add(product(id, "Cotton shirt " + id));
+        ProductSearchIndex index = indexOf(many);
+
+        assertThat(index.matchingIds(ProductType.CLOTHING, "shirt")).hasSize(1500);
+        List<ProductSearchIndex.Hit> hits = index.search(ProductType.CLOTHING, "shirt");
+        assertThat(hits).hasSize(1500);
+        assertThat(hits.getLast().productId()).isEqualTo(1L);
+        assertThat(index.search(ProductType.CLOTHING, "linen")).isEmpty();
+    }
+
+    @Test
+    void orderBatchIsReadWithOneQuery() {
+        ProductSearchIndex index = indexOf(List.of(product(1L, "Red dress"), product(2L, "Blue shirt")));
+        when(products.findByIdIn(anyCollection()))
+                .thenReturn(List.of(product(1L, "Green dress"), product(2L, "Green shirt")));
+
+        // Product 3 is not found — it is dropped, not an error
+        index.onCatalogChanged(CatalogChangedEvent.upserted(ProductType.CLOTHING, List.of(1L, 2L, 3L)));
+
+        verify(products, times(1)).findByIdIn(anyCollection());
+        verify(products, never()).findById(any());
+        assertThat(index.matchingIds(ProductType.CLOTHING, "green")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.matchingIds(ProductType.CLOTHING, "red")).isEmpty();
+    }
+
+    @Test
+    void failedUpdateIsQueuedAndReRead() {
+        ProductSearchIndex index = indexOf(List.of(product(1L, "Red dress")));
+        when(products.findByIdIn(anyCollection()))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(List.of(product(1L, "Green dress")));
+
+        index.onCatalogChanged(CatalogChangedEvent.upserted(ProductType.CLOTHING, 1L));
+        assertThat(index.matchingIds(ProductType.CLOTHING, "green")).isEmpty();
+
+        // What the retry timer runs
+        assertThat(index.applyFailed()).isEqualTo(1);
+        assertThat(index.matchingIds(ProductType.CLOTHING, "green")).containsExactly(1L);
+        assertThat(index.applyFailed()).isZero();
+    }
+
+    private static Product product(Long id, String name) {
+        return Product.builder().id(id).name(name).brand("Acme").category("women").build();
+    }
+}
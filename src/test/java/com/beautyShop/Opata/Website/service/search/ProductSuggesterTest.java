@@ -0,0 +1,71 @@
+package com.beautyShop.Opata.Website.service.search;
+
+import com.beautyShop.Opata.Website.dto.Suggestion;
+import com.beautyShop.Opata.Website.entity.Product;
+import com.beautyShop.Opata.Website.entity.ProductType;
+import com.beautyShop.Opata.Website.entity.repo.GeneralProductRepository;
+import com.beautyShop.Opata.Website.entity.repo.OrderItemRepository;
+import com.beautyShop.Opata.Website.entity.repo.ProductRepository;
+import com.beautyShop.Opata.Website.service.catalog.CatalogChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSuggesterTest {
+
+    private final ProductRepository        products = mock(ProductRepository.class);
+    private final GeneralProductRepository generals = mock(GeneralProductRepository.class);
+    private final OrderItemRepository      sales    = mock(OrderItemRepository.class);
+
+    private ProductSuggester suggesterOf(List<Product> clothing) {
+        when(products.findAll()).thenReturn(clothing);
+        when(generals.findAll()).thenReturn(List.of());
+        ProductSuggester suggester = new ProductSuggester(products, generals, sales, mock(PlatformTransactionManager.class));
+        suggester.rebuild();
+        return suggester;
+    }
+
+    @Test
+    void sharedNameOpensALiveProduct() {
+        ProductSuggester suggester = suggesterOf(List.of(product(1L, 4), product(2L, 4)));
+        Long opened = productSuggestion(suggester).productId();
+        Long other  = opened == 1L ? 2L : 1L;
+
+        suggester.onCatalogChanged(CatalogChangedEvent.deleted(ProductType.CLOTHING, opened));
+
+        // Still suggested — one product has the name — and it opens that one, not the deleted one
+        assertThat(productSuggestion(suggester).productId()).isEqualTo(other);
+
+        suggester.onCatalogChanged(CatalogChangedEvent.deleted(ProductType.CLOTHING, other));
+        assertThat(suggester.suggest("silk", ProductType.CLOTHING, 5))
+                .noneMatch(s -> s.kind() == Suggestion.Kind.PRODUCT);
+    }
+
+    @Test
+    void sharedNameOpensTheProductInStock() {
+        ProductSuggester suggester = suggesterOf(List.of(product(1L, 0), product(2L, 3)));
+        assertThat(productSuggestion(suggester).productId()).isEqualTo(2L);
+
+        // Product 2 sells out and 1 is restocked — the suggestion follows
+        when(products.findByIdIn(anyCollection())).thenReturn(List.of(product(1L, 5), product(2L, 0)));
+        suggester.onCatalogChanged(CatalogChangedEvent.upserted(ProductType.CLOTHING, List.of(1L, 2L)));
+        assertThat(productSuggestion(suggester).productId()).isEqualTo(1L);
+    }
+
+    private static Suggestion productSuggestion(ProductSuggester suggester) {
+        return suggester.suggest("silk", ProductType.CLOTHING, 5).stream()
+                .filter(s -> s.kind() == Suggestion.Kind.PRODUCT)
+                .findFirst().orElseThrow();
+    }
+
+    private static Product product(Long id, int stock) {
+        return Product.builder().id(id).name("Silk scarf").brand("Acme").category("women")
+                .stock(stock).isAvailable(true).build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.beautyShop.Opata.Website.service.search;
+
+import com.beautyShop.Opata.Website.dto.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestTrieTest {
+
+    private static final List<String> PREFIXES = List.of("a", "b", "c", "ab", "ca", "abc", "ba");
+
+    @Test
+    void patchedTrieMatchesBulkBuildAndBruteForce() {
+        Random random = new Random(1);
+        Map<String, SuggestTrie.Entry> live = new HashMap<>();
+        SuggestTrie trie = SuggestTrie.EMPTY;
+
+        for (int step = 0; step < 20_000; step++) {
+            String text = word(random);
+            String id = "PRODUCT:" + text;
+            if (random.nextInt(3) == 0 && live.containsKey(id)) {
+                for (String key : ProductSuggester.keysOf(text)) trie = trie.without(key, id);
+                live.remove(id);
+            } else {
+                SuggestTrie.Entry entry = new SuggestTrie.Entry(id,
+                        new Suggestion(text, Suggestion.Kind.PRODUCT, null, null), random.nextInt(50));
+                for (String key : ProductSuggester.keysOf(text)) trie = trie.with(key, entry);
+                live.put(id, entry);
+            }
+
+            if (step % 500 == 0) {
+                Map<String, List<SuggestTrie.Entry>> byKey = new HashMap<>();
+                live.values().forEach(e -> ProductSuggester.keysOf(e.suggestion().text())
+                        .forEach(key -> byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(e)));
+                SuggestTrie bulk = SuggestTrie.build(byKey);
+
+                for (String prefix : PREFIXES) {
+                    List<Long> expected = live.values().stream()
+                            .filter(e -> ProductSuggester.keysOf(e.suggestion().text()).stream()
+                                    .anyMatch(key -> key.startsWith(prefix)))
+                            .map(SuggestTrie.Entry::weight)
+                            .sorted(Comparator.reverseOrder())
+                            .limit(10)
+                            .toList();
+                    assertThat(weights(trie.lookup(prefix, 10))).as("patched, step %d, %s", step, prefix).isEqualTo(expected);
+                    assertThat(weights(bulk.lookup(prefix, 10))).as("bulk, step %d, %s", step, prefix).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    private static List<Long> weights(List<SuggestTrie.Entry> entries) {
+        return entries.stream().map(SuggestTrie.Entry::weight).toList();
+    }
+
+    private static String word(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0, n = 1 + random.nextInt(6); i < n; i++) sb.append("abc ".charAt(random.nextInt(4)));
+        String normalized = ProductSuggester.normalize(sb.toString());
+        return normalized.isEmpty() ? "a" : normalized;
+    }
+}
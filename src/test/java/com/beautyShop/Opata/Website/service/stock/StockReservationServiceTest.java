@@ -0,0 +1,185 @@
+package com.beautyShop.Opata.Website.service.stock;
+
+import com.beautyShop.Opata.Website.dto.PlaceOrderRequest;
+import com.beautyShop.Opata.Website.entity.*;
+import com.beautyShop.Opata.Website.entity.repo.*;
+import com.beautyShop.Opata.Website.service.CartService;
+import com.beautyShop.Opata.Website.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checkout holds against a real database: what other customers can buy,
+ * what an order consumes, and what survives a restart.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({StockReservationService.class, OrderService.class, CartService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceTest {
+
+    @Autowired private StockReservationService    holds;
+    @Autowired private OrderService               orders;
+    @Autowired private StockReservationRepository reservations;
+    @Autowired private CartItemRepository         carts;
+    @Autowired private ProductRepository          products;
+    @Autowired private UserRepo                   users;
+    @Autowired private AdminRepo                  admins;
+    @Autowired private JdbcTemplate               jdbc;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void load() {
+        holds.loadOnStartup();
+    }
+
+    @Test
+    void holdsReduceWhatOthersCanBuy() {
+        Product p = product(5);
+        User a = user(), b = user();
+        cart(a, p, 3);
+        cart(b, p, 3);
+
+        holds.startCheckout(a.getId());
+        assertThat(holds.heldByOthers(b.getId(), p.getId())).isEqualTo(3);
+        assertThat(holds.heldByOthers(a.getId(), p.getId())).isZero();
+
+        // 5 − 3 held < 3 — the failed hold takes nothing
+        assertThatThrownBy(() -> holds.startCheckout(b.getId())).hasMessageContaining("Insufficient stock");
+        assertThat(holds.heldByOthers(a.getId(), p.getId())).isZero();
+        assertThatThrownBy(() -> orders.placeOrder(b.getId(), order())).hasMessageContaining("Insufficient stock");
+
+        // Starting checkout again replaces the holds instead of stacking them
+        holds.startCheckout(a.getId());
+        assertThat(holds.heldByOthers(b.getId(), p.getId())).isEqualTo(3);
+        assertThat(rowsOf(a)).isEqualTo(1);
+    }
+
+    @Test
+    void placedOrderConsumesItsHolds() {
+        Product p = product(5);
+        User a = user(), b = user();
+        cart(a, p, 3);
+
+        holds.startCheckout(a.getId());
+        orders.placeOrder(a.getId(), order());
+
+        assertThat(holds.heldByOthers(b.getId(), p.getId())).isZero();
+        assertThat(rowsOf(a)).isZero();
+        assertThat(jdbc.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, p.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void rolledBackOrderKeepsItsHolds() {
+        Product p = product(5);
+        User a = user(), b = user();
+        cart(a, p, 3);
+        holds.startCheckout(a.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            holds.consumeHolds(a.getId());
+            tx.setRollbackOnly();
+        });
+
+        assertThat(holds.heldByOthers(b.getId(), p.getId())).isEqualTo(3);
+        assertThat(rowsOf(a)).isEqualTo(1);
+    }
+
+    @Test
+    void restartRestoresLiveHoldsAndDropsExpiredOnes() {
+        Product p = product(5);
+        User a = user(), b = user();
+        reservations.save(StockReservation.builder().user(a).productId(p.getId()).quantity(2)
+                .expiresAt(LocalDateTime.now().plusMinutes(5)).build());
+        reservations.save(StockReservation.builder().user(b).productId(p.getId()).quantity(1)
+                .expiresAt(LocalDateTime.now().minusMinutes(5)).build());
+
+        StockReservationService restarted = new StockReservationService(reservations, carts, users, transactionManager);
+        restarted.loadOnStartup();
+
+        assertThat(restarted.heldByOthers(b.getId(), p.getId())).isEqualTo(2);
+        assertThat(restarted.heldByOthers(a.getId(), p.getId())).isZero();
+        assertThat(rowsOf(b)).isZero();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverHoldMoreThanTheStock() throws Exception {
+        Product p = product(7);
+        List<User> customers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            User u = user();
+            cart(u, p, 1);
+            customers.add(u);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger held = new AtomicInteger();
+        List<Future<?>> done = new ArrayList<>();
+        for (User u : customers) {
+            done.add(pool.submit(() -> {
+                try {
+                    holds.startCheckout(u.getId());
+                    held.incrementAndGet();
+                } catch (RuntimeException e) {
+                    assertThat(e).hasMessageContaining("Insufficient stock");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : done) f.get();
+        pool.shutdown();
+
+        assertThat(held.get()).isEqualTo(7);
+        assertThat(holds.heldByOthers(UUID.randomUUID(), p.getId())).isEqualTo(7);
+    }
+
+    private Product product(int stock) {
+        ShopOwner admin = admins.save(ShopOwner.builder().name("Admin").build());
+        return products.save(Product.builder()
+                .name("Linen shirt").brand("Acme").category("men")
+                .subCategory(SubCategory.values()[0])
+                .price(BigDecimal.TEN).stock(stock).isAvailable(true)
+                .addedBy(admin)
+                .build());
+    }
+
+    private User user() {
+        return users.save(User.builder().email(UUID.randomUUID() + "@example.com").build());
+    }
+
+    private void cart(User user, Product product, int quantity) {
+        carts.save(CartItem.builder().user(user).product(product).quantity(quantity)
+                .unitPrice(BigDecimal.TEN).subtotal(BigDecimal.TEN.multiply(BigDecimal.valueOf(quantity)))
+                .build());
+    }
+
+    private static PlaceOrderRequest order() {
+        PlaceOrderRequest request = new PlaceOrderRequest();
+        request.setDeliveryAddress("1 Main Street");
+        return request;
+    }
+
+    private int rowsOf(User user) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM stock_reservations WHERE user_id = ?", Integer.class, user.getId());
+    }
+}